@@ -0,0 +1,59 @@
+@echo off
+setlocal enabledelayedexpansion
+
+REM =============================================
+REM   BENCH.BAT - BENCHMARKS JMH DU FRAMEWORK
+REM =============================================
+REM Usage : bench.bat [baseline] [filtre JMH]
+REM   bench.bat                  -> results\latest.json
+REM   bench.bat baseline         -> results\baseline.json (à committer)
+REM   bench.bat latest Router    -> seulement RouterBenchmark
+REM
+REM Jars attendus dans bench\lib (non fournis) :
+REM   jmh-core, jmh-generator-annprocess, jopt-simple, commons-math3
+set "SERVLET_API=..\lib\servlet-api.jar"
+set "FRAMEWORK_SRC=..\src"
+set "BENCH_SRC=src"
+set "BENCH_LIB=lib"
+set "OUT=out"
+set "RESULTS=results"
+
+set "MODE=%~1"
+if "%MODE%"=="" set "MODE=latest"
+set "FILTER=%~2"
+
+if not exist "%BENCH_LIB%\jmh-core-*.jar" (
+    echo [ERREUR] JMH introuvable : copier les jars JMH dans bench\%BENCH_LIB%
+    exit /b 1
+)
+set "JMH_CP="
+for %%J in ("%BENCH_LIB%\*.jar") do set "JMH_CP=!JMH_CP!;%%J"
+
+echo.
+echo --- Compilation du framework et des benchmarks ---
+if exist "%OUT%" rmdir /s /q "%OUT%"
+mkdir "%OUT%"
+
+set "SOURCES="
+for /r "%FRAMEWORK_SRC%\com\monframework" %%F in (*.java) do set "SOURCES=!SOURCES! "%%F""
+for /r "%BENCH_SRC%" %%F in (*.java) do set "SOURCES=!SOURCES! "%%F""
+
+REM Le processeur JMH génère les classes de mesure et le fichier META-INF\BenchmarkList
+javac -parameters -encoding UTF-8 -cp "%SERVLET_API%!JMH_CP!" ^
+    -processor org.openjdk.jmh.generators.BenchmarkProcessor -d "%OUT%" !SOURCES!
+if errorlevel 1 (
+    echo [ERREUR] Échec de la compilation des benchmarks !
+    exit /b 1
+)
+
+echo.
+echo --- Exécution (débit + allocations, -prof gc) ---
+if not exist "%RESULTS%" mkdir "%RESULTS%"
+java -cp "%OUT%;%SERVLET_API%!JMH_CP!" org.openjdk.jmh.Main %FILTER% ^
+    -prof gc -rf json -rff "%RESULTS%\%MODE%.json"
+if errorlevel 1 exit /b 1
+
+echo.
+echo Résultats : bench\%RESULTS%\%MODE%.json
+echo Comparer avec la référence : bench\%RESULTS%\baseline.json (voir results\README.md)
+endlocal
@@ -0,0 +1,41 @@
+@echo off
+setlocal enabledelayedexpansion
+
+REM =============================================
+REM   REPLAY.BAT - REJEU D'UN JOURNAL DE TRAFIC
+REM =============================================
+REM Usage : replay.bat --log trafic.bin [options de TrafficReplay]
+REM   replay.bat --log trafic.bin --save-baseline   -> results\replay-baseline.properties
+REM   replay.bat --log trafic.bin                   -> comparaison, code 1 si régression
+REM
+REM Le journal s'enregistre en production avec le paramètre "traffic.record"
+REM (chemin du fichier) du FrontServlet.
+set "SERVLET_API=..\lib\servlet-api.jar"
+set "FRAMEWORK_SRC=..\src"
+set "BENCH_SRC=src\com\monframework\bench"
+set "APP=..\..\test"
+set "OUT=out-replay"
+
+echo.
+echo --- Compilation du framework et du rejeu ---
+if exist "%OUT%" rmdir /s /q "%OUT%"
+mkdir "%OUT%"
+
+set "SOURCES="
+for /r "%FRAMEWORK_SRC%\com\monframework" %%F in (*.java) do set "SOURCES=!SOURCES! "%%F""
+for %%F in (StubRequest StubResponse StubSession StubPart TrafficReplay) do (
+    set "SOURCES=!SOURCES! "%BENCH_SRC%\%%F.java""
+)
+
+javac -parameters -encoding UTF-8 -proc:none -cp "%SERVLET_API%" -d "%OUT%" !SOURCES!
+if errorlevel 1 (
+    echo [ERREUR] Échec de la compilation du rejeu !
+    exit /b 1
+)
+
+echo.
+echo --- Rejeu contre l'application %APP% ---
+java -cp "%OUT%;%SERVLET_API%;%APP%\WEB-INF\classes;%APP%\WEB-INF\lib\*" ^
+    com.monframework.bench.TrafficReplay --webapp "%APP%" %*
+set "CODE=%errorlevel%"
+endlocal & exit /b %CODE%
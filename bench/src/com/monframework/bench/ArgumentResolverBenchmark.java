@@ -0,0 +1,89 @@
+package com.monframework.bench;
+
+import com.monframework.handler.ArgumentResolver;
+import com.monframework.mapping.MethodMapping;
+import com.monframework.mapping.RouteMatch;
+import com.monframework.mapping.Router;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Résolution des arguments : types simples, objet lié depuis les paramètres, Map des paramètres.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArgumentResolverBenchmark {
+
+    private Case simple;
+    private Case object;
+    private Case map;
+
+    @Setup
+    public void setup() throws Exception {
+        simple = new Case(mapping("simple", "/items/{id}", "GET", int.class, String.class),
+                "/items/42", new StubRequest("GET", "/items/42").param("q", "chaise"));
+        object = new Case(mapping("bind", "/items", "POST", BenchController.Item.class),
+                "/items", new StubRequest("POST", "/items")
+                        .param("id", "7")
+                        .param("name", "Table basse")
+                        .param("price", "129.90")
+                        .param("available", "true")
+                        .param("tags", "salon", "bois", "promo"));
+        map = new Case(mapping("params", "/search/{category}", "GET", Map.class),
+                "/search/meubles", new StubRequest("GET", "/search/meubles")
+                        .param("q", "table")
+                        .param("page", "2")
+                        .param("sort", "price")
+                        .param("colors", "noir", "blanc"));
+    }
+
+    @Benchmark
+    public Object[] simpleParams() throws Exception {
+        return simple.resolve();
+    }
+
+    @Benchmark
+    public Object[] objectBinding() throws Exception {
+        return object.resolve();
+    }
+
+    @Benchmark
+    public Object[] mapParams() throws Exception {
+        return map.resolve();
+    }
+
+    private static MethodMapping mapping(String name, String url, String httpMethod, Class<?>... types)
+            throws NoSuchMethodException {
+        Method m = BenchController.class.getMethod(name, types);
+        return MethodMapping.build(BenchController.class, m, url, httpMethod);
+    }
+
+    /**
+     * Route, correspondance et requête préparées une fois pour toutes.
+     */
+    private static final class Case {
+        private final MethodMapping mapping;
+        private final RouteMatch matched;
+        private final StubRequest req;
+
+        Case(MethodMapping mapping, String path, StubRequest req) {
+            this.mapping = mapping;
+            this.matched = Router.build(Arrays.asList(mapping)).match(path, req.getMethod());
+            this.req = req;
+        }
+
+        Object[] resolve() throws Exception {
+            req.clearAttributes(); // erreurs de binding de l'invocation précédente
+            return ArgumentResolver.resolveArguments(req, mapping, matched);
+        }
+    }
+}
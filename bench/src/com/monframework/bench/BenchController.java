@@ -0,0 +1,68 @@
+package com.monframework.bench;
+
+import com.monframework.annotations.Controller;
+import com.monframework.annotations.GetMapping;
+import com.monframework.annotations.Json;
+import com.monframework.annotations.Param;
+import com.monframework.annotations.PostMapping;
+import com.monframework.annotations.Session;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contrôleur utilisé par les benchmarks : une méthode par forme d'argument mesurée.
+ */
+@Controller
+public class BenchController {
+
+    @GetMapping("/items/{id}")
+    @Json
+    public String simple(@Param("id") int id, @Param("q") String q) {
+        return q + id;
+    }
+
+    @PostMapping("/items")
+    @Json
+    public Item bind(Item item) {
+        return item;
+    }
+
+    @GetMapping("/search/{category}")
+    @Json
+    public Map<String, Object> params(Map<String, Object> params) {
+        return params;
+    }
+
+    @GetMapping("/profile")
+    @Json
+    public Object session(@Session Map<String, Object> session) {
+        return session.get("user");
+    }
+
+    /**
+     * Objet lié depuis les paramètres et sérialisé en JSON.
+     */
+    public static class Item {
+        private long id;
+        private String name;
+        private double price;
+        private boolean available;
+        private List<String> tags = new ArrayList<>();
+        private Item parent;
+
+        public long getId() { return id; }
+        public void setId(long id) { this.id = id; }
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+        public double getPrice() { return price; }
+        public void setPrice(double price) { this.price = price; }
+        public boolean isAvailable() { return available; }
+        public void setAvailable(boolean available) { this.available = available; }
+        public List<String> getTags() { return tags; }
+        public void setTags(List<String> tags) { this.tags = tags; }
+        public Item getParent() { return parent; }
+        public void setParent(Item parent) { this.parent = parent; }
+    }
+}
@@ -0,0 +1,88 @@
+package com.monframework.bench;
+
+import com.monframework.util.JsonSerializer;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sérialisation JSON : POJO, collections imbriquées et longues chaînes à échapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializerBenchmark {
+
+    private BenchController.Item pojo;
+    private Map<String, Object> nested;
+    private String largeString;
+    private StubResponse resp;
+
+    @Setup
+    public void setup() {
+        pojo = item(1, "Table basse \"chêne\"");
+        pojo.setParent(item(0, "Salon"));
+
+        nested = new LinkedHashMap<>();
+        for (int i = 0; i < 20; i++) {
+            List<Object> row = new ArrayList<>();
+            for (int j = 0; j < 10; j++) {
+                row.add(Arrays.asList(i, j, "cell-" + i + "-" + j));
+            }
+            Map<String, Object> group = new LinkedHashMap<>();
+            group.put("index", i);
+            group.put("rows", row);
+            group.put("item", item(i, "Produit " + i));
+            nested.put("group" + i, group);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 4000; i++) {
+            sb.append("ligne ").append(i).append(" : \"citation\" \\ tab\t accentué é\n");
+        }
+        largeString = sb.toString();
+        resp = new StubResponse();
+    }
+
+    @Benchmark
+    public String pojo() {
+        return JsonSerializer.toJson(pojo);
+    }
+
+    @Benchmark
+    public String nestedCollections() {
+        return JsonSerializer.toJson(nested);
+    }
+
+    @Benchmark
+    public String largeString() {
+        return JsonSerializer.toJson(largeString);
+    }
+
+    @Benchmark
+    public long nestedCollectionsStreamed() throws IOException {
+        resp.recycle();
+        JsonSerializer.write(nested, resp.getOutputStream());
+        return resp.getBytesWritten();
+    }
+
+    private static BenchController.Item item(long id, String name) {
+        BenchController.Item item = new BenchController.Item();
+        item.setId(id);
+        item.setName(name);
+        item.setPrice(19.99 + id);
+        item.setAvailable(id % 2 == 0);
+        item.setTags(Arrays.asList("a", "b", "c"));
+        return item;
+    }
+}
@@ -0,0 +1,76 @@
+package com.monframework.bench;
+
+import com.monframework.mapping.MethodMapping;
+import com.monframework.mapping.RouteMatch;
+import com.monframework.mapping.Router;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recherche de route (FrontServlet.findMapping délègue au Router) selon le nombre de routes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouterBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    public int routes;
+
+    private Router router;
+    private String firstPath;
+    private String lastPath;
+    private String staticPath;
+
+    @Setup
+    public void setup() throws Exception {
+        Method simple = BenchController.class.getMethod("simple", int.class, String.class);
+        Method params = BenchController.class.getMethod("params", java.util.Map.class);
+        List<MethodMapping> mappings = new ArrayList<>();
+        for (int i = 0; i < routes; i++) {
+            // Moitié de routes avec variable, moitié statiques
+            if (i % 2 == 0) {
+                mappings.add(MethodMapping.build(BenchController.class, simple, "/r" + i + "/items/{id}", "GET"));
+            } else {
+                mappings.add(MethodMapping.build(BenchController.class, params, "/r" + i + "/list", "GET"));
+            }
+        }
+        router = Router.build(mappings);
+        firstPath = "/r0/items/42";
+        lastPath = "/r" + (routes - 2) + "/items/42";
+        staticPath = "/r" + (routes - 1) + "/list";
+    }
+
+    @Benchmark
+    public RouteMatch matchFirst() {
+        return router.match(firstPath, "GET");
+    }
+
+    @Benchmark
+    public RouteMatch matchLast() {
+        return router.match(lastPath, "GET");
+    }
+
+    @Benchmark
+    public RouteMatch matchStatic() {
+        return router.match(staticPath, "GET");
+    }
+
+    @Benchmark
+    public RouteMatch matchMissing() {
+        return router.match("/nowhere/42", "GET");
+    }
+
+    @Benchmark
+    public RouteMatch matchWrongMethod() {
+        return router.match(firstPath, "DELETE");
+    }
+}
@@ -0,0 +1,71 @@
+package com.monframework.bench;
+
+import com.monframework.handler.SessionHandler;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chargement et synchronisation de la session @Session.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionBenchmark {
+
+    @Param({ "5", "50" })
+    public int attributes;
+
+    private StubRequest req;
+
+    @Setup
+    public void setup() {
+        StubSession session = new StubSession();
+        for (int i = 0; i < attributes; i++) {
+            session.setAttribute("attr" + i, "valeur " + i);
+        }
+        session.setAttribute("user", "alice");
+        req = new StubRequest("GET", "/profile").session(session);
+    }
+
+    /**
+     * Lecture d'un attribut sans modification : rien n'est réécrit.
+     */
+    @Benchmark
+    public Object loadAndSyncReadOnly() {
+        Map<String, Object> map = SessionHandler.loadSession(req);
+        Object user = map.get("user");
+        SessionHandler.syncSession(req, map);
+        return user;
+    }
+
+    /**
+     * Une clé modifiée par le contrôleur.
+     */
+    @Benchmark
+    public Object loadAndSyncOneWrite() {
+        Map<String, Object> map = SessionHandler.loadSession(req);
+        Object user = map.put("lastVisit", "2026-01-01");
+        SessionHandler.syncSession(req, map);
+        return user;
+    }
+
+    /**
+     * Parcours complet de la session (cas des contrôleurs qui itèrent la Map).
+     */
+    @Benchmark
+    public int loadAndIterate() {
+        Map<String, Object> map = SessionHandler.loadSession(req);
+        int n = 0;
+        for (Map.Entry<String, Object> e : map.entrySet()) {
+            if (e.getValue() != null) n++;
+        }
+        SessionHandler.syncSession(req, map);
+        return n;
+    }
+}
@@ -0,0 +1,87 @@
+package com.monframework.bench;
+
+import jakarta.servlet.http.Part;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Partie multipart dont le contenu est une suite d'octets nuls de la taille donnée.
+ */
+public class StubPart implements Part {
+
+    private final String name;
+    private final String fileName;
+    private final String contentType;
+    private final long size;
+
+    public StubPart(String name, String fileName, String contentType, long size) {
+        this.name = name;
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.size = size;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new InputStream() {
+            private long remaining = size;
+
+            @Override
+            public int read() {
+                if (remaining <= 0) return -1;
+                remaining--;
+                return 0;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (remaining <= 0) return -1;
+                int n = (int) Math.min(len, remaining);
+                Arrays.fill(b, off, off + n, (byte) 0);
+                remaining -= n;
+                return n;
+            }
+        };
+    }
+
+    @Override public String getContentType() { return contentType; }
+    @Override public String getName() { return name; }
+    @Override public String getSubmittedFileName() { return fileName; }
+    @Override public long getSize() { return size; }
+
+    @Override
+    public void write(String file) throws IOException {
+        try (InputStream in = getInputStream(); OutputStream out = Files.newOutputStream(Paths.get(file))) {
+            in.transferTo(out);
+        }
+    }
+
+    @Override public void delete() { }
+
+    @Override
+    public String getHeader(String headerName) {
+        if ("content-disposition".equalsIgnoreCase(headerName)) {
+            return "form-data; name=\"" + name + "\"" + (fileName != null ? "; filename=\"" + fileName + "\"" : "");
+        }
+        if ("content-type".equalsIgnoreCase(headerName)) return contentType;
+        return null;
+    }
+
+    @Override
+    public Collection<String> getHeaders(String headerName) {
+        String value = getHeader(headerName);
+        return value == null ? Collections.emptyList() : Collections.singletonList(value);
+    }
+
+    @Override
+    public Collection<String> getHeaderNames() {
+        return Arrays.asList("Content-Disposition", "Content-Type");
+    }
+}
@@ -0,0 +1,211 @@
+package com.monframework.bench;
+
+import jakarta.servlet.*;
+import jakarta.servlet.http.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.*;
+
+/**
+ * Requête en mémoire pour les benchmarks : pas de proxy ni de réflexion, pour
+ * que les mesures d'allocation ne reflètent que le framework.
+ */
+public class StubRequest implements HttpServletRequest {
+
+    private final String method;
+    private final String uri;
+    private final Map<String, String[]> parameters = new LinkedHashMap<>();
+    private final Map<String, String> headers = new HashMap<>();
+    private final Map<String, Object> attributes = new HashMap<>();
+    private final List<Part> parts = new ArrayList<>();
+    private String contextPath = "";
+    private HttpSession session;
+    private byte[] body;
+
+    public StubRequest(String method, String uri) {
+        this.method = method;
+        this.uri = uri;
+    }
+
+    public StubRequest param(String name, String... values) {
+        parameters.put(name, values);
+        return this;
+    }
+
+    public StubRequest header(String name, String value) {
+        headers.put(name.toLowerCase(Locale.ROOT), value);
+        return this;
+    }
+
+    public StubRequest session(HttpSession session) {
+        this.session = session;
+        return this;
+    }
+
+    public StubRequest body(byte[] body) {
+        this.body = body;
+        return this;
+    }
+
+    public StubRequest contextPath(String contextPath) {
+        this.contextPath = contextPath;
+        return this;
+    }
+
+    public StubRequest part(Part part) {
+        parts.add(part);
+        return this;
+    }
+
+    /**
+     * Oublie les attributs posés par le traitement précédent.
+     */
+    public void clearAttributes() {
+        attributes.clear();
+    }
+
+    // === HttpServletRequest ===
+
+    @Override public String getAuthType() { return null; }
+    @Override public Cookie[] getCookies() { return null; }
+    @Override public long getDateHeader(String name) { return -1; }
+    @Override public String getHeader(String name) { return headers.get(name.toLowerCase(Locale.ROOT)); }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        String value = getHeader(name);
+        return value == null ? Collections.emptyEnumeration() : Collections.enumeration(Collections.singletonList(value));
+    }
+
+    @Override public Enumeration<String> getHeaderNames() { return Collections.enumeration(headers.keySet()); }
+
+    @Override
+    public int getIntHeader(String name) {
+        String value = getHeader(name);
+        return value == null ? -1 : Integer.parseInt(value);
+    }
+
+    @Override public String getMethod() { return method; }
+    @Override public String getPathInfo() { return null; }
+    @Override public String getPathTranslated() { return null; }
+    @Override public String getContextPath() { return contextPath; }
+    @Override public String getQueryString() { return null; }
+    @Override public String getRemoteUser() { return null; }
+    @Override public boolean isUserInRole(String role) { return false; }
+    @Override public Principal getUserPrincipal() { return null; }
+    @Override public String getRequestedSessionId() { return null; }
+    @Override public String getRequestURI() { return uri; }
+    @Override public StringBuffer getRequestURL() { return new StringBuffer("http://localhost").append(uri); }
+    @Override public String getServletPath() { return ""; }
+
+    @Override
+    public HttpSession getSession(boolean create) {
+        if (session == null && create) session = new StubSession();
+        return session;
+    }
+
+    @Override public HttpSession getSession() { return getSession(true); }
+    @Override public String changeSessionId() { return "bench"; }
+    @Override public boolean isRequestedSessionIdValid() { return session != null; }
+    @Override public boolean isRequestedSessionIdFromCookie() { return false; }
+    @Override public boolean isRequestedSessionIdFromURL() { return false; }
+    @Override public boolean authenticate(HttpServletResponse response) { return false; }
+    @Override public void login(String user, String password) { }
+    @Override public void logout() { }
+    @Override public Collection<Part> getParts() { return parts; }
+
+    @Override
+    public Part getPart(String name) {
+        for (Part part : parts) {
+            if (part.getName().equals(name)) return part;
+        }
+        return null;
+    }
+
+    @Override
+    public <T extends HttpUpgradeHandler> T upgrade(Class<T> handlerClass) {
+        throw new UnsupportedOperationException();
+    }
+
+    // === ServletRequest ===
+
+    @Override public Object getAttribute(String name) { return attributes.get(name); }
+    @Override public Enumeration<String> getAttributeNames() { return Collections.enumeration(attributes.keySet()); }
+    @Override public String getCharacterEncoding() { return "UTF-8"; }
+    @Override public void setCharacterEncoding(String env) { }
+    @Override public int getContentLength() { return body == null ? -1 : body.length; }
+    @Override public long getContentLengthLong() { return getContentLength(); }
+    @Override public String getContentType() { return getHeader("Content-Type"); }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        ByteArrayInputStream in = new ByteArrayInputStream(body == null ? new byte[0] : body);
+        return new ServletInputStream() {
+            @Override public int read() { return in.read(); }
+            @Override public int read(byte[] b, int off, int len) { return in.read(b, off, len); }
+            @Override public boolean isFinished() { return in.available() == 0; }
+            @Override public boolean isReady() { return true; }
+            @Override public void setReadListener(ReadListener listener) { }
+        };
+    }
+
+    @Override
+    public String getParameter(String name) {
+        String[] values = parameters.get(name);
+        return values == null || values.length == 0 ? null : values[0];
+    }
+
+    @Override public Enumeration<String> getParameterNames() { return Collections.enumeration(parameters.keySet()); }
+    @Override public String[] getParameterValues(String name) { return parameters.get(name); }
+    @Override public Map<String, String[]> getParameterMap() { return parameters; }
+    @Override public String getProtocol() { return "HTTP/1.1"; }
+    @Override public String getScheme() { return "http"; }
+    @Override public String getServerName() { return "localhost"; }
+    @Override public int getServerPort() { return 8080; }
+
+    @Override
+    public BufferedReader getReader() {
+        return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    @Override public String getRemoteAddr() { return "127.0.0.1"; }
+    @Override public String getRemoteHost() { return "localhost"; }
+    @Override public void setAttribute(String name, Object value) { attributes.put(name, value); }
+    @Override public void removeAttribute(String name) { attributes.remove(name); }
+    @Override public Locale getLocale() { return Locale.ROOT; }
+    @Override public Enumeration<Locale> getLocales() { return Collections.enumeration(Collections.singletonList(Locale.ROOT)); }
+    @Override public boolean isSecure() { return false; }
+    /**
+     * Les vues ne sont pas rendues : le forward ne fait rien.
+     */
+    @Override
+    public RequestDispatcher getRequestDispatcher(String path) {
+        return new RequestDispatcher() {
+            @Override public void forward(ServletRequest request, ServletResponse response) { }
+            @Override public void include(ServletRequest request, ServletResponse response) { }
+        };
+    }
+    @Override public int getRemotePort() { return 0; }
+    @Override public String getLocalName() { return "localhost"; }
+    @Override public String getLocalAddr() { return "127.0.0.1"; }
+    @Override public int getLocalPort() { return 8080; }
+    @Override public ServletContext getServletContext() { return null; }
+    @Override public AsyncContext startAsync() { throw new IllegalStateException("async non supporté"); }
+
+    @Override
+    public AsyncContext startAsync(ServletRequest request, ServletResponse response) {
+        throw new IllegalStateException("async non supporté");
+    }
+
+    @Override public boolean isAsyncStarted() { return false; }
+    @Override public boolean isAsyncSupported() { return false; }
+    @Override public AsyncContext getAsyncContext() { return null; }
+    @Override public DispatcherType getDispatcherType() { return DispatcherType.REQUEST; }
+    @Override public String getRequestId() { return "0"; }
+    @Override public String getProtocolRequestId() { return ""; }
+    @Override public ServletConnection getServletConnection() { return null; }
+}
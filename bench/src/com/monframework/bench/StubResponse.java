@@ -0,0 +1,135 @@
+package com.monframework.bench;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Réponse en mémoire pour les benchmarks : le corps est compté puis jeté.
+ */
+public class StubResponse implements HttpServletResponse {
+
+    private final Map<String, List<String>> headers = new LinkedHashMap<>();
+    private int status = SC_OK;
+    private String contentType;
+    private long bytesWritten;
+    private boolean committed;
+    private PrintWriter writer;
+
+    private final ServletOutputStream stream = new ServletOutputStream() {
+        @Override
+        public void write(int b) {
+            bytesWritten++;
+            committed = true;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytesWritten += len;
+            committed = true;
+        }
+
+        @Override public boolean isReady() { return true; }
+        @Override public void setWriteListener(WriteListener listener) { }
+    };
+
+    public long getBytesWritten() {
+        if (writer != null) writer.flush();
+        return bytesWritten;
+    }
+
+    /**
+     * Remet la réponse à zéro entre deux invocations.
+     */
+    public void recycle() {
+        headers.clear();
+        status = SC_OK;
+        contentType = null;
+        bytesWritten = 0;
+        committed = false;
+        writer = null;
+    }
+
+    // === HttpServletResponse ===
+
+    @Override public void addCookie(Cookie cookie) { }
+    @Override public boolean containsHeader(String name) { return headers.containsKey(name); }
+    @Override public String encodeURL(String url) { return url; }
+    @Override public String encodeRedirectURL(String url) { return url; }
+    @Override public void sendError(int sc, String msg) { status = sc; committed = true; }
+    @Override public void sendError(int sc) { sendError(sc, null); }
+    @Override public void sendRedirect(String location) { status = SC_FOUND; committed = true; }
+    @Override public void setDateHeader(String name, long date) { setHeader(name, Long.toString(date)); }
+    @Override public void addDateHeader(String name, long date) { addHeader(name, Long.toString(date)); }
+
+    @Override
+    public void setHeader(String name, String value) {
+        List<String> values = new ArrayList<>(1);
+        values.add(value);
+        headers.put(name, values);
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        headers.computeIfAbsent(name, k -> new ArrayList<>(1)).add(value);
+    }
+
+    @Override public void setIntHeader(String name, int value) { setHeader(name, Integer.toString(value)); }
+    @Override public void addIntHeader(String name, int value) { addHeader(name, Integer.toString(value)); }
+    @Override public void setStatus(int sc) { status = sc; }
+    @Override public int getStatus() { return status; }
+
+    @Override
+    public String getHeader(String name) {
+        List<String> values = headers.get(name);
+        return values == null ? null : values.get(0);
+    }
+
+    @Override
+    public Collection<String> getHeaders(String name) {
+        List<String> values = headers.get(name);
+        return values == null ? Collections.emptyList() : values;
+    }
+
+    @Override public Collection<String> getHeaderNames() { return headers.keySet(); }
+
+    // === ServletResponse ===
+
+    @Override public String getCharacterEncoding() { return "UTF-8"; }
+    @Override public String getContentType() { return contentType; }
+    @Override public ServletOutputStream getOutputStream() { return stream; }
+
+    @Override
+    public PrintWriter getWriter() {
+        if (writer == null) {
+            writer = new PrintWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+        }
+        return writer;
+    }
+
+    @Override public void setCharacterEncoding(String charset) { }
+    @Override public void setContentLength(int len) { }
+    @Override public void setContentLengthLong(long len) { }
+    @Override public void setContentType(String type) { contentType = type; }
+    @Override public void setBufferSize(int size) { }
+    @Override public int getBufferSize() { return 8192; }
+    @Override public void flushBuffer() { committed = true; }
+    @Override public void resetBuffer() { bytesWritten = 0; }
+    @Override public boolean isCommitted() { return committed; }
+
+    @Override
+    public void reset() {
+        headers.clear();
+        status = SC_OK;
+        bytesWritten = 0;
+    }
+
+    @Override public void setLocale(Locale locale) { }
+    @Override public Locale getLocale() { return Locale.ROOT; }
+}
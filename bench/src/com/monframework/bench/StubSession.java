@@ -0,0 +1,46 @@
+package com.monframework.bench;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpSession;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Session en mémoire pour les benchmarks : compte les écritures.
+ */
+public class StubSession implements HttpSession {
+
+    private final Map<String, Object> attributes = new HashMap<>();
+    private int writes;
+
+    public int getWrites() {
+        return writes;
+    }
+
+    @Override public long getCreationTime() { return 0; }
+    @Override public String getId() { return "bench"; }
+    @Override public long getLastAccessedTime() { return 0; }
+    @Override public ServletContext getServletContext() { return null; }
+    @Override public void setMaxInactiveInterval(int interval) { }
+    @Override public int getMaxInactiveInterval() { return 0; }
+    @Override public Object getAttribute(String name) { return attributes.get(name); }
+    @Override public Enumeration<String> getAttributeNames() { return Collections.enumeration(attributes.keySet()); }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        writes++;
+        attributes.put(name, value);
+    }
+
+    @Override
+    public void removeAttribute(String name) {
+        writes++;
+        attributes.remove(name);
+    }
+
+    @Override public void invalidate() { attributes.clear(); }
+    @Override public boolean isNew() { return false; }
+}
@@ -0,0 +1,457 @@
+package com.monframework.bench;
+
+import com.monframework.FrontServlet;
+import com.monframework.monitoring.Histogram;
+import com.monframework.monitoring.TrafficLog;
+
+import jakarta.servlet.ServletConfig;
+import jakarta.servlet.ServletContext;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Rejoue un journal de trafic ({@link TrafficLog}) contre un FrontServlet
+ * en mémoire, depuis plusieurs threads, et compare le résultat à une référence.
+ *
+ * <pre>
+ * replay.bat --log trafic.bin [--webapp ..\..\test] [--param scan.packages=com.test]
+ *     [--threads 8] [--warmup 10] [--duration 30]
+ *     [--baseline results\replay-baseline.properties] [--save-baseline]
+ *     [--max-throughput-drop 10] [--max-p99-increase 20] [--max-p999-increase 50]
+ *     [--max-alloc-increase 10]
+ * </pre>
+ * Les classes de l'application doivent être dans le classpath (voir replay.bat).
+ * Code de sortie : 0 si tout va bien, 1 en cas de régression, 2 si les arguments sont invalides.
+ */
+public class TrafficReplay {
+
+    private static final String[] STATUS_CLASSES = { "1xx", "2xx", "3xx", "4xx", "5xx" };
+
+    public static void main(String[] args) throws Exception {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.out.println("[ERREUR] " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        List<TrafficLog.Entry> entries = load(options.log);
+        if (entries.isEmpty()) {
+            System.out.println("[ERREUR] Journal vide : " + options.log);
+            System.exit(2);
+        }
+        System.out.println(entries.size() + " requêtes chargées depuis " + options.log);
+
+        FrontServlet servlet = new FrontServlet();
+        servlet.init(new Config(options.webapp, options.params));
+
+        System.out.println("Préchauffage : " + options.warmup + " s, " + options.threads + " threads");
+        run(servlet, entries, options.threads, options.warmup);
+        System.out.println("Mesure : " + options.duration + " s, " + options.threads + " threads");
+        Result result = run(servlet, entries, options.threads, options.duration);
+        servlet.destroy();
+
+        result.print();
+
+        File baseline = new File(options.baseline);
+        if (options.saveBaseline) {
+            result.save(baseline);
+            System.out.println("Référence enregistrée : " + baseline);
+            return;
+        }
+        if (!baseline.isFile()) {
+            System.out.println("Pas de référence (" + baseline + ") : lancer avec --save-baseline pour en créer une");
+            return;
+        }
+        List<String> regressions = result.compare(load(baseline), options);
+        if (regressions.isEmpty()) {
+            System.out.println("Aucune régression par rapport à " + baseline);
+        } else {
+            System.out.println("RÉGRESSIONS par rapport à " + baseline + " :");
+            for (String r : regressions) System.out.println("  - " + r);
+            System.exit(1);
+        }
+    }
+
+    private static List<TrafficLog.Entry> load(String path) throws IOException {
+        List<TrafficLog.Entry> entries = new ArrayList<>();
+        try (TrafficLog.Reader reader = new TrafficLog.Reader(new FileInputStream(path))) {
+            TrafficLog.Entry entry;
+            while ((entry = reader.next()) != null) entries.add(entry);
+        }
+        return entries;
+    }
+
+    private static Properties load(File file) throws IOException {
+        Properties props = new Properties();
+        try (Reader in = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            props.load(in);
+        }
+        return props;
+    }
+
+    /**
+     * Lance les threads de rejeu pendant la durée donnée.
+     */
+    private static Result run(FrontServlet servlet, List<TrafficLog.Entry> entries,
+                              int threads, int seconds) throws InterruptedException {
+        Histogram latency = new Histogram();
+        Worker[] workers = new Worker[threads];
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> running = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Worker(servlet, entries, t * entries.size() / threads, latency, ready, go);
+            Thread thread = new Thread(workers[t], "replay-" + t);
+            thread.start();
+            running.add(thread);
+        }
+        ready.await();
+        long start = System.nanoTime();
+        long deadline = start + seconds * 1_000_000_000L;
+        for (Worker w : workers) w.deadline = deadline;
+        go.countDown();
+        for (Thread thread : running) thread.join();
+        long elapsed = System.nanoTime() - start;
+
+        Result result = new Result(latency.snapshot(), elapsed);
+        for (Worker w : workers) result.add(w);
+        return result;
+    }
+
+    /**
+     * Thread de rejeu : parcourt le journal en boucle à partir de son décalage.
+     */
+    private static final class Worker implements Runnable {
+        private static final com.sun.management.ThreadMXBean THREADS =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        private final FrontServlet servlet;
+        private final List<TrafficLog.Entry> entries;
+        private final Histogram latency;
+        private final CountDownLatch ready;
+        private final CountDownLatch go;
+        private int index;
+        private volatile long deadline;
+
+        long requests;
+        long failures;
+        long allocated;
+        final long[] statuses = new long[STATUS_CLASSES.length];
+
+        Worker(FrontServlet servlet, List<TrafficLog.Entry> entries, int offset,
+               Histogram latency, CountDownLatch ready, CountDownLatch go) {
+            this.servlet = servlet;
+            this.entries = entries;
+            this.index = offset;
+            this.latency = latency;
+            this.ready = ready;
+            this.go = go;
+        }
+
+        @Override
+        public void run() {
+            ready.countDown();
+            try {
+                go.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            StubResponse resp = new StubResponse();
+            while (System.nanoTime() < deadline) {
+                TrafficLog.Entry entry = entries.get(index);
+                index = (index + 1) % entries.size();
+                StubRequest req = request(entry);
+                resp.recycle();
+
+                // Seul le traitement du servlet est mesuré, pas la préparation de la requête
+                long a0 = THREADS.getCurrentThreadAllocatedBytes();
+                long t0 = System.nanoTime();
+                try {
+                    servlet.service(req, resp);
+                } catch (Exception e) {
+                    failures++;
+                }
+                long t1 = System.nanoTime();
+                allocated += THREADS.getCurrentThreadAllocatedBytes() - a0;
+
+                latency.record(t1 - t0);
+                requests++;
+                int status = resp.getStatus() / 100 - 1;
+                if (status >= 0 && status < statuses.length) statuses[status]++;
+            }
+        }
+    }
+
+    /**
+     * Reconstruit la requête d'une entrée du journal.
+     */
+    static StubRequest request(TrafficLog.Entry entry) {
+        StubRequest req = new StubRequest(entry.getMethod(), entry.getPath());
+        for (Map.Entry<String, String[]> param : entry.getParams().entrySet()) {
+            String[] values = param.getValue().clone();
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == null) values[i] = ""; // valeur non enregistrée
+            }
+            req.param(param.getKey(), values);
+        }
+        for (Map.Entry<String, String> header : entry.getHeaders().entrySet()) {
+            req.header(header.getKey(), header.getValue());
+        }
+        for (TrafficLog.PartShape part : entry.getParts()) {
+            req.part(new StubPart(part.getName(), part.getFileName(), part.getContentType(), part.getSize()));
+        }
+        if (entry.getBody() != null) req.body(entry.getBody());
+        if (!entry.getSession().isEmpty()) {
+            StubSession session = new StubSession();
+            for (Map.Entry<String, Object> attr : entry.getSession().entrySet()) {
+                session.setAttribute(attr.getKey(), copy(attr.getValue()));
+            }
+            req.session(session);
+        }
+        return req;
+    }
+
+    /**
+     * Copie des valeurs modifiables, pour que chaque rejeu parte du même état.
+     */
+    private static Object copy(Object value) {
+        if (value instanceof String[]) return ((String[]) value).clone();
+        if (value instanceof List) return new ArrayList<>((List<?>) value);
+        return value;
+    }
+
+    /**
+     * Résultat d'une mesure.
+     */
+    private static final class Result {
+        private final Histogram.Snapshot latency;
+        private final long elapsedNanos;
+        private long requests;
+        private long failures;
+        private long allocated;
+        private final long[] statuses = new long[STATUS_CLASSES.length];
+
+        Result(Histogram.Snapshot latency, long elapsedNanos) {
+            this.latency = latency;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        void add(Worker w) {
+            requests += w.requests;
+            failures += w.failures;
+            allocated += w.allocated;
+            for (int i = 0; i < statuses.length; i++) statuses[i] += w.statuses[i];
+        }
+
+        double throughput() {
+            return requests * 1e9 / elapsedNanos;
+        }
+
+        double micros(double q) {
+            return latency.quantile(q) / 1000.0;
+        }
+
+        double allocPerRequest() {
+            return requests > 0 ? (double) allocated / requests : 0;
+        }
+
+        Map<String, Double> values() {
+            Map<String, Double> values = new LinkedHashMap<>();
+            values.put("throughput", throughput());
+            values.put("p50Us", micros(0.5));
+            values.put("p99Us", micros(0.99));
+            values.put("p999Us", micros(0.999));
+            values.put("allocBytesPerRequest", allocPerRequest());
+            return values;
+        }
+
+        void print() {
+            System.out.println();
+            System.out.println("=== RÉSULTAT DU REJEU ===");
+            System.out.println(String.format(Locale.ROOT, "Requêtes      : %d (%d exceptions)", requests, failures));
+            System.out.println(String.format(Locale.ROOT, "Débit         : %.1f req/s", throughput()));
+            System.out.println(String.format(Locale.ROOT, "Latence       : p50 %.1f µs, p99 %.1f µs, p999 %.1f µs, max %.1f µs",
+                    micros(0.5), micros(0.99), micros(0.999), latency.max() / 1000.0));
+            System.out.println(String.format(Locale.ROOT, "Allocations   : %.0f octets/requête", allocPerRequest()));
+            StringBuilder sb = new StringBuilder("Statuts       :");
+            for (int i = 0; i < statuses.length; i++) {
+                if (statuses[i] > 0) sb.append(' ').append(STATUS_CLASSES[i]).append('=').append(statuses[i]);
+            }
+            System.out.println(sb);
+            System.out.println("=========================");
+        }
+
+        void save(File file) throws IOException {
+            Properties props = new Properties();
+            for (Map.Entry<String, Double> v : values().entrySet()) {
+                props.setProperty(v.getKey(), String.format(Locale.ROOT, "%.3f", v.getValue()));
+            }
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null) parent.mkdirs();
+            try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+                props.store(out, "Référence du rejeu de trafic (TrafficReplay --save-baseline)");
+            }
+        }
+
+        /**
+         * Écarts au-delà des seuils tolérés.
+         */
+        List<String> compare(Properties baseline, Options options) {
+            List<String> regressions = new ArrayList<>();
+            Map<String, Double> current = values();
+            check(regressions, baseline, current, "throughput", -options.maxThroughputDrop);
+            check(regressions, baseline, current, "p99Us", options.maxP99Increase);
+            check(regressions, baseline, current, "p999Us", options.maxP999Increase);
+            check(regressions, baseline, current, "allocBytesPerRequest", options.maxAllocIncrease);
+            return regressions;
+        }
+
+        /**
+         * @param tolerance écart toléré en % : négatif pour une baisse (débit), positif pour une hausse
+         */
+        private static void check(List<String> regressions, Properties baseline, Map<String, Double> current,
+                                  String key, double tolerance) {
+            String raw = baseline.getProperty(key);
+            if (raw == null) return;
+            double base = Double.parseDouble(raw);
+            if (base <= 0) return;
+            double value = current.get(key);
+            double change = (value - base) * 100 / base;
+            boolean regressed = tolerance < 0 ? change < tolerance : change > tolerance;
+            if (regressed) {
+                regressions.add(String.format(Locale.ROOT, "%s : %.1f -> %.1f (%+.1f %%, seuil %+.1f %%)",
+                        key, base, value, change, tolerance));
+            }
+        }
+    }
+
+    /**
+     * Arguments de la ligne de commande.
+     */
+    private static final class Options {
+        String log;
+        String webapp = ".";
+        String baseline = "results" + File.separator + "replay-baseline.properties";
+        boolean saveBaseline;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int warmup = 10;
+        int duration = 30;
+        double maxThroughputDrop = 10;
+        double maxP99Increase = 20;
+        double maxP999Increase = 50;
+        double maxAllocIncrease = 10;
+        final Map<String, String> params = new LinkedHashMap<>();
+
+        static Options parse(String[] args) {
+            Options o = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--save-baseline")) {
+                    o.saveBaseline = true;
+                    continue;
+                }
+                if (i + 1 >= args.length) throw new IllegalArgumentException("Valeur manquante pour " + arg);
+                String value = args[++i];
+                switch (arg) {
+                    case "--log": o.log = value; break;
+                    case "--webapp": o.webapp = value; break;
+                    case "--baseline": o.baseline = value; break;
+                    case "--threads": o.threads = positive(arg, value); break;
+                    case "--warmup": o.warmup = Integer.parseInt(value); break;
+                    case "--duration": o.duration = positive(arg, value); break;
+                    case "--max-throughput-drop": o.maxThroughputDrop = Double.parseDouble(value); break;
+                    case "--max-p99-increase": o.maxP99Increase = Double.parseDouble(value); break;
+                    case "--max-p999-increase": o.maxP999Increase = Double.parseDouble(value); break;
+                    case "--max-alloc-increase": o.maxAllocIncrease = Double.parseDouble(value); break;
+                    case "--param": {
+                        int eq = value.indexOf('=');
+                        if (eq <= 0) throw new IllegalArgumentException("--param attend nom=valeur : " + value);
+                        o.params.put(value.substring(0, eq), value.substring(eq + 1));
+                        break;
+                    }
+                    default:
+                        throw new IllegalArgumentException("Option inconnue : " + arg);
+                }
+            }
+            if (o.log == null) throw new IllegalArgumentException("--log est obligatoire");
+            return o;
+        }
+
+        private static int positive(String name, String value) {
+            int n = Integer.parseInt(value);
+            if (n <= 0) throw new IllegalArgumentException(name + " doit être positif : " + value);
+            return n;
+        }
+    }
+
+    /**
+     * Configuration du servlet : paramètres donnés en ligne de commande,
+     * application lue depuis le répertoire --webapp.
+     */
+    private static final class Config implements ServletConfig {
+        private final Map<String, String> params;
+        private final ServletContext context;
+
+        Config(String webapp, Map<String, String> params) {
+            this.params = params;
+            this.context = context(new File(webapp), params);
+        }
+
+        @Override public String getServletName() { return "FrontServlet"; }
+        @Override public ServletContext getServletContext() { return context; }
+        @Override public String getInitParameter(String name) { return params.get(name); }
+        @Override public Enumeration<String> getInitParameterNames() { return Collections.enumeration(params.keySet()); }
+
+        /**
+         * ServletContext réduit à ce que l'initialisation utilise ; un proxy
+         * suffit, il n'intervient pas dans les mesures.
+         */
+        private static ServletContext context(File root, Map<String, String> params) {
+            return (ServletContext) Proxy.newProxyInstance(TrafficReplay.class.getClassLoader(),
+                    new Class<?>[] { ServletContext.class }, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "getRealPath": return new File(root, (String) args[0]).getPath();
+                            case "getContextPath": return "";
+                            case "getInitParameter": return params.get((String) args[0]);
+                            case "getInitParameterNames": return Collections.enumeration(params.keySet());
+                            case "getAttributeNames": return Collections.emptyEnumeration();
+                            case "log":
+                                System.out.println(Arrays.toString(args));
+                                return null;
+                            case "toString": return "ServletContext(" + root + ")";
+                            case "hashCode": return System.identityHashCode(proxy);
+                            case "equals": return proxy == args[0];
+                            default:
+                                Class<?> type = method.getReturnType();
+                                if (type == boolean.class) return false;
+                                if (type == int.class) return 0;
+                                return null;
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.monframework.bench;
+
+import com.monframework.util.TypeConverter;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion des paramètres texte vers les types simples.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypeConverterBenchmark {
+
+    private static final String PATH = "/items/123456/price/129.90";
+
+    public enum Method { GET, POST, PUT, DELETE }
+
+    @Benchmark
+    public Object toInt() {
+        return TypeConverter.convert("123456", int.class);
+    }
+
+    @Benchmark
+    public Object toLong() {
+        return TypeConverter.convert("9876543210", Long.class);
+    }
+
+    @Benchmark
+    public Object toDouble() {
+        return TypeConverter.convert("129.90", double.class);
+    }
+
+    @Benchmark
+    public Object toBoolean() {
+        return TypeConverter.convert("true", boolean.class);
+    }
+
+    @Benchmark
+    public Object toString_() {
+        return TypeConverter.convert("chaise", String.class);
+    }
+
+    /**
+     * Variable d'URL lue directement dans le chemin, sans sous-chaîne.
+     */
+    @Benchmark
+    public int intFromPathRange() {
+        return TypeConverter.parseInt(PATH, 7, 13);
+    }
+
+    @Benchmark
+    public double doubleFromPathRange() {
+        return TypeConverter.parseDouble(PATH, 20, 26);
+    }
+
+    @Benchmark
+    public Object toEnum() {
+        return TypeConverter.convert("DELETE", Method.class);
+    }
+
+    @Benchmark
+    public void mixed(Blackhole bh) {
+        bh.consume(TypeConverter.convert("42", int.class));
+        bh.consume(TypeConverter.convert("7", Short.class));
+        bh.consume(TypeConverter.convert("3.5", Float.class));
+        bh.consume(TypeConverter.convert("false", Boolean.class));
+    }
+}
@@ -48,6 +48,9 @@ if errorlevel 1 (
 )
 echo Framework compilé avec succès !
 
+REM Ressources du framework (déclaration du processeur d'annotations)
+if exist "%SRC%\META-INF" xcopy /E /I /Y "%SRC%\META-INF" "%OUT%\META-INF" >nul
+
 REM ------------------------------------------------
 REM 2. Création du JAR
 REM ------------------------------------------------
@@ -4,18 +4,52 @@ import jakarta.servlet.*;
 import jakarta.servlet.annotation.MultipartConfig;
 import jakarta.servlet.http.*;
 import java.io.*;
-import java.lang.reflect.Parameter;
 import java.util.*;
-import java.util.regex.Matcher;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
 
-import com.monframework.annotations.Json;
+import com.monframework.cache.CachePolicy;
+import com.monframework.cache.ResponseCache;
 import com.monframework.handler.ArgumentResolver;
+import com.monframework.handler.AsyncHandler;
+import com.monframework.handler.AsyncHandler.AsyncRequest;
+import com.monframework.handler.BatchHandler;
+import com.monframework.handler.CompressionHandler;
+import com.monframework.handler.ConditionalHandler;
+import com.monframework.handler.FileUploadHandler;
+import com.monframework.handler.JsonBinder;
+import com.monframework.handler.LimitHandler;
 import com.monframework.handler.ResponseHandler;
 import com.monframework.handler.RoleHandler;
+import com.monframework.handler.RoleRegistry;
 import com.monframework.handler.SessionHandler;
+import com.monframework.handler.StaticResourceHandler;
+import com.monframework.handler.StreamHandler;
 import com.monframework.mapping.MethodMapping;
+import com.monframework.mapping.RouteMatch;
+import com.monframework.mapping.Router;
+import com.monframework.monitoring.ArgumentsEvent;
+import com.monframework.monitoring.InvokeEvent;
+import com.monframework.monitoring.Metrics;
+import com.monframework.monitoring.Phase;
+import com.monframework.monitoring.RouteMatchEvent;
+import com.monframework.monitoring.RouteMetrics;
+import com.monframework.monitoring.SessionSyncEvent;
+import com.monframework.monitoring.TrafficRecorder;
 import com.monframework.util.ControllerScanner;
+import com.monframework.util.Converter;
+import com.monframework.util.FrameworkConfig;
+import com.monframework.util.JsonSerializer;
+import com.monframework.util.TypeConverter;
+import com.monframework.view.TemplateEngine;
 
+/**
+ * Contrôleur frontal : reçoit toutes les requêtes et les distribue aux contrôleurs.
+ *
+ * Pour les méthodes @Async ou retournant un CompletionStage, le servlet doit être
+ * déclaré avec {@code <async-supported>true</async-supported>} dans le web.xml ;
+ * sinon ces méthodes s'exécutent de manière synchrone.
+ */
 @MultipartConfig(
     fileSizeThreshold = 1024 * 1024,      // 1 MB avant écriture sur disque
     maxFileSize = 1024 * 1024 * 10,       // 10 MB max par fichier
@@ -24,94 +58,361 @@ import com.monframework.util.ControllerScanner;
 public class FrontServlet extends HttpServlet {
 
     private Map<String, MethodMapping> mappings = new HashMap<>();
+    private Router router = new Router();
+    private String metricsPath;   // point d'accès des mesures (null : désactivé)
+    private long metricsRoles;    // rôles autorisés à le lire (0 : tous)
+    private String batchPath;     // point d'accès des appels groupés (null : désactivé)
 
     @Override
     public void init() throws ServletException {
         try {
+            FrameworkConfig config = new FrameworkConfig(getServletConfig());
+            JsonSerializer.setMaxDepth(config.getInt("json.maxDepth", JsonSerializer.DEFAULT_MAX_DEPTH));
+            JsonBinder.setDefaultMaxBodySize(config.getLong("json.maxBodySize", JsonBinder.DEFAULT_MAX_BODY_SIZE));
+            FileUploadHandler.setMemoryThreshold(config.getLong("upload.memoryThreshold", FileUploadHandler.DEFAULT_MEMORY_THRESHOLD));
+            AsyncHandler.setTimeout(config.getLong("async.timeout", AsyncHandler.DEFAULT_TIMEOUT));
+            AsyncHandler.configure(config.getInt("async.threads", 0),
+                    config.getInt("async.queue", AsyncHandler.DEFAULT_QUEUE));
+            RoleRegistry.setHierarchy(config.get("role.hierarchy"));
+            ResponseCache.setMaxBytes(config.getLong("cache.maxBytes", ResponseCache.DEFAULT_MAX_BYTES));
+            ResponseCache.setMaxEntryBytes(config.getInt("cache.maxEntryBytes", ResponseCache.DEFAULT_MAX_ENTRY_BYTES));
+            CompressionHandler.setEnabled(config.getBoolean("compression.enabled", true));
+            CompressionHandler.setMinSize(config.getInt("compression.minSize", CompressionHandler.DEFAULT_MIN_SIZE));
+            CompressionHandler.setLevel(config.getInt("compression.level", -1));
+            CompressionHandler.setTypes(config.getList("compression.types", CompressionHandler.DEFAULT_TYPES));
+            StreamHandler.setFlushInterval(config.getLong("stream.flushInterval", StreamHandler.DEFAULT_FLUSH_INTERVAL));
+            StreamHandler.setHeartbeat(config.getLong("stream.heartbeat", StreamHandler.DEFAULT_HEARTBEAT));
+            StreamHandler.setPrefetch(config.getInt("stream.prefetch", StreamHandler.DEFAULT_PREFETCH));
+            ConditionalHandler.setEtagEnabled(config.getBoolean("etag.enabled", true));
+            ConditionalHandler.setBufferSize(config.getInt("etag.bufferSize", ConditionalHandler.DEFAULT_BUFFER_SIZE));
+
+            Metrics.setEnabled(config.getBoolean("metrics.enabled", true));
+            Metrics.reset();
+            metricsPath = config.get("metrics.path");
+            List<String> roles = config.getList("metrics.role", null);
+            metricsRoles = roles.isEmpty() ? 0 : RoleRegistry.maskOf(roles.toArray(new String[0]));
+
+            // Enregistrement du trafic pour le rejeu (désactivé par défaut)
+            String trafficLog = config.get("traffic.record");
+            if (trafficLog != null) {
+                TrafficRecorder.start(trafficLog,
+                        config.getLong("traffic.maxBytes", TrafficRecorder.DEFAULT_MAX_BYTES),
+                        config.getInt("traffic.maxBody", TrafficRecorder.DEFAULT_MAX_BODY),
+                        config.getInt("traffic.sample", 1),
+                        config.getList("traffic.paramValues", null),
+                        config.getList("traffic.sessionValues", null));
+            }
+
+            // Appels groupés (désactivés par défaut)
+            batchPath = config.get("batch.path");
+            if (batchPath != null) {
+                BatchHandler.setMaxItems(config.getInt("batch.maxItems", BatchHandler.DEFAULT_MAX_ITEMS));
+                BatchHandler.setTimeout(config.getLong("batch.timeout", BatchHandler.DEFAULT_TIMEOUT));
+                BatchHandler.configure(config.getInt("batch.threads", 0),
+                        config.getInt("batch.queue", BatchHandler.DEFAULT_QUEUE));
+            }
+
+            // Fichiers statiques servis sous des points de montage (aucun par défaut)
+            StaticResourceHandler.setCacheFileSize(config.getInt("static.cacheFileSize", StaticResourceHandler.DEFAULT_CACHE_FILE_SIZE));
+            StaticResourceHandler.setCacheMaxBytes(config.getLong("static.cacheMaxBytes", StaticResourceHandler.DEFAULT_CACHE_MAX_BYTES));
+            StaticResourceHandler.setMaxAge(config.getLong("static.maxAge", 0));
+            StaticResourceHandler.configure(getServletContext(), config.getList("static.mounts", null),
+                    config.getBoolean("static.watch", true));
+
+            // Gabarits .tpl compilés au démarrage, recompilés après modification en mode développement
+            TemplateEngine.configure(getServletContext(),
+                    config.getString("view.templates", TemplateEngine.DEFAULT_DIRECTORY),
+                    config.getBoolean("view.devMode", false));
+
+            // Limites d'admission : valeurs de la configuration lues avant le scan
+            LimitHandler.setEnabled(config.getBoolean("limit.enabled", true));
+            LimitHandler.setGlobalLimit(config.getInt("limit.global", 0));
+            LimitHandler.setRetryAfter(config.getLong("limit.retryAfter", LimitHandler.DEFAULT_RETRY_AFTER));
+            LimitHandler.setOverrides(config.getList("limit.routes", null));
+
+            // Convertisseurs de l'application : enregistrés avant le calcul des plans d'arguments
+            for (String name : config.getList("converters", null)) {
+                Class<?> cls = Class.forName(name, true, Thread.currentThread().getContextClassLoader());
+                TypeConverter.register((Converter<?>) cls.getDeclaredConstructor().newInstance());
+            }
+
             ControllerScanner scanner = new ControllerScanner(getServletContext());
-            mappings = scanner.scanPackage("com.test");
+            // Index généré à la compilation si présent, sinon parcours des classes
+            mappings = config.getBoolean("scan.useIndex", true) ? scanner.scanIndex() : null;
+            if (mappings == null) {
+                mappings = scanner.scanPackages(config.getList("scan.packages", "com.test"));
+            }
             ControllerScanner.printMappings(mappings);
+            router = Router.build(mappings.values());
         } catch (Exception e) {
             e.printStackTrace();
             throw new ServletException(e);
         }
     }
 
+    @Override
+    public void destroy() {
+        TrafficRecorder.stop();
+        StaticResourceHandler.shutdown();
+        BatchHandler.shutdown();
+        AsyncHandler.shutdown();
+    }
+
+    @Override
+    public void service(ServletRequest req, ServletResponse res) throws ServletException, IOException {
+        // Requête notée dans le journal de trafic avant son traitement
+        if (TrafficRecorder.isRecording() && req instanceof HttpServletRequest) {
+            req = TrafficRecorder.record((HttpServletRequest) req);
+        }
+        super.service(req, res);
+    }
+
     @Override
     protected void service(HttpServletRequest req, HttpServletResponse resp)
             throws ServletException, IOException {
 
+        long start = System.nanoTime();
         String uri = req.getRequestURI();
         String context = req.getContextPath();
         String relativePath = uri.substring(context.length());
         String httpMethod = req.getMethod();
+        RouteMetrics metrics = null;
 
         try {
-            // 1. Trouver le mapping correspondant
-            MethodMapping mapping = findMapping(relativePath, httpMethod);
+            // Point d'accès interne des mesures
+            if (metricsPath != null && metricsPath.equals(relativePath)) {
+                if (metricsRoles != 0 && (RoleHandler.userRoles(req, "profile") & metricsRoles) == 0) {
+                    resp.sendError(HttpServletResponse.SC_FORBIDDEN);
+                } else {
+                    Metrics.handle(req, resp);
+                }
+                return;
+            }
 
-            if (mapping == null) {
-                ResponseHandler.sendNotFound(resp, relativePath);
+            // Appel groupé : chaque élément repasse par ce service
+            if (batchPath != null && batchPath.equals(relativePath)) {
+                BatchHandler.handle(req, resp, this::service);
                 return;
             }
 
-            // 2. Vérifier les rôles
-            if (!RoleHandler.checkRole(req, mapping.getMethod())) {
-                RoleHandler.sendForbiddenResponse(resp, mapping.getMethod());
+            // Fichiers statiques, avant la recherche des routes
+            if (StaticResourceHandler.serve(req, resp, relativePath)) {
                 return;
             }
 
-            // 3. Debug info (si pas JSON)
-            if (!mapping.getMethod().isAnnotationPresent(Json.class)) {
-                printDebugInfo(resp, mapping);
+            // 1. Trouver le mapping correspondant
+            RouteMatchEvent matchEvent = new RouteMatchEvent();
+            matchEvent.begin();
+            RouteMatch matched = findMapping(relativePath, httpMethod);
+            long matchedAt = System.nanoTime();
+            matchEvent.end();
+            if (matchEvent.shouldCommit()) {
+                matchEvent.path = relativePath;
+                matchEvent.httpMethod = httpMethod;
+                if (matched == null) {
+                    matchEvent.status = HttpServletResponse.SC_NOT_FOUND;
+                } else if (matched.isMethodNotAllowed()) {
+                    matchEvent.status = HttpServletResponse.SC_METHOD_NOT_ALLOWED;
+                } else {
+                    MethodMapping m = matched.getMapping();
+                    matchEvent.setRoute(m.getHttpMethod(), m.getUrl(), m.getMethod());
+                    matchEvent.status = HttpServletResponse.SC_OK;
+                }
+                matchEvent.commit();
             }
 
-            // 4. Créer l'instance du contrôleur
-            Object controllerInstance = mapping.getControllerClass()
-                    .getDeclaredConstructor().newInstance();
+            if (matched == null) {
+                Metrics.countNotFound(matchedAt - start);
+                ResponseHandler.sendNotFound(resp, relativePath);
+                return;
+            }
+            if (matched.isMethodNotAllowed()) {
+                Metrics.countMethodNotAllowed(matchedAt - start);
+                ResponseHandler.sendMethodNotAllowed(resp, relativePath, matched.getAllow());
+                return;
+            }
+            MethodMapping mapping = matched.getMapping();
+            RouteMetrics routeMetrics = mapping.getMetrics();
+            metrics = routeMetrics;
+            routeMetrics.countRequest();
+            routeMetrics.record(Phase.MATCH, matchedAt - start);
 
-            // 5. Résoudre les arguments
-            Matcher matched = mapping.match(relativePath);
-            matched.matches(); // Nécessaire pour activer les groupes
-            Object[] args = ArgumentResolver.resolveArguments(req, mapping, matched);
+            // Limites d'admission : refus immédiat (503 / 429), avant tout travail sur la requête
+            LimitHandler.Permit permit = LimitHandler.admit(req, resp, mapping);
+            if (permit == null) {
+                routeMetrics.countRejected();
+                return;
+            }
+            try {
+                // 2. Vérifier les rôles
+                boolean allowed = RoleHandler.checkRole(req, mapping.getRoleRule());
+                routeMetrics.record(Phase.ROLE, System.nanoTime() - matchedAt);
+                if (!allowed) {
+                    routeMetrics.countForbidden();
+                    RoleHandler.sendForbiddenResponse(resp, mapping.getRoleRule());
+                    return;
+                }
 
-            // 6. Appeler la méthode
-            Object result = mapping.getMethod().invoke(controllerInstance, args);
+                // Réponse en cache : le contrôleur n'est pas appelé
+                CachePolicy cachePolicy = mapping.getCachePolicy();
+                if (cachePolicy != null && ResponseCache.serve(req, resp, cachePolicy, relativePath)) {
+                    routeMetrics.record(Phase.TOTAL, System.nanoTime() - start);
+                    return;
+                }
+                HttpServletResponse out = cachePolicy != null
+                        ? ResponseCache.capture(req, resp, cachePolicy, relativePath) : resp;
 
-            // 7. Synchroniser les sessions
-            Parameter[] params = mapping.getMethod().getParameters();
-            SessionHandler.syncAllSessions(req, params, args);
+                // @Async : la suite s'exécute hors du thread du conteneur
+                if (mapping.isOffloaded() && req.isAsyncSupported()) {
+                    AsyncRequest async = AsyncHandler.start(req, out);
+                    boolean accepted = AsyncHandler.submit(async, () -> {
+                        try {
+                            execute(req, out, matched, async, start);
+                        } catch (Throwable t) {
+                            routeMetrics.countError();
+                            async.fail(t);
+                        }
+                    });
+                    if (!accepted) routeMetrics.countRejected();
+                    return;
+                }
 
-            // 8. Gérer la réponse
-            ResponseHandler.handleResponse(req, resp, mapping.getMethod(), result);
+                execute(req, out, matched, null, start);
+            } finally {
+                // Place rendue à la fin de la réponse (asynchrone comprise)
+                permit.releaseAfter(req);
+            }
 
         } catch (Exception e) {
+            if (metrics != null) metrics.countError();
             ResponseHandler.sendError(resp, e);
         }
     }
 
     /**
-     * Trouve le mapping correspondant à l'URL et la méthode HTTP.
+     * Instancie le contrôleur, résout les arguments, appelle la méthode puis répond.
+     * @param async requête déjà passée en asynchrone, ou null
+     * @param start début de la requête (System.nanoTime)
      */
-    private MethodMapping findMapping(String path, String httpMethod) {
-        for (MethodMapping mm : mappings.values()) {
-            Matcher mat = mm.match(path);
-            if (mat.matches() && mm.isHttpMethodCompatible(httpMethod)) {
-                return mm;
+    private void execute(HttpServletRequest req, HttpServletResponse resp,
+                         RouteMatch matched, AsyncRequest async, long start) throws Exception {
+        MethodMapping mapping = matched.getMapping();
+        RouteMetrics metrics = mapping.getMetrics();
+        long t0 = System.nanoTime();
+
+        // 3. Créer l'instance du contrôleur
+        ArgumentsEvent argumentsEvent = new ArgumentsEvent();
+        argumentsEvent.begin();
+        Object controllerInstance = mapping.getInvoker().newController();
+
+        // 4. Résoudre les arguments
+        Object[] args = ArgumentResolver.resolveArguments(req, mapping, matched);
+        argumentsEvent.end();
+        if (argumentsEvent.shouldCommit()) {
+            argumentsEvent.setRoute(mapping.getHttpMethod(), mapping.getUrl(), mapping.getMethod());
+            argumentsEvent.arguments = args.length;
+            argumentsEvent.commit();
+        }
+
+        // Version connue du client : 304 sans appeler la méthode
+        ConditionalHandler conditional = mapping.getConditional();
+        if (conditional != null && "GET".equals(req.getMethod())
+                && conditional.checkNotModified(req, resp, controllerInstance, args)) {
+            metrics.record(Phase.TOTAL, System.nanoTime() - start);
+            if (async != null) async.complete(() -> { });
+            return;
+        }
+        long t1 = System.nanoTime();
+        metrics.record(Phase.ARGUMENTS, t1 - t0);
+
+        // 5. Appeler la méthode
+        InvokeEvent invokeEvent = new InvokeEvent();
+        invokeEvent.begin();
+        Object result = mapping.getInvoker().invoke(controllerInstance, args);
+        metrics.record(Phase.INVOKE, System.nanoTime() - t1);
+        invokeEvent.end();
+        if (invokeEvent.shouldCommit()) {
+            invokeEvent.setRoute(mapping.getHttpMethod(), mapping.getUrl(), mapping.getMethod());
+            invokeEvent.resultType = result != null ? result.getClass().getName() : null;
+            invokeEvent.commit();
+        }
+
+        // Résultat différé : on répond quand il est prêt
+        if (result instanceof CompletionStage) {
+            CompletionStage<?> stage = (CompletionStage<?>) result;
+            AsyncRequest pending = async;
+            if (pending == null && req.isAsyncSupported()) {
+                pending = AsyncHandler.start(req, resp);
             }
+            if (pending != null) {
+                AsyncRequest ar = pending;
+                stage.whenComplete((value, error) -> {
+                    if (error != null) {
+                        metrics.countError();
+                        ar.fail(AsyncHandler.unwrap(error));
+                    } else {
+                        ar.complete(() -> respond(req, resp, mapping, args, value, start));
+                    }
+                });
+                return;
+            }
+            result = await(stage);
+        }
+
+        if (async != null) {
+            Object value = result;
+            async.complete(() -> respond(req, resp, mapping, args, value, start));
+        } else {
+            respond(req, resp, mapping, args, result, start);
         }
-        return null;
     }
 
     /**
-     * Affiche les infos de debug.
+     * Synchronise les sessions puis écrit la réponse.
+     */
+    private void respond(HttpServletRequest req, HttpServletResponse resp, MethodMapping mapping,
+                         Object[] args, Object result, long start) throws Exception {
+        long t0 = System.nanoTime();
+
+        // 6. Synchroniser les sessions
+        SessionSyncEvent sessionEvent = new SessionSyncEvent();
+        sessionEvent.begin();
+        SessionHandler.syncAllSessions(req, mapping.getSessionSlots(), args);
+        sessionEvent.end();
+        if (sessionEvent.shouldCommit() && mapping.getSessionSlots().length > 0) {
+            sessionEvent.setRoute(mapping.getHttpMethod(), mapping.getUrl(), mapping.getMethod());
+            sessionEvent.sessions = mapping.getSessionSlots().length;
+            sessionEvent.commit();
+        }
+
+        // 7. Gérer la réponse
+        ResponseHandler.handleResponse(req, resp, mapping, result);
+        ResponseCache.store(resp);
+
+        long end = System.nanoTime();
+        mapping.getMetrics().record(Phase.RENDER, end - t0);
+        mapping.getMetrics().record(Phase.TOTAL, end - start);
+    }
+
+    /**
+     * Attend un résultat différé quand le servlet n'est pas déclaré async-supported.
+     */
+    private Object await(CompletionStage<?> stage) throws Exception {
+        try {
+            return stage.toCompletableFuture().get();
+        } catch (ExecutionException e) {
+            Throwable cause = AsyncHandler.unwrap(e);
+            if (cause instanceof Exception) throw (Exception) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+
+    /**
+     * Trouve le mapping correspondant à l'URL et la méthode HTTP.
+     * @return le résultat (trouvé ou 405), ou null si aucune route ne correspond
      */
-    private void printDebugInfo(HttpServletResponse resp, MethodMapping mapping) throws IOException {
-        resp.setContentType("text/plain;charset=UTF-8");
-        PrintWriter out = resp.getWriter();
-        out.println("=== ROUTE TROUVÉE ===");
-        out.println("Controller : " + mapping.getControllerClass().getName());
-        out.println("Méthode    : " + mapping.getMethod().getName());
-        out.println("=======================");
+    private RouteMatch findMapping(String path, String httpMethod) {
+        return router.match(path, httpMethod);
     }
 }
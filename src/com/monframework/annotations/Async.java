@@ -0,0 +1,24 @@
+package com.monframework.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Exécute la méthode du contrôleur hors du thread du conteneur
+ * (thread virtuel si la JVM le permet), pour les traitements bloquants
+ * (JDBC, disque, appels distants).
+ *
+ * Exemple d'utilisation:
+ * <pre>
+ * @Async
+ * @Json
+ * @GetMapping("/rapports/{id}")
+ * public Rapport rapport(int id) {
+ *     return dao.chargerRapport(id); // bloque sans occuper un thread du conteneur
+ * }
+ * </pre>
+ * Une méthode qui retourne un CompletionStage est aussi traitée en asynchrone,
+ * avec ou sans cette annotation.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Async { }
@@ -0,0 +1,51 @@
+package com.monframework.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Met en cache la réponse complète (octets et en-têtes) d'une méthode GET.
+ * Tant que l'entrée est valide, le contrôleur n'est pas appelé.
+ *
+ * La clé contient toujours le chemin (donc les variables d'URL) ; on y ajoute
+ * les paramètres de requête et attributs de session listés, et le rôle de
+ * l'utilisateur si {@link #perRole()} est vrai.
+ *
+ * Exemple d'utilisation:
+ * <pre>
+ * @Cacheable(ttl = 300, params = {"page"}, name = "produits")
+ * @Json
+ * @GetMapping("/api/produits/{categorie}")
+ * public List&lt;Produit&gt; produits(String categorie, int page) { ... }
+ *
+ * // après une modification :
+ * ResponseCache.invalidate("produits");
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Cacheable {
+    /**
+     * Durée de vie d'une entrée, en secondes.
+     */
+    long ttl() default 60;
+
+    /**
+     * Paramètres de requête qui font partie de la clé (les autres sont ignorés).
+     */
+    String[] params() default {};
+
+    /**
+     * Attributs de session qui font partie de la clé (ex : "userId").
+     */
+    String[] session() default {};
+
+    /**
+     * Sépare les entrées selon les rôles de l'utilisateur (@Role de la route).
+     */
+    boolean perRole() default false;
+
+    /**
+     * Nom du cache, utilisé pour l'invalidation. Par défaut : l'URL de la route.
+     */
+    String name() default "";
+}
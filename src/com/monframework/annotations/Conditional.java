@@ -0,0 +1,41 @@
+package com.monframework.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Requête conditionnelle répondue avant l'appel de la méthode : une méthode du
+ * contrôleur fournit la version de la ressource (numéro, date de modification,
+ * chaîne...). Si le client possède déjà cette version (If-None-Match ou
+ * If-Modified-Since), la réponse est un 304 et la méthode n'est pas appelée.
+ *
+ * La méthode de version ne prend aucun paramètre ou les mêmes que la méthode annotée.
+ *
+ * Sans @Conditional, l'ETag d'une réponse JSON est calculé sur le corps, et
+ * seulement s'il tient dans "etag.bufferSize" (64 KB par défaut) : un corps plus
+ * gros ne reçoit jamais de 304. C'est la solution pour les gros corps interrogés
+ * régulièrement.
+ *
+ * Exemple d'utilisation:
+ * <pre>
+ * @Conditional("versionProduit")
+ * @Json
+ * @GetMapping("/api/produits/{id}")
+ * public Produit produit(int id) { return dao.charger(id); }
+ *
+ * public long versionProduit(int id) { return dao.dateModification(id); }
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Conditional {
+    /**
+     * Nom de la méthode du contrôleur qui retourne la version de la ressource.
+     */
+    String value();
+
+    /**
+     * Vrai si la version est une date de modification (long en millisecondes,
+     * Date ou Instant) : envoie aussi Last-Modified et traite If-Modified-Since.
+     */
+    boolean lastModified() default false;
+}
@@ -0,0 +1,33 @@
+package com.monframework.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation pour lier le corps JSON de la requête à un paramètre
+ * (POJO, Map, List ou type simple). Le corps est lu au fil de l'eau.
+ *
+ * Une valeur qui ne correspond pas au type déclaré est une erreur de binding :
+ * la méthode qui déclare un paramètre BindingErrors la consulte et s'exécute
+ * avec un objet partiel ; sinon la requête reçoit une réponse 400.
+ *
+ * Exemple d'utilisation:
+ * <pre>
+ * @Json
+ * @PostMapping("/api/commandes")
+ * public Commande create(@JsonBody Commande commande) {
+ *     return service.save(commande);
+ * }
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface JsonBody {
+    /**
+     * Taille maximale du corps en octets.
+     * Par défaut (-1), le paramètre "json.maxBodySize" est utilisé.
+     */
+    long maxSize() default -1;
+}
@@ -0,0 +1,67 @@
+package com.monframework.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Limites d'admission d'une route, vérifiées juste après la recherche de la
+ * route, avant les rôles, la session et la lecture des arguments.
+ *
+ * - concurrency : appels simultanés au plus ; au-delà, réponse 503 ;
+ * - rate / burst : débit par seconde et rafale tolérée (seau à jetons), compté
+ *   par route, par session ou par rôle ; au-delà, réponse 429 ;
+ * - adaptive : la limite de concurrence s'ajuste selon la latence observée
+ *   (concurrency devient le plafond).
+ *
+ * Les valeurs peuvent être remplacées par le paramètre "limit.routes".
+ *
+ * Exemple d'utilisation:
+ * <pre>
+ * @Limit(concurrency = 4, adaptive = true)
+ * @GetMapping("/rapports/export")
+ * public ModelView export() { ... }
+ *
+ * @Limit(rate = 5, burst = 10, per = Limit.Per.SESSION)
+ * @PostMapping("/login")
+ * public ModelView login(...) { ... }
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface Limit {
+
+    /**
+     * Clé des seaux à jetons.
+     */
+    enum Per { ROUTE, SESSION, ROLE }
+
+    /**
+     * Appels simultanés au plus (0 : pas de limite).
+     */
+    int concurrency() default 0;
+
+    /**
+     * Requêtes par seconde (0 : pas de limite de débit).
+     */
+    double rate() default 0;
+
+    /**
+     * Requêtes acceptées d'un coup quand le seau est plein (0 : arrondi de rate, au moins 1).
+     */
+    int burst() default 0;
+
+    /**
+     * Un seau pour la route, par session (ou adresse sans session) ou par rôles.
+     */
+    Per per() default Per.SESSION;
+
+    /**
+     * Limite de concurrence ajustée selon la latence (plafond : concurrency, ou 1000).
+     */
+    boolean adaptive() default false;
+
+    /**
+     * Faux pour ne pas compter la route dans la limite globale ("limit.global"),
+     * par exemple pour un test de santé ou la connexion.
+     */
+    boolean global() default true;
+}
@@ -7,7 +7,12 @@ import java.lang.annotation.Target;
 
 /**
  * Annotation pour restreindre l'accès à une méthode selon le rôle de l'utilisateur.
- * Le rôle est vérifié dans la session (clé "role" ou "profile" par défaut).
+ * Le rôle est vérifié dans la session (clé "profile" par défaut). La valeur en
+ * session peut être un rôle, plusieurs rôles séparés par des virgules, un tableau
+ * ou une collection.
+ *
+ * Placée sur la classe, elle s'applique à toutes ses méthodes ; si la méthode
+ * porte aussi @Role, l'utilisateur doit satisfaire les deux.
  * 
  * Exemple d'utilisation:
  * <pre>
@@ -22,10 +27,14 @@ import java.lang.annotation.Target;
  * public ModelView reports() {
  *     return new ModelView("reports.jsp");
  * }
+ *
+ * @Role("admin")  // Toutes les méthodes du contrôleur
+ * @Controller
+ * public class AdminController { ... }
  * </pre>
  */
 @Retention(RetentionPolicy.RUNTIME)
-@Target(ElementType.METHOD)
+@Target({ElementType.TYPE, ElementType.METHOD})
 public @interface Role {
     /**
      * Le ou les rôles autorisés à accéder à cette méthode.
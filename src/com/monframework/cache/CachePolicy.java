@@ -0,0 +1,105 @@
+package com.monframework.cache;
+
+import com.monframework.annotations.Cacheable;
+import com.monframework.handler.CompressionHandler;
+import com.monframework.handler.RoleHandler;
+import com.monframework.handler.RoleRule;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+
+import java.lang.reflect.Method;
+
+/**
+ * Règle de cache d'une route, calculée au scan à partir de @Cacheable.
+ */
+public final class CachePolicy {
+
+    private final String name;
+    private final long ttlMillis;
+    private final String[] params;
+    private final String[] sessionKeys;
+    private final boolean perRole;
+    private final RoleRule roleRule;
+
+    private CachePolicy(String name, long ttlMillis, String[] params, String[] sessionKeys,
+                        boolean perRole, RoleRule roleRule) {
+        this.name = name;
+        this.ttlMillis = ttlMillis;
+        this.params = params;
+        this.sessionKeys = sessionKeys;
+        this.perRole = perRole;
+        this.roleRule = roleRule;
+    }
+
+    /**
+     * Règle d'une méthode, ou null si elle n'est pas @Cacheable ou pas accessible en GET.
+     */
+    public static CachePolicy of(Method method, String url, String httpMethod, RoleRule roleRule) {
+        Cacheable cacheable = method.getAnnotation(Cacheable.class);
+        if (cacheable == null) return null;
+        if (!"GET".equals(httpMethod) && !"ANY".equals(httpMethod)) {
+            System.out.println("[ATTENTION] @Cacheable ignoré sur " + method.getName()
+                    + " : seules les routes GET sont mises en cache");
+            return null;
+        }
+        String name = cacheable.name().isEmpty() ? url : cacheable.name();
+        return new CachePolicy(name, cacheable.ttl() * 1000, cacheable.params(), cacheable.session(),
+                cacheable.perRole(), roleRule);
+    }
+
+    /**
+     * Nom du cache (pour {@link ResponseCache#invalidate(String)}).
+     */
+    public String getName() {
+        return name;
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    /**
+     * Vrai si cette requête peut être servie ou enregistrée par le cache.
+     */
+    public boolean applies(HttpServletRequest req) {
+        return "GET".equals(req.getMethod());
+    }
+
+    /**
+     * Clé de la requête : nom, chemin, paramètres choisis, session, rôles et codage accepté.
+     */
+    public String key(HttpServletRequest req, String path) {
+        StringBuilder sb = new StringBuilder(64).append(name).append('\u0000').append(path);
+        for (String param : params) {
+            sb.append('\u0000');
+            String[] values = req.getParameterValues(param);
+            if (values != null) {
+                sb.append(String.join("\u0001", values));
+            }
+        }
+        if (sessionKeys.length > 0 || (perRole && roleRule == null)) {
+            HttpSession session = req.getSession(false);
+            for (String key : sessionKeys) {
+                sb.append('\u0000').append(attribute(session, key));
+            }
+            if (perRole && roleRule == null) {
+                sb.append('\u0000').append(attribute(session, "profile"));
+            }
+        }
+        if (perRole && roleRule != null) {
+            sb.append('\u0000').append(RoleHandler.roleKey(req, roleRule));
+        }
+        // Le corps enregistré peut être compressé : une entrée par codage accepté
+        String encoding = CompressionHandler.acceptedEncoding(req);
+        if (encoding != null) {
+            sb.append('\u0000').append(encoding);
+        }
+        return sb.toString();
+    }
+
+    private static String attribute(HttpSession session, String key) {
+        Object value = session != null ? session.getAttribute(key) : null;
+        return value != null ? value.toString() : "";
+    }
+}
@@ -0,0 +1,55 @@
+package com.monframework.cache;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Réponse enregistrée : corps encodé et en-têtes, prêts à être renvoyés.
+ */
+final class CachedResponse {
+
+    // Coût fixe estimé d'une entrée (objets, clé, en-têtes)
+    private static final int OVERHEAD = 256;
+
+    final String name;
+    final String contentType;
+    final List<String[]> headers;
+    final byte[] body;
+    final long expiresAt;
+    final long weight;
+    volatile long lastAccess;
+
+    CachedResponse(String name, String key, String contentType, List<String[]> headers,
+                   byte[] body, long expiresAt, long now) {
+        this.name = name;
+        this.contentType = contentType;
+        this.headers = headers;
+        this.body = body;
+        this.expiresAt = expiresAt;
+        this.lastAccess = now;
+        this.weight = OVERHEAD + 2L * key.length() + body.length;
+    }
+
+    boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+
+    String header(String name) {
+        for (String[] header : headers) {
+            if (header[0].equalsIgnoreCase(name)) return header[1];
+        }
+        return null;
+    }
+
+    void writeTo(HttpServletResponse resp) throws IOException {
+        resp.setStatus(HttpServletResponse.SC_OK);
+        if (contentType != null) resp.setContentType(contentType);
+        for (String[] header : headers) {
+            resp.addHeader(header[0], header[1]);
+        }
+        resp.setContentLength(body.length);
+        resp.getOutputStream().write(body);
+    }
+}
@@ -0,0 +1,230 @@
+package com.monframework.cache;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Enveloppe de réponse qui envoie le corps au client tout en gardant une copie
+ * (jusqu'à une taille maximale) pour le cache.
+ */
+final class CaptureResponse extends HttpServletResponseWrapper {
+
+    final String key;
+    final CachePolicy policy;
+
+    private final int maxBytes;
+    private final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+    private final List<String[]> headers = new ArrayList<>();
+    private int status = SC_OK;
+    private boolean cacheable = true;
+    private ServletOutputStream stream;
+    private PrintWriter writer;
+
+    CaptureResponse(HttpServletResponse resp, String key, CachePolicy policy, int maxBytes) {
+        super(resp);
+        this.key = key;
+        this.policy = policy;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Vrai si la réponse est un 200 complet, sans cookie, qui tient dans la taille maximale.
+     */
+    boolean isCacheable() {
+        return cacheable && status == SC_OK;
+    }
+
+    byte[] body() {
+        if (writer != null) writer.flush();
+        return copy.toByteArray();
+    }
+
+    List<String[]> headers() {
+        return headers;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (stream == null) {
+            stream = new TeeOutputStream(super.getOutputStream());
+        }
+        return stream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            Charset charset = Charset.forName(getCharacterEncoding());
+            writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), charset));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) writer.flush();
+        super.flushBuffer();
+    }
+
+    @Override
+    public void setStatus(int sc) {
+        status = sc;
+        super.setStatus(sc);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        cacheable = false;
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        cacheable = false;
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        cacheable = false;
+        super.sendRedirect(location);
+    }
+
+    @Override
+    public void addCookie(Cookie cookie) {
+        cacheable = false;
+        super.addCookie(cookie);
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        headers.removeIf(h -> h[0].equalsIgnoreCase(name));
+        addHeader(name, value);
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (name.equalsIgnoreCase("Set-Cookie")) {
+            cacheable = false;
+        } else if (!name.equalsIgnoreCase("Content-Type") && !name.equalsIgnoreCase("Content-Length")) {
+            headers.add(new String[] {name, value});
+        }
+        super.addHeader(name, value);
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        setHeader(name, Integer.toString(value));
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        addHeader(name, Integer.toString(value));
+    }
+
+    @Override
+    public void setDateHeader(String name, long date) {
+        if (name.equalsIgnoreCase("Last-Modified")) {
+            headers.removeIf(h -> h[0].equalsIgnoreCase(name));
+            headers.add(new String[] {name, httpDate(date)});
+        } else {
+            cacheable = false; // Date, Expires... : ne pas rejouer une date figée
+        }
+        super.setDateHeader(name, date);
+    }
+
+    @Override
+    public void addDateHeader(String name, long date) {
+        if (name.equalsIgnoreCase("Last-Modified")) {
+            headers.add(new String[] {name, httpDate(date)});
+        } else {
+            cacheable = false;
+        }
+        super.addDateHeader(name, date);
+    }
+
+    private static String httpDate(long date) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(date).atZone(ZoneOffset.UTC));
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        copy.reset();
+        headers.clear();
+        status = SC_OK;
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        copy.reset();
+    }
+
+    /**
+     * Flux qui écrit vers le client et dans la copie.
+     */
+    private final class TeeOutputStream extends ServletOutputStream {
+        private final ServletOutputStream out;
+
+        TeeOutputStream(ServletOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            if (keep(1)) copy.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            if (keep(len)) copy.write(b, off, len);
+        }
+
+        private boolean keep(int len) {
+            if (!cacheable) return false;
+            if (copy.size() + len > maxBytes) {
+                cacheable = false; // trop gros pour le cache : on libère la copie
+                copy.reset();
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return out.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            out.setWriteListener(listener);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.monframework.cache;
+
+import com.monframework.handler.ConditionalHandler;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache en mémoire des réponses des routes @Cacheable.
+ *
+ * Les entrées sont limitées par un budget mémoire (paramètre "cache.maxBytes") :
+ * quand il est dépassé, les entrées expirées puis les moins récemment lues sont
+ * retirées, jusqu'à redescendre à 90 % du budget.
+ */
+public final class ResponseCache {
+
+    /**
+     * Budget mémoire par défaut : 16 MB.
+     */
+    public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    /**
+     * Taille maximale par défaut d'une réponse mise en cache : 1 MB.
+     */
+    public static final int DEFAULT_MAX_ENTRY_BYTES = 1024 * 1024;
+
+    private static final Map<String, CachedResponse> ENTRIES = new ConcurrentHashMap<>();
+    private static final AtomicLong WEIGHT = new AtomicLong();
+    private static final ReentrantLock EVICTION = new ReentrantLock();
+
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final LongAdder EVICTIONS = new LongAdder();
+
+    private static volatile long maxBytes = DEFAULT_MAX_BYTES;
+    private static volatile int maxEntryBytes = DEFAULT_MAX_ENTRY_BYTES;
+
+    private ResponseCache() {}
+
+    /**
+     * Change le budget mémoire (paramètre "cache.maxBytes").
+     */
+    public static void setMaxBytes(long bytes) {
+        maxBytes = bytes > 0 ? bytes : DEFAULT_MAX_BYTES;
+    }
+
+    /**
+     * Change la taille maximale d'une réponse (paramètre "cache.maxEntryBytes").
+     */
+    public static void setMaxEntryBytes(int bytes) {
+        maxEntryBytes = bytes > 0 ? bytes : DEFAULT_MAX_ENTRY_BYTES;
+    }
+
+    /**
+     * Renvoie la réponse en cache si elle existe.
+     * @return true si la réponse a été servie depuis le cache
+     */
+    public static boolean serve(HttpServletRequest req, HttpServletResponse resp,
+                                CachePolicy policy, String path) throws IOException {
+        if (!policy.applies(req)) return false;
+        String key = policy.key(req, path);
+        CachedResponse cached = ENTRIES.get(key);
+        long now = System.currentTimeMillis();
+        if (cached == null || cached.isExpired(now)) {
+            if (cached != null && ENTRIES.remove(key, cached)) {
+                WEIGHT.addAndGet(-cached.weight);
+            }
+            MISSES.increment();
+            return false;
+        }
+        HITS.increment();
+        cached.lastAccess = now;
+        resp.setHeader("X-Cache", "HIT");
+        String etag = cached.header("ETag");
+        if (etag != null && ConditionalHandler.matches(req, etag)) {
+            resp.setHeader("ETag", etag);
+            resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+        cached.writeTo(resp);
+        return true;
+    }
+
+    /**
+     * Enveloppe la réponse pour en garder une copie ; la réponse d'origine
+     * est retournée si la requête ne peut pas être mise en cache.
+     */
+    public static HttpServletResponse capture(HttpServletRequest req, HttpServletResponse resp,
+                                              CachePolicy policy, String path) {
+        if (!policy.applies(req)) return resp;
+        resp.setHeader("X-Cache", "MISS");
+        return new CaptureResponse(resp, policy.key(req, path), policy, maxEntryBytes);
+    }
+
+    /**
+     * Enregistre la réponse capturée, si elle peut l'être.
+     */
+    public static void store(HttpServletResponse resp) {
+        if (!(resp instanceof CaptureResponse)) return;
+        CaptureResponse captured = (CaptureResponse) resp;
+        if (!captured.isCacheable()) return;
+
+        byte[] body = captured.body();
+        if (!captured.isCacheable()) return; // dépassement au dernier flush
+        long now = System.currentTimeMillis();
+        CachePolicy policy = captured.policy;
+        CachedResponse entry = new CachedResponse(policy.getName(), captured.key, captured.getContentType(),
+                new ArrayList<>(captured.headers()), body, now + policy.getTtlMillis(), now);
+
+        CachedResponse previous = ENTRIES.put(captured.key, entry);
+        WEIGHT.addAndGet(entry.weight - (previous != null ? previous.weight : 0));
+        if (WEIGHT.get() > maxBytes) {
+            evict();
+        }
+    }
+
+    /**
+     * Supprime toutes les entrées d'un cache (nom de @Cacheable, ou URL de la route).
+     * A appeler par les contrôleurs après une modification des données.
+     */
+    public static void invalidate(String name) {
+        for (Map.Entry<String, CachedResponse> e : ENTRIES.entrySet()) {
+            if (e.getValue().name.equals(name)) drop(e.getKey(), e.getValue());
+        }
+    }
+
+    /**
+     * Vide tout le cache.
+     */
+    public static void invalidateAll() {
+        for (Map.Entry<String, CachedResponse> e : ENTRIES.entrySet()) {
+            drop(e.getKey(), e.getValue());
+        }
+    }
+
+    /**
+     * Retire l'entrée si elle est toujours celle-ci : une entrée remplacée entre-temps
+     * par store() reste, et son poids n'est pas décompté.
+     */
+    private static boolean drop(String key, CachedResponse entry) {
+        if (!ENTRIES.remove(key, entry)) return false;
+        WEIGHT.addAndGet(-entry.weight);
+        return true;
+    }
+
+    public static long getHits() {
+        return HITS.sum();
+    }
+
+    public static long getMisses() {
+        return MISSES.sum();
+    }
+
+    public static long getEvictions() {
+        return EVICTIONS.sum();
+    }
+
+    public static int getSize() {
+        return ENTRIES.size();
+    }
+
+    /**
+     * Mémoire estimée occupée par les entrées, en octets.
+     */
+    public static long getWeight() {
+        return WEIGHT.get();
+    }
+
+    /**
+     * Retire les entrées expirées puis les moins récemment lues. Un seul thread
+     * à la fois : les autres continuent sans attendre.
+     */
+    private static void evict() {
+        if (!EVICTION.tryLock()) return;
+        try {
+            long now = System.currentTimeMillis();
+            List<Candidate> candidates = new ArrayList<>(ENTRIES.size());
+            for (Map.Entry<String, CachedResponse> e : ENTRIES.entrySet()) {
+                if (e.getValue().isExpired(now)) {
+                    remove(e.getKey(), e.getValue());
+                } else {
+                    candidates.add(new Candidate(e.getKey(), e.getValue()));
+                }
+            }
+
+            long target = maxBytes - maxBytes / 10;
+            if (WEIGHT.get() <= target) return;
+            candidates.sort(Comparator.comparingLong(c -> c.lastAccess));
+            for (Candidate c : candidates) {
+                if (WEIGHT.get() <= target) break;
+                remove(c.key, c.entry);
+            }
+        } finally {
+            EVICTION.unlock();
+        }
+    }
+
+    private static void remove(String key, CachedResponse entry) {
+        if (drop(key, entry)) {
+            EVICTIONS.increment();
+        }
+    }
+
+    /**
+     * Entrée à évincer, avec sa date de lecture figée pour le tri.
+     */
+    private static final class Candidate {
+        final String key;
+        final CachedResponse entry;
+        final long lastAccess;
+
+        Candidate(String key, CachedResponse entry) {
+            this.key = key;
+            this.entry = entry;
+            this.lastAccess = entry.lastAccess;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.monframework.handler;
+
+/**
+ * Limite de concurrence ajustée selon la latence (méthode du gradient).
+ *
+ * On suit la latence « à vide » (la plus basse observée, qui remonte lentement)
+ * et on compare chaque mesure à deux fois cette valeur : au-delà, la limite
+ * baisse en proportion (au plus de moitié) ; en dessous, elle monte d'environ
+ * sa racine carrée. La nouvelle valeur est lissée sur les mesures précédentes.
+ *
+ * Les mises à jour ne prennent pas de verrou : deux mesures simultanées peuvent
+ * s'écraser, ce qui ne fait que retarder l'ajustement d'une mesure.
+ */
+final class AdaptiveLimit {
+
+    private static final double TOLERANCE = 2.0;
+    private static final double SMOOTHING = 0.2;
+    private static final int INITIAL = 20;
+    private static final int DRIFT = 1000; // la latence à vide suit une hausse durable sur ~1000 mesures
+
+    private final ConcurrencyLimiter limiter;
+    private final int max;
+    private volatile double estimate;
+    private volatile long noLoad = Long.MAX_VALUE;
+
+    AdaptiveLimit(ConcurrencyLimiter limiter, int max) {
+        this.limiter = limiter;
+        this.max = max;
+        this.estimate = Math.min(max, INITIAL);
+        limiter.setLimit((int) estimate);
+    }
+
+    /**
+     * Mesure d'un appel terminé.
+     * @param inFlight appels encore en cours à cet instant
+     */
+    void sample(long latency, int inFlight) {
+        if (latency <= 0) return;
+        long base = noLoad;
+        if (latency < base) {
+            noLoad = latency;
+            base = latency;
+        } else {
+            noLoad = base + (latency - base) / DRIFT;
+        }
+
+        double limit = estimate;
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * base / latency));
+        double target = limit * gradient + Math.sqrt(limit);
+        // Limite peu utilisée : la latence ne dit rien de sa justesse, on ne l'augmente pas
+        if (target > limit && inFlight < limit / 2) return;
+
+        double next = Math.max(1, Math.min(max, limit * (1 - SMOOTHING) + target * SMOOTHING));
+        estimate = next;
+        limiter.setLimit((int) next);
+    }
+
+    int getLimit() {
+        return limiter.getLimit();
+    }
+}
@@ -1,17 +1,27 @@
 package com.monframework.handler;
 
+import com.monframework.annotations.JsonBody;
 import com.monframework.annotations.Param;
 import com.monframework.annotations.Session;
 import com.monframework.mapping.MethodMapping;
+import com.monframework.mapping.RouteMatch;
+import com.monframework.model.BindingErrors;
 import com.monframework.model.UploadedFile;
+import com.monframework.util.ConversionException;
+import com.monframework.util.Converter;
 import com.monframework.util.TypeConverter;
 
 import jakarta.servlet.http.HttpServletRequest;
-import java.lang.reflect.Field;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
 
 /**
  * Résolution des arguments pour les méthodes de contrôleur.
@@ -21,95 +31,168 @@ public class ArgumentResolver {
     /**
      * Résout tous les arguments d'une méthode à partir de la requête.
      */
-    public static Object[] resolveArguments(HttpServletRequest req, MethodMapping mapping, Matcher matched) throws Exception {
-        Parameter[] params = mapping.getMethod().getParameters();
-        Object[] args = new Object[params.length];
+    public static Object[] resolveArguments(HttpServletRequest req, MethodMapping mapping, RouteMatch matched) throws Exception {
+        ParamResolver[] resolvers = mapping.getResolvers();
+        Object[] args = new Object[resolvers.length];
 
-        for (int i = 0; i < params.length; i++) {
-            args[i] = resolveArgument(req, mapping, matched, params[i]);
+        for (int i = 0; i < resolvers.length; i++) {
+            args[i] = resolvers[i].resolve(req, matched);
         }
 
         return args;
     }
 
     /**
-     * Résout un argument individuel.
+     * Calcule, au scan, la stratégie de résolution de chaque paramètre d'une méthode.
+     */
+    public static ParamResolver[] plan(Method method, List<String> variables) {
+        Parameter[] params = method.getParameters();
+        ParamResolver[] resolvers = new ParamResolver[params.length];
+
+        boolean errorsDeclared = false;
+        for (Parameter param : params) {
+            if (param.getType() == BindingErrors.class) errorsDeclared = true;
+        }
+
+        for (int i = 0; i < params.length; i++) {
+            resolvers[i] = planArgument(params[i], variables, errorsDeclared);
+        }
+
+        return resolvers;
+    }
+
+    /**
+     * Choisit la stratégie d'un argument individuel.
      */
-    private static Object resolveArgument(HttpServletRequest req, MethodMapping mapping, 
-                                          Matcher matched, Parameter param) throws Exception {
+    private static ParamResolver planArgument(Parameter param, List<String> variables, boolean errorsDeclared) {
         Class<?> paramType = param.getType();
 
+        // @JsonBody : corps JSON de la requête. Sans paramètre BindingErrors pour
+        // les consulter, une erreur de binding du corps donne une réponse 400.
+        JsonBody jsonBody = param.getAnnotation(JsonBody.class);
+        if (jsonBody != null) {
+            Type bodyType = param.getParameterizedType();
+            long maxSize = jsonBody.maxSize();
+            if (errorsDeclared) {
+                return (req, matched) -> JsonBinder.readBody(req, bodyType, maxSize, bindingErrors(req));
+            }
+            return (req, matched) -> {
+                BindingErrors errors = new BindingErrors();
+                Object value = JsonBinder.readBody(req, bodyType, maxSize, errors);
+                if (errors.hasErrors()) {
+                    throw new HttpException(400, "Corps JSON invalide : " + errors.getErrors());
+                }
+                return value;
+            };
+        }
+
         // @Session Map<String, Object>
         if (Map.class.isAssignableFrom(paramType) && param.isAnnotationPresent(Session.class)) {
-            return SessionHandler.loadSession(req);
+            if (paramType.isAssignableFrom(SessionMap.class)) {
+                return (req, matched) -> SessionHandler.loadSession(req);
+            }
+            // Type concret demandé (HashMap...) : copie de la session
+            return (req, matched) -> new HashMap<>(SessionHandler.loadSession(req));
         }
 
         // Map<String, Object> pour les paramètres
         if (Map.class.isAssignableFrom(paramType)) {
-            return resolveMapParam(req, mapping, matched);
+            return new MapResolver(variables);
         }
 
         // UploadedFile
         if (UploadedFile.class.isAssignableFrom(paramType)) {
             String paramName = getParamName(param);
-            return FileUploadHandler.getUploadedFile(req, paramName);
+            return (req, matched) -> FileUploadHandler.getUploadedFile(req, paramName);
         }
 
-        // Objet complexe
-        if (!TypeConverter.isSimpleType(paramType)) {
-            try {
-                return bindObjectParam(req, matched, mapping, paramType);
-            } catch (Exception e) {
-                // Fallback vers la logique classique
-            }
+        // Erreurs de binding de la requête
+        if (paramType == BindingErrors.class) {
+            return (req, matched) -> bindingErrors(req);
+        }
+
+        // Tableau ou liste de valeurs simples : toutes les valeurs du paramètre
+        Converter<?> elementConverter = elementConverter(param);
+        if (elementConverter != null) {
+            return new ValuesResolver(getParamName(param), paramType, variables, elementConverter);
         }
 
-        // Type simple
-        return resolveSimpleParam(req, mapping, matched, param);
+        // Type simple (convertisseur connu)
+        Converter<?> converter = TypeConverter.converterFor(paramType);
+        if (converter != null) {
+            return planSimpleParam(param, variables, converter);
+        }
+
+        // Objet complexe
+        return new ObjectResolver(paramType, variables);
     }
 
     /**
-     * Résout un paramètre de type Map avec tous les paramètres de la requête.
+     * Stratégie d'un paramètre simple (String, int, etc.) : variable d'URL ou paramètre de requête.
+     * Une variable d'URL est convertie directement dans le chemin, sans sous-chaîne.
      */
-    private static Map<String, Object> resolveMapParam(HttpServletRequest req, 
-                                                        MethodMapping mapping, Matcher matched) {
-        Map<String, Object> allParams = new HashMap<>();
-
-        // Paramètres GET/POST
-        Map<String, String[]> requestParams = req.getParameterMap();
-        for (Map.Entry<String, String[]> entry : requestParams.entrySet()) {
-            String[] values = entry.getValue();
-            if (values.length == 1) {
-                allParams.put(entry.getKey(), values[0]);
-            } else {
-                allParams.put(entry.getKey(), values);
-            }
-        }
+    private static ParamResolver planSimpleParam(Parameter param, List<String> variables, Converter<?> converter) {
+        String paramName = getParamName(param);
+        int indexVar = variables.indexOf(paramName);
 
-        // Variables de l'URL
-        for (int j = 0; j < mapping.getVariables().size(); j++) {
-            String varName = mapping.getVariables().get(j);
-            String varValue = matched.group(j + 1);
-            allParams.put(varName, varValue);
+        if (indexVar >= 0) {
+            return (req, matched) -> {
+                String path = matched.getPath();
+                int start = matched.getVariableStart(indexVar);
+                int end = matched.getVariableEnd(indexVar);
+                try {
+                    return converter.convert(path, start, end);
+                } catch (ConversionException e) {
+                    throw invalid(paramName, e);
+                }
+            };
         }
+        return (req, matched) -> {
+            String value = req.getParameter(paramName);
+            if (value == null) return null;
+            try {
+                return converter.convert(value);
+            } catch (ConversionException e) {
+                throw invalid(paramName, e);
+            }
+        };
+    }
 
-        return allParams;
+    /**
+     * Convertisseur des éléments d'un paramètre T[] ou List&lt;T&gt;, ou null.
+     */
+    private static Converter<?> elementConverter(Parameter param) {
+        Class<?> type = param.getType();
+        if (type.isArray()) {
+            return TypeConverter.converterFor(type.getComponentType());
+        }
+        if (type.isAssignableFrom(ArrayList.class) && Collection.class.isAssignableFrom(type)) {
+            Type generic = param.getParameterizedType();
+            if (generic instanceof ParameterizedType) {
+                Type arg = ((ParameterizedType) generic).getActualTypeArguments()[0];
+                if (arg instanceof Class) return TypeConverter.converterFor((Class<?>) arg);
+            }
+        }
+        return null;
     }
 
     /**
-     * Résout un paramètre simple (String, int, etc.).
+     * Valeur invalide envoyée par le client : réponse 400.
      */
-    private static Object resolveSimpleParam(HttpServletRequest req, MethodMapping mapping,
-                                             Matcher matched, Parameter param) {
-        String paramName = getParamName(param);
-        int indexVar = mapping.getVariables().indexOf(paramName);
+    private static HttpException invalid(String paramName, ConversionException e) {
+        return new HttpException(400, "Paramètre '" + paramName + "' invalide : " + e.getMessage());
+    }
 
-        if (indexVar >= 0) {
-            String value = matched.group(indexVar + 1);
-            return TypeConverter.convert(value, param.getType());
-        } else {
-            return TypeConverter.convert(req.getParameter(paramName), param.getType());
+    /**
+     * Erreurs de binding de la requête courante (créées au besoin).
+     */
+    private static BindingErrors bindingErrors(HttpServletRequest req) {
+        BindingErrors errors = (BindingErrors) req.getAttribute(BindingErrors.ATTRIBUTE);
+        if (errors == null) {
+            errors = new BindingErrors();
+            req.setAttribute(BindingErrors.ATTRIBUTE, errors);
         }
+        return errors;
     }
 
     /**
@@ -124,46 +207,108 @@ public class ArgumentResolver {
     }
 
     /**
-     * Bind un objet complexe depuis les paramètres de la requête.
+     * Tableau (T[], int[]...) ou liste de toutes les valeurs d'un paramètre.
+     * Une variable d'URL donne un seul élément.
      */
-    private static Object bindObjectParam(HttpServletRequest req, Matcher matched, 
-                                          MethodMapping mapping, Class<?> paramType) throws Exception {
-        Object instance = paramType.getDeclaredConstructor().newInstance();
+    private static final class ValuesResolver implements ParamResolver {
+        private final String name;
+        private final Class<?> componentType; // null pour une liste
+        private final int indexVar;
+        private final Converter<?> converter;
 
-        // Variables de l'URL
-        for (int j = 0; j < mapping.getVariables().size(); j++) {
-            String varName = mapping.getVariables().get(j);
-            String varValue = matched.group(j + 1);
-            trySetField(instance, varName, varValue);
+        ValuesResolver(String name, Class<?> type, List<String> variables, Converter<?> converter) {
+            this.name = name;
+            this.componentType = type.isArray() ? type.getComponentType() : null;
+            this.indexVar = variables.indexOf(name);
+            this.converter = converter;
         }
 
-        // Paramètres GET/POST
-        Map<String, String[]> requestParams = req.getParameterMap();
-        for (Map.Entry<String, String[]> entry : requestParams.entrySet()) {
-            String key = entry.getKey();
-            String[] values = entry.getValue();
-            String val = (values != null && values.length > 0) ? values[0] : null;
-            trySetField(instance, key, val);
+        @Override
+        public Object resolve(HttpServletRequest req, RouteMatch matched) {
+            String[] values = indexVar >= 0
+                    ? new String[] { matched.getVariable(indexVar) }
+                    : req.getParameterValues(name);
+            if (values == null) return null;
+            try {
+                if (componentType == null) {
+                    List<Object> list = new ArrayList<>(values.length);
+                    for (String v : values) list.add(converter.convert(v));
+                    return list;
+                }
+                Object array = Array.newInstance(componentType, values.length);
+                for (int i = 0; i < values.length; i++) {
+                    Array.set(array, i, converter.convert(values[i]));
+                }
+                return array;
+            } catch (ConversionException e) {
+                throw invalid(name, e);
+            }
         }
+    }
 
-        return instance;
+    /**
+     * Map avec tous les paramètres de la requête et les variables de l'URL.
+     */
+    private static final class MapResolver implements ParamResolver {
+        private final String[] variables;
+
+        MapResolver(List<String> variables) {
+            this.variables = variables.toArray(new String[0]);
+        }
+
+        @Override
+        public Object resolve(HttpServletRequest req, RouteMatch matched) {
+            Map<String, Object> allParams = new HashMap<>();
+
+            // Paramètres GET/POST
+            Map<String, String[]> requestParams = req.getParameterMap();
+            for (Map.Entry<String, String[]> entry : requestParams.entrySet()) {
+                String[] values = entry.getValue();
+                if (values.length == 1) {
+                    allParams.put(entry.getKey(), values[0]);
+                } else {
+                    allParams.put(entry.getKey(), values);
+                }
+            }
+
+            // Variables de l'URL
+            for (int j = 0; j < variables.length; j++) {
+                allParams.put(variables[j], matched.getVariable(j));
+            }
+
+            return allParams;
+        }
     }
 
     /**
-     * Tente de définir un champ d'un objet.
+     * Objet complexe construit depuis les paramètres de la requête.
      */
-    private static void trySetField(Object instance, String fieldName, String stringValue) {
-        if (stringValue == null) return;
-        Class<?> cls = instance.getClass();
-        try {
-            Field f = cls.getDeclaredField(fieldName);
-            f.setAccessible(true);
-            Object converted = TypeConverter.convert(stringValue, f.getType());
-            f.set(instance, converted);
-        } catch (NoSuchFieldException e) {
-            // champ introuvable → on ignore
-        } catch (Exception e) {
-            // problème de conversion/affectation → on ignore
+    private static final class ObjectResolver implements ParamResolver {
+        private final ObjectBinder binder;
+        private final String[] variables;
+
+        ObjectResolver(Class<?> type, List<String> variables) {
+            this.binder = ObjectBinder.of(type);
+            this.variables = variables.toArray(new String[0]);
+        }
+
+        @Override
+        public Object resolve(HttpServletRequest req, RouteMatch matched) {
+            BindingErrors errors = bindingErrors(req);
+            Object instance = binder.newInstance(binder.getType().getSimpleName(), errors);
+            if (instance == null) return null;
+
+            // Variables de l'URL
+            for (int j = 0; j < variables.length; j++) {
+                binder.bind(instance, variables[j], new String[] { matched.getVariable(j) }, errors);
+            }
+
+            // Paramètres GET/POST
+            for (Map.Entry<String, String[]> entry : req.getParameterMap().entrySet()) {
+                binder.bind(instance, entry.getKey(), entry.getValue(), errors);
+            }
+
+            return instance;
         }
     }
 }
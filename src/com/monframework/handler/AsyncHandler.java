@@ -0,0 +1,205 @@
+package com.monframework.handler;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exécution asynchrone des méthodes de contrôleur (@Async, CompletionStage).
+ *
+ * Les méthodes @Async tournent sur des threads virtuels quand la JVM les
+ * propose (Java 21+), sinon sur un pool borné de threads démons ("async.threads",
+ * file d'attente "async.queue") : pool et file pleins, la requête reçoit 503.
+ */
+public class AsyncHandler {
+
+    /**
+     * Délai maximal par défaut d'une requête asynchrone : 30 s.
+     */
+    public static final long DEFAULT_TIMEOUT = 30_000;
+
+    /**
+     * Taille par défaut de la file d'attente du pool (hors threads virtuels).
+     */
+    public static final int DEFAULT_QUEUE = 256;
+
+    private static volatile ExecutorService executor = createExecutor(0, DEFAULT_QUEUE);
+
+    private static volatile long timeout = DEFAULT_TIMEOUT;
+
+    /**
+     * Change le délai maximal (paramètre "async.timeout", en millisecondes).
+     */
+    public static void setTimeout(long millis) {
+        timeout = millis > 0 ? millis : DEFAULT_TIMEOUT;
+    }
+
+    /**
+     * Crée l'exécuteur des méthodes @Async (paramètres "async.threads" et "async.queue",
+     * sans effet avec les threads virtuels).
+     */
+    public static synchronized void configure(int threads, int queue) {
+        shutdown();
+        executor = createExecutor(threads, queue);
+    }
+
+    public static synchronized void shutdown() {
+        ExecutorService current = executor;
+        if (current != null) current.shutdownNow();
+    }
+
+    /**
+     * Exécuteur des méthodes @Async.
+     */
+    public static ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Lance la suite de la requête sur l'exécuteur ; exécuteur saturé : réponse 503.
+     * @return faux si la tâche a été refusée
+     */
+    public static boolean submit(AsyncRequest async, Runnable task) {
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            async.fail(new HttpException(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Serveur saturé"));
+            return false;
+        }
+    }
+
+    /**
+     * Passe la requête en mode asynchrone.
+     */
+    public static AsyncRequest start(HttpServletRequest req, HttpServletResponse resp) {
+        AsyncContext ac = req.startAsync(req, resp);
+        ac.setTimeout(timeout);
+        AsyncRequest ar = new AsyncRequest(ac, resp);
+        ac.addListener(ar);
+        return ar;
+    }
+
+    /**
+     * Retire les enveloppes CompletionException / ExecutionException.
+     */
+    public static Throwable unwrap(Throwable t) {
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t;
+    }
+
+    /**
+     * Threads virtuels si disponibles (Java 21+), sinon pool borné de threads démons.
+     */
+    private static ExecutorService createExecutor(int threads, int queue) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors() * 2;
+            AtomicInteger count = new AtomicInteger();
+            ThreadFactory factory = r -> {
+                Thread t = new Thread(r, "monframework-async-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            };
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(size, size, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queue > 0 ? queue : DEFAULT_QUEUE), factory);
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        }
+    }
+
+    /**
+     * Requête en mode asynchrone : la réponse n'est écrite qu'une seule fois,
+     * par le résultat, l'erreur ou l'expiration du délai.
+     */
+    public static final class AsyncRequest implements AsyncListener {
+        private final AsyncContext context;
+        private final HttpServletResponse resp;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        AsyncRequest(AsyncContext context, HttpServletResponse resp) {
+            this.context = context;
+            this.resp = resp;
+        }
+
+        /**
+         * Écrit la réponse puis termine la requête.
+         */
+        public void complete(ResponseWriter writer) {
+            if (!done.compareAndSet(false, true)) return;
+            try {
+                writer.write();
+            } catch (Exception e) {
+                writeError(e);
+            } finally {
+                context.complete();
+            }
+        }
+
+        /**
+         * Répond par une erreur puis termine la requête.
+         */
+        public void fail(Throwable t) {
+            if (!done.compareAndSet(false, true)) return;
+            try {
+                writeError(t instanceof Exception ? (Exception) t : new Exception(t));
+            } finally {
+                context.complete();
+            }
+        }
+
+        private void writeError(Exception e) {
+            try {
+                ResponseHandler.sendError(resp, e);
+            } catch (IOException io) {
+                // client parti : rien à faire
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            fail(new HttpException(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                    "Délai de traitement dépassé (" + timeout + " ms)"));
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            fail(event.getThrowable() != null ? event.getThrowable() : new IOException("Erreur asynchrone"));
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            done.set(true);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+    /**
+     * Écriture de la réponse une fois le résultat disponible.
+     */
+    @FunctionalInterface
+    public interface ResponseWriter {
+        void write() throws Exception;
+    }
+}
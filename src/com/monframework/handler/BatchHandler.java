@@ -0,0 +1,1108 @@
+package com.monframework.handler;
+
+import com.monframework.util.JsonSerializer;
+import com.monframework.util.JsonWriter;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.RequestDispatcher;
+import jakarta.servlet.ServletConnection;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletMapping;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpUpgradeHandler;
+import jakarta.servlet.http.Part;
+import jakarta.servlet.http.PushBuilder;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Appels groupés : un POST sur "batch.path" avec un tableau JSON
+ * <pre>
+ * [{"method": "GET", "path": "/produits", "params": {"page": "2", "tag": ["a", "b"]}},
+ *  {"method": "POST", "path": "/panier", "body": {"produit": 4}}]
+ * </pre>
+ * Chaque élément repasse par le service du FrontServlet (recherche de la route,
+ * rôles, arguments, session de l'appelant partagée). La réponse est un tableau
+ * JSON écrit au fil de l'eau, dans l'ordre de la demande :
+ * <pre>
+ * [{"status": 200, "body": {...}}, {"status": 403, "body": "Accès refusé..."}]
+ * </pre>
+ * Les GET / HEAD consécutifs s'exécutent en parallèle sur un pool borné ; un
+ * autre verbe attend la fin des éléments qui le précèdent et passe seul.
+ * Un élément non terminé à la fin du budget de temps reçoit le statut 504.
+ */
+public final class BatchHandler {
+
+    /**
+     * Nombre maximal d'éléments par défaut.
+     */
+    public static final int DEFAULT_MAX_ITEMS = 20;
+
+    /**
+     * Budget de temps par défaut d'un appel groupé : 10 s.
+     */
+    public static final long DEFAULT_TIMEOUT = 10_000;
+
+    /**
+     * Taille par défaut de la file d'attente du pool.
+     */
+    public static final int DEFAULT_QUEUE = 256;
+
+    /**
+     * Traitement d'une requête par le FrontServlet.
+     */
+    @FunctionalInterface
+    public interface Dispatcher {
+        void dispatch(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException;
+    }
+
+    // En-têtes de l'appelant qui n'ont pas de sens pour un sous-appel
+    private static final List<String> HIDDEN_HEADERS = List.of(
+            "accept", "accept-encoding", "content-type", "content-length", "transfer-encoding",
+            "if-none-match", "if-modified-since", "if-match", "if-range", "range");
+
+    private static volatile int maxItems = DEFAULT_MAX_ITEMS;
+    private static volatile long timeout = DEFAULT_TIMEOUT;
+    private static volatile ThreadPoolExecutor executor;
+
+    private BatchHandler() {}
+
+    public static void setMaxItems(int max) {
+        maxItems = max > 0 ? max : DEFAULT_MAX_ITEMS;
+    }
+
+    /**
+     * Budget de temps d'un appel groupé, en millisecondes (paramètre "batch.timeout").
+     */
+    public static void setTimeout(long millis) {
+        timeout = millis > 0 ? millis : DEFAULT_TIMEOUT;
+    }
+
+    /**
+     * Crée le pool des sous-appels (paramètres "batch.threads" et "batch.queue").
+     */
+    public static synchronized void configure(int threads, int queue) {
+        shutdown();
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors() * 2;
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, "monframework-batch-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(size, size, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queue > 0 ? queue : DEFAULT_QUEUE), factory);
+        pool.allowCoreThreadTimeOut(true);
+        executor = pool;
+    }
+
+    public static synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Exécute un appel groupé.
+     */
+    public static void handle(HttpServletRequest req, HttpServletResponse resp, Dispatcher dispatcher)
+            throws IOException {
+        if (!"POST".equals(req.getMethod())) {
+            ResponseHandler.sendMethodNotAllowed(resp, req.getRequestURI(), "POST");
+            return;
+        }
+        if (req instanceof SubRequest) {
+            throw new HttpException(HttpServletResponse.SC_BAD_REQUEST, "Appel groupé imbriqué refusé");
+        }
+
+        List<Item> items = parse(JsonBinder.readBody(req, Object.class, -1, null));
+        if (items.size() > maxItems) {
+            throw new HttpException(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
+                    "Trop d'éléments dans l'appel groupé : " + items.size() + " (maximum " + maxItems + ")");
+        }
+
+        ThreadPoolExecutor pool = executor;
+        if (pool == null) throw new IllegalStateException("BatchHandler non configuré");
+
+        Batch batch = new Batch(req, resp);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        resp.setContentType("application/json;charset=UTF-8");
+        OutputStream out = resp.getOutputStream();
+        try (JsonWriter w = new JsonWriter(out)) {
+            w.beginArray();
+            int next = 0;
+            while (next < items.size()) {
+                // Groupe : GET / HEAD consécutifs en parallèle, ou un seul autre verbe
+                int end = next + 1;
+                if (items.get(next).isSafe()) {
+                    while (end < items.size() && items.get(end).isSafe()) end++;
+                }
+                List<Future<Result>> group = new ArrayList<>(end - next);
+                for (int i = next; i < end; i++) {
+                    group.add(submit(pool, batch, items.get(i), dispatcher, deadline));
+                }
+                for (Future<Result> future : group) {
+                    await(future, deadline).write(w);
+                    w.flush(); // chaque résultat part dès qu'il est prêt
+                }
+                next = end;
+            }
+            w.endArray();
+        } finally {
+            batch.close();
+        }
+    }
+
+    private static Future<Result> submit(ThreadPoolExecutor pool, Batch batch, Item item,
+                                         Dispatcher dispatcher, long deadline) {
+        if (item.error != null) return CompletableFuture.completedFuture(item.error);
+        if (System.nanoTime() >= deadline) return null;
+        SubRequest sub = new SubRequest(batch, item);
+        try {
+            return pool.submit(() -> {
+                SubResponse resp = new SubResponse(batch.response);
+                dispatcher.dispatch(sub, resp);
+                return resp.result();
+            });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(
+                    Result.text(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Serveur saturé"));
+        }
+    }
+
+    private static Result await(Future<Result> future, long deadline) {
+        if (future == null) return Result.text(HttpServletResponse.SC_GATEWAY_TIMEOUT, "Budget de temps dépassé");
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | CancellationException e) {
+            future.cancel(true);
+            return Result.text(HttpServletResponse.SC_GATEWAY_TIMEOUT, "Budget de temps dépassé");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return Result.text(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Appel interrompu");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            return Result.text(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, String.valueOf(cause));
+        }
+    }
+
+    // === Lecture de la demande ===
+
+    private static List<Item> parse(Object body) {
+        if (!(body instanceof List)) {
+            throw new HttpException(HttpServletResponse.SC_BAD_REQUEST,
+                    "Appel groupé : tableau JSON d'éléments {method, path, params} attendu");
+        }
+        List<Item> items = new ArrayList<>();
+        for (Object element : (List<?>) body) {
+            items.add(Item.of(element));
+        }
+        return items;
+    }
+
+    /**
+     * Élément de l'appel groupé (ou son erreur de lecture, renvoyée telle quelle).
+     */
+    private static final class Item {
+        String method = "GET";
+        String path;
+        Map<String, String[]> params = new LinkedHashMap<>();
+        byte[] body;
+        Result error;
+
+        static Item of(Object element) {
+            Item item = new Item();
+            if (!(element instanceof Map)) {
+                item.error = Result.text(HttpServletResponse.SC_BAD_REQUEST, "Élément invalide : objet attendu");
+                return item;
+            }
+            Map<?, ?> map = (Map<?, ?>) element;
+            Object method = map.get("method");
+            Object path = map.get("path");
+            if (method instanceof String) item.method = ((String) method).toUpperCase(Locale.ROOT);
+            if (!(path instanceof String) || !((String) path).startsWith("/")) {
+                item.error = Result.text(HttpServletResponse.SC_BAD_REQUEST, "Élément invalide : \"path\" absolu attendu");
+                return item;
+            }
+            item.path = (String) path;
+            if (map.get("params") instanceof Map) {
+                for (Map.Entry<?, ?> e : ((Map<?, ?>) map.get("params")).entrySet()) {
+                    Object value = e.getValue();
+                    if (value instanceof List) {
+                        List<?> list = (List<?>) value;
+                        String[] values = new String[list.size()];
+                        for (int i = 0; i < values.length; i++) values[i] = String.valueOf(list.get(i));
+                        item.params.put(String.valueOf(e.getKey()), values);
+                    } else if (value != null) {
+                        item.params.put(String.valueOf(e.getKey()), new String[] { String.valueOf(value) });
+                    }
+                }
+            }
+            if (map.get("body") != null) {
+                item.body = JsonSerializer.toJson(map.get("body")).getBytes(StandardCharsets.UTF_8);
+            }
+            return item;
+        }
+
+        boolean isSafe() {
+            return "GET".equals(method) || "HEAD".equals(method);
+        }
+    }
+
+    /**
+     * Statut et corps d'un sous-appel.
+     */
+    private static final class Result {
+        final int status;
+        final boolean json;
+        final byte[] body;
+
+        Result(int status, boolean json, byte[] body) {
+            this.status = status;
+            this.json = json;
+            this.body = body;
+        }
+
+        static Result text(int status, String message) {
+            return new Result(status, false, message.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void write(JsonWriter w) throws IOException {
+            w.beginObject();
+            w.name("status").value(status);
+            w.name("body");
+            if (body == null || body.length == 0) {
+                w.nullValue();
+            } else if (json) {
+                w.rawValue(body, 0, body.length);
+            } else {
+                w.value(new String(body, StandardCharsets.UTF_8).trim());
+            }
+            w.endObject();
+        }
+    }
+
+    // === Sous-appels ===
+
+    /**
+     * État partagé par les sous-appels d'un même appel groupé. Ce que les
+     * sous-appels lisent de la requête d'origine (contexte, adresses, en-têtes,
+     * cookies, utilisateur...) est copié à la création, sur le thread du
+     * conteneur : un sous-appel qui tourne encore après la fin de l'appel (504) ne
+     * lit jamais une requête que le conteneur a recyclée pour un autre client.
+     * Le reste (session, rôles du conteneur...) passe par request(), qui refuse
+     * l'accès une fois l'appel terminé.
+     */
+    private static final class Batch {
+        final HttpServletRequest request;
+        final HttpServletResponse response;
+        final Map<String, Object> attributes = new HashMap<>();
+
+        // Instantané de la requête d'origine
+        final String contextPath;
+        final ServletContext servletContext;
+        final String scheme;
+        final String serverName;
+        final int serverPort;
+        final boolean secure;
+        final String protocol;
+        final String remoteAddr;
+        final String remoteHost;
+        final int remotePort;
+        final String localAddr;
+        final String localName;
+        final int localPort;
+        final List<Locale> locales;
+        final Principal userPrincipal;
+        final String remoteUser;
+        final String authType;
+        final Cookie[] cookies;
+        final String requestedSessionId;
+        final boolean sessionIdFromCookie;
+        final boolean sessionIdFromURL;
+        final String requestId;
+        final String protocolRequestId;
+        final List<String> headerNames = new ArrayList<>();
+        final Map<String, List<String>> headers = new HashMap<>(); // clés en minuscules
+
+        private volatile boolean closed;
+
+        Batch(HttpServletRequest request, HttpServletResponse response) {
+            this.request = request;
+            this.response = response;
+            // Instantané des attributs posés par les filtres, lu sur le thread du conteneur
+            Enumeration<String> names = request.getAttributeNames();
+            while (names != null && names.hasMoreElements()) {
+                String name = names.nextElement();
+                attributes.put(name, request.getAttribute(name));
+            }
+
+            contextPath = request.getContextPath();
+            servletContext = request.getServletContext();
+            scheme = request.getScheme();
+            serverName = request.getServerName();
+            serverPort = request.getServerPort();
+            secure = request.isSecure();
+            protocol = request.getProtocol();
+            remoteAddr = request.getRemoteAddr();
+            remoteHost = request.getRemoteHost();
+            remotePort = request.getRemotePort();
+            localAddr = request.getLocalAddr();
+            localName = request.getLocalName();
+            localPort = request.getLocalPort();
+            Enumeration<Locale> localeEnum = request.getLocales();
+            locales = localeEnum != null ? Collections.list(localeEnum) : List.of();
+            userPrincipal = request.getUserPrincipal();
+            remoteUser = request.getRemoteUser();
+            authType = request.getAuthType();
+            cookies = request.getCookies();
+            requestedSessionId = request.getRequestedSessionId();
+            sessionIdFromCookie = request.isRequestedSessionIdFromCookie();
+            sessionIdFromURL = request.isRequestedSessionIdFromURL();
+            requestId = request.getRequestId();
+            protocolRequestId = request.getProtocolRequestId();
+
+            Enumeration<String> headerEnum = request.getHeaderNames();
+            while (headerEnum != null && headerEnum.hasMoreElements()) {
+                String name = headerEnum.nextElement();
+                String lower = name.toLowerCase(Locale.ROOT);
+                if (HIDDEN_HEADERS.contains(lower) || headers.containsKey(lower)) continue;
+                headerNames.add(name);
+                Enumeration<String> values = request.getHeaders(name);
+                headers.put(lower, values != null ? Collections.list(values) : List.of());
+            }
+        }
+
+        HttpServletRequest request() {
+            if (closed) throw new IllegalStateException("Appel groupé terminé");
+            return request;
+        }
+
+        String header(String name) {
+            List<String> values = headers.get(name.toLowerCase(Locale.ROOT));
+            return values != null && !values.isEmpty() ? values.get(0) : null;
+        }
+
+        HttpSession session(boolean create) {
+            HttpServletRequest req = request();
+            if (!create) return req.getSession(false);
+            synchronized (this) {
+                return req.getSession(true);
+            }
+        }
+
+        void close() {
+            closed = true;
+        }
+    }
+
+    /**
+     * Requête d'un élément : chemin, paramètres et corps propres, session et
+     * en-têtes d'identification de l'appelant.
+     */
+    static final class SubRequest extends HttpServletRequestWrapper {
+        private final Batch batch;
+        private final Item item;
+        private final Map<String, Object> attributes;
+
+        SubRequest(Batch batch, Item item) {
+            super(batch.request);
+            this.batch = batch;
+            this.item = item;
+            this.attributes = new HashMap<>(batch.attributes);
+        }
+
+        @Override
+        public String getMethod() {
+            return item.method;
+        }
+
+        @Override
+        public ServletRequest getRequest() {
+            return batch.request();
+        }
+
+        @Override
+        public String getContextPath() {
+            return batch.contextPath;
+        }
+
+        @Override
+        public ServletContext getServletContext() {
+            return batch.servletContext;
+        }
+
+        @Override
+        public String getRequestURI() {
+            return batch.contextPath + item.path;
+        }
+
+        @Override
+        public StringBuffer getRequestURL() {
+            StringBuffer url = new StringBuffer();
+            url.append(getScheme()).append("://").append(getServerName()).append(':').append(getServerPort());
+            return url.append(getRequestURI());
+        }
+
+        @Override
+        public String getServletPath() {
+            return item.path;
+        }
+
+        @Override
+        public String getPathInfo() {
+            return null;
+        }
+
+        @Override
+        public String getPathTranslated() {
+            return null;
+        }
+
+        @Override
+        public String getScheme() {
+            return batch.scheme;
+        }
+
+        @Override
+        public String getServerName() {
+            return batch.serverName;
+        }
+
+        @Override
+        public int getServerPort() {
+            return batch.serverPort;
+        }
+
+        @Override
+        public boolean isSecure() {
+            return batch.secure;
+        }
+
+        @Override
+        public String getProtocol() {
+            return batch.protocol;
+        }
+
+        @Override
+        public String getRemoteAddr() {
+            return batch.remoteAddr;
+        }
+
+        @Override
+        public String getRemoteHost() {
+            return batch.remoteHost;
+        }
+
+        @Override
+        public int getRemotePort() {
+            return batch.remotePort;
+        }
+
+        @Override
+        public String getLocalAddr() {
+            return batch.localAddr;
+        }
+
+        @Override
+        public String getLocalName() {
+            return batch.localName;
+        }
+
+        @Override
+        public int getLocalPort() {
+            return batch.localPort;
+        }
+
+        @Override
+        public Locale getLocale() {
+            return batch.locales.isEmpty() ? Locale.getDefault() : batch.locales.get(0);
+        }
+
+        @Override
+        public Enumeration<Locale> getLocales() {
+            return Collections.enumeration(batch.locales.isEmpty() ? List.of(Locale.getDefault()) : batch.locales);
+        }
+
+        @Override
+        public Principal getUserPrincipal() {
+            return batch.userPrincipal;
+        }
+
+        @Override
+        public String getRemoteUser() {
+            return batch.remoteUser;
+        }
+
+        @Override
+        public String getAuthType() {
+            return batch.authType;
+        }
+
+        @Override
+        public boolean isUserInRole(String role) {
+            return batch.request().isUserInRole(role);
+        }
+
+        @Override
+        public String getRequestId() {
+            return batch.requestId;
+        }
+
+        @Override
+        public String getProtocolRequestId() {
+            return batch.protocolRequestId;
+        }
+
+        @Override
+        public ServletConnection getServletConnection() {
+            return batch.request().getServletConnection();
+        }
+
+        @Override
+        public DispatcherType getDispatcherType() {
+            return DispatcherType.REQUEST;
+        }
+
+        @Override
+        public HttpServletMapping getHttpServletMapping() {
+            return batch.request().getHttpServletMapping();
+        }
+
+        @Override
+        public RequestDispatcher getRequestDispatcher(String path) {
+            return batch.request().getRequestDispatcher(path);
+        }
+
+        @Override
+        public String getQueryString() {
+            return null;
+        }
+
+        @Override
+        public String getParameter(String name) {
+            String[] values = item.params.get(name);
+            return values != null && values.length > 0 ? values[0] : null;
+        }
+
+        @Override
+        public String[] getParameterValues(String name) {
+            return item.params.get(name);
+        }
+
+        @Override
+        public Map<String, String[]> getParameterMap() {
+            return Collections.unmodifiableMap(item.params);
+        }
+
+        @Override
+        public Enumeration<String> getParameterNames() {
+            return Collections.enumeration(item.params.keySet());
+        }
+
+        @Override
+        public String getHeader(String name) {
+            String lower = name.toLowerCase(Locale.ROOT);
+            if (lower.equals("accept")) return "application/json";
+            if (lower.equals("content-type")) return getContentType();
+            if (HIDDEN_HEADERS.contains(lower)) return null;
+            return batch.header(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            String value = getHeader(name);
+            if (HIDDEN_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                return Collections.enumeration(value != null ? List.of(value) : List.of());
+            }
+            List<String> values = batch.headers.get(name.toLowerCase(Locale.ROOT));
+            return Collections.enumeration(values != null ? values : List.of());
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            List<String> names = new ArrayList<>(batch.headerNames);
+            names.add("Accept");
+            if (item.body != null) names.add("Content-Type");
+            return Collections.enumeration(names);
+        }
+
+        @Override
+        public long getDateHeader(String name) {
+            String value = HIDDEN_HEADERS.contains(name.toLowerCase(Locale.ROOT)) ? null : batch.header(name);
+            if (value == null) return -1;
+            try {
+                return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("En-tête " + name + " : date invalide", e);
+            }
+        }
+
+        @Override
+        public int getIntHeader(String name) {
+            String value = HIDDEN_HEADERS.contains(name.toLowerCase(Locale.ROOT)) ? null : batch.header(name);
+            return value != null ? Integer.parseInt(value) : -1;
+        }
+
+        @Override
+        public Cookie[] getCookies() {
+            return batch.cookies;
+        }
+
+        @Override
+        public String getRequestedSessionId() {
+            return batch.requestedSessionId;
+        }
+
+        @Override
+        public boolean isRequestedSessionIdFromCookie() {
+            return batch.sessionIdFromCookie;
+        }
+
+        @Override
+        public boolean isRequestedSessionIdFromURL() {
+            return batch.sessionIdFromURL;
+        }
+
+        @Override
+        public boolean isRequestedSessionIdValid() {
+            HttpSession session = batch.session(false);
+            return session != null && session.getId().equals(batch.requestedSessionId);
+        }
+
+        @Override
+        public String changeSessionId() {
+            return batch.request().changeSessionId();
+        }
+
+        @Override
+        public boolean authenticate(HttpServletResponse response) throws IOException, ServletException {
+            return batch.request().authenticate(response);
+        }
+
+        @Override
+        public void login(String username, String password) throws ServletException {
+            batch.request().login(username, password);
+        }
+
+        @Override
+        public void logout() throws ServletException {
+            batch.request().logout();
+        }
+
+        @Override
+        public <T extends HttpUpgradeHandler> T upgrade(Class<T> handlerClass) throws ServletException {
+            throw new ServletException("Pas de changement de protocole dans un appel groupé");
+        }
+
+        @Override
+        public PushBuilder newPushBuilder() {
+            return null;
+        }
+
+        @Override
+        public Map<String, String> getTrailerFields() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public boolean isTrailerFieldsReady() {
+            return true;
+        }
+
+        @Override
+        public HttpSession getSession(boolean create) {
+            return batch.session(create);
+        }
+
+        @Override
+        public HttpSession getSession() {
+            return batch.session(true);
+        }
+
+        @Override
+        public String getContentType() {
+            return item.body != null ? "application/json;charset=UTF-8" : null;
+        }
+
+        @Override
+        public int getContentLength() {
+            return item.body != null ? item.body.length : -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return getContentLength();
+        }
+
+        @Override
+        public String getCharacterEncoding() {
+            return "UTF-8";
+        }
+
+        @Override
+        public void setCharacterEncoding(String env) {
+            // corps toujours en UTF-8
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(item.body != null ? item.body : new byte[0]);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new IllegalStateException("Lecture non bloquante non supportée");
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public Collection<Part> getParts() throws ServletException {
+            throw new ServletException("Multipart non supporté dans un appel groupé");
+        }
+
+        @Override
+        public Part getPart(String name) throws ServletException {
+            throw new ServletException("Multipart non supporté dans un appel groupé");
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            synchronized (attributes) {
+                return attributes.get(name);
+            }
+        }
+
+        @Override
+        public Enumeration<String> getAttributeNames() {
+            synchronized (attributes) {
+                return Collections.enumeration(new ArrayList<>(attributes.keySet()));
+            }
+        }
+
+        @Override
+        public void setAttribute(String name, Object value) {
+            synchronized (attributes) {
+                if (value == null) attributes.remove(name);
+                else attributes.put(name, value);
+            }
+        }
+
+        @Override
+        public void removeAttribute(String name) {
+            synchronized (attributes) {
+                attributes.remove(name);
+            }
+        }
+
+        @Override
+        public boolean isAsyncSupported() {
+            return false;
+        }
+
+        @Override
+        public boolean isAsyncStarted() {
+            return false;
+        }
+
+        @Override
+        public AsyncContext startAsync() {
+            throw new IllegalStateException("Pas d'asynchrone dans un appel groupé");
+        }
+
+        @Override
+        public AsyncContext startAsync(ServletRequest req, ServletResponse resp) {
+            throw new IllegalStateException("Pas d'asynchrone dans un appel groupé");
+        }
+
+        @Override
+        public AsyncContext getAsyncContext() {
+            throw new IllegalStateException("Pas d'asynchrone dans un appel groupé");
+        }
+    }
+
+    /**
+     * Réponse d'un élément, gardée en mémoire : rien n'atteint la réponse de l'appelant.
+     */
+    private static final class SubResponse extends HttpServletResponseWrapper {
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private final Map<String, String> headers = new LinkedHashMap<>();
+        private int status = SC_OK;
+        private String contentType;
+        private ServletOutputStream stream;
+        private PrintWriter writer;
+        private boolean committed;
+
+        SubResponse(HttpServletResponse resp) {
+            super(resp);
+        }
+
+        Result result() {
+            if (writer != null) writer.flush();
+            boolean json = contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("application/json");
+            return new Result(status, json, body.toByteArray());
+        }
+
+        @Override
+        public void setStatus(int sc) {
+            status = sc;
+        }
+
+        @Override
+        public int getStatus() {
+            return status;
+        }
+
+        @Override
+        public void sendError(int sc) {
+            sendError(sc, null);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) {
+            status = sc;
+            body.reset();
+            if (msg != null) {
+                contentType = "text/plain;charset=UTF-8";
+                body.writeBytes(msg.getBytes(StandardCharsets.UTF_8));
+            }
+            committed = true;
+        }
+
+        @Override
+        public void sendRedirect(String location) {
+            status = SC_FOUND;
+            headers.put("Location", location);
+            committed = true;
+        }
+
+        @Override
+        public void setContentType(String type) {
+            contentType = type;
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public String getCharacterEncoding() {
+            return "UTF-8";
+        }
+
+        @Override
+        public void setCharacterEncoding(String charset) {
+        }
+
+        @Override
+        public void setContentLength(int len) {
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+        }
+
+        @Override
+        public void setLocale(Locale loc) {
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            headers.put(name, value);
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            headers.putIfAbsent(name, value);
+        }
+
+        @Override
+        public void setDateHeader(String name, long date) {
+            headers.put(name, String.valueOf(date));
+        }
+
+        @Override
+        public void addDateHeader(String name, long date) {
+            headers.putIfAbsent(name, String.valueOf(date));
+        }
+
+        @Override
+        public void setIntHeader(String name, int value) {
+            headers.put(name, String.valueOf(value));
+        }
+
+        @Override
+        public void addIntHeader(String name, int value) {
+            headers.putIfAbsent(name, String.valueOf(value));
+        }
+
+        @Override
+        public boolean containsHeader(String name) {
+            return headers.containsKey(name);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return headers.get(name);
+        }
+
+        @Override
+        public Collection<String> getHeaders(String name) {
+            String value = headers.get(name);
+            return value != null ? List.of(value) : List.of();
+        }
+
+        @Override
+        public Collection<String> getHeaderNames() {
+            return new ArrayList<>(headers.keySet());
+        }
+
+        @Override
+        public void addCookie(Cookie cookie) {
+            // Un sous-appel ne pose pas de cookie
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (stream == null) {
+                stream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) {
+                        body.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) {
+                        body.write(b, off, len);
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        throw new IllegalStateException("Écriture non bloquante non supportée");
+                    }
+                };
+            }
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() {
+            if (writer != null) writer.flush();
+            committed = true;
+        }
+
+        @Override
+        public boolean isCommitted() {
+            return committed;
+        }
+
+        @Override
+        public void reset() {
+            resetBuffer();
+            headers.clear();
+            status = SC_OK;
+            contentType = null;
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (writer != null) writer.flush();
+            body.reset();
+        }
+
+        @Override
+        public int getBufferSize() {
+            return 8192;
+        }
+
+        @Override
+        public void setBufferSize(int size) {
+        }
+    }
+}
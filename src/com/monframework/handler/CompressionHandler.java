@@ -0,0 +1,373 @@
+package com.monframework.handler;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compression gzip / deflate des réponses, négociée avec Accept-Encoding.
+ *
+ * Le corps est compressé au fil de l'écriture : seuls les premiers octets
+ * (jusqu'à la taille minimale) sont gardés en mémoire pour décider s'il vaut
+ * la peine de compresser. Les Deflater sont réutilisés via un petit pool.
+ */
+public final class CompressionHandler {
+
+    /**
+     * Taille minimale par défaut d'un corps compressé : 1 KB.
+     */
+    public static final int DEFAULT_MIN_SIZE = 1024;
+
+    /**
+     * Types compressés par défaut (paramètre "compression.types").
+     */
+    public static final String DEFAULT_TYPES =
+            "application/json,application/x-ndjson,text/html,text/plain,text/css,text/xml,application/xml,application/javascript";
+
+    private static final int POOL_SIZE = 32;
+    private static final ArrayBlockingQueue<Deflater> GZIP_POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+    private static final ArrayBlockingQueue<Deflater> DEFLATE_POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private static volatile boolean enabled = true;
+    private static volatile int minSize = DEFAULT_MIN_SIZE;
+    private static volatile int level = Deflater.DEFAULT_COMPRESSION;
+    private static volatile String[] types = DEFAULT_TYPES.split(",");
+
+    private CompressionHandler() {}
+
+    /**
+     * Active ou désactive la compression (paramètre "compression.enabled").
+     */
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    /**
+     * Change la taille minimale (paramètre "compression.minSize").
+     */
+    public static void setMinSize(int size) {
+        minSize = size >= 0 ? size : DEFAULT_MIN_SIZE;
+    }
+
+    /**
+     * Change le niveau de compression, de 1 à 9 (paramètre "compression.level").
+     */
+    public static void setLevel(int value) {
+        level = value >= 1 && value <= 9 ? value : Deflater.DEFAULT_COMPRESSION;
+        GZIP_POOL.clear();
+        DEFLATE_POOL.clear();
+    }
+
+    /**
+     * Change les types compressés (paramètre "compression.types").
+     */
+    public static void setTypes(List<String> values) {
+        if (values != null && !values.isEmpty()) {
+            types = values.toArray(new String[0]);
+        }
+    }
+
+    /**
+     * Codage accepté par le client : "gzip", "deflate" ou null.
+     */
+    public static String acceptedEncoding(HttpServletRequest req) {
+        if (!enabled) return null;
+        String header = req.getHeader("Accept-Encoding");
+        if (header == null) return null;
+
+        double gzip = 0, deflate = 0, any = 0;
+        for (String part : header.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) gzip = q;
+            else if (coding.equals("deflate")) deflate = q;
+            else if (coding.equals("*")) any = q;
+        }
+        if (gzip == 0 && !header.contains("gzip")) gzip = any;
+        if (deflate == 0 && !header.contains("deflate")) deflate = any;
+
+        if (gzip > 0 && gzip >= deflate) return "gzip";
+        if (deflate > 0) return "deflate";
+        return null;
+    }
+
+    /**
+     * Vrai si ce type de contenu fait partie des types compressés.
+     */
+    public static boolean isCompressible(String contentType) {
+        if (!enabled || contentType == null) return false;
+        for (String type : types) {
+            if (contentType.regionMatches(true, 0, type, 0, type.length())) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Codage à utiliser pour cette réponse, ou null si elle reste telle quelle.
+     * @param length taille du corps si elle est connue, sinon -1
+     */
+    public static String encodingFor(HttpServletRequest req, String contentType, long length) {
+        if (!isCompressible(contentType)) return null;
+        if (length >= 0 && length < minSize) return null;
+        return acceptedEncoding(req);
+    }
+
+    /**
+     * Ouvre le flux de sortie du corps, compressé si le client l'accepte.
+     * Appeler {@link ResponseStream#finish()} à la fin, et {@link ResponseStream#abort()}
+     * dans un finally : le flux du conteneur n'est pas fermé.
+     * @param length taille du corps si elle est connue, sinon -1
+     */
+    public static ResponseStream open(HttpServletRequest req, HttpServletResponse resp,
+                                      String contentType, long length) throws IOException {
+        if (isCompressible(contentType)) {
+            resp.addHeader("Vary", "Accept-Encoding");
+        }
+        String encoding = encodingFor(req, contentType, length);
+        if (encoding == null) {
+            if (length >= 0) resp.setContentLengthLong(length);
+            return new ResponseStream(resp, null, -1);
+        }
+        // Taille connue : on compresse directement ; sinon on attend minSize octets
+        return new ResponseStream(resp, encoding, length >= 0 ? 0 : minSize);
+    }
+
+    /**
+     * Ouvre le flux d'un corps produit au fil de l'eau, de taille inconnue.
+     * Le codage est fixé tout de suite : chaque flush part vers le client,
+     * sans attendre la taille minimale.
+     */
+    public static ResponseStream openStream(HttpServletRequest req, HttpServletResponse resp,
+                                            String contentType) throws IOException {
+        if (isCompressible(contentType)) {
+            resp.addHeader("Vary", "Accept-Encoding");
+        }
+        return new ResponseStream(resp, encodingFor(req, contentType, -1), 0);
+    }
+
+    private static Deflater borrow(boolean gzip) {
+        Deflater deflater = (gzip ? GZIP_POOL : DEFLATE_POOL).poll();
+        return deflater != null ? deflater : new Deflater(level, gzip);
+    }
+
+    private static void release(Deflater deflater, boolean gzip) {
+        deflater.reset();
+        if (!(gzip ? GZIP_POOL : DEFLATE_POOL).offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Flux du corps de la réponse. Tant que minSize octets n'ont pas été écrits,
+     * ils restent en mémoire ; ensuite le codage est fixé et tout est compressé
+     * au fil de l'eau.
+     */
+    public static final class ResponseStream extends OutputStream {
+
+        private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+        private final HttpServletResponse resp;
+        private final String encoding;
+        private final int threshold;
+        private OutputStream out;
+        private List<byte[]> pending;
+        private int pendingSize;
+
+        private Deflater deflater;
+        private boolean compressed;
+        private boolean gzip;
+        private CRC32 crc;
+        private byte[] chunk;
+        private long inputSize;
+        private long written;
+        private long sent;
+        private boolean finished;
+
+        ResponseStream(HttpServletResponse resp, String encoding, int threshold) throws IOException {
+            this.resp = resp;
+            this.encoding = encoding;
+            this.threshold = threshold;
+            if (encoding == null) {
+                out = resp.getOutputStream();
+            } else if (threshold == 0) {
+                startCompression();
+            } else {
+                pending = new ArrayList<>();
+            }
+        }
+
+        /**
+         * Codage effectivement appliqué ("gzip", "deflate"), ou null.
+         */
+        public String getEncoding() {
+            return compressed ? encoding : null;
+        }
+
+        /**
+         * Octets du corps écrits dans ce flux, avant compression.
+         */
+        public long getBytesWritten() {
+            return written;
+        }
+
+        /**
+         * Octets transmis au conteneur (après compression).
+         */
+        public long getBytesSent() {
+            return sent;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return;
+            written += len;
+            append(b, off, len);
+        }
+
+        private void append(byte[] b, int off, int len) throws IOException {
+            if (pending != null) {
+                pending.add(Arrays.copyOfRange(b, off, off + len));
+                pendingSize += len;
+                if (pendingSize >= threshold) {
+                    startCompression();
+                    drainPending();
+                }
+                return;
+            }
+            if (deflater == null) {
+                out.write(b, off, len);
+                sent += len;
+                return;
+            }
+            if (gzip) crc.update(b, off, len);
+            inputSize += len;
+            deflater.setInput(b, off, len);
+            while (!deflater.needsInput()) {
+                deflate(Deflater.NO_FLUSH);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (pending != null) return; // on ne décide pas avant minSize octets
+            if (deflater != null) {
+                deflate(Deflater.SYNC_FLUSH);
+            }
+            out.flush();
+        }
+
+        /**
+         * Termine le corps (fin du flux compressé) sans fermer le flux du conteneur.
+         */
+        public void finish() throws IOException {
+            if (finished) return;
+            finished = true;
+            if (pending != null) {
+                // Corps trop petit : envoyé tel quel
+                List<byte[]> chunks = pending;
+                pending = null;
+                resp.setContentLength(pendingSize);
+                out = resp.getOutputStream();
+                for (byte[] c : chunks) out.write(c);
+                sent = pendingSize;
+                return;
+            }
+            if (deflater == null) return;
+            try {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    deflate(Deflater.NO_FLUSH);
+                }
+                if (gzip) {
+                    writeIntLE((int) crc.getValue());
+                    writeIntLE((int) inputSize);
+                }
+            } finally {
+                release(deflater, gzip);
+                deflater = null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        /**
+         * Rend le Deflater au pool si le corps n'a pas été terminé (exception,
+         * client parti). Sans effet après {@link #finish()} : à appeler dans un finally.
+         */
+        public void abort() {
+            finished = true;
+            pending = null;
+            if (deflater != null) {
+                release(deflater, gzip);
+                deflater = null;
+            }
+        }
+
+        private void startCompression() throws IOException {
+            compressed = true;
+            gzip = encoding.equals("gzip");
+            resp.setHeader("Content-Encoding", encoding);
+            out = resp.getOutputStream();
+            deflater = borrow(gzip);
+            chunk = new byte[8192];
+            if (gzip) {
+                crc = new CRC32();
+                out.write(GZIP_HEADER);
+                sent += GZIP_HEADER.length;
+            }
+        }
+
+        private void drainPending() throws IOException {
+            List<byte[]> chunks = pending;
+            pending = null;
+            for (byte[] c : chunks) append(c, 0, c.length);
+        }
+
+        private void deflate(int flush) throws IOException {
+            int n;
+            do {
+                n = deflater.deflate(chunk, 0, chunk.length, flush);
+                if (n > 0) {
+                    out.write(chunk, 0, n);
+                    sent += n;
+                }
+            } while (n == chunk.length);
+        }
+
+        private void writeIntLE(int v) throws IOException {
+            out.write(v & 0xff);
+            out.write((v >>> 8) & 0xff);
+            out.write((v >>> 16) & 0xff);
+            out.write((v >>> 24) & 0xff);
+            sent += 4;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.monframework.handler;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Compteur d'appels en cours, réparti sur plusieurs bandes sans verrou.
+ *
+ * La limite est partagée entre les bandes ; un thread commence par la sienne
+ * (selon son identifiant) et passe aux suivantes si elle est pleine. Deux
+ * requêtes ne se disputent donc la même case que si le serveur est déjà chargé.
+ */
+final class ConcurrencyLimiter {
+
+    private static final int STRIDE = 16; // une bande par ligne de cache (16 int = 64 octets)
+
+    private final int stripes;
+    private final AtomicIntegerArray counts;
+    private volatile int limit;
+
+    ConcurrencyLimiter(int limit) {
+        int n = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()));
+        this.stripes = Math.min(n, 16);
+        this.counts = new AtomicIntegerArray(stripes * STRIDE);
+        this.limit = Math.max(1, limit);
+    }
+
+    /**
+     * Prend une place.
+     * @return la bande à rendre à {@link #release(int)}, ou -1 si tout est occupé
+     */
+    int tryAcquire() {
+        int current = limit;
+        int start = (int) Thread.currentThread().getId() & (stripes - 1);
+        for (int k = 0; k < stripes; k++) {
+            int stripe = (start + k) & (stripes - 1);
+            int capacity = capacity(current, stripe);
+            int index = stripe * STRIDE;
+            while (true) {
+                int count = counts.get(index);
+                if (count >= capacity) break;
+                if (counts.compareAndSet(index, count, count + 1)) return stripe;
+            }
+        }
+        return -1;
+    }
+
+    void release(int stripe) {
+        counts.decrementAndGet(stripe * STRIDE);
+    }
+
+    /**
+     * Appels en cours (somme approximative des bandes).
+     */
+    int inFlight() {
+        int sum = 0;
+        for (int i = 0; i < stripes; i++) sum += counts.get(i * STRIDE);
+        return sum;
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    void setLimit(int limit) {
+        this.limit = Math.max(1, limit);
+    }
+
+    /**
+     * Part de la limite revenant à une bande : les premières reçoivent le reste de la division.
+     */
+    private int capacity(int limit, int stripe) {
+        return limit / stripes + (stripe < limit % stripes ? 1 : 0);
+    }
+}
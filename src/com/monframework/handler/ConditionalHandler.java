@@ -0,0 +1,279 @@
+package com.monframework.handler;
+
+import com.monframework.annotations.Conditional;
+import com.monframework.mapping.MethodInvoker;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Enumeration;
+
+/**
+ * Requêtes conditionnelles : ETag, If-None-Match, Last-Modified, 304.
+ *
+ * Les réponses JSON reçoivent un ETag fort calculé sur les octets produits
+ * s'ils tiennent dans etag.bufferSize (64 KB par défaut) ; un corps plus gros
+ * est envoyé sans ETag, donc sans 304 possible. Pour les gros corps (listes
+ * interrogées en boucle de plusieurs MB), une méthode @Conditional fournit la
+ * version sans hacher le corps et répond 304 avant d'appeler le contrôleur.
+ */
+public final class ConditionalHandler {
+
+    /**
+     * Attribut de requête posé quand l'ETag vient d'une méthode @Conditional :
+     * le corps n'a alors pas besoin d'être haché.
+     */
+    public static final String VERSION_ATTRIBUTE = "monframework.version";
+
+    /**
+     * Taille par défaut du corps gardé en mémoire pendant le calcul de l'ETag : 64 KB.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static volatile boolean etagEnabled = true;
+    private static volatile int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    private final MethodInvoker invoker;
+    private final boolean sameParameters;
+    private final boolean lastModified;
+
+    private ConditionalHandler(MethodInvoker invoker, boolean sameParameters, boolean lastModified) {
+        this.invoker = invoker;
+        this.sameParameters = sameParameters;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Active ou désactive les ETag calculés sur le corps (paramètre "etag.enabled").
+     */
+    public static void setEtagEnabled(boolean value) {
+        etagEnabled = value;
+    }
+
+    /**
+     * Change la taille gardée en mémoire pour l'ETag (paramètre "etag.bufferSize").
+     * Au-delà, le corps part au client au fil de l'eau, sans ETag ni 304 :
+     * l'augmenter couvre de plus gros corps, au prix de cette mémoire par requête.
+     */
+    public static void setBufferSize(int size) {
+        bufferSize = size > 0 ? size : DEFAULT_BUFFER_SIZE;
+    }
+
+    /**
+     * Calcule, au scan, la vérification @Conditional d'une méthode (null si absente).
+     */
+    public static ConditionalHandler of(Class<?> controllerClass, Method method) {
+        Conditional conditional = method.getAnnotation(Conditional.class);
+        if (conditional == null) return null;
+
+        for (Method candidate : controllerClass.getMethods()) {
+            if (!candidate.getName().equals(conditional.value())) continue;
+            boolean same = Arrays.equals(candidate.getParameterTypes(), method.getParameterTypes());
+            if (candidate.getParameterCount() == 0 || same) {
+                return new ConditionalHandler(MethodInvoker.of(controllerClass, candidate),
+                        same && method.getParameterCount() > 0, conditional.lastModified());
+            }
+        }
+        throw new IllegalStateException("@Conditional sur " + method.getName() + " : méthode publique "
+                + conditional.value() + "() introuvable dans " + controllerClass.getName()
+                + " (sans paramètre ou avec les mêmes paramètres)");
+    }
+
+    /**
+     * Appelle la méthode de version ; répond 304 si le client a déjà cette version,
+     * sinon pose ETag / Last-Modified.
+     * @return true si la réponse 304 a été envoyée
+     */
+    public boolean checkNotModified(HttpServletRequest req, HttpServletResponse resp,
+                                    Object controller, Object[] args) throws Exception {
+        Object version = invoker.invoke(controller, sameParameters ? args : new Object[0]);
+        if (version == null) return false;
+
+        long modified = lastModified ? toMillis(version) : -1;
+        String etag = '"' + "v" + digest(String.valueOf(lastModified ? modified : version)
+                .getBytes(StandardCharsets.UTF_8)) + '"';
+        req.setAttribute(VERSION_ATTRIBUTE, etag);
+        resp.setHeader("ETag", etag);
+        if (modified >= 0) {
+            resp.setDateHeader("Last-Modified", modified);
+        }
+
+        boolean notModified;
+        if (req.getHeader("If-None-Match") != null) {
+            notModified = matches(req, etag);
+        } else {
+            long since = modified >= 0 ? req.getDateHeader("If-Modified-Since") : -1;
+            notModified = since >= 0 && modified / 1000 <= since / 1000;
+        }
+        if (notModified) {
+            resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        }
+        return notModified;
+    }
+
+    /**
+     * Vrai si un ETag de If-None-Match correspond (comparaison faible, sans le suffixe de codage).
+     */
+    public static boolean matches(HttpServletRequest req, String etag) {
+        Enumeration<String> headers = req.getHeaders("If-None-Match");
+        if (headers == null) return false;
+        String wanted = opaque(etag);
+        while (headers.hasMoreElements()) {
+            for (String candidate : headers.nextElement().split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*") || opaque(tag).equals(wanted)) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * ETag d'un corps, avec le suffixe du codage appliqué ("gzip", "deflate").
+     */
+    public static String etag(String hash, String encoding) {
+        return '"' + hash + (encoding != null ? "-" + encoding : "") + '"';
+    }
+
+    /**
+     * Vrai si l'ETag doit être calculé sur le corps de cette requête.
+     */
+    public static boolean wantsBodyEtag(HttpServletRequest req) {
+        return etagEnabled && "GET".equals(req.getMethod()) && req.getAttribute(VERSION_ATTRIBUTE) == null;
+    }
+
+    /**
+     * Tampon de calcul d'ETag : garde jusqu'à etag.bufferSize octets et les hache.
+     * Au-delà, le corps part vers le flux ouvert par overflow, sans ETag.
+     */
+    public static DigestBuffer newDigestBuffer(DigestBuffer.Overflow overflow) {
+        return new DigestBuffer(bufferSize, overflow);
+    }
+
+    private static String opaque(String tag) {
+        if (tag.startsWith("W/")) tag = tag.substring(2);
+        if (tag.length() >= 2 && tag.charAt(0) == '"' && tag.charAt(tag.length() - 1) == '"') {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        int dash = tag.lastIndexOf('-');
+        if (dash > 0 && (tag.endsWith("-gzip") || tag.endsWith("-deflate"))) {
+            tag = tag.substring(0, dash);
+        }
+        return tag;
+    }
+
+    private static long toMillis(Object version) {
+        if (version instanceof Date) return ((Date) version).getTime();
+        if (version instanceof Instant) return ((Instant) version).toEpochMilli();
+        if (version instanceof Number) return ((Number) version).longValue();
+        throw new IllegalStateException("@Conditional(lastModified = true) : date attendue, reçu "
+                + version.getClass().getName());
+    }
+
+    private static String digest(byte[] bytes) {
+        MessageDigest md = newDigest();
+        md.update(bytes);
+        return encode(md.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String encode(byte[] hash) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    /**
+     * Flux qui garde le corps en mémoire et le hache, tant qu'il tient dans la limite.
+     * Un corps plus gros est envoyé tel quel au flux de débordement : il n'est
+     * sérialisé qu'une fois, et n'a pas d'ETag (à calculer par @Conditional).
+     */
+    public static final class DigestBuffer extends OutputStream {
+
+        /**
+         * Ouvre le flux de la réponse quand le corps dépasse la limite.
+         */
+        @FunctionalInterface
+        public interface Overflow {
+            OutputStream open() throws IOException;
+        }
+
+        private final MessageDigest md = newDigest();
+        private final int limit;
+        private final Overflow overflow;
+        private byte[] buf = new byte[1024];
+        private OutputStream out; // non null après débordement
+        private long count;
+
+        DigestBuffer(int limit, Overflow overflow) {
+            this.limit = limit;
+            this.overflow = overflow;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            count += len;
+            if (out != null) {
+                out.write(b, off, len);
+                return;
+            }
+            if (count > limit) {
+                // Trop gros : ce qui est en mémoire part devant, la suite passe directement
+                out = overflow.open();
+                out.write(buf, 0, (int) (count - len));
+                out.write(b, off, len);
+                buf = null;
+                return;
+            }
+            md.update(b, off, len);
+            if (count > buf.length) {
+                buf = Arrays.copyOf(buf, (int) Math.min(limit, Math.max(buf.length * 2, count)));
+            }
+            System.arraycopy(b, off, buf, (int) (count - len), len);
+        }
+
+        /**
+         * Vrai si tout le corps est en mémoire (et haché) ; faux s'il a débordé.
+         */
+        public boolean isComplete() {
+            return out == null;
+        }
+
+        public long size() {
+            return count;
+        }
+
+        /**
+         * Hachage du corps (à n'appeler qu'une fois, à la fin).
+         */
+        public String hash() {
+            return encode(md.digest());
+        }
+
+        /**
+         * Recopie le corps gardé en mémoire (si {@link #isComplete()}).
+         */
+        public void writeTo(OutputStream out) throws IOException {
+            out.write(buf, 0, (int) count);
+        }
+    }
+}
@@ -4,7 +4,6 @@ import com.monframework.model.UploadedFile;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.Part;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -13,6 +12,20 @@ import java.io.InputStream;
  */
 public class FileUploadHandler {
 
+    /**
+     * Taille par défaut en dessous de laquelle un fichier est chargé en mémoire : 16 KB.
+     */
+    public static final long DEFAULT_MEMORY_THRESHOLD = 16 * 1024;
+
+    private static volatile long memoryThreshold = DEFAULT_MEMORY_THRESHOLD;
+
+    /**
+     * Change le seuil de chargement en mémoire (paramètre "upload.memoryThreshold").
+     */
+    public static void setMemoryThreshold(long threshold) {
+        memoryThreshold = threshold >= 0 ? threshold : DEFAULT_MEMORY_THRESHOLD;
+    }
+
     /**
      * Vérifie si la requête est multipart (upload de fichiers).
      */
@@ -44,6 +57,8 @@ public class FileUploadHandler {
 
     /**
      * Convertit un Part en UploadedFile.
+     * Les petits fichiers sont lus tout de suite ; les autres restent dans le Part
+     * du conteneur et ne sont lus qu'à la demande.
      */
     public static UploadedFile partToUploadedFile(Part part) throws IOException {
         if (part == null) return null;
@@ -53,17 +68,14 @@ public class FileUploadHandler {
 
         String contentType = part.getContentType();
 
-        // Lire le contenu binaire
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        try (InputStream is = part.getInputStream()) {
-            byte[] buffer = new byte[4096];
-            int bytesRead;
-            while ((bytesRead = is.read(buffer)) != -1) {
-                baos.write(buffer, 0, bytesRead);
-            }
+        if (part.getSize() > memoryThreshold) {
+            return new UploadedFile(fileName, contentType, part);
         }
 
-        return new UploadedFile(fileName, contentType, baos.toByteArray());
+        // Petit fichier : contenu binaire en mémoire
+        try (InputStream is = part.getInputStream()) {
+            return new UploadedFile(fileName, contentType, is.readAllBytes());
+        }
     }
 
     /**
@@ -0,0 +1,18 @@
+package com.monframework.handler;
+
+/**
+ * Erreur à renvoyer au client avec un statut HTTP précis (400, 413, ...).
+ */
+public class HttpException extends RuntimeException {
+
+    private final int status;
+
+    public HttpException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
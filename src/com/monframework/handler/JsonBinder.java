@@ -0,0 +1,336 @@
+package com.monframework.handler;
+
+import com.monframework.model.BindingErrors;
+import com.monframework.util.ConversionException;
+import com.monframework.util.JsonException;
+import com.monframework.util.JsonReader;
+import com.monframework.util.JsonSerializer;
+import com.monframework.util.TypeConverter;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.*;
+
+/**
+ * Binding du corps JSON d'une requête (@JsonBody).
+ *
+ * Le corps est lu au fil de l'eau avec {@link JsonReader} et rempli
+ * directement dans les POJO grâce aux propriétés d'{@link ObjectBinder}.
+ * La taille maximale est vérifiée pendant la lecture.
+ */
+public final class JsonBinder {
+
+    /**
+     * Taille maximale par défaut d'un corps JSON : 1 MB.
+     */
+    public static final long DEFAULT_MAX_BODY_SIZE = 1024 * 1024;
+
+    private static volatile long defaultMaxBodySize = DEFAULT_MAX_BODY_SIZE;
+
+    /**
+     * Constructeur sans argument des Map / Collection concrètes (null si la classe n'en a pas de public).
+     */
+    private static final ClassValue<MethodHandle> CONTAINERS = new ClassValue<MethodHandle>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) return null;
+            try {
+                return MethodHandles.publicLookup()
+                        .findConstructor(type, MethodType.methodType(void.class))
+                        .asType(MethodType.methodType(Object.class));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                return null;
+            }
+        }
+    };
+
+    private JsonBinder() {}
+
+    /**
+     * Change la taille maximale par défaut (paramètre "json.maxBodySize").
+     */
+    public static void setDefaultMaxBodySize(long size) {
+        defaultMaxBodySize = size > 0 ? size : DEFAULT_MAX_BODY_SIZE;
+    }
+
+    /**
+     * Lit le corps de la requête dans le type demandé.
+     * @param maxSize taille maximale en octets (-1 : valeur par défaut)
+     * @return la valeur lue, ou null si le corps est vide
+     */
+    public static Object readBody(HttpServletRequest req, Type type, long maxSize,
+                                  BindingErrors errors) throws IOException {
+        long limit = maxSize > 0 ? maxSize : defaultMaxBodySize;
+        if (req.getContentLengthLong() > limit) {
+            throw tooLarge(limit);
+        }
+
+        InputStream body = new LimitedInputStream(req.getInputStream(), limit);
+        try (JsonReader reader = new JsonReader(body, JsonSerializer.getMaxDepth())) {
+            if (reader.peek() == JsonReader.Token.END_DOCUMENT) return null;
+            Object value = read(reader, type, "", errors);
+            reader.peek(); // vérifie qu'il ne reste rien après la valeur
+            return value;
+        } catch (JsonException e) {
+            throw new HttpException(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Lit la valeur suivante dans le type demandé.
+     */
+    static Object read(JsonReader r, Type type, String path, BindingErrors errors) throws IOException {
+        JsonReader.Token token = r.peek();
+        if (token == JsonReader.Token.NULL) {
+            r.nextNull();
+            return null;
+        }
+
+        Class<?> raw = rawType(type);
+
+        if (raw == Object.class) {
+            return readNatural(r);
+        }
+
+        if (TypeConverter.isSimpleType(raw)) {
+            if (token == JsonReader.Token.BEGIN_OBJECT || token == JsonReader.Token.BEGIN_ARRAY) {
+                return mismatch(r, path, errors);
+            }
+            String text = r.nextString();
+            try {
+                return TypeConverter.convert(text, raw);
+            } catch (ConversionException e) {
+                errors.add(path, "Valeur invalide : " + text);
+                return null;
+            }
+        }
+
+        if (Map.class.isAssignableFrom(raw)) {
+            if (token != JsonReader.Token.BEGIN_OBJECT) return mismatch(r, path, errors);
+            Type valueType = typeArgument(type, 1);
+            @SuppressWarnings("unchecked")
+            Map<String, Object> map = (Map<String, Object>) newContainer(raw, path, errors);
+            if (map == null) {
+                r.skipValue();
+                return null;
+            }
+            r.beginObject();
+            while (r.hasNext()) {
+                String name = r.nextName();
+                Object value = read(r, valueType, child(path, name), errors);
+                try {
+                    map.put(name, value);
+                } catch (RuntimeException e) {
+                    errors.add(child(path, name), "Valeur refusée par " + raw.getSimpleName() + " : " + e);
+                }
+            }
+            r.endObject();
+            return map;
+        }
+
+        if (Collection.class.isAssignableFrom(raw) || raw.isArray()) {
+            if (token != JsonReader.Token.BEGIN_ARRAY) return mismatch(r, path, errors);
+            Type elementType = raw.isArray() ? componentType(type) : typeArgument(type, 0);
+            @SuppressWarnings("unchecked")
+            Collection<Object> items = raw.isArray() ? new ArrayList<>() : (Collection<Object>) newContainer(raw, path, errors);
+            if (items == null) {
+                r.skipValue();
+                return null;
+            }
+            r.beginArray();
+            int index = 0;
+            while (r.hasNext()) {
+                String itemPath = path + "[" + index++ + "]";
+                Object item = read(r, elementType, itemPath, errors);
+                try {
+                    items.add(item);
+                } catch (RuntimeException e) {
+                    // ex : null dans un TreeSet
+                    errors.add(itemPath, "Valeur refusée par " + raw.getSimpleName() + " : " + e);
+                }
+            }
+            r.endArray();
+            return raw.isArray() ? toArray(items, raw.getComponentType()) : items;
+        }
+
+        // POJO
+        if (token != JsonReader.Token.BEGIN_OBJECT) return mismatch(r, path, errors);
+        ObjectBinder binder = ObjectBinder.of(raw);
+        Object instance = binder.newInstance(path.isEmpty() ? raw.getSimpleName() : path, errors);
+        if (instance == null) {
+            r.skipValue();
+            return null;
+        }
+        r.beginObject();
+        while (r.hasNext()) {
+            String name = r.nextName();
+            ObjectBinder.Property p = binder.getProperty(name);
+            if (p == null) {
+                r.skipValue(); // propriété inconnue → ignorée
+                continue;
+            }
+            Object value = read(r, p.getGenericType(), child(path, name), errors);
+            if (value != null || !p.getType().isPrimitive()) {
+                p.set(instance, value);
+            }
+        }
+        r.endObject();
+        return instance;
+    }
+
+    /**
+     * Lit une valeur sans type cible : Map, List, String, Long/Double, Boolean.
+     */
+    private static Object readNatural(JsonReader r) throws IOException {
+        switch (r.peek()) {
+            case BEGIN_OBJECT: {
+                Map<String, Object> map = new LinkedHashMap<>();
+                r.beginObject();
+                while (r.hasNext()) {
+                    String name = r.nextName();
+                    map.put(name, readNatural(r));
+                }
+                r.endObject();
+                return map;
+            }
+            case BEGIN_ARRAY: {
+                List<Object> list = new ArrayList<>();
+                r.beginArray();
+                while (r.hasNext()) {
+                    list.add(readNatural(r));
+                }
+                r.endArray();
+                return list;
+            }
+            case NUMBER: return r.nextNumber();
+            case BOOLEAN: return r.nextBoolean();
+            case NULL: r.nextNull(); return null;
+            default: return r.nextString();
+        }
+    }
+
+    /**
+     * Crée la Map ou la Collection du type déclaré : implémentation par défaut
+     * pour une interface (List, Set, SortedMap, Deque...), sinon la classe elle-même
+     * si elle a un constructeur public sans argument. Type impossible à créer :
+     * erreur de binding, et null (réponse 400 si la méthode ne déclare pas de
+     * paramètre BindingErrors, voir ArgumentResolver).
+     */
+    private static Object newContainer(Class<?> raw, String path, BindingErrors errors) {
+        if (Map.class.isAssignableFrom(raw)) {
+            if (raw.isAssignableFrom(LinkedHashMap.class)) return new LinkedHashMap<>();
+            if (raw.isAssignableFrom(TreeMap.class)) return new TreeMap<>();
+        } else {
+            if (raw.isAssignableFrom(ArrayList.class)) return new ArrayList<>();
+            if (raw.isAssignableFrom(LinkedHashSet.class)) return new LinkedHashSet<>();
+            if (raw.isAssignableFrom(TreeSet.class)) return new TreeSet<>();
+            if (raw.isAssignableFrom(LinkedList.class)) return new LinkedList<>();
+        }
+        MethodHandle constructor = CONTAINERS.get(raw);
+        if (constructor != null) {
+            try {
+                return (Object) constructor.invokeExact();
+            } catch (Throwable t) {
+                errors.add(path.isEmpty() ? "body" : path, "Instanciation impossible de " + raw.getName() + " : " + t);
+                return null;
+            }
+        }
+        errors.add(path.isEmpty() ? "body" : path, "Type non instanciable : " + raw.getName());
+        return null;
+    }
+
+    private static Object mismatch(JsonReader r, String path, BindingErrors errors) throws IOException {
+        errors.add(path.isEmpty() ? "body" : path, "Type JSON inattendu : " + r.peek());
+        r.skipValue();
+        return null;
+    }
+
+    private static String child(String path, String name) {
+        return path.isEmpty() ? name : path + "." + name;
+    }
+
+    private static Object toArray(Collection<Object> items, Class<?> componentType) {
+        Object array = Array.newInstance(componentType, items.size());
+        int i = 0;
+        for (Object item : items) {
+            if (item != null || !componentType.isPrimitive()) {
+                Array.set(array, i, item);
+            }
+            i++;
+        }
+        return array;
+    }
+
+    private static Class<?> rawType(Type type) {
+        if (type instanceof Class) return (Class<?>) type;
+        if (type instanceof ParameterizedType) return (Class<?>) ((ParameterizedType) type).getRawType();
+        if (type instanceof GenericArrayType) {
+            return Array.newInstance(rawType(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        }
+        if (type instanceof WildcardType) return rawType(((WildcardType) type).getUpperBounds()[0]);
+        return Object.class; // TypeVariable
+    }
+
+    private static Type typeArgument(Type type, int index) {
+        if (type instanceof ParameterizedType) {
+            Type[] args = ((ParameterizedType) type).getActualTypeArguments();
+            if (index < args.length) return args[index];
+        }
+        return Object.class;
+    }
+
+    private static Type componentType(Type type) {
+        if (type instanceof GenericArrayType) return ((GenericArrayType) type).getGenericComponentType();
+        return ((Class<?>) type).getComponentType();
+    }
+
+    private static HttpException tooLarge(long limit) {
+        return new HttpException(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
+                "Corps de requête trop volumineux (maximum " + limit + " octets)");
+    }
+
+    /**
+     * Flux qui refuse de lire au-delà de la taille maximale.
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long count;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count(n);
+            return n;
+        }
+
+        private void count(int n) {
+            count += n;
+            if (count > limit) throw tooLarge(limit);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.monframework.handler;
+
+import com.monframework.annotations.Limit;
+import com.monframework.mapping.MethodMapping;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Contrôle d'admission : limites de concurrence (globale et par route) et de
+ * débit, vérifiées juste après la recherche de la route. Une requête refusée
+ * reçoit aussitôt un 503 (trop d'appels en cours) ou un 429 (débit dépassé)
+ * avec Retry-After, sans instancier le contrôleur ni toucher à la session.
+ *
+ * Paramètres :
+ * - "limit.global" : appels simultanés au plus, toutes routes confondues ;
+ * - "limit.routes" : remplace les valeurs de @Limit, par exemple
+ *   "GET /rapports concurrency=4 adaptive=true, /login rate=5 burst=10 per=session" ;
+ * - "limit.retryAfter" : Retry-After d'un 503, en secondes (1 par défaut).
+ */
+public final class LimitHandler {
+
+    public static final long DEFAULT_RETRY_AFTER = 1;
+
+    private static final int SC_TOO_MANY_REQUESTS = 429; // absent de HttpServletResponse
+
+    private static final Permit NONE = new Permit(null, -1, null, -1);
+    private static final Object WHOLE_ROUTE = new Object();
+
+    private static volatile boolean enabled = true;
+    private static volatile ConcurrencyLimiter global;
+    private static volatile long retryAfter = DEFAULT_RETRY_AFTER;
+    private static volatile Map<String, Map<String, String>> overrides = new HashMap<>();
+
+    private LimitHandler() {}
+
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    /**
+     * Appels simultanés au plus, toutes routes confondues (0 : pas de limite globale).
+     */
+    public static void setGlobalLimit(int limit) {
+        global = limit > 0 ? new ConcurrencyLimiter(limit) : null;
+    }
+
+    public static void setRetryAfter(long seconds) {
+        retryAfter = Math.max(1, seconds);
+    }
+
+    /**
+     * Limites de la configuration, à donner avant le scan des contrôleurs.
+     * Une entrée : "[METHODE ]url cle=valeur cle=valeur...".
+     */
+    public static void setOverrides(List<String> entries) {
+        Map<String, Map<String, String>> parsed = new HashMap<>();
+        if (entries == null) {
+            overrides = parsed;
+            return;
+        }
+        for (String entry : entries) {
+            if (entry.isBlank()) continue;
+            String[] tokens = entry.trim().split("\\s+");
+            int i = 0;
+            String route = tokens[i++];
+            if (!route.startsWith("/") && i < tokens.length) {
+                route = route.toUpperCase(Locale.ROOT) + " " + tokens[i++];
+            }
+            Map<String, String> values = new LinkedHashMap<>();
+            for (; i < tokens.length; i++) {
+                int eq = tokens[i].indexOf('=');
+                if (eq <= 0) throw new IllegalArgumentException("limit.routes : '" + tokens[i] + "' (cle=valeur attendu)");
+                values.put(tokens[i].substring(0, eq), tokens[i].substring(eq + 1));
+            }
+            parsed.put(route, values);
+        }
+        overrides = parsed;
+    }
+
+    /**
+     * Valeurs de la configuration pour une route ("GET /url" puis "/url"), ou null.
+     */
+    static Map<String, String> override(String httpMethod, String url) {
+        Map<String, Map<String, String>> current = overrides;
+        Map<String, String> values = current.get(httpMethod + " " + url);
+        return values != null ? values : current.get(url);
+    }
+
+    /**
+     * Admet la requête ou la refuse.
+     * @return la place prise, à rendre par {@link Permit#releaseAfter(HttpServletRequest)} ;
+     *         null si la requête a été refusée (la réponse est déjà envoyée)
+     */
+    public static Permit admit(HttpServletRequest req, HttpServletResponse resp, MethodMapping mapping)
+            throws IOException {
+        if (!enabled) return NONE;
+        LimitRule rule = mapping.getLimitRule();
+
+        // Débit : ne retient rien, vérifié en premier
+        if (rule != null && rule.getRate() != null) {
+            long wait = rule.getRate().tryAcquire(key(req, rule, mapping));
+            if (wait > 0) {
+                sendRejected(resp, SC_TOO_MANY_REQUESTS, seconds(wait), "Trop de requêtes");
+                return null;
+            }
+        }
+
+        ConcurrencyLimiter all = (rule == null || rule.isGlobal()) ? global : null;
+        ConcurrencyLimiter own = rule != null ? rule.getConcurrency() : null;
+        if (all == null && own == null) return NONE;
+
+        int globalStripe = -1;
+        if (all != null) {
+            globalStripe = all.tryAcquire();
+            if (globalStripe < 0) {
+                sendRejected(resp, HttpServletResponse.SC_SERVICE_UNAVAILABLE, retryAfter, "Serveur surchargé");
+                return null;
+            }
+        }
+        int stripe = -1;
+        if (own != null) {
+            stripe = own.tryAcquire();
+            if (stripe < 0) {
+                if (all != null) all.release(globalStripe);
+                sendRejected(resp, HttpServletResponse.SC_SERVICE_UNAVAILABLE, retryAfter, "Route surchargée");
+                return null;
+            }
+        }
+        return new Permit(all, globalStripe, rule, stripe);
+    }
+
+    /**
+     * Clé du seau à jetons : la route, la session (ou l'adresse du client) ou les rôles.
+     */
+    private static Object key(HttpServletRequest req, LimitRule rule, MethodMapping mapping) {
+        Limit.Per per = rule.getPer();
+        if (per == Limit.Per.ROUTE) return WHOLE_ROUTE;
+        if (per == Limit.Per.ROLE) {
+            RoleRule roles = mapping.getRoleRule();
+            return roles != null ? RoleHandler.roleKey(req, roles) : RoleHandler.userRoles(req, "profile");
+        }
+        HttpSession session = req.getSession(false);
+        return session != null ? session.getId() : "@" + req.getRemoteAddr();
+    }
+
+    private static long seconds(long nanos) {
+        return Math.max(1, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static void sendRejected(HttpServletResponse resp, int status, long retry, String message)
+            throws IOException {
+        resp.setStatus(status);
+        resp.setHeader("Retry-After", String.valueOf(retry));
+        resp.setContentType("text/plain;charset=UTF-8");
+        resp.getWriter().println(message + ", réessayer dans " + retry + " s");
+    }
+
+    /**
+     * Place prise par une requête admise.
+     */
+    public static final class Permit implements AsyncListener {
+        private final ConcurrencyLimiter global;
+        private final int globalStripe;
+        private final LimitRule rule;
+        private final int stripe;
+        private final long start = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(ConcurrencyLimiter global, int globalStripe, LimitRule rule, int stripe) {
+            this.global = global;
+            this.globalStripe = globalStripe;
+            this.rule = rule;
+            this.stripe = stripe;
+        }
+
+        /**
+         * Rend la place maintenant, ou à la fin de la requête si elle est passée en asynchrone.
+         */
+        public void releaseAfter(HttpServletRequest req) {
+            if (this == NONE) return;
+            if (req.isAsyncStarted()) {
+                req.getAsyncContext().addListener(this);
+            } else {
+                release();
+            }
+        }
+
+        public void release() {
+            if (this == NONE || !released.compareAndSet(false, true)) return;
+            if (global != null) global.release(globalStripe);
+            if (stripe >= 0) {
+                ConcurrencyLimiter limiter = rule.getConcurrency();
+                limiter.release(stripe);
+                if (rule.getAdaptive() != null) {
+                    rule.getAdaptive().sample(System.nanoTime() - start, limiter.inFlight());
+                }
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.monframework.handler;
+
+import com.monframework.annotations.Limit;
+
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Limites d'admission d'une route, calculées au scan à partir du @Limit de
+ * la méthode (sinon de la classe) et du paramètre "limit.routes".
+ */
+public final class LimitRule {
+
+    /**
+     * Plafond d'une limite adaptative sans concurrency.
+     */
+    static final int ADAPTIVE_MAX = 1000;
+
+    private final ConcurrencyLimiter concurrency; // null : pas de limite de concurrence
+    private final AdaptiveLimit adaptive;         // null : limite fixe
+    private final RateLimiter rate;               // null : pas de limite de débit
+    private final Limit.Per per;
+    private final boolean global;
+
+    private LimitRule(int concurrency, boolean adaptive, double rate, int burst, Limit.Per per, boolean global) {
+        if (concurrency > 0 || adaptive) {
+            this.concurrency = new ConcurrencyLimiter(concurrency > 0 ? concurrency : ADAPTIVE_MAX);
+            this.adaptive = adaptive
+                    ? new AdaptiveLimit(this.concurrency, concurrency > 0 ? concurrency : ADAPTIVE_MAX) : null;
+        } else {
+            this.concurrency = null;
+            this.adaptive = null;
+        }
+        this.rate = rate > 0 ? new RateLimiter(rate, burst > 0 ? burst : (int) Math.max(1, Math.round(rate))) : null;
+        this.per = per;
+        this.global = global;
+    }
+
+    /**
+     * Règle d'une route, ou null si elle n'a aucune limite propre (seule la limite globale s'applique).
+     */
+    public static LimitRule of(Class<?> controllerClass, Method method, String httpMethod, String url) {
+        Limit limit = method.getAnnotation(Limit.class);
+        if (limit == null) limit = controllerClass.getAnnotation(Limit.class);
+        Map<String, String> override = LimitHandler.override(httpMethod, url);
+        if (limit == null && override == null) return null;
+
+        int concurrency = limit != null ? limit.concurrency() : 0;
+        double rate = limit != null ? limit.rate() : 0;
+        int burst = limit != null ? limit.burst() : 0;
+        Limit.Per per = limit != null ? limit.per() : Limit.Per.SESSION;
+        boolean adaptive = limit != null && limit.adaptive();
+        boolean global = limit == null || limit.global();
+
+        if (override != null) {
+            try {
+                for (Map.Entry<String, String> e : override.entrySet()) {
+                    String value = e.getValue();
+                    switch (e.getKey()) {
+                        case "concurrency": concurrency = Integer.parseInt(value); break;
+                        case "rate": rate = Double.parseDouble(value); break;
+                        case "burst": burst = Integer.parseInt(value); break;
+                        case "per": per = Limit.Per.valueOf(value.toUpperCase(Locale.ROOT)); break;
+                        case "adaptive": adaptive = Boolean.parseBoolean(value); break;
+                        case "global": global = Boolean.parseBoolean(value); break;
+                        default:
+                            throw new IllegalArgumentException("clé inconnue '" + e.getKey() + "'");
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("limit.routes, " + httpMethod + " " + url + " : " + e.getMessage(), e);
+            }
+        }
+        return new LimitRule(concurrency, adaptive, rate, burst, per, global);
+    }
+
+    ConcurrencyLimiter getConcurrency() {
+        return concurrency;
+    }
+
+    AdaptiveLimit getAdaptive() {
+        return adaptive;
+    }
+
+    RateLimiter getRate() {
+        return rate;
+    }
+
+    Limit.Per getPer() {
+        return per;
+    }
+
+    boolean isGlobal() {
+        return global;
+    }
+}
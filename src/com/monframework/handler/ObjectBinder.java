@@ -0,0 +1,340 @@
+package com.monframework.handler;
+
+import com.monframework.model.BindingErrors;
+import com.monframework.util.ConversionException;
+import com.monframework.util.TypeConverter;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.*;
+
+/**
+ * Binder d'objets complexes, construit une seule fois par classe.
+ *
+ * La table nom → propriété inclut les champs hérités et s'appuie sur des
+ * VarHandle. Les clés pointées ou indexées ("adresse.ville", "lignes[2].qte")
+ * remplissent les objets et listes imbriqués. Les clés inconnues sont ignorées
+ * et les erreurs de conversion sont enregistrées dans {@link BindingErrors}.
+ */
+public final class ObjectBinder {
+
+    /**
+     * Index maximal accepté dans une clé "liste[i]" (protège contre "liste[99999999]").
+     */
+    public static final int MAX_INDEX = 255;
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    private static final ClassValue<ObjectBinder> BINDERS = new ClassValue<ObjectBinder>() {
+        @Override
+        protected ObjectBinder computeValue(Class<?> type) {
+            return new ObjectBinder(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final MethodHandle constructor; // null si pas de constructeur sans argument
+    private final Map<String, Property> properties;
+
+    private ObjectBinder(Class<?> type) {
+        this.type = type;
+        this.constructor = findConstructor(type);
+        this.properties = findProperties(type);
+    }
+
+    /**
+     * Binder (mis en cache) pour une classe.
+     */
+    public static ObjectBinder of(Class<?> type) {
+        return BINDERS.get(type);
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * Propriété bindable de ce nom, ou null.
+     */
+    public Property getProperty(String name) {
+        return properties.get(name);
+    }
+
+    public Collection<Property> getProperties() {
+        return properties.values();
+    }
+
+    /**
+     * Crée une instance vide, ou null (avec une erreur) si c'est impossible.
+     */
+    public Object newInstance(String path, BindingErrors errors) {
+        if (constructor == null) {
+            errors.add(path, "Pas de constructeur sans argument pour " + type.getName());
+            return null;
+        }
+        try {
+            return (Object) constructor.invokeExact();
+        } catch (Throwable t) {
+            errors.add(path, "Instanciation impossible de " + type.getName() + " : " + t);
+            return null;
+        }
+    }
+
+    /**
+     * Affecte une valeur texte à la clé donnée (simple, pointée ou indexée).
+     * @param values toutes les valeurs reçues pour cette clé
+     */
+    public void bind(Object target, String key, String[] values, BindingErrors errors) {
+        if (values == null || values.length == 0 || values[0] == null) return;
+
+        // Cas courant : clé simple
+        if (key.indexOf('.') < 0 && key.indexOf('[') < 0) {
+            Property p = properties.get(key);
+            if (p != null) {
+                p.assign(target, key, values, errors);
+            }
+            return;
+        }
+
+        bindPath(target, key, values, errors);
+    }
+
+    /**
+     * Descend dans les objets et listes imbriqués le long d'une clé composée.
+     */
+    private void bindPath(Object target, String key, String[] values, BindingErrors errors) {
+        Object current = target;
+        ObjectBinder binder = this;
+        int pos = 0;
+        int length = key.length();
+
+        while (true) {
+            // Nom de la propriété
+            int end = pos;
+            while (end < length && key.charAt(end) != '.' && key.charAt(end) != '[') end++;
+            Property p = binder.properties.get(key.substring(pos, end));
+            if (p == null) return;
+
+            // Index éventuel
+            int index = -1;
+            if (end < length && key.charAt(end) == '[') {
+                int close = key.indexOf(']', end);
+                if (close < 0 || !p.isList()) return;
+                index = parseIndex(key, end + 1, close);
+                if (index < 0) {
+                    errors.add(key, "Index invalide (0 à " + MAX_INDEX + ")");
+                    return;
+                }
+                end = close + 1;
+            }
+
+            boolean last = end == length;
+            if (!last && key.charAt(end) != '.') return;
+
+            if (index >= 0) {
+                List<Object> list = p.listFor(current);
+                if (list == null) return;
+                while (list.size() <= index) list.add(null);
+
+                if (last) {
+                    Object converted = p.convertElement(key, values[0], errors);
+                    if (converted != null) list.set(index, converted);
+                    return;
+                }
+                if (TypeConverter.isSimpleType(p.elementType)) return;
+
+                Object element = list.get(index);
+                ObjectBinder elementBinder = of(p.elementType);
+                if (element == null) {
+                    element = elementBinder.newInstance(key, errors);
+                    if (element == null) return;
+                    list.set(index, element);
+                }
+                current = element;
+                binder = elementBinder;
+            } else {
+                if (last) {
+                    p.assign(current, key, values, errors);
+                    return;
+                }
+                if (TypeConverter.isSimpleType(p.type) || p.isList()) return;
+
+                Object child = p.get(current);
+                ObjectBinder childBinder = of(p.type);
+                if (child == null) {
+                    child = childBinder.newInstance(key, errors);
+                    if (child == null) return;
+                    p.set(current, child);
+                }
+                current = child;
+                binder = childBinder;
+            }
+
+            pos = end + 1;
+        }
+    }
+
+    /**
+     * Lit un index décimal sans exception ; -1 si invalide ou trop grand.
+     */
+    private static int parseIndex(String key, int start, int end) {
+        if (start >= end || end - start > 3) return -1;
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = key.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value <= MAX_INDEX ? value : -1;
+    }
+
+    private static MethodHandle findConstructor(Class<?> type) {
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) return null;
+        try {
+            Constructor<?> c = type.getDeclaredConstructor();
+            c.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(c).asType(CONSTRUCTOR_TYPE);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Table des champs bindables, champs hérités compris (la sous-classe l'emporte).
+     */
+    private static Map<String, Property> findProperties(Class<?> type) {
+        Map<String, Property> props = new HashMap<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            MethodHandles.Lookup lookup;
+            try {
+                lookup = MethodHandles.privateLookupIn(c, MethodHandles.lookup());
+            } catch (IllegalAccessException | RuntimeException e) {
+                continue; // classe non accessible (ex : classes du JDK)
+            }
+            for (Field f : c.getDeclaredFields()) {
+                int mod = f.getModifiers();
+                if (Modifier.isStatic(mod) || Modifier.isFinal(mod) || f.isSynthetic()) continue;
+                if (props.containsKey(f.getName())) continue;
+                try {
+                    props.put(f.getName(), new Property(f, lookup.unreflectVarHandle(f)));
+                } catch (IllegalAccessException e) {
+                    // champ non accessible → non bindable
+                }
+            }
+        }
+        return Collections.unmodifiableMap(props);
+    }
+
+    /**
+     * Champ bindable d'une classe.
+     */
+    public static final class Property {
+        private final String name;
+        private final Class<?> type;
+        private final Type genericType;
+        private final Class<?> elementType; // type des éléments si List<T>, sinon null
+        private final VarHandle handle;
+
+        Property(Field field, VarHandle handle) {
+            this.name = field.getName();
+            this.type = field.getType();
+            this.genericType = field.getGenericType();
+            this.elementType = List.class.isAssignableFrom(type) ? typeArgument(genericType) : null;
+            this.handle = handle;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Class<?> getType() {
+            return type;
+        }
+
+        public Type getGenericType() {
+            return genericType;
+        }
+
+        public boolean isList() {
+            return elementType != null;
+        }
+
+        public Class<?> getElementType() {
+            return elementType;
+        }
+
+        public Object get(Object target) {
+            return handle.get(target);
+        }
+
+        public void set(Object target, Object value) {
+            handle.set(target, value);
+        }
+
+        /**
+         * Affecte la ou les valeurs texte converties au champ.
+         */
+        void assign(Object target, String path, String[] values, BindingErrors errors) {
+            if (isList() && TypeConverter.isSimpleType(elementType)) {
+                List<Object> list = new ArrayList<>(values.length);
+                for (String v : values) {
+                    Object converted = convertElement(path, v, errors);
+                    if (converted == null) return;
+                    list.add(converted);
+                }
+                set(target, list);
+                return;
+            }
+            if (!TypeConverter.isSimpleType(type)) return;
+
+            Object converted = convert(path, values[0], type, errors);
+            if (converted != null) {
+                set(target, converted);
+            }
+        }
+
+        Object convertElement(String path, String value, BindingErrors errors) {
+            if (!TypeConverter.isSimpleType(elementType)) return null;
+            return convert(path, value, elementType, errors);
+        }
+
+        /**
+         * Liste du champ, créée si elle est absente.
+         */
+        @SuppressWarnings("unchecked")
+        List<Object> listFor(Object target) {
+            Object list = get(target);
+            if (list == null) {
+                if (!type.isAssignableFrom(ArrayList.class)) return null;
+                list = new ArrayList<>();
+                set(target, list);
+            }
+            return (List<Object>) list;
+        }
+
+        private static Object convert(String path, String value, Class<?> target, BindingErrors errors) {
+            try {
+                return TypeConverter.convert(value, target);
+            } catch (ConversionException e) {
+                errors.add(path, "Valeur invalide : " + value);
+                return null;
+            }
+        }
+
+        private static Class<?> typeArgument(Type genericType) {
+            if (genericType instanceof ParameterizedType) {
+                Type arg = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+                if (arg instanceof Class) return (Class<?>) arg;
+                if (arg instanceof ParameterizedType) return (Class<?>) ((ParameterizedType) arg).getRawType();
+            }
+            return Object.class;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.monframework.handler;
+
+import com.monframework.mapping.RouteMatch;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Stratégie de résolution d'un argument de méthode de contrôleur.
+ * Calculée une seule fois au scan par {@link ArgumentResolver#plan}.
+ */
+public interface ParamResolver {
+
+    /**
+     * Produit la valeur de l'argument pour la requête courante.
+     */
+    Object resolve(HttpServletRequest req, RouteMatch matched) throws Exception;
+}
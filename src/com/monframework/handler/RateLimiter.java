@@ -0,0 +1,54 @@
+package com.monframework.handler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seaux à jetons d'une route, un par clé (session, rôles...).
+ *
+ * Chaque seau tient dans une seule date atomique (algorithme GCRA) : la date
+ * théorique de la prochaine requête. Une requête est acceptée si cette date
+ * ne dépasse pas « maintenant » de plus que la rafale tolérée.
+ */
+final class RateLimiter {
+
+    private static final int CLEANUP_THRESHOLD = 10_000;
+
+    private final long interval;   // ns entre deux jetons
+    private final long tolerance;  // avance permise : (burst - 1) intervalles
+    private final Map<Object, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    RateLimiter(double rate, int burst) {
+        this.interval = Math.max(1, (long) (1_000_000_000L / rate));
+        this.tolerance = interval * (Math.max(1, burst) - 1);
+    }
+
+    /**
+     * Consomme un jeton.
+     * @return 0 si la requête passe, sinon le délai d'attente en nanosecondes
+     */
+    long tryAcquire(Object key) {
+        long now = System.nanoTime();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= CLEANUP_THRESHOLD) cleanup(now);
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        while (true) {
+            long tat = bucket.get();
+            long base = tat - now > 0 ? tat : now;
+            if (base - now > tolerance) {
+                return base - now - tolerance;
+            }
+            if (bucket.compareAndSet(tat, base + interval)) return 0;
+        }
+    }
+
+    /**
+     * Oublie les seaux redevenus pleins (équivalents à un seau neuf).
+     */
+    private void cleanup(long now) {
+        buckets.values().removeIf(b -> b.get() - now <= 0);
+    }
+}
@@ -1,8 +1,14 @@
 package com.monframework.handler;
 
 import com.monframework.annotations.Json;
+import com.monframework.mapping.MethodMapping;
 import com.monframework.model.ModelView;
+import com.monframework.monitoring.JsonWriteEvent;
+import com.monframework.monitoring.RequestEvent;
+import com.monframework.monitoring.ViewForwardEvent;
 import com.monframework.util.JsonSerializer;
+import com.monframework.view.Template;
+import com.monframework.view.TemplateEngine;
 
 import jakarta.servlet.RequestDispatcher;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,7 +20,7 @@ import java.lang.reflect.Method;
 import java.util.Map;
 
 /**
- * Gestion des réponses (JSON, JSP, etc.).
+ * Gestion des réponses (JSON, gabarits, JSP, etc.).
  */
 public class ResponseHandler {
 
@@ -23,39 +29,141 @@ public class ResponseHandler {
      */
     public static void handleResponse(HttpServletRequest req, HttpServletResponse resp,
                                        Method method, Object result) throws Exception {
-        PrintWriter out = resp.getWriter();
+        handleResponse(req, resp, method, null, result);
+    }
 
+    /**
+     * Traite le résultat de la méthode d'une route (la route est notée dans les événements JFR).
+     */
+    public static void handleResponse(HttpServletRequest req, HttpServletResponse resp,
+                                       MethodMapping mapping, Object result) throws Exception {
+        handleResponse(req, resp, mapping.getMethod(), mapping, result);
+    }
+
+    private static void handleResponse(HttpServletRequest req, HttpServletResponse resp,
+                                       Method method, MethodMapping mapping, Object result) throws Exception {
         if (method.isAnnotationPresent(Json.class)) {
-            handleJsonResponse(resp, result);
+            JsonWriteEvent event = new JsonWriteEvent();
+            event.begin();
+            handleJsonResponse(req, resp, result, event);
+            event.end();
+            if (event.shouldCommit()) {
+                describe(event, method, mapping);
+                event.status = resp.getStatus();
+                event.encoding = resp.getHeader("Content-Encoding");
+                event.commit();
+            }
         } else if (result instanceof ModelView) {
+            ViewForwardEvent event = new ViewForwardEvent();
+            event.begin();
             handleModelViewResponse(req, resp, (ModelView) result);
+            event.end();
+            if (event.shouldCommit()) {
+                describe(event, method, mapping);
+                event.view = ((ModelView) result).getView();
+                event.status = resp.getStatus();
+                event.commit();
+            }
         } else {
+            PrintWriter out = resp.getWriter();
             out.println("Type de retour non supporté : "
                     + (result != null ? result.getClass() : "null"));
         }
     }
 
     /**
-     * Traite une réponse JSON.
+     * Traite une réponse JSON, écrite au fil de l'eau dans le flux de sortie
+     * (compressée si le client l'accepte).
+     *
+     * Pour un GET, l'ETag est calculé sur les octets produits : un corps qui tient
+     * dans le tampon est haché puis envoyé tel quel ; au-delà, il part directement
+     * vers le client, sans ETag. Le corps n'est jamais sérialisé deux fois.
+     * Les octets produits et envoyés sont notés dans l'événement.
+     *
+     * Un résultat en flux (voir {@link StreamHandler}) est écrit au fil de l'eau,
+     * en tableau JSON, NDJSON ou SSE selon l'en-tête Accept.
      */
-    private static void handleJsonResponse(HttpServletResponse resp, Object result) throws IOException {
-        resp.setContentType("application/json;charset=UTF-8");
-        PrintWriter out = resp.getWriter();
+    private static void handleJsonResponse(HttpServletRequest req, HttpServletResponse resp,
+                                           Object result, JsonWriteEvent event) throws Exception {
+        String contentType = "application/json;charset=UTF-8";
+        resp.setContentType(contentType);
+
+        Object payload = (result instanceof ModelView) ? ((ModelView) result).getData() : result;
+
+        // Stream, Iterator, Publisher : éléments écrits un par un, sans ETag
+        if (StreamHandler.isStream(payload)) {
+            StreamHandler.write(req, resp, payload, event);
+            return;
+        }
+
+        if (!ConditionalHandler.wantsBodyEtag(req)) {
+            CompressionHandler.ResponseStream out = CompressionHandler.open(req, resp, contentType, -1);
+            try {
+                JsonSerializer.write(payload, out);
+                out.finish();
+            } finally {
+                out.abort();
+            }
+            event.bytes = out.getBytesWritten();
+            event.sentBytes = out.getBytesSent();
+            return;
+        }
+
+        CompressionHandler.ResponseStream[] spilled = new CompressionHandler.ResponseStream[1];
+        ConditionalHandler.DigestBuffer digest = ConditionalHandler.newDigestBuffer(
+                () -> spilled[0] = CompressionHandler.open(req, resp, contentType, -1));
+        try {
+            JsonSerializer.write(payload, digest);
+            if (!digest.isComplete()) {
+                // Corps trop gros pour le tampon : déjà envoyé, sans ETag
+                CompressionHandler.ResponseStream out = spilled[0];
+                out.finish();
+                event.bytes = out.getBytesWritten();
+                event.sentBytes = out.getBytesSent();
+                return;
+            }
+        } finally {
+            if (spilled[0] != null) spilled[0].abort();
+        }
+        String encoding = CompressionHandler.encodingFor(req, contentType, digest.size());
+        String etag = ConditionalHandler.etag(digest.hash(), encoding);
+        resp.setHeader("ETag", etag);
+        if (ConditionalHandler.matches(req, etag)) {
+            if (CompressionHandler.isCompressible(contentType)) resp.addHeader("Vary", "Accept-Encoding");
+            resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            event.bytes = digest.size();
+            return;
+        }
+
+        CompressionHandler.ResponseStream out = CompressionHandler.open(req, resp, contentType, digest.size());
+        try {
+            digest.writeTo(out);
+            out.finish();
+        } finally {
+            out.abort();
+        }
+        event.bytes = out.getBytesWritten();
+        event.sentBytes = out.getBytesSent();
+    }
 
-        String payload;
-        if (result instanceof ModelView) {
-            payload = JsonSerializer.toJson(((ModelView) result).getData());
+    private static void describe(RequestEvent event, Method method, MethodMapping mapping) {
+        if (mapping != null) {
+            event.setRoute(mapping.getHttpMethod(), mapping.getUrl(), method);
         } else {
-            payload = JsonSerializer.toJson(result);
+            event.setRoute(null, null, method);
         }
-        out.print(payload);
     }
 
     /**
-     * Traite une réponse ModelView (forward vers JSP).
+     * Traite une réponse ModelView : gabarit .tpl rendu directement, sinon forward vers la JSP.
      */
     private static void handleModelViewResponse(HttpServletRequest req, HttpServletResponse resp,
                                                  ModelView mv) throws Exception {
+        if (TemplateEngine.handles(mv.getView())) {
+            handleTemplateResponse(req, resp, mv);
+            return;
+        }
+
         // Mettre les données dans la requête
         for (Map.Entry<String, Object> entry : mv.getData().entrySet()) {
             req.setAttribute(entry.getKey(), entry.getValue());
@@ -66,6 +174,25 @@ public class ResponseHandler {
         dispatcher.forward(req, resp);
     }
 
+    /**
+     * Rendu d'un gabarit dans le flux de sortie (compressé si le client l'accepte),
+     * sans passer les données par les attributs de la requête.
+     */
+    private static void handleTemplateResponse(HttpServletRequest req, HttpServletResponse resp,
+                                               ModelView mv) throws IOException {
+        String contentType = "text/html;charset=UTF-8";
+        // Gabarit cherché avant d'écrire : un gabarit absent donne une erreur 500 propre
+        Template template = TemplateEngine.get(mv.getView());
+        resp.setContentType(contentType);
+        CompressionHandler.ResponseStream out = CompressionHandler.open(req, resp, contentType, -1);
+        try {
+            template.render(mv.getData(), out);
+            out.finish();
+        } finally {
+            out.abort();
+        }
+    }
+
     /**
      * Envoie une erreur 404.
      */
@@ -76,9 +203,34 @@ public class ResponseHandler {
     }
 
     /**
-     * Envoie une erreur 500 avec le stack trace.
+     * Envoie une erreur 405 avec le header Allow.
+     */
+    public static void sendMethodNotAllowed(HttpServletResponse resp, String path, String allow) throws IOException {
+        resp.setStatus(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+        resp.setHeader("Allow", allow);
+        resp.setContentType("text/plain;charset=UTF-8");
+        resp.getWriter().println("Méthode non autorisée pour : " + path + " (autorisées : " + allow + ")");
+    }
+
+    /**
+     * Envoie une erreur 500 avec le stack trace (ou le statut d'une HttpException).
      */
     public static void sendError(HttpServletResponse resp, Exception e) throws IOException {
+        if (resp.isCommitted()) {
+            // Une partie de la réponse est déjà partie : on ne peut plus changer le statut
+            e.printStackTrace();
+            return;
+        }
+        resp.reset();
+
+        // Erreur prévue : statut précis et message, sans stack trace
+        if (e instanceof HttpException) {
+            resp.setStatus(((HttpException) e).getStatus());
+            resp.setContentType("text/plain;charset=UTF-8");
+            resp.getWriter().println(e.getMessage());
+            return;
+        }
+
         resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
         resp.setContentType("text/plain;charset=UTF-8");
         e.printStackTrace(resp.getWriter());
@@ -1,61 +1,117 @@
 package com.monframework.handler;
 
-import com.monframework.annotations.Role;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.lang.reflect.Array;
 import java.lang.reflect.Method;
+import java.util.Collection;
 
 /**
  * Gestion des rôles et autorisations.
+ *
+ * Les règles sont calculées au scan ({@link RoleRule}) ; les rôles de
+ * l'utilisateur sont lus une seule fois par requête puis comparés par masque.
  */
 public class RoleHandler {
 
+    // Préfixe des attributs de requête qui mémorisent les rôles de l'utilisateur
+    private static final String ROLES_ATTRIBUTE = "monframework.roles.";
+
     /**
      * Vérifie si l'utilisateur a le rôle requis pour accéder à une méthode.
      * @return true si autorisé, false sinon
      */
     public static boolean checkRole(HttpServletRequest req, Method method) {
-        if (!method.isAnnotationPresent(Role.class)) {
+        return checkRole(req, RoleRule.of(method.getDeclaringClass(), method));
+    }
+
+    /**
+     * Vérifie une règle calculée au scan (null : pas de restriction).
+     * @return true si autorisé, false sinon
+     */
+    public static boolean checkRole(HttpServletRequest req, RoleRule rule) {
+        if (rule == null) {
             return true; // Pas de restriction de rôle
         }
+        for (int i = 0; i < rule.size(); i++) {
+            if ((userRoles(req, rule.getSessionKey(i)) & rule.getMask(i)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        Role roleAnnotation = method.getAnnotation(Role.class);
-        String[] allowedRoles = roleAnnotation.value();
-        String sessionKey = roleAnnotation.sessionKey();
+    /**
+     * Masque des rôles de l'utilisateur (hiérarchie comprise), calculé une fois par requête.
+     */
+    public static long userRoles(HttpServletRequest req, String sessionKey) {
+        String attribute = ROLES_ATTRIBUTE + sessionKey;
+        Object cached = req.getAttribute(attribute);
+        if (cached instanceof Long) {
+            return (Long) cached;
+        }
 
+        long mask = 0;
         HttpSession httpSession = req.getSession(false);
-        String userRole = null;
-
         if (httpSession != null) {
-            Object roleObj = httpSession.getAttribute(sessionKey);
-            if (roleObj != null) {
-                userRole = roleObj.toString();
-            }
+            mask = maskOf(httpSession.getAttribute(sessionKey));
         }
+        req.setAttribute(attribute, mask);
+        return mask;
+    }
 
-        // Vérifier si l'utilisateur a un des rôles autorisés
-        if (userRole != null) {
-            for (String allowedRole : allowedRoles) {
-                if (allowedRole.equals(userRole)) {
-                    return true;
-                }
-            }
+    /**
+     * Rôles de l'utilisateur pour chaque exigence de la règle, sous forme de
+     * texte court (sert de clé, par exemple pour le cache des réponses).
+     */
+    public static String roleKey(HttpServletRequest req, RoleRule rule) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < rule.size(); i++) {
+            if (i > 0) sb.append('.');
+            sb.append(Long.toHexString(userRoles(req, rule.getSessionKey(i))));
         }
+        return sb.toString();
+    }
 
-        return false;
+    /**
+     * Rôles stockés en session : chaîne (séparée par des virgules), tableau ou collection.
+     */
+    private static long maskOf(Object roles) {
+        if (roles == null) return 0;
+        if (roles instanceof Collection) {
+            long mask = 0;
+            for (Object role : (Collection<?>) roles) mask |= maskOf(role);
+            return mask;
+        }
+        if (roles.getClass().isArray()) {
+            long mask = 0;
+            for (int i = 0, n = Array.getLength(roles); i < n; i++) mask |= maskOf(Array.get(roles, i));
+            return mask;
+        }
+        String value = roles instanceof Enum ? ((Enum<?>) roles).name() : roles.toString();
+        if (value.indexOf(',') < 0) {
+            return RoleRegistry.mask(value.trim());
+        }
+        long mask = 0;
+        for (String role : value.split(",")) mask |= RoleRegistry.mask(role.trim());
+        return mask;
     }
 
     /**
      * Envoie une réponse 403 Forbidden.
      */
     public static void sendForbiddenResponse(HttpServletResponse resp, Method method) throws IOException {
-        Role roleAnnotation = method.getAnnotation(Role.class);
-        String[] allowedRoles = roleAnnotation.value();
+        sendForbiddenResponse(resp, RoleRule.of(method.getDeclaringClass(), method));
+    }
 
+    /**
+     * Envoie une réponse 403 Forbidden pour une règle calculée au scan.
+     */
+    public static void sendForbiddenResponse(HttpServletResponse resp, RoleRule rule) throws IOException {
         resp.setStatus(HttpServletResponse.SC_FORBIDDEN);
         resp.setContentType("text/html;charset=UTF-8");
 
@@ -63,7 +119,9 @@ public class RoleHandler {
         out.println("<!DOCTYPE html><html><head><title>Accès refusé</title></head>");
         out.println("<body><h1>403 - Accès refusé</h1>");
         out.println("<p>Vous n'avez pas les droits nécessaires pour accéder à cette ressource.</p>");
-        out.println("<p>Rôle requis : " + String.join(" ou ", allowedRoles) + "</p>");
+        if (rule != null) {
+            out.println("<p>Rôle requis : " + rule.describe() + "</p>");
+        }
         out.println("<p><a href=\"login\">Se connecter</a></p>");
         out.println("</body></html>");
     }
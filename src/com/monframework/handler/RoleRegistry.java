@@ -0,0 +1,103 @@
+package com.monframework.handler;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registre des rôles : chaque rôle reçoit un petit identifiant (0 à 63),
+ * un ensemble de rôles est un masque de bits.
+ *
+ * Hiérarchie (paramètre "role.hierarchy") : "admin > manager > user, manager > guest"
+ * signifie qu'un admin a aussi les rôles manager, user et guest.
+ */
+public final class RoleRegistry {
+
+    private static final int MAX_ROLES = 64;
+
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static final Object LOCK = new Object();
+
+    // implied[id] : masque du rôle et de tous les rôles qu'il inclut
+    private static volatile long[] implied = new long[0];
+
+    private RoleRegistry() {}
+
+    /**
+     * Identifiant d'un rôle, attribué à la première demande.
+     */
+    public static int intern(String role) {
+        Integer id = IDS.get(role);
+        if (id != null) return id;
+        synchronized (LOCK) {
+            id = IDS.get(role);
+            if (id != null) return id;
+            if (IDS.size() >= MAX_ROLES) {
+                throw new IllegalStateException("Trop de rôles distincts (maximum " + MAX_ROLES + ") : " + role);
+            }
+            int newId = IDS.size();
+            long[] next = Arrays.copyOf(implied, newId + 1);
+            next[newId] = 1L << newId;
+            implied = next;
+            IDS.put(role, newId);
+            return newId;
+        }
+    }
+
+    /**
+     * Masque d'un rôle déjà connu, 0 sinon (un rôle inconnu ne peut satisfaire aucune règle).
+     */
+    public static long mask(String role) {
+        Integer id = IDS.get(role);
+        if (id == null) return 0;
+        long[] table = implied;
+        return id < table.length ? table[id] : 1L << id;
+    }
+
+    /**
+     * Masque d'un ensemble de rôles, sans la hiérarchie (côté règle).
+     */
+    public static long maskOf(String... roles) {
+        long mask = 0;
+        for (String role : roles) {
+            mask |= 1L << intern(role.trim());
+        }
+        return mask;
+    }
+
+    /**
+     * Déclare la hiérarchie des rôles : "admin > manager > user, manager > guest".
+     */
+    public static void setHierarchy(String hierarchy) {
+        if (hierarchy == null || hierarchy.trim().isEmpty()) return;
+        synchronized (LOCK) {
+            for (String chain : hierarchy.split(",")) {
+                String[] roles = chain.split(">");
+                for (int i = 0; i + 1 < roles.length; i++) {
+                    int parent = intern(roles[i].trim());
+                    int child = intern(roles[i + 1].trim());
+                    long[] next = implied.clone();
+                    next[parent] |= 1L << child;
+                    implied = next;
+                }
+            }
+            // Fermeture transitive
+            long[] next = implied.clone();
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (int i = 0; i < next.length; i++) {
+                    long expanded = next[i];
+                    for (int j = 0; j < next.length; j++) {
+                        if ((next[i] & (1L << j)) != 0) expanded |= next[j];
+                    }
+                    if (expanded != next[i]) {
+                        next[i] = expanded;
+                        changed = true;
+                    }
+                }
+            }
+            implied = next;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.monframework.handler;
+
+import com.monframework.annotations.Role;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Règle d'accès d'une méthode, calculée au scan à partir des @Role de la
+ * classe et de la méthode : l'utilisateur doit satisfaire chacune des deux.
+ */
+public final class RoleRule {
+
+    private final String[] sessionKeys; // une exigence par @Role
+    private final long[] masks;
+    private final String[][] roles;     // pour le message 403
+
+    private RoleRule(String[] sessionKeys, long[] masks, String[][] roles) {
+        this.sessionKeys = sessionKeys;
+        this.masks = masks;
+        this.roles = roles;
+    }
+
+    /**
+     * Règle d'une méthode, ou null si ni la classe ni la méthode ne portent @Role.
+     */
+    public static RoleRule of(Class<?> controllerClass, Method method) {
+        List<Role> annotations = new ArrayList<>(2);
+        Role classRole = controllerClass.getAnnotation(Role.class);
+        Role methodRole = method.getAnnotation(Role.class);
+        if (classRole != null) annotations.add(classRole);
+        if (methodRole != null) annotations.add(methodRole);
+        if (annotations.isEmpty()) return null;
+
+        int n = annotations.size();
+        String[] sessionKeys = new String[n];
+        long[] masks = new long[n];
+        String[][] roles = new String[n][];
+        for (int i = 0; i < n; i++) {
+            Role role = annotations.get(i);
+            sessionKeys[i] = role.sessionKey();
+            masks[i] = RoleRegistry.maskOf(role.value());
+            roles[i] = role.value();
+        }
+        return new RoleRule(sessionKeys, masks, roles);
+    }
+
+    int size() {
+        return masks.length;
+    }
+
+    String getSessionKey(int i) {
+        return sessionKeys[i];
+    }
+
+    long getMask(int i) {
+        return masks[i];
+    }
+
+    /**
+     * Rôles requis, pour l'affichage : "admin ou manager, et admin".
+     */
+    public String describe() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < roles.length; i++) {
+            if (i > 0) sb.append(", et ");
+            sb.append(String.join(" ou ", roles[i]));
+        }
+        return sb.toString();
+    }
+}
@@ -4,9 +4,9 @@ import com.monframework.annotations.Session;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 
+import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
-import java.util.Enumeration;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Map;
 
 /**
@@ -15,40 +15,52 @@ import java.util.Map;
 public class SessionHandler {
 
     /**
-     * Charge la session HTTP dans une Map.
+     * Vue Map sur la session HTTP : les attributs sont lus à la demande,
+     * la session n'est créée qu'à la première écriture.
      */
     public static Map<String, Object> loadSession(HttpServletRequest req) {
-        HttpSession httpSession = req.getSession(true);
-        Map<String, Object> sessionMap = new HashMap<>();
-
-        Enumeration<String> attrNames = httpSession.getAttributeNames();
-        while (attrNames.hasMoreElements()) {
-            String name = attrNames.nextElement();
-            sessionMap.put(name, httpSession.getAttribute(name));
-        }
-
-        return sessionMap;
+        return new SessionMap(req);
     }
 
     /**
      * Synchronise une Map vers la session HTTP.
+     * Pour une {@link SessionMap}, seules les clés modifiées ou supprimées sont écrites.
      */
     public static void syncSession(HttpServletRequest req, Map<String, Object> sessionMap) {
-        HttpSession httpSession = req.getSession(true);
+        if (sessionMap instanceof SessionMap) {
+            ((SessionMap) sessionMap).flush();
+            return;
+        }
 
+        HttpSession httpSession = req.getSession(true);
         for (Map.Entry<String, Object> entry : sessionMap.entrySet()) {
             httpSession.setAttribute(entry.getKey(), entry.getValue());
         }
     }
 
+    /**
+     * Calcule, au scan, les positions des paramètres @Session d'une méthode.
+     */
+    public static int[] sessionSlots(Method method) {
+        Parameter[] params = method.getParameters();
+        int[] slots = new int[params.length];
+        int count = 0;
+        for (int i = 0; i < params.length; i++) {
+            if (params[i].isAnnotationPresent(Session.class) && Map.class.isAssignableFrom(params[i].getType())) {
+                slots[count++] = i;
+            }
+        }
+        return Arrays.copyOf(slots, count);
+    }
+
     /**
      * Synchronise tous les paramètres @Session après l'exécution d'une méthode.
      */
     @SuppressWarnings("unchecked")
-    public static void syncAllSessions(HttpServletRequest req, Parameter[] params, Object[] args) {
-        for (int i = 0; i < params.length; i++) {
-            if (params[i].isAnnotationPresent(Session.class) && args[i] instanceof Map) {
-                Map<String, Object> sessionMap = (Map<String, Object>) args[i];
+    public static void syncAllSessions(HttpServletRequest req, int[] sessionSlots, Object[] args) {
+        for (int slot : sessionSlots) {
+            if (args[slot] instanceof Map) {
+                Map<String, Object> sessionMap = (Map<String, Object>) args[slot];
                 syncSession(req, sessionMap);
             }
         }
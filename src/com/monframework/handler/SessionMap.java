@@ -0,0 +1,173 @@
+package com.monframework.handler;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+
+import java.util.*;
+
+/**
+ * Vue Map sur la session HTTP, passée aux paramètres @Session.
+ *
+ * Les attributs sont lus à la demande dans la session ; les put et remove sont
+ * notés dans un petit jeu de modifications, appliqué par {@link #flush()} après
+ * l'appel du contrôleur : seules les clés modifiées sont réécrites.
+ *
+ * Un objet modifié sur place (liste, panier...) doit être remis avec put pour
+ * être réécrit dans la session.
+ */
+public final class SessionMap extends AbstractMap<String, Object> {
+
+    // Marque une clé supprimée dans le jeu de modifications
+    private static final Object REMOVED = new Object();
+
+    private final HttpServletRequest req;
+    private Map<String, Object> changes;
+    private Set<Map.Entry<String, Object>> entrySet;
+
+    SessionMap(HttpServletRequest req) {
+        this.req = req;
+    }
+
+    /**
+     * Vrai si des modifications restent à écrire dans la session.
+     */
+    public boolean isDirty() {
+        return changes != null && !changes.isEmpty();
+    }
+
+    /**
+     * Écrit les clés modifiées dans la session et propage les suppressions.
+     */
+    public void flush() {
+        if (!isDirty()) return;
+        HttpSession session = req.getSession(true);
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            if (change.getValue() == REMOVED) {
+                session.removeAttribute(change.getKey());
+            } else {
+                session.setAttribute(change.getKey(), change.getValue());
+            }
+        }
+        changes.clear();
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (!(key instanceof String)) return null;
+        if (changes != null && changes.containsKey(key)) {
+            Object value = changes.get(key);
+            return value == REMOVED ? null : value;
+        }
+        HttpSession session = req.getSession(false);
+        return session != null ? session.getAttribute((String) key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        Object old = get(key);
+        change(key, value != null ? value : REMOVED);
+        return old;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (!(key instanceof String)) return null;
+        Object old = get(key);
+        if (old != null) {
+            change((String) key, REMOVED);
+        }
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        for (String key : keys()) {
+            change(key, REMOVED);
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Map.Entry<String, Object>>() {
+                @Override
+                public Iterator<Map.Entry<String, Object>> iterator() {
+                    return new EntryIterator(keys().iterator());
+                }
+
+                @Override
+                public int size() {
+                    return keys().size();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    private void change(String key, Object value) {
+        if (changes == null) changes = new LinkedHashMap<>(4);
+        changes.put(key, value);
+    }
+
+    /**
+     * Clés visibles : attributs de la session puis ajouts, moins les suppressions.
+     */
+    private Set<String> keys() {
+        Set<String> keys = new LinkedHashSet<>();
+        HttpSession session = req.getSession(false);
+        if (session != null) {
+            Enumeration<String> names = session.getAttributeNames();
+            while (names.hasMoreElements()) {
+                String name = names.nextElement();
+                if (changes == null || changes.get(name) != REMOVED) keys.add(name);
+            }
+        }
+        if (changes != null) {
+            for (Map.Entry<String, Object> change : changes.entrySet()) {
+                if (change.getValue() != REMOVED) {
+                    keys.add(change.getKey());
+                }
+            }
+        }
+        return keys;
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+        private final Iterator<String> keys;
+        private String current;
+
+        EntryIterator(Iterator<String> keys) {
+            this.keys = keys;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return keys.hasNext();
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            current = keys.next();
+            String key = current;
+            return new AbstractMap.SimpleEntry<String, Object>(key, get(key)) {
+                @Override
+                public Object setValue(Object value) {
+                    super.setValue(value);
+                    return put(key, value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if (current == null) throw new IllegalStateException();
+            SessionMap.this.remove(current);
+            current = null;
+        }
+    }
+}
@@ -0,0 +1,600 @@
+package com.monframework.handler;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Fichiers statiques servis directement par le FrontServlet, sous des points
+ * de montage (paramètre "static.mounts", ex : "/static=/assets,/img=file:/srv/images").
+ *
+ * Les petits fichiers sont gardés en mémoire, avec leur variante .gz si elle
+ * existe à côté ; les gros sont envoyés depuis le fichier (sendfile de Tomcat
+ * quand le connecteur le propose, sinon FileChannel.transferTo). Range, If-Range,
+ * ETag et Last-Modified sont gérés. Le cache est invalidé par un WatchService.
+ */
+public final class StaticResourceHandler {
+
+    /**
+     * Taille maximale par défaut d'un fichier gardé en mémoire : 64 KB.
+     */
+    public static final int DEFAULT_CACHE_FILE_SIZE = 64 * 1024;
+
+    /**
+     * Mémoire maximale par défaut du cache de fichiers : 32 MB.
+     */
+    public static final long DEFAULT_CACHE_MAX_BYTES = 32L * 1024 * 1024;
+
+    // Nom avec empreinte (app.3f9a1c2b.js, style-5d41402abc.css) : contenu immuable
+    private static final Pattern FINGERPRINT = Pattern.compile(".+[.-][0-9a-fA-F]{8,}\\.[^./]+$");
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    // Envoi direct du fichier par Tomcat (NIO / APR)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final long[] UNSATISFIABLE = new long[0];
+
+    private static final Map<String, String> MIME_TYPES = new HashMap<>();
+
+    static {
+        MIME_TYPES.put("html", "text/html;charset=UTF-8");
+        MIME_TYPES.put("htm", "text/html;charset=UTF-8");
+        MIME_TYPES.put("css", "text/css;charset=UTF-8");
+        MIME_TYPES.put("js", "application/javascript;charset=UTF-8");
+        MIME_TYPES.put("mjs", "application/javascript;charset=UTF-8");
+        MIME_TYPES.put("json", "application/json;charset=UTF-8");
+        MIME_TYPES.put("map", "application/json;charset=UTF-8");
+        MIME_TYPES.put("txt", "text/plain;charset=UTF-8");
+        MIME_TYPES.put("xml", "application/xml;charset=UTF-8");
+        MIME_TYPES.put("svg", "image/svg+xml;charset=UTF-8");
+        MIME_TYPES.put("png", "image/png");
+        MIME_TYPES.put("jpg", "image/jpeg");
+        MIME_TYPES.put("jpeg", "image/jpeg");
+        MIME_TYPES.put("gif", "image/gif");
+        MIME_TYPES.put("webp", "image/webp");
+        MIME_TYPES.put("avif", "image/avif");
+        MIME_TYPES.put("ico", "image/x-icon");
+        MIME_TYPES.put("woff", "font/woff");
+        MIME_TYPES.put("woff2", "font/woff2");
+        MIME_TYPES.put("ttf", "font/ttf");
+        MIME_TYPES.put("pdf", "application/pdf");
+        MIME_TYPES.put("mp4", "video/mp4");
+        MIME_TYPES.put("webm", "video/webm");
+        MIME_TYPES.put("mp3", "audio/mpeg");
+        MIME_TYPES.put("wasm", "application/wasm");
+    }
+
+    private static final Map<Path, Resource> CACHE = new ConcurrentHashMap<>();
+    private static final AtomicLong CACHED_BYTES = new AtomicLong();
+
+    private static volatile Mount[] mounts = new Mount[0];
+    private static volatile int cacheFileSize = DEFAULT_CACHE_FILE_SIZE;
+    private static volatile long cacheMaxBytes = DEFAULT_CACHE_MAX_BYTES;
+    private static volatile String cacheControl = "public, max-age=0";
+    private static ServletContext servletContext;
+    private static volatile WatchService watcher;
+
+    private StaticResourceHandler() {}
+
+    /**
+     * Change la taille maximale d'un fichier gardé en mémoire (paramètre "static.cacheFileSize").
+     */
+    public static void setCacheFileSize(int size) {
+        cacheFileSize = Math.max(0, size);
+    }
+
+    /**
+     * Change la mémoire maximale du cache (paramètre "static.cacheMaxBytes").
+     */
+    public static void setCacheMaxBytes(long bytes) {
+        cacheMaxBytes = Math.max(0, bytes);
+    }
+
+    /**
+     * Durée de cache navigateur des fichiers sans empreinte, en secondes (paramètre "static.maxAge").
+     */
+    public static void setMaxAge(long seconds) {
+        cacheControl = "public, max-age=" + Math.max(0, seconds);
+    }
+
+    /**
+     * Déclare les points de montage ("/prefixe=dossier") et surveille leurs dossiers.
+     * Un dossier est relatif à l'application, ou absolu s'il commence par "file:".
+     */
+    public static synchronized void configure(ServletContext context, List<String> definitions, boolean watch)
+            throws IOException {
+        shutdown();
+        servletContext = context;
+        List<Mount> list = new ArrayList<>();
+        for (String definition : definitions) {
+            int eq = definition.indexOf('=');
+            if (eq <= 0) {
+                System.out.println("[ATTENTION] Point de montage invalide : " + definition);
+                continue;
+            }
+            String prefix = definition.substring(0, eq).trim();
+            String dir = definition.substring(eq + 1).trim();
+            String real = dir.startsWith("file:") ? dir.substring(5) : context.getRealPath(dir);
+            if (real == null) {
+                System.out.println("[ATTENTION] Dossier introuvable pour " + prefix + " : " + dir);
+                continue;
+            }
+            Mount mount = new Mount(prefix, Paths.get(real).toAbsolutePath().normalize());
+            list.add(mount);
+            System.out.println("Fichiers statiques : " + mount.prefix + " -> " + mount.root);
+        }
+        mounts = list.toArray(new Mount[0]);
+        if (watch && !list.isEmpty()) {
+            startWatching(list);
+        }
+    }
+
+    /**
+     * Arrête la surveillance et vide le cache.
+     */
+    public static synchronized void shutdown() {
+        WatchService current = watcher;
+        watcher = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                // déjà fermé
+            }
+        }
+        invalidateAll();
+    }
+
+    public static void invalidateAll() {
+        for (Map.Entry<Path, Resource> e : CACHE.entrySet()) {
+            drop(e.getKey(), e.getValue());
+        }
+    }
+
+    /**
+     * Oublie un fichier, ou tout un dossier.
+     */
+    public static void invalidate(Path path) {
+        for (Map.Entry<Path, Resource> e : CACHE.entrySet()) {
+            if (e.getKey().startsWith(path)) drop(e.getKey(), e.getValue());
+        }
+    }
+
+    /**
+     * Retire l'entrée si elle est toujours celle-ci (lookup a pu la remplacer
+     * entre-temps) ; son poids n'est décompté que dans ce cas.
+     */
+    private static void drop(Path file, Resource resource) {
+        if (CACHE.remove(file, resource)) {
+            CACHED_BYTES.addAndGet(-resource.weight());
+        }
+    }
+
+    /**
+     * Sert le fichier si le chemin est sous un point de montage.
+     * @return false si le chemin n'appartient à aucun point de montage
+     */
+    public static boolean serve(HttpServletRequest req, HttpServletResponse resp, String path) throws IOException {
+        Mount[] current = mounts;
+        if (current.length == 0) return false;
+        Mount mount = null;
+        for (Mount m : current) {
+            if (m.matches(path)) {
+                mount = m;
+                break;
+            }
+        }
+        if (mount == null) return false;
+
+        String method = req.getMethod();
+        boolean head = "HEAD".equals(method);
+        if (!head && !"GET".equals(method)) {
+            resp.setHeader("Allow", "GET, HEAD");
+            resp.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            return true;
+        }
+
+        Path file = mount.resolve(path);
+        Resource res = file != null ? lookup(file) : null;
+        if (res == null) {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return true;
+        }
+        send(req, resp, res, head);
+        return true;
+    }
+
+    private static Resource lookup(Path file) throws IOException {
+        Resource res = CACHE.get(file);
+        // Sans surveillance, on vérifie la date du fichier à chaque requête
+        if (res != null && (watcher != null || res.isFresh())) return res;
+
+        Resource loaded = Resource.load(file);
+        Resource previous = loaded != null ? CACHE.put(file, loaded) : CACHE.remove(file);
+        if (previous != null) CACHED_BYTES.addAndGet(-previous.weight());
+        return loaded;
+    }
+
+    private static void send(HttpServletRequest req, HttpServletResponse resp, Resource res, boolean head)
+            throws IOException {
+        resp.setHeader("Accept-Ranges", "bytes");
+        resp.setHeader("Cache-Control", res.cacheControl);
+        resp.setHeader("Last-Modified", res.lastModifiedHeader);
+        if (res.gzPath != null) resp.setHeader("Vary", "Accept-Encoding");
+
+        // Plage demandée : toujours servie sur le fichier non compressé
+        long start = 0;
+        long length = res.size;
+        boolean partial = false;
+        String range = req.getHeader("Range");
+        if (range != null && ifRangeMatches(req, res)) {
+            long[] r = parseRange(range, res.size);
+            if (r == UNSATISFIABLE) {
+                resp.setHeader("Content-Range", "bytes */" + res.size);
+                resp.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (r != null) {
+                partial = true;
+                start = r[0];
+                length = r[1] - r[0] + 1;
+            }
+        }
+
+        boolean gzip = !partial && res.gzPath != null && "gzip".equals(CompressionHandler.acceptedEncoding(req));
+        String etag = gzip ? res.gzEtag : res.etag;
+        resp.setHeader("ETag", etag);
+        if (notModified(req, res, etag)) {
+            resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        resp.setContentType(res.contentType);
+        if (gzip) {
+            resp.setHeader("Content-Encoding", "gzip");
+            length = res.gzSize;
+        }
+        if (partial) {
+            resp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            resp.setHeader("Content-Range", "bytes " + start + "-" + (start + length - 1) + "/" + res.size);
+        }
+        resp.setContentLengthLong(length);
+        if (head || length == 0) return;
+
+        byte[] data = gzip ? res.gzData : res.data;
+        if (data != null) {
+            resp.getOutputStream().write(data, (int) start, (int) length);
+            return;
+        }
+
+        Path source = gzip ? res.gzPath : res.path;
+        if (Boolean.TRUE.equals(req.getAttribute(SENDFILE_SUPPORT))) {
+            req.setAttribute(SENDFILE_FILENAME, source.toString());
+            req.setAttribute(SENDFILE_START, start);
+            req.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(resp.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long n = channel.transferTo(position, remaining, out);
+                if (n <= 0) break; // fichier raccourci entre-temps
+                position += n;
+                remaining -= n;
+            }
+        }
+    }
+
+    /**
+     * If-None-Match prime sur If-Modified-Since.
+     */
+    private static boolean notModified(HttpServletRequest req, Resource res, String etag) {
+        if (req.getHeader("If-None-Match") != null) {
+            return ConditionalHandler.matches(req, etag);
+        }
+        try {
+            long since = req.getDateHeader("If-Modified-Since");
+            return since >= 0 && res.lastModified / 1000 <= since / 1000;
+        } catch (IllegalArgumentException e) {
+            return false; // date illisible : ignorée
+        }
+    }
+
+    /**
+     * Sans If-Range, ou si le fichier n'a pas changé (ETag fort ou date exacte), la plage s'applique.
+     */
+    private static boolean ifRangeMatches(HttpServletRequest req, Resource res) {
+        String ifRange = req.getHeader("If-Range");
+        if (ifRange == null) return true;
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(res.etag);
+        }
+        try {
+            return req.getDateHeader("If-Range") / 1000 == res.lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Plage unique "bytes=debut-fin", "bytes=debut-" ou "bytes=-n".
+     * @return {debut, fin} inclus, UNSATISFIABLE, ou null si l'en-tête est ignoré
+     */
+    static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) return null;
+        String spec = header.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) return null;
+        try {
+            long start;
+            long end;
+            if (dash == 0) {
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0 || size == 0) return UNSATISFIABLE;
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                end = dash == spec.length() - 1 ? Long.MAX_VALUE : Long.parseLong(spec.substring(dash + 1));
+                if (start < 0 || end < start) return null;
+                if (start >= size) return UNSATISFIABLE;
+                end = Math.min(end, size - 1);
+            }
+            return new long[] { start, end };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String contentType(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        String ext = dot >= 0 ? fileName.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+        String type = MIME_TYPES.get(ext);
+        if (type == null && servletContext != null) type = servletContext.getMimeType(fileName);
+        return type != null ? type : "application/octet-stream";
+    }
+
+    // === Surveillance des dossiers ===
+
+    private static void startWatching(List<Mount> list) throws IOException {
+        WatchService service = FileSystems.getDefault().newWatchService();
+        for (Mount mount : list) {
+            if (Files.isDirectory(mount.root)) {
+                registerTree(service, mount.root);
+            } else if (mount.root.getParent() != null && Files.isDirectory(mount.root.getParent())) {
+                register(service, mount.root.getParent());
+            }
+        }
+        watcher = service;
+        Thread thread = new Thread(() -> watch(service), "monframework-static-watch");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void watch(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                Path dir = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        invalidateAll();
+                        continue;
+                    }
+                    Path child = dir.resolve((Path) event.context());
+                    invalidate(child);
+                    // Un .gz modifié change la ressource du fichier d'origine
+                    String name = child.getFileName().toString();
+                    if (name.endsWith(".gz")) {
+                        invalidate(child.resolveSibling(name.substring(0, name.length() - 3)));
+                    }
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(child)) {
+                        registerTree(service, child);
+                    }
+                }
+                key.reset();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // arrêt demandé
+        } catch (IOException e) {
+            System.out.println("[ATTENTION] Surveillance des fichiers statiques arrêtée : " + e.getMessage());
+            watcher = null;
+        }
+    }
+
+    private static void registerTree(WatchService service, Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                register(service, dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void register(WatchService service, Path dir) throws IOException {
+        dir.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+    }
+
+    /**
+     * Point de montage : préfixe d'URL → dossier (ou fichier).
+     */
+    private static final class Mount {
+        private final String prefix;
+        private final Path root;
+
+        Mount(String prefix, Path root) {
+            String p = prefix.startsWith("/") ? prefix : "/" + prefix;
+            this.prefix = p.length() > 1 && p.endsWith("/") ? p.substring(0, p.length() - 1) : p;
+            this.root = root;
+        }
+
+        boolean matches(String path) {
+            if (!path.startsWith(prefix)) return false;
+            return path.length() == prefix.length() || prefix.equals("/") || path.charAt(prefix.length()) == '/';
+        }
+
+        /**
+         * Fichier désigné par le chemin, ou null s'il sort du dossier monté.
+         */
+        Path resolve(String path) {
+            String relative = decode(path.substring(prefix.length()));
+            if (relative == null) return null;
+            for (String segment : relative.split("/")) {
+                if (segment.equals("..") || segment.equals(".")) return null;
+            }
+            while (relative.startsWith("/")) relative = relative.substring(1);
+            if (relative.isEmpty()) return root;
+            if (relative.indexOf('\\') >= 0 || relative.indexOf(':') >= 0) return null;
+            Path file = root.resolve(relative).normalize();
+            return file.startsWith(root) ? file : null;
+        }
+
+        /**
+         * Décodage des %XX de l'URI (UTF-8) ; null si l'encodage est invalide ou contient un caractère nul.
+         */
+        private static String decode(String s) {
+            if (s.indexOf('%') < 0) return s.indexOf('\0') >= 0 ? null : s;
+            byte[] bytes = new byte[s.length()];
+            int n = 0;
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == '%') {
+                    if (i + 2 >= s.length()) return null;
+                    int hi = Character.digit(s.charAt(i + 1), 16);
+                    int lo = Character.digit(s.charAt(i + 2), 16);
+                    if (hi < 0 || lo < 0) return null;
+                    bytes[n++] = (byte) ((hi << 4) | lo);
+                    i += 2;
+                } else if (c < 0x80) {
+                    bytes[n++] = (byte) c;
+                } else {
+                    return null; // l'URI brute ne contient que de l'ASCII
+                }
+            }
+            String decoded = new String(bytes, 0, n, java.nio.charset.StandardCharsets.UTF_8);
+            return decoded.indexOf('\0') >= 0 ? null : decoded;
+        }
+    }
+
+    /**
+     * Fichier connu : métadonnées et en-têtes précalculés, contenu en mémoire s'il est petit.
+     */
+    private static final class Resource {
+        final Path path;
+        final long size;
+        final long lastModified;
+        final String lastModifiedHeader;
+        final String etag;
+        final String contentType;
+        final String cacheControl;
+        final byte[] data;
+        final Path gzPath;
+        final long gzSize;
+        final String gzEtag;
+        final byte[] gzData;
+
+        private Resource(Path path, BasicFileAttributes attrs, Path gzPath, long gzSize) throws IOException {
+            this.path = path;
+            this.size = attrs.size();
+            this.lastModified = attrs.lastModifiedTime().toMillis();
+            this.lastModifiedHeader = DateTimeFormatter.RFC_1123_DATE_TIME
+                    .format(Instant.ofEpochMilli(lastModified).atOffset(ZoneOffset.UTC));
+            String tag = Long.toHexString(size) + "-" + Long.toHexString(lastModified);
+            this.etag = ConditionalHandler.etag(tag, null);
+            this.gzEtag = ConditionalHandler.etag(tag, "gzip");
+            String name = path.getFileName().toString();
+            this.contentType = contentType(name);
+            this.cacheControl = FINGERPRINT.matcher(name).matches() ? IMMUTABLE : StaticResourceHandler.cacheControl;
+            this.gzPath = gzPath;
+            this.gzSize = gzSize;
+            this.data = keep(path, size);
+            this.gzData = gzPath != null ? keep(gzPath, gzSize) : null;
+        }
+
+        /**
+         * Fichier régulier à cette place, ou null.
+         */
+        static Resource load(Path path) throws IOException {
+            BasicFileAttributes attrs;
+            try {
+                attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                return null;
+            }
+            if (!attrs.isRegularFile()) return null;
+
+            // Variante précompressée, si elle n'est pas plus ancienne que l'original
+            Path gz = path.resolveSibling(path.getFileName() + ".gz");
+            Path gzPath = null;
+            long gzSize = 0;
+            try {
+                BasicFileAttributes gzAttrs = Files.readAttributes(gz, BasicFileAttributes.class);
+                if (gzAttrs.isRegularFile()
+                        && gzAttrs.lastModifiedTime().compareTo(attrs.lastModifiedTime()) >= 0) {
+                    gzPath = gz;
+                    gzSize = gzAttrs.size();
+                }
+            } catch (NoSuchFileException e) {
+                // pas de variante compressée
+            }
+            return new Resource(path, attrs, gzPath, gzSize);
+        }
+
+        /**
+         * Contenu gardé en mémoire si le fichier est petit et que le budget le permet.
+         */
+        private static byte[] keep(Path file, long size) throws IOException {
+            if (size > cacheFileSize) return null;
+            if (CACHED_BYTES.addAndGet(size) > cacheMaxBytes) {
+                CACHED_BYTES.addAndGet(-size);
+                return null;
+            }
+            byte[] bytes = Files.readAllBytes(file);
+            if (bytes.length != size) {
+                // Fichier modifié pendant la lecture : servi depuis le disque
+                CACHED_BYTES.addAndGet(-size);
+                return null;
+            }
+            return bytes;
+        }
+
+        long weight() {
+            return (data != null ? data.length : 0) + (gzData != null ? gzData.length : 0);
+        }
+
+        boolean isFresh() {
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+                return attrs.size() == size && attrs.lastModifiedTime().toMillis() == lastModified;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+}
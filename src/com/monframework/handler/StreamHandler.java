@@ -0,0 +1,408 @@
+package com.monframework.handler;
+
+import com.monframework.monitoring.JsonWriteEvent;
+import com.monframework.util.JsonSerializer;
+import com.monframework.util.JsonWriter;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.BaseStream;
+
+/**
+ * Réponses @Json produites au fil de l'eau : une méthode peut retourner un
+ * Stream, un Iterator ou un Flow.Publisher, dont les éléments sont sérialisés
+ * un par un sans jamais être rassemblés en mémoire.
+ *
+ * Le format suit l'en-tête Accept :
+ * - "text/event-stream" : Server-Sent Events, un événement "data:" par élément,
+ *   puis un événement "end" (sans lui, EventSource se reconnecterait) ;
+ * - "application/x-ndjson" (ou "application/jsonl") : un élément JSON par ligne ;
+ * - sinon : un tableau JSON envoyé par morceaux.
+ *
+ * Le tampon est vidé vers le client toutes les "stream.flushInterval" ms, et dès
+ * qu'un Publisher n'a plus d'élément prêt. L'écriture est bloquante : un client
+ * lent freine la lecture d'un Stream ou d'un Iterator, et un Publisher ne reçoit
+ * de nouvelle demande (request) qu'une fois ses éléments écrits. Si le client se
+ * déconnecte, la source est fermée (Stream.close, AutoCloseable, cancel) et la
+ * réponse s'arrête sans erreur.
+ */
+public final class StreamHandler {
+
+    /**
+     * Intervalle par défaut entre deux envois au client : 200 ms.
+     */
+    public static final long DEFAULT_FLUSH_INTERVAL = 200;
+
+    /**
+     * Délai par défaut avant un message de maintien en SSE : 15 s.
+     */
+    public static final long DEFAULT_HEARTBEAT = 15_000;
+
+    /**
+     * Éléments demandés d'avance à un Publisher.
+     */
+    public static final int DEFAULT_PREFETCH = 64;
+
+    /**
+     * Formats de sortie, choisis d'après l'en-tête Accept.
+     */
+    enum Format {
+        ARRAY("application/json;charset=UTF-8"),
+        NDJSON("application/x-ndjson;charset=UTF-8"),
+        SSE("text/event-stream;charset=UTF-8");
+
+        final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        static Format of(HttpServletRequest req) {
+            String accept = req.getHeader("Accept");
+            if (accept == null) return ARRAY;
+            accept = accept.toLowerCase(Locale.ROOT);
+            if (accept.contains("text/event-stream")) return SSE;
+            if (accept.contains("application/x-ndjson") || accept.contains("application/jsonl")) return NDJSON;
+            return ARRAY;
+        }
+    }
+
+    private static final byte[] NEWLINE = { '\n' };
+    private static final byte[] DATA = bytes("data: ");
+    private static final byte[] EVENT_END = bytes("\n\n");
+    private static final byte[] SSE_HEARTBEAT = bytes(":\n\n");
+    private static final byte[] SSE_END = bytes("event: end\ndata: ");
+    private static final byte[] SSE_ERROR = bytes("event: error\ndata: ");
+
+    private static volatile long flushInterval = TimeUnit.MILLISECONDS.toNanos(DEFAULT_FLUSH_INTERVAL);
+    private static volatile long heartbeat = TimeUnit.MILLISECONDS.toNanos(DEFAULT_HEARTBEAT);
+    private static volatile int prefetch = DEFAULT_PREFETCH;
+
+    private StreamHandler() {}
+
+    /**
+     * Change l'intervalle entre deux envois (paramètre "stream.flushInterval", en millisecondes).
+     */
+    public static void setFlushInterval(long millis) {
+        flushInterval = TimeUnit.MILLISECONDS.toNanos(millis > 0 ? millis : DEFAULT_FLUSH_INTERVAL);
+    }
+
+    /**
+     * Change le délai d'inactivité avant un message de maintien (paramètre "stream.heartbeat", en millisecondes).
+     */
+    public static void setHeartbeat(long millis) {
+        heartbeat = TimeUnit.MILLISECONDS.toNanos(millis > 0 ? millis : DEFAULT_HEARTBEAT);
+    }
+
+    /**
+     * Change la demande d'avance faite à un Publisher (paramètre "stream.prefetch").
+     */
+    public static void setPrefetch(int count) {
+        prefetch = count > 0 ? count : DEFAULT_PREFETCH;
+    }
+
+    /**
+     * Vrai si le résultat est une source à écrire au fil de l'eau.
+     */
+    public static boolean isStream(Object result) {
+        return result instanceof BaseStream || result instanceof Iterator || result instanceof Flow.Publisher;
+    }
+
+    /**
+     * Écrit les éléments de la source au format négocié, puis ferme la source.
+     * Une erreur de la source avant le premier envoi remonte normalement (500) ;
+     * après, elle est signalée par un événement "error" en SSE, et sinon la
+     * réponse s'arrête là (le tableau JSON reste incomplet).
+     * Les octets, les éléments écrits et une éventuelle déconnexion sont notés dans l'événement.
+     */
+    public static void write(HttpServletRequest req, HttpServletResponse resp, Object result,
+                             JsonWriteEvent event) throws Exception {
+        Format format = Format.of(req);
+        resp.setContentType(format.contentType);
+        if (format == Format.SSE) {
+            resp.setHeader("Cache-Control", "no-cache");
+            resp.setHeader("X-Accel-Buffering", "no"); // pas de mise en tampon par un proxy nginx
+        }
+
+        Source source = Source.of(result);
+        CompressionHandler.ResponseStream out = CompressionHandler.openStream(req, resp, format.contentType);
+        JsonWriter w = new JsonWriter(out);
+        boolean failed = false;
+        try {
+            copy(source, w, format);
+        } catch (IOException e) {
+            // Client parti : la source est fermée plus bas, rien d'autre à envoyer
+            event.disconnected = true;
+        } catch (SourceException e) {
+            // L'erreur remonte (sendError remet la réponse à zéro si rien n'est parti),
+            // sauf en SSE une fois la réponse engagée : le client reçoit un événement "error"
+            if (format != Format.SSE || !resp.isCommitted()) {
+                failed = true;
+                throw e.unwrap();
+            }
+            try {
+                w.raw(SSE_ERROR).value(String.valueOf(e.getCause().getMessage())).raw(EVENT_END);
+            } catch (IOException ignored) {
+                event.disconnected = true;
+            }
+        } finally {
+            source.close();
+            event.items = source.count;
+            try {
+                if (failed && !resp.isCommitted()) {
+                    w.discard(); // le début du tableau ne doit pas engager la réponse d'erreur
+                } else {
+                    w.close();
+                }
+                if (!event.disconnected) out.finish();
+            } catch (IOException e) {
+                event.disconnected = true;
+            } finally {
+                out.abort();
+            }
+            event.bytes = out.getBytesWritten();
+            event.sentBytes = out.getBytesSent();
+        }
+    }
+
+    private static void copy(Source source, JsonWriter w, Format format) throws IOException, SourceException {
+        boolean sse = format == Format.SSE;
+        boolean array = format == Format.ARRAY;
+        if (array) w.beginArray();
+
+        long lastFlush = System.nanoTime();
+        while (true) {
+            Object item = source.poll();
+            if (item == Source.EMPTY) {
+                // Rien de prêt : on envoie ce qui attend, puis on patiente
+                w.flush();
+                item = source.take(heartbeat);
+                lastFlush = System.nanoTime();
+                if (item == Source.EMPTY) {
+                    // Maintien : détecte aussi un client parti pendant l'attente
+                    if (sse) w.raw(SSE_HEARTBEAT);
+                    else if (array) w.raw(NEWLINE);
+                    else continue;
+                    w.flush();
+                    continue;
+                }
+            }
+            if (item == Source.END) break;
+
+            if (sse) w.raw(DATA);
+            JsonSerializer.write(item, w);
+            if (sse) w.raw(EVENT_END);
+            else if (!array) w.raw(NEWLINE);
+
+            long now = System.nanoTime();
+            if (now - lastFlush >= flushInterval) {
+                w.flush();
+                lastFlush = now;
+            }
+        }
+
+        if (array) w.endArray();
+        if (sse) w.raw(SSE_END).value(source.count).raw(EVENT_END);
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Erreur levée par la source (et non par l'écriture vers le client).
+     */
+    private static final class SourceException extends Exception {
+        SourceException(Throwable cause) {
+            super(cause);
+        }
+
+        Exception unwrap() {
+            Throwable cause = getCause();
+            if (cause instanceof Exception) return (Exception) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            return this;
+        }
+    }
+
+    /**
+     * Source d'éléments : Iterator (Stream compris) lu à la demande, ou Publisher
+     * dont les éléments arrivent dans une file bornée.
+     */
+    private abstract static class Source {
+        static final Object END = new Object();
+        static final Object EMPTY = new Object();
+
+        long count;
+
+        static Source of(Object result) {
+            if (result instanceof Flow.Publisher) return new PublisherSource((Flow.Publisher<?>) result, prefetch);
+            if (result instanceof BaseStream) {
+                BaseStream<?, ?> stream = (BaseStream<?, ?>) result;
+                return new IteratorSource(stream.iterator(), stream);
+            }
+            Iterator<?> it = (Iterator<?>) result;
+            return new IteratorSource(it, it instanceof AutoCloseable ? (AutoCloseable) it : null);
+        }
+
+        /**
+         * Élément suivant, END à la fin, ou EMPTY si rien n'est prêt.
+         */
+        abstract Object poll() throws SourceException;
+
+        /**
+         * Comme poll, en attendant au plus le délai donné.
+         */
+        abstract Object take(long nanos) throws SourceException, InterruptedIOException;
+
+        abstract void close();
+    }
+
+    private static final class IteratorSource extends Source {
+        private final Iterator<?> it;
+        private final AutoCloseable resource;
+
+        IteratorSource(Iterator<?> it, AutoCloseable resource) {
+            this.it = it;
+            this.resource = resource;
+        }
+
+        @Override
+        Object poll() throws SourceException {
+            try {
+                if (!it.hasNext()) return END;
+                Object item = it.next();
+                count++;
+                return item;
+            } catch (RuntimeException e) {
+                throw new SourceException(e);
+            }
+        }
+
+        @Override
+        Object take(long nanos) throws SourceException {
+            return poll();
+        }
+
+        @Override
+        void close() {
+            if (resource == null) return;
+            try {
+                resource.close();
+            } catch (Exception e) {
+                System.out.println("Fermeture de la source en flux : " + e);
+            }
+        }
+    }
+
+    /**
+     * Abonné à un Publisher. La file ne déborde jamais : les éléments en file et
+     * la demande en cours ne dépassent pas prefetch. La demande est renouvelée
+     * par moitié, quand l'écriture a consommé assez d'éléments.
+     */
+    private static final class PublisherSource extends Source implements Flow.Subscriber<Object> {
+        private static final Object COMPLETE = new Object();
+
+        private final int prefetch;
+        private final int batch;
+        private final ArrayBlockingQueue<Object> queue;
+        private volatile Flow.Subscription subscription;
+        private volatile boolean cancelled;
+        private volatile Throwable failure;
+        private volatile boolean done;
+        private int consumed;
+
+        @SuppressWarnings("unchecked")
+        PublisherSource(Flow.Publisher<?> publisher, int prefetch) {
+            this.prefetch = prefetch;
+            this.batch = Math.max(1, prefetch / 2);
+            this.queue = new ArrayBlockingQueue<>(prefetch + 1); // + 1 : fin ou erreur
+            ((Flow.Publisher<Object>) publisher).subscribe(this);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription s) {
+            if (subscription != null || cancelled) {
+                s.cancel();
+                return;
+            }
+            subscription = s;
+            s.request(prefetch);
+        }
+
+        @Override
+        public void onNext(Object item) {
+            if (!queue.offer(item)) {
+                // Publisher qui ignore la demande : on arrête là
+                onError(new IllegalStateException("Publisher : éléments reçus au-delà de la demande"));
+                cancel();
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            failure = t;
+            onComplete();
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            queue.offer(COMPLETE); // file pleine : la fin sera vue quand elle sera vide
+        }
+
+        @Override
+        Object poll() throws SourceException {
+            return next(queue.poll());
+        }
+
+        @Override
+        Object take(long nanos) throws SourceException, InterruptedIOException {
+            try {
+                return next(queue.poll(nanos, TimeUnit.NANOSECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Attente du Publisher interrompue");
+            }
+        }
+
+        private Object next(Object item) throws SourceException {
+            if (item == null) {
+                if (!done || !queue.isEmpty()) return EMPTY;
+                item = COMPLETE;
+            }
+            if (item == COMPLETE) {
+                queue.offer(COMPLETE); // la fin reste visible pour un prochain appel
+                if (failure != null) throw new SourceException(failure);
+                return END;
+            }
+            count++;
+            if (++consumed >= batch) {
+                int n = consumed;
+                consumed = 0;
+                subscription.request(n);
+            }
+            return item;
+        }
+
+        private void cancel() {
+            cancelled = true;
+            Flow.Subscription s = subscription;
+            if (s != null) s.cancel();
+        }
+
+        @Override
+        void close() {
+            cancel();
+        }
+    }
+}
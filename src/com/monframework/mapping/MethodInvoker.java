@@ -0,0 +1,266 @@
+package com.monframework.mapping;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Appel précompilé d'une méthode de contrôleur.
+ *
+ * Construit une seule fois au scan. Pour chaque route, LambdaMetafactory
+ * génère une classe (comme pour une lambda) qui appelle directement la méthode
+ * et le constructeur du contrôleur, sans réflexion, ni tableau d'arguments
+ * étalé, ni boxing autre que celui du résultat. L'appel de cette classe reste
+ * partagé : toutes les routes de même arité passent par le même call() dans
+ * invoke(), un site mégamorphe (un appel d'interface non inliné par route et
+ * par requête). Seul l'appel de la méthode du contrôleur, dans la classe
+ * générée, ne voit qu'une cible. Les exceptions du contrôleur remontent telles
+ * quelles (pas d'InvocationTargetException).
+ *
+ * Méthodes statiques, void ou à plus de {@link #MAX_ARITY} paramètres : les
+ * MethodHandle sont adaptés à la forme (Object, Object[])Object et appelés via
+ * invokeExact. Si la méthode ne peut pas être liée, on retombe sur la réflexion.
+ */
+public abstract class MethodInvoker {
+
+    /**
+     * Nombre maximal de paramètres d'une méthode appelée par une classe générée.
+     */
+    public static final int MAX_ARITY = 8;
+
+    // Formes des classes générées, une par nombre de paramètres (publiques pour
+    // être visibles du contrôleur, où LambdaMetafactory définit la classe)
+    @FunctionalInterface public interface Factory { Object create() throws Exception; }
+    @FunctionalInterface public interface Call0 { Object call(Object c) throws Exception; }
+    @FunctionalInterface public interface Call1 { Object call(Object c, Object a) throws Exception; }
+    @FunctionalInterface public interface Call2 { Object call(Object c, Object a, Object b) throws Exception; }
+    @FunctionalInterface public interface Call3 { Object call(Object c, Object a, Object b, Object d) throws Exception; }
+    @FunctionalInterface public interface Call4 {
+        Object call(Object c, Object a, Object b, Object d, Object e) throws Exception;
+    }
+    @FunctionalInterface public interface Call5 {
+        Object call(Object c, Object a, Object b, Object d, Object e, Object f) throws Exception;
+    }
+    @FunctionalInterface public interface Call6 {
+        Object call(Object c, Object a, Object b, Object d, Object e, Object f, Object g) throws Exception;
+    }
+    @FunctionalInterface public interface Call7 {
+        Object call(Object c, Object a, Object b, Object d, Object e, Object f, Object g, Object h) throws Exception;
+    }
+    @FunctionalInterface public interface Call8 {
+        Object call(Object c, Object a, Object b, Object d, Object e, Object f, Object g, Object h, Object i)
+                throws Exception;
+    }
+
+    private static final Class<?>[] CALLS = {
+        Call0.class, Call1.class, Call2.class, Call3.class, Call4.class,
+        Call5.class, Call6.class, Call7.class, Call8.class
+    };
+
+    /**
+     * Crée une nouvelle instance du contrôleur.
+     */
+    public abstract Object newController() throws Exception;
+
+    /**
+     * Appelle la méthode sur le contrôleur avec les arguments résolus.
+     */
+    public abstract Object invoke(Object controller, Object[] args) throws Exception;
+
+    /**
+     * Construit l'invoker le plus rapide possible pour cette méthode.
+     */
+    public static MethodInvoker of(Class<?> controllerClass, Method method) {
+        if (GeneratedInvoker.supports(method)) {
+            try {
+                return new GeneratedInvoker(controllerClass, method);
+            } catch (Throwable e) {
+                System.out.println("[INFO] Invocation par MethodHandle pour "
+                        + controllerClass.getName() + "." + method.getName() + " : " + e);
+            }
+        }
+        try {
+            return new HandleInvoker(controllerClass, method);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            System.out.println("[INFO] Invocation par réflexion pour "
+                    + controllerClass.getName() + "." + method.getName() + " : " + e);
+            return new ReflectiveInvoker(controllerClass, method);
+        }
+    }
+
+    /**
+     * Relance une exception du contrôleur telle quelle.
+     */
+    private static Exception rethrow(Throwable t) throws Exception {
+        if (t instanceof Exception) throw (Exception) t;
+        if (t instanceof Error) throw (Error) t;
+        return new InvocationTargetException(t);
+    }
+
+    /**
+     * Invoker qui passe par les classes générées pour la route, qui appellent
+     * la méthode en direct. Les appels de call() et create() ci-dessous sont
+     * communs à toutes les routes de même arité : mégamorphes une fois plusieurs
+     * routes chaudes, ils coûtent un appel d'interface sans inlining.
+     */
+    private static final class GeneratedInvoker extends MethodInvoker {
+        private final Class<?> controllerClass;
+        private final int arity;
+        private final Factory factory; // null si pas de constructeur sans argument
+        private final Object call;     // CallN selon arity
+
+        static boolean supports(Method method) {
+            return !Modifier.isStatic(method.getModifiers()) && method.getReturnType() != void.class
+                    && method.getParameterCount() <= MAX_ARITY;
+        }
+
+        GeneratedInvoker(Class<?> controllerClass, Method method) throws Throwable {
+            this.controllerClass = controllerClass;
+            this.arity = method.getParameterCount();
+            // Lookup du contrôleur : la classe générée est définie à côté de lui
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(controllerClass, MethodHandles.lookup());
+
+            MethodHandle target = lookup.unreflect(method);
+            Class<?> shape = CALLS[arity];
+            this.call = generate(lookup, shape, target, target.type().changeParameterType(0, controllerClass).wrap());
+
+            Factory f = null;
+            if (!Modifier.isAbstract(controllerClass.getModifiers())) {
+                try {
+                    MethodHandle ctor = lookup.findConstructor(controllerClass, MethodType.methodType(void.class));
+                    f = (Factory) generate(lookup, Factory.class, ctor, ctor.type());
+                } catch (NoSuchMethodException e) {
+                    // l'erreur sera signalée à l'appel, comme avant
+                }
+            }
+            this.factory = f;
+        }
+
+        private static Object generate(MethodHandles.Lookup lookup, Class<?> shape, MethodHandle target,
+                                       MethodType instantiated) throws Throwable {
+            Method sam = shape.getMethods()[0];
+            CallSite site = LambdaMetafactory.metafactory(lookup, sam.getName(), MethodType.methodType(shape),
+                    MethodType.methodType(sam.getReturnType(), sam.getParameterTypes()), target, instantiated);
+            return site.getTarget().invoke();
+        }
+
+        @Override
+        public Object newController() throws Exception {
+            if (factory == null) {
+                throw new NoSuchMethodException(controllerClass.getName() + ".<init>()");
+            }
+            return factory.create();
+        }
+
+        @Override
+        public Object invoke(Object controller, Object[] args) throws Exception {
+            switch (arity) {
+                case 0: return ((Call0) call).call(controller);
+                case 1: return ((Call1) call).call(controller, args[0]);
+                case 2: return ((Call2) call).call(controller, args[0], args[1]);
+                case 3: return ((Call3) call).call(controller, args[0], args[1], args[2]);
+                case 4: return ((Call4) call).call(controller, args[0], args[1], args[2], args[3]);
+                case 5: return ((Call5) call).call(controller, args[0], args[1], args[2], args[3], args[4]);
+                case 6: return ((Call6) call).call(controller, args[0], args[1], args[2], args[3], args[4],
+                        args[5]);
+                case 7: return ((Call7) call).call(controller, args[0], args[1], args[2], args[3], args[4],
+                        args[5], args[6]);
+                default: return ((Call8) call).call(controller, args[0], args[1], args[2], args[3], args[4],
+                        args[5], args[6], args[7]);
+            }
+        }
+    }
+
+    /**
+     * Invoker basé sur des MethodHandle.
+     */
+    private static final class HandleInvoker extends MethodInvoker {
+        private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+        private final Class<?> controllerClass;
+        private final MethodHandle constructor; // ()Object, null si pas de constructeur sans argument
+        private final MethodHandle target;      // (Object, Object[])Object
+
+        HandleInvoker(Class<?> controllerClass, Method method) throws ReflectiveOperationException {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            this.controllerClass = controllerClass;
+
+            method.setAccessible(true);
+            MethodHandle handle = lookup.unreflect(method);
+            if (Modifier.isStatic(method.getModifiers())) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            int count = method.getParameterCount();
+            handle = handle.asType(MethodType.genericMethodType(count + 1));
+            this.target = handle.asSpreader(Object[].class, count);
+
+            MethodHandle ctor = null;
+            try {
+                Constructor<?> c = controllerClass.getDeclaredConstructor();
+                c.setAccessible(true);
+                ctor = lookup.unreflectConstructor(c).asType(CONSTRUCTOR_TYPE);
+            } catch (NoSuchMethodException e) {
+                // l'erreur sera signalée à l'appel, comme avant
+            }
+            this.constructor = ctor;
+        }
+
+        @Override
+        public Object newController() throws Exception {
+            if (constructor == null) {
+                throw new NoSuchMethodException(controllerClass.getName() + ".<init>()");
+            }
+            try {
+                return (Object) constructor.invokeExact();
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        @Override
+        public Object invoke(Object controller, Object[] args) throws Exception {
+            try {
+                return (Object) target.invokeExact(controller, args);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+    }
+
+    /**
+     * Invoker de secours par réflexion.
+     */
+    private static final class ReflectiveInvoker extends MethodInvoker {
+        private final Class<?> controllerClass;
+        private final Method method;
+
+        ReflectiveInvoker(Class<?> controllerClass, Method method) {
+            this.controllerClass = controllerClass;
+            this.method = method;
+        }
+
+        @Override
+        public Object newController() throws Exception {
+            try {
+                return controllerClass.getDeclaredConstructor().newInstance();
+            } catch (InvocationTargetException e) {
+                throw rethrow(e.getCause());
+            }
+        }
+
+        @Override
+        public Object invoke(Object controller, Object[] args) throws Exception {
+            try {
+                return method.invoke(controller, args);
+            } catch (InvocationTargetException e) {
+                throw rethrow(e.getCause());
+            }
+        }
+    }
+}
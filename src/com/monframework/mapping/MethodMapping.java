@@ -1,8 +1,20 @@
 package com.monframework.mapping;
 
+import com.monframework.annotations.Async;
+import com.monframework.cache.CachePolicy;
+import com.monframework.handler.ArgumentResolver;
+import com.monframework.handler.ConditionalHandler;
+import com.monframework.handler.LimitRule;
+import com.monframework.handler.ParamResolver;
+import com.monframework.handler.RoleRule;
+import com.monframework.handler.SessionHandler;
+import com.monframework.monitoring.Metrics;
+import com.monframework.monitoring.RouteMetrics;
+
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletionStage;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -10,47 +22,58 @@ import java.util.regex.Pattern;
  * Classe représentant un mapping URL vers une méthode de contrôleur.
  */
 public class MethodMapping {
-    
+
+    private static final Pattern VARIABLE = Pattern.compile("\\{([^}]+)\\}");
+
     private final Class<?> controllerClass;
     private final Method method;
+    private final String url;        // ex : "/users/{id}"
     private final String httpMethod; // GET, POST ou ANY
-    private final Pattern regex;
     private final List<String> variables;
+    private final MethodInvoker invoker;
+    private final ParamResolver[] resolvers; // une stratégie par argument
+    private final int[] sessionSlots;        // arguments @Session à resynchroniser
+    private final boolean async;             // @Async ou retour CompletionStage
+    private final boolean offloaded;         // @Async : exécution hors du thread du conteneur
+    private final RoleRule roleRule;         // @Role de la classe et de la méthode (null : libre)
+    private final LimitRule limitRule;       // @Limit et "limit.routes" (null : limite globale seule)
+    private final CachePolicy cachePolicy;   // @Cacheable (null : pas de cache)
+    private final ConditionalHandler conditional; // @Conditional (null : pas de version)
+    private final RouteMetrics metrics;      // durées et compteurs de la route
 
-    public MethodMapping(Class<?> controllerClass, Method method, String httpMethod, 
-                         Pattern regex, List<String> variables) {
+    public MethodMapping(Class<?> controllerClass, Method method, String url, String httpMethod,
+                         List<String> variables) {
         this.controllerClass = controllerClass;
         this.method = method;
+        this.url = url;
         this.httpMethod = httpMethod;
-        this.regex = regex;
         this.variables = variables;
+        this.invoker = MethodInvoker.of(controllerClass, method);
+        this.resolvers = ArgumentResolver.plan(method, variables);
+        this.sessionSlots = SessionHandler.sessionSlots(method);
+        this.offloaded = method.isAnnotationPresent(Async.class);
+        this.async = offloaded || CompletionStage.class.isAssignableFrom(method.getReturnType());
+        this.roleRule = RoleRule.of(controllerClass, method);
+        this.limitRule = LimitRule.of(controllerClass, method, httpMethod, url);
+        this.cachePolicy = CachePolicy.of(method, url, httpMethod, roleRule);
+        this.conditional = ConditionalHandler.of(controllerClass, method);
+        this.metrics = Metrics.register(httpMethod, url);
     }
 
     /**
      * Factory method pour créer un MethodMapping à partir d'une URL.
+     * La recherche de la route est faite par le Router ; seuls les noms des
+     * variables d'URL sont extraits ici.
      */
     public static MethodMapping build(Class<?> cls, Method m, String url, String httpMethod) {
         List<String> variables = new ArrayList<>();
 
-        Matcher matcher = Pattern.compile("\\{([^}]+)\\}").matcher(url);
-        String regexStr = url;
-
+        Matcher matcher = VARIABLE.matcher(url);
         while (matcher.find()) {
-            String varName = matcher.group(1);
-            variables.add(varName);
-            regexStr = regexStr.replace("{" + varName + "}", "([^/]+)");
+            variables.add(matcher.group(1));
         }
 
-        Pattern pattern = Pattern.compile("^" + regexStr + "$");
-
-        return new MethodMapping(cls, m, httpMethod, pattern, variables);
-    }
-
-    /**
-     * Vérifie si l'URL correspond à ce mapping.
-     */
-    public Matcher match(String path) {
-        return regex.matcher(path);
+        return new MethodMapping(cls, m, url, httpMethod, variables);
     }
 
     /**
@@ -69,15 +92,79 @@ public class MethodMapping {
         return method;
     }
 
-    public String getHttpMethod() {
-        return httpMethod;
+    public String getUrl() {
+        return url;
     }
 
-    public Pattern getRegex() {
-        return regex;
+    public String getHttpMethod() {
+        return httpMethod;
     }
 
     public List<String> getVariables() {
         return variables;
     }
+
+    public MethodInvoker getInvoker() {
+        return invoker;
+    }
+
+    /**
+     * Stratégies de résolution des arguments (tableau partagé, ne pas modifier).
+     */
+    public ParamResolver[] getResolvers() {
+        return resolvers;
+    }
+
+    /**
+     * Positions des arguments @Session (tableau partagé, ne pas modifier).
+     */
+    public int[] getSessionSlots() {
+        return sessionSlots;
+    }
+
+    /**
+     * Vrai si la méthode est @Async ou retourne un CompletionStage.
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Vrai si la méthode doit s'exécuter hors du thread du conteneur (@Async).
+     */
+    public boolean isOffloaded() {
+        return offloaded;
+    }
+
+    /**
+     * Règle d'accès calculée au scan, ou null si la méthode est libre d'accès.
+     */
+    public RoleRule getRoleRule() {
+        return roleRule;
+    }
+
+    public LimitRule getLimitRule() {
+        return limitRule;
+    }
+
+    /**
+     * Règle de cache de la réponse, ou null si la méthode n'est pas @Cacheable.
+     */
+    public CachePolicy getCachePolicy() {
+        return cachePolicy;
+    }
+
+    /**
+     * Vérification de version @Conditional, ou null si la méthode n'en a pas.
+     */
+    public ConditionalHandler getConditional() {
+        return conditional;
+    }
+
+    /**
+     * Mesures de la route (durées par étape, compteurs).
+     */
+    public RouteMetrics getMetrics() {
+        return metrics;
+    }
 }
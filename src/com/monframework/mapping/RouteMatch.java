@@ -0,0 +1,89 @@
+package com.monframework.mapping;
+
+/**
+ * Résultat d'une recherche de route : le mapping trouvé et la position
+ * des variables d'URL capturées dans le chemin.
+ */
+public class RouteMatch {
+
+    private final MethodMapping mapping;
+    private final String path;
+    private final int[] offsets; // paires (début, fin) pour chaque variable
+    private final String allow;  // méthodes autorisées si 405
+
+    RouteMatch(MethodMapping mapping, String path, int[] offsets) {
+        this.mapping = mapping;
+        this.path = path;
+        this.offsets = offsets;
+        this.allow = null;
+    }
+
+    private RouteMatch(String path, String allow) {
+        this.mapping = null;
+        this.path = path;
+        this.offsets = new int[0];
+        this.allow = allow;
+    }
+
+    /**
+     * Le chemin existe mais pas pour cette méthode HTTP.
+     */
+    static RouteMatch methodNotAllowed(String path, String allow) {
+        return new RouteMatch(path, allow);
+    }
+
+    /**
+     * Vrai si un mapping a été trouvé pour le chemin et la méthode HTTP.
+     */
+    public boolean isFound() {
+        return mapping != null;
+    }
+
+    /**
+     * Vrai si le chemin existe mais pas pour la méthode HTTP demandée.
+     */
+    public boolean isMethodNotAllowed() {
+        return allow != null;
+    }
+
+    /**
+     * Valeur de la variable d'URL d'index donné (ordre de {@link MethodMapping#getVariables()}).
+     */
+    public String getVariable(int index) {
+        return path.substring(offsets[2 * index], offsets[2 * index + 1]);
+    }
+
+    /**
+     * Position de début de la variable dans le chemin.
+     */
+    public int getVariableStart(int index) {
+        return offsets[2 * index];
+    }
+
+    /**
+     * Position de fin (exclue) de la variable dans le chemin.
+     */
+    public int getVariableEnd(int index) {
+        return offsets[2 * index + 1];
+    }
+
+    public int getVariableCount() {
+        return offsets.length / 2;
+    }
+
+    // Getters
+    public MethodMapping getMapping() {
+        return mapping;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Valeur du header Allow (ex : "GET, POST") pour une réponse 405.
+     */
+    public String getAllow() {
+        return allow;
+    }
+}
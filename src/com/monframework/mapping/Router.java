@@ -0,0 +1,280 @@
+package com.monframework.mapping;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Routeur compilé au démarrage à partir des mappings détectés.
+ *
+ * Les URLs sans variable sont rangées dans une table exacte ; les URLs
+ * avec des {variables} sont rangées dans un arbre de segments. Chaque
+ * noeud terminal indexe ses mappings par méthode HTTP.
+ */
+public class Router {
+
+    private static final int[] NO_OFFSETS = new int[0];
+    private static final Pattern VARIABLE = Pattern.compile("\\{([^}]+)\\}");
+
+    private final Map<String, MethodIndex> staticRoutes = new HashMap<>();
+    private final Node root = new Node();
+    private int maxVariables = 0;
+
+    /**
+     * Construit un routeur à partir des mappings du scanner.
+     */
+    public static Router build(Collection<MethodMapping> mappings) {
+        Router router = new Router();
+        for (MethodMapping mm : mappings) {
+            router.add(mm);
+        }
+        return router;
+    }
+
+    /**
+     * Ajoute un mapping au routeur.
+     */
+    public void add(MethodMapping mm) {
+        String url = mm.getUrl();
+        MethodIndex index;
+
+        if (mm.getVariables().isEmpty()) {
+            index = staticRoutes.computeIfAbsent(url, k -> new MethodIndex());
+        } else {
+            Node node = root;
+            for (String segment : url.split("/", -1)) {
+                node = VARIABLE.matcher(segment).find()
+                        ? node.varChild(segment)
+                        : node.literalChild(segment);
+            }
+            if (node.methods == null) {
+                node.methods = new MethodIndex();
+            }
+            index = node.methods;
+            maxVariables = Math.max(maxVariables, mm.getVariables().size());
+        }
+
+        MethodMapping previous = index.put(mm);
+        if (previous != null) {
+            System.out.println("[ATTENTION] Route " + mm.getHttpMethod() + " " + url
+                    + " déjà définie par " + previous.getControllerClass().getName() + "."
+                    + previous.getMethod().getName());
+        }
+    }
+
+    /**
+     * Trouve le mapping correspondant au chemin et à la méthode HTTP.
+     * @return le résultat (trouvé ou 405), ou null si le chemin est inconnu
+     */
+    public RouteMatch match(String path, String httpMethod) {
+        MethodIndex exact = staticRoutes.get(path);
+        if (exact != null) {
+            MethodMapping mm = exact.find(httpMethod);
+            if (mm != null) {
+                return new RouteMatch(mm, path, NO_OFFSETS);
+            }
+        }
+
+        Search search = null;
+        if (maxVariables > 0) {
+            search = new Search(path, httpMethod, maxVariables);
+            MethodMapping mm = search.walk(root, 0, 0);
+            if (mm != null) {
+                return new RouteMatch(mm, path, Arrays.copyOf(search.captures, 2 * search.captured));
+            }
+        }
+
+        // Le chemin existe peut-être pour d'autres méthodes HTTP
+        Set<String> allowed = new TreeSet<>();
+        if (exact != null) {
+            exact.collectMethods(allowed);
+        }
+        if (search != null && search.allowed != null) {
+            allowed.addAll(search.allowed);
+        }
+        if (allowed.isEmpty()) {
+            return null;
+        }
+        return RouteMatch.methodNotAllowed(path, String.join(", ", allowed));
+    }
+
+    /**
+     * Parcours de l'arbre pour une requête donnée.
+     */
+    private static final class Search {
+        final String path;
+        final String httpMethod;
+        final int[] captures;
+        int captured;
+        Set<String> allowed;
+
+        Search(String path, String httpMethod, int maxVariables) {
+            this.path = path;
+            this.httpMethod = httpMethod;
+            this.captures = new int[2 * maxVariables];
+        }
+
+        /**
+         * @param start début du segment à consommer (> longueur si le chemin est épuisé)
+         * @param count nombre de variables déjà capturées
+         */
+        MethodMapping walk(Node node, int start, int count) {
+            if (start > path.length()) {
+                if (node.methods == null) return null;
+                MethodMapping mm = node.methods.find(httpMethod);
+                if (mm != null) {
+                    captured = count;
+                    return mm;
+                }
+                if (allowed == null) allowed = new TreeSet<>();
+                node.methods.collectMethods(allowed);
+                return null;
+            }
+
+            int end = path.indexOf('/', start);
+            if (end < 0) end = path.length();
+            int length = end - start;
+
+            // Les segments littéraux sont prioritaires sur les variables
+            for (int i = 0; i < node.literalCount; i++) {
+                String key = node.literalKeys[i];
+                if (key.length() == length && path.regionMatches(start, key, 0, length)) {
+                    MethodMapping mm = walk(node.literalNodes[i], end + 1, count);
+                    if (mm != null) return mm;
+                }
+            }
+
+            for (VarSegment var : node.vars) {
+                if (var.capture(path, start, end, captures, count)) {
+                    MethodMapping mm = walk(var.node, end + 1, count + var.variableCount);
+                    if (mm != null) return mm;
+                }
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     * Noeud de l'arbre : un segment d'URL.
+     */
+    private static final class Node {
+        String[] literalKeys = new String[0];
+        Node[] literalNodes = new Node[0];
+        int literalCount;
+        final List<VarSegment> vars = new ArrayList<>();
+        MethodIndex methods;
+
+        Node literalChild(String segment) {
+            for (int i = 0; i < literalCount; i++) {
+                if (literalKeys[i].equals(segment)) return literalNodes[i];
+            }
+            if (literalCount == literalKeys.length) {
+                literalKeys = Arrays.copyOf(literalKeys, literalCount * 2 + 1);
+                literalNodes = Arrays.copyOf(literalNodes, literalCount * 2 + 1);
+            }
+            Node child = new Node();
+            literalKeys[literalCount] = segment;
+            literalNodes[literalCount] = child;
+            literalCount++;
+            return child;
+        }
+
+        Node varChild(String segment) {
+            for (VarSegment var : vars) {
+                if (var.template.equals(segment)) return var.node;
+            }
+            VarSegment var = new VarSegment(segment);
+            vars.add(var);
+            return var.node;
+        }
+    }
+
+    /**
+     * Segment contenant une ou plusieurs variables (ex : "{id}", "page-{n}.html").
+     */
+    private static final class VarSegment {
+        final String template;
+        final Node node = new Node();
+        final int variableCount;
+        // Cas courant : une seule variable entourée d'un préfixe et d'un suffixe fixes
+        final String prefix;
+        final String suffix;
+        // Cas rare : plusieurs variables dans le même segment
+        final Pattern pattern;
+
+        VarSegment(String template) {
+            this.template = template;
+
+            Matcher m = VARIABLE.matcher(template);
+            StringBuilder regex = new StringBuilder();
+            int last = 0;
+            int count = 0;
+            while (m.find()) {
+                regex.append(Pattern.quote(template.substring(last, m.start()))).append("([^/]+)");
+                last = m.end();
+                count++;
+            }
+            regex.append(Pattern.quote(template.substring(last)));
+            this.variableCount = count;
+
+            if (count == 1) {
+                int open = template.indexOf('{');
+                this.prefix = template.substring(0, open);
+                this.suffix = template.substring(template.indexOf('}') + 1);
+                this.pattern = null;
+            } else {
+                this.prefix = null;
+                this.suffix = null;
+                this.pattern = Pattern.compile(regex.toString());
+            }
+        }
+
+        boolean capture(String path, int start, int end, int[] captures, int count) {
+            if (pattern == null) {
+                int varStart = start + prefix.length();
+                int varEnd = end - suffix.length();
+                if (varEnd <= varStart) return false;
+                if (!path.startsWith(prefix, start)) return false;
+                if (!path.startsWith(suffix, varEnd)) return false;
+                captures[2 * count] = varStart;
+                captures[2 * count + 1] = varEnd;
+                return true;
+            }
+
+            Matcher m = pattern.matcher(path).region(start, end);
+            if (!m.matches()) return false;
+            for (int g = 1; g <= variableCount; g++) {
+                captures[2 * (count + g - 1)] = m.start(g);
+                captures[2 * (count + g - 1) + 1] = m.end(g);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Index des mappings d'une même URL par méthode HTTP.
+     */
+    private static final class MethodIndex {
+        private final Map<String, MethodMapping> byMethod = new HashMap<>(4);
+        private MethodMapping any;
+
+        MethodMapping put(MethodMapping mm) {
+            if (mm.getHttpMethod().equals("ANY")) {
+                MethodMapping previous = any;
+                any = mm;
+                return previous;
+            }
+            return byMethod.put(mm.getHttpMethod(), mm);
+        }
+
+        MethodMapping find(String httpMethod) {
+            MethodMapping mm = byMethod.get(httpMethod);
+            return mm != null ? mm : any;
+        }
+
+        void collectMethods(Set<String> methods) {
+            methods.addAll(byMethod.keySet());
+        }
+    }
+}
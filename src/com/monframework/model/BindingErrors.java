@@ -0,0 +1,53 @@
+package com.monframework.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Erreurs rencontrées lors du binding d'un objet depuis la requête.
+ *
+ * Un contrôleur peut déclarer un paramètre de ce type pour les consulter :
+ * <pre>
+ * @PostMapping("/employes")
+ * public ModelView save(Employe e, BindingErrors errors) {
+ *     if (errors.hasErrors()) { ... }
+ * }
+ * </pre>
+ */
+public class BindingErrors {
+
+    /**
+     * Attribut de requête où sont stockées les erreurs de la requête courante.
+     */
+    public static final String ATTRIBUTE = BindingErrors.class.getName();
+
+    private final Map<String, String> errors = new LinkedHashMap<>();
+
+    /**
+     * Enregistre une erreur pour un champ (ex : "adresse.codePostal").
+     */
+    public void add(String field, String message) {
+        errors.putIfAbsent(field, message);
+    }
+
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+
+    /**
+     * Message d'erreur d'un champ, ou null.
+     */
+    public String getError(String field) {
+        return errors.get(field);
+    }
+
+    public Map<String, String> getErrors() {
+        return Collections.unmodifiableMap(errors);
+    }
+
+    @Override
+    public String toString() {
+        return "BindingErrors" + errors;
+    }
+}
@@ -1,15 +1,32 @@
 package com.monframework.model;
 
+import jakarta.servlet.http.Part;
+
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 
 /**
  * Sprint 10 : Représente un fichier uploadé
+ *
+ * Le contenu n'est pas forcément en mémoire : pour les gros fichiers, on garde
+ * le Part du conteneur (qui a déjà écrit le fichier sur disque au-delà de
+ * fileSizeThreshold). {@link #getContent()} ne charge les octets qu'à la demande ;
+ * préférer {@link #openStream()} ou {@link #saveTo(String)}.
  */
 public class UploadedFile {
     private String fileName;       // Nom original du fichier
     private String contentType;    // Type MIME (image/png, application/pdf, etc.)
-    private byte[] content;        // Contenu binaire du fichier
+    private byte[] content;        // Contenu binaire du fichier (null tant qu'il n'est pas chargé)
     private long size;             // Taille en octets
+    private transient Part part;   // Part du conteneur (contenu sur disque ou en mémoire)
+    private Path savedPath;        // Dernier emplacement d'enregistrement
 
     public UploadedFile() {}
 
@@ -20,6 +37,16 @@ public class UploadedFile {
         this.size = (content != null) ? content.length : 0;
     }
 
+    /**
+     * Fichier adossé au Part du conteneur : le contenu est lu à la demande.
+     */
+    public UploadedFile(String fileName, String contentType, Part part) {
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.part = part;
+        this.size = part.getSize();
+    }
+
     // === Getters ===
     public String getFileName() {
         return fileName;
@@ -29,7 +56,17 @@ public class UploadedFile {
         return contentType;
     }
 
+    /**
+     * Contenu complet en mémoire (chargé au premier appel pour les gros fichiers).
+     */
     public byte[] getContent() {
+        if (content == null && (part != null || savedPath != null)) {
+            try (InputStream in = openStream()) {
+                content = in.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Lecture impossible de " + fileName, e);
+            }
+        }
         return content;
     }
 
@@ -37,6 +74,13 @@ public class UploadedFile {
         return size;
     }
 
+    /**
+     * Vrai si le contenu est déjà en mémoire.
+     */
+    public boolean isInMemory() {
+        return content != null;
+    }
+
     // === Setters ===
     public void setFileName(String fileName) {
         this.fileName = fileName;
@@ -48,21 +92,65 @@ public class UploadedFile {
 
     public void setContent(byte[] content) {
         this.content = content;
+        this.part = null;
         this.size = (content != null) ? content.length : 0;
     }
 
     // === Méthodes utilitaires ===
 
+    /**
+     * Ouvre un flux sur le contenu, sans le charger en mémoire.
+     */
+    public InputStream openStream() throws IOException {
+        if (content != null) return new ByteArrayInputStream(content);
+        if (savedPath != null) return Files.newInputStream(savedPath);
+        if (part != null) return part.getInputStream();
+        return new ByteArrayInputStream(new byte[0]);
+    }
+
+    /**
+     * Ouvre un canal sur le contenu (fichier déjà enregistré : FileChannel).
+     */
+    public ReadableByteChannel openChannel() throws IOException {
+        if (content == null && savedPath != null) return FileChannel.open(savedPath, StandardOpenOption.READ);
+        return Channels.newChannel(openStream());
+    }
+
     /**
      * Sauvegarde le fichier sur le disque
      * @param destPath Chemin complet de destination (ex: "C:/uploads/monimage.png")
      */
     public void saveTo(String destPath) throws IOException {
-        File dest = new File(destPath);
+        File dest = new File(destPath).getAbsoluteFile();
         dest.getParentFile().mkdirs(); // créer les dossiers si nécessaire
-        try (FileOutputStream fos = new FileOutputStream(dest)) {
-            fos.write(content);
+        Path target = dest.toPath();
+
+        if (content != null) {
+            Files.write(target, content);
+        } else if (savedPath != null) {
+            // Déjà enregistré une fois : copie de fichier à fichier
+            try (FileChannel src = FileChannel.open(savedPath, StandardOpenOption.READ);
+                 FileChannel dst = FileChannel.open(target, StandardOpenOption.CREATE,
+                         StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                long position = 0;
+                long total = src.size();
+                while (position < total) {
+                    position += src.transferTo(position, total - position, dst);
+                }
+            }
+        } else if (part != null) {
+            // Le conteneur déplace son fichier temporaire (ou écrit son tampon) : pas de copie en mémoire
+            try {
+                part.write(target.toString());
+            } catch (IOException e) {
+                try (InputStream in = part.getInputStream()) {
+                    Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        } else {
+            Files.write(target, new byte[0]);
         }
+        savedPath = target;
     }
 
     /**
@@ -70,7 +158,16 @@ public class UploadedFile {
      * @param directory Dossier de destination
      */
     public void saveToDirectory(String directory) throws IOException {
-        saveTo(directory + File.separator + fileName);
+        saveTo(Paths.get(directory, fileName).toString());
+    }
+
+    /**
+     * Supprime le fichier temporaire du conteneur, s'il existe.
+     */
+    public void delete() throws IOException {
+        if (part != null) {
+            part.delete();
+        }
     }
 
     /**
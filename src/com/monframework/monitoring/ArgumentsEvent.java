@@ -0,0 +1,15 @@
+package com.monframework.monitoring;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Résolution des arguments de la méthode du contrôleur.
+ */
+@Name("com.monframework.Arguments")
+@Label("Résolution des arguments")
+public class ArgumentsEvent extends RequestEvent {
+
+    @Label("Arguments")
+    public int arguments;
+}
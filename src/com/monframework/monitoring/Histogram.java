@@ -0,0 +1,141 @@
+package com.monframework.monitoring;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Histogramme de durées (en nanosecondes) sans verrou, à buckets log-linéaires :
+ * chaque puissance de 2 est découpée en 8 sous-buckets (erreur relative < 12,5 %).
+ *
+ * Les compteurs sont répartis en bandes selon le thread pour éviter que les
+ * cœurs se disputent les mêmes lignes de cache ; une bande n'est allouée qu'à
+ * sa première utilisation.
+ */
+public final class Histogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 40; // ~ 1100 s
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_COUNT;
+
+    // Case en fin de bande : somme des durées
+    private static final int SUM = BUCKETS;
+
+    private static final int STRIPES = stripeCount();
+
+    private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(STRIPES);
+
+    /**
+     * Enregistre une durée en nanosecondes.
+     */
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        AtomicLongArray stripe = stripe();
+        stripe.getAndIncrement(bucket(nanos));
+        stripe.getAndAdd(SUM, nanos);
+    }
+
+    /**
+     * Copie cohérente bande par bande (pas d'arrêt des écritures).
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        long sum = 0;
+        for (int s = 0; s < STRIPES; s++) {
+            AtomicLongArray stripe = stripes.get(s);
+            if (stripe == null) continue;
+            for (int i = 0; i < BUCKETS; i++) {
+                long c = stripe.get(i);
+                counts[i] += c;
+                count += c;
+            }
+            sum += stripe.get(SUM);
+        }
+        return new Snapshot(counts, count, sum);
+    }
+
+    static int bucket(long value) {
+        if (value < SUB_COUNT) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) return BUCKETS - 1;
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+        return ((exponent - SUB_BITS + 1) << SUB_BITS) | sub;
+    }
+
+    /**
+     * Plus grande valeur représentée par un bucket.
+     */
+    static long upperBound(int bucket) {
+        if (bucket < SUB_COUNT) return bucket;
+        int exponent = (bucket >>> SUB_BITS) + SUB_BITS - 1;
+        long sub = bucket & (SUB_COUNT - 1);
+        long base = (SUB_COUNT | sub) << (exponent - SUB_BITS);
+        return base + (1L << (exponent - SUB_BITS)) - 1;
+    }
+
+    private AtomicLongArray stripe() {
+        int index = (int) Thread.currentThread().getId() & (STRIPES - 1);
+        AtomicLongArray stripe = stripes.get(index);
+        if (stripe == null) {
+            stripes.compareAndSet(index, null, new AtomicLongArray(BUCKETS + 1));
+            stripe = stripes.get(index);
+        }
+        return stripe;
+    }
+
+    private static int stripeCount() {
+        int cpus = Math.min(Runtime.getRuntime().availableProcessors(), 16);
+        return Integer.highestOneBit(Math.max(cpus, 1) * 2 - 1);
+    }
+
+    /**
+     * Etat figé d'un histogramme.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+
+        Snapshot(long[] counts, long count, long sum) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Somme des durées, en nanosecondes.
+         */
+        public long getSum() {
+            return sum;
+        }
+
+        /**
+         * Quantile (0.5, 0.99...), en nanosecondes : borne haute du bucket atteint.
+         */
+        public long quantile(double q) {
+            if (count == 0) return 0;
+            long rank = (long) Math.ceil(q * count);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && counts[i] > 0) return upperBound(i);
+            }
+            return max();
+        }
+
+        /**
+         * Plus grande durée enregistrée (borne haute de son bucket).
+         */
+        public long max() {
+            for (int i = counts.length - 1; i >= 0; i--) {
+                if (counts[i] > 0) return upperBound(i);
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.monframework.monitoring;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Appel de la méthode du contrôleur.
+ */
+@Name("com.monframework.Invoke")
+@Label("Appel du contrôleur")
+public class InvokeEvent extends RequestEvent {
+
+    @Label("Type du résultat")
+    public String resultType;
+}
@@ -0,0 +1,33 @@
+package com.monframework.monitoring;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Sérialisation JSON et écriture du corps de la réponse.
+ */
+@Name("com.monframework.JsonWrite")
+@Label("Réponse JSON")
+public class JsonWriteEvent extends RequestEvent {
+
+    @Label("Statut")
+    public int status;
+
+    @Label("Octets JSON")
+    @DataAmount
+    public long bytes;
+
+    @Label("Octets envoyés")
+    @DataAmount
+    public long sentBytes;
+
+    @Label("Codage")
+    public String encoding;
+
+    @Label("Éléments en flux")
+    public long items;
+
+    @Label("Client déconnecté")
+    public boolean disconnected;
+}
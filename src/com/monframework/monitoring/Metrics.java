@@ -0,0 +1,198 @@
+package com.monframework.monitoring;
+
+import com.monframework.util.JsonWriter;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registre des mesures du framework et point d'accès interne qui les expose
+ * (paramètre "metrics.path", ex : "/_metrics").
+ *
+ * Format texte Prometheus par défaut ; JSON avec ?format=json ou
+ * Accept: application/json.
+ */
+public final class Metrics {
+
+    private static final double[] QUANTILES = { 0.5, 0.9, 0.99 };
+
+    private static final List<RouteMetrics> ROUTES = new CopyOnWriteArrayList<>();
+    private static final Histogram UNMATCHED = new Histogram();
+    private static final LongAdder NOT_FOUND = new LongAdder();
+    private static final LongAdder METHOD_NOT_ALLOWED = new LongAdder();
+
+    private static volatile boolean enabled = true;
+
+    private Metrics() {}
+
+    /**
+     * Active ou désactive les mesures (paramètre "metrics.enabled").
+     */
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Crée les mesures d'une route (appelé au scan).
+     */
+    public static RouteMetrics register(String httpMethod, String url) {
+        RouteMetrics metrics = new RouteMetrics(httpMethod, url);
+        ROUTES.add(metrics);
+        return metrics;
+    }
+
+    /**
+     * Oublie les routes enregistrées (nouvelle initialisation du servlet).
+     */
+    public static void reset() {
+        ROUTES.clear();
+    }
+
+    /**
+     * Requête sans route : 404, avec la durée de la recherche.
+     */
+    public static void countNotFound(long matchNanos) {
+        if (!enabled) return;
+        NOT_FOUND.increment();
+        UNMATCHED.record(matchNanos);
+    }
+
+    public static void countMethodNotAllowed(long matchNanos) {
+        if (!enabled) return;
+        METHOD_NOT_ALLOWED.increment();
+        UNMATCHED.record(matchNanos);
+    }
+
+    /**
+     * Répond à une requête sur le point d'accès des mesures.
+     */
+    public static void handle(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        resp.setHeader("Cache-Control", "no-store");
+        String accept = req.getHeader("Accept");
+        if ("json".equals(req.getParameter("format")) || (accept != null && accept.contains("application/json"))) {
+            resp.setContentType("application/json;charset=UTF-8");
+            writeJson(resp.getOutputStream());
+        } else {
+            resp.setContentType("text/plain;version=0.0.4;charset=UTF-8");
+            PrintWriter out = resp.getWriter();
+            writePrometheus(out);
+            out.flush();
+        }
+    }
+
+    /**
+     * Format texte Prometheus : résumés (quantiles) par route et par étape, et compteurs.
+     */
+    public static void writePrometheus(PrintWriter out) {
+        out.println("# HELP monframework_request_duration_seconds Durée des étapes de traitement par route.");
+        out.println("# TYPE monframework_request_duration_seconds summary");
+        for (RouteMetrics route : ROUTES) {
+            String labels = "route=\"" + label(route.getHttpMethod() + " " + route.getUrl()) + "\"";
+            for (Phase phase : Phase.values()) {
+                Histogram.Snapshot s = route.getHistogram(phase).snapshot();
+                if (s.getCount() == 0) continue;
+                String l = labels + ",phase=\"" + phase.getLabel() + "\"";
+                for (double q : QUANTILES) {
+                    out.println("monframework_request_duration_seconds{" + l + ",quantile=\"" + q + "\"} "
+                            + seconds(s.quantile(q)));
+                }
+                out.println("monframework_request_duration_seconds_sum{" + l + "} " + seconds(s.getSum()));
+                out.println("monframework_request_duration_seconds_count{" + l + "} " + s.getCount());
+            }
+        }
+
+        out.println("# HELP monframework_requests_total Requêtes traitées par route.");
+        out.println("# TYPE monframework_requests_total counter");
+        for (RouteMetrics route : ROUTES) {
+            out.println("monframework_requests_total{route=\"" + label(route.getHttpMethod() + " " + route.getUrl())
+                    + "\"} " + route.getRequests());
+        }
+        out.println("# HELP monframework_errors_total Requêtes terminées par une erreur, par route.");
+        out.println("# TYPE monframework_errors_total counter");
+        for (RouteMetrics route : ROUTES) {
+            out.println("monframework_errors_total{route=\"" + label(route.getHttpMethod() + " " + route.getUrl())
+                    + "\"} " + route.getErrors());
+        }
+        out.println("# HELP monframework_forbidden_total Réponses 403 par route.");
+        out.println("# TYPE monframework_forbidden_total counter");
+        for (RouteMetrics route : ROUTES) {
+            out.println("monframework_forbidden_total{route=\"" + label(route.getHttpMethod() + " " + route.getUrl())
+                    + "\"} " + route.getForbidden());
+        }
+        out.println("# HELP monframework_rejected_total Requêtes refusées par les limites d'admission (429, 503), par route.");
+        out.println("# TYPE monframework_rejected_total counter");
+        for (RouteMetrics route : ROUTES) {
+            out.println("monframework_rejected_total{route=\"" + label(route.getHttpMethod() + " " + route.getUrl())
+                    + "\"} " + route.getRejected());
+        }
+        out.println("# HELP monframework_not_found_total Requêtes sans route (404).");
+        out.println("# TYPE monframework_not_found_total counter");
+        out.println("monframework_not_found_total " + NOT_FOUND.sum());
+        out.println("# HELP monframework_method_not_allowed_total Requêtes avec une méthode HTTP refusée (405).");
+        out.println("# TYPE monframework_method_not_allowed_total counter");
+        out.println("monframework_method_not_allowed_total " + METHOD_NOT_ALLOWED.sum());
+    }
+
+    /**
+     * Format JSON : une entrée par route, durées en microsecondes.
+     */
+    public static void writeJson(OutputStream os) throws IOException {
+        try (JsonWriter w = new JsonWriter(os)) {
+            w.beginObject();
+            w.name("notFound").value(NOT_FOUND.sum());
+            w.name("methodNotAllowed").value(METHOD_NOT_ALLOWED.sum());
+            w.name("unmatched");
+            writeSnapshot(w, UNMATCHED.snapshot());
+            w.name("routes").beginArray();
+            for (RouteMetrics route : ROUTES) {
+                w.beginObject();
+                w.name("method").value(route.getHttpMethod());
+                w.name("url").value(route.getUrl());
+                w.name("requests").value(route.getRequests());
+                w.name("errors").value(route.getErrors());
+                w.name("forbidden").value(route.getForbidden());
+                w.name("rejected").value(route.getRejected());
+                w.name("phases").beginObject();
+                for (Phase phase : Phase.values()) {
+                    w.name(phase.getLabel());
+                    writeSnapshot(w, route.getHistogram(phase).snapshot());
+                }
+                w.endObject();
+                w.endObject();
+            }
+            w.endArray();
+            w.endObject();
+        }
+    }
+
+    private static void writeSnapshot(JsonWriter w, Histogram.Snapshot s) throws IOException {
+        w.beginObject();
+        w.name("count").value(s.getCount());
+        w.name("meanUs").value(s.getCount() > 0 ? s.getSum() / s.getCount() / 1000.0 : 0.0);
+        w.name("p50Us").value(s.quantile(0.5) / 1000.0);
+        w.name("p90Us").value(s.quantile(0.9) / 1000.0);
+        w.name("p99Us").value(s.quantile(0.99) / 1000.0);
+        w.name("maxUs").value(s.max() / 1000.0);
+        w.endObject();
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+
+    private static String label(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,29 @@
+package com.monframework.monitoring;
+
+/**
+ * Etapes du traitement d'une requête mesurées par {@link RouteMetrics}.
+ */
+public enum Phase {
+    /** Recherche de la route. */
+    MATCH("match"),
+    /** Vérification des rôles. */
+    ROLE("role"),
+    /** Instanciation du contrôleur et résolution des arguments. */
+    ARGUMENTS("arguments"),
+    /** Appel de la méthode du contrôleur. */
+    INVOKE("invoke"),
+    /** Synchronisation de la session et écriture de la réponse. */
+    RENDER("render"),
+    /** Requête complète. */
+    TOTAL("total");
+
+    private final String label;
+
+    Phase(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,42 @@
+package com.monframework.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+import java.lang.reflect.Method;
+
+/**
+ * Base des événements Java Flight Recorder émis pendant le traitement d'une requête.
+ *
+ * Hors enregistrement JFR, un événement ne coûte qu'un test : les champs ne sont
+ * remplis qu'après {@code shouldCommit()}. Pour profiler :
+ * <pre>
+ * java -XX:StartFlightRecording=filename=app.jfr ...
+ * jfr print --categories MonFramework app.jfr
+ * </pre>
+ */
+@Category({ "MonFramework", "Requête" })
+@StackTrace(false)
+public abstract class RequestEvent extends jdk.jfr.Event {
+
+    @Label("Route")
+    String route;
+
+    @Label("Contrôleur")
+    String controller;
+
+    @Label("Méthode")
+    String method;
+
+    /**
+     * Renseigne la route ("GET /items/{id}", si connue) et la méthode du contrôleur.
+     */
+    public void setRoute(String httpMethod, String url, Method target) {
+        this.route = url != null ? httpMethod + " " + url : null;
+        if (target != null) {
+            this.controller = target.getDeclaringClass().getName();
+            this.method = target.getName();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.monframework.monitoring;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recherche de la route d'une requête.
+ */
+@Name("com.monframework.RouteMatch")
+@Label("Recherche de route")
+public class RouteMatchEvent extends RequestEvent {
+
+    @Label("Chemin")
+    public String path;
+
+    @Label("Méthode HTTP")
+    public String httpMethod;
+
+    @Label("Statut")
+    @Description("200 si une route correspond, sinon 404 ou 405")
+    public int status;
+}
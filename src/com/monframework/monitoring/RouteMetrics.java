@@ -0,0 +1,78 @@
+package com.monframework.monitoring;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mesures d'une route : un histogramme par étape et des compteurs.
+ */
+public final class RouteMetrics {
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final String httpMethod;
+    private final String url;
+    private final Histogram[] histograms = new Histogram[PHASES.length];
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder forbidden = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    RouteMetrics(String httpMethod, String url) {
+        this.httpMethod = httpMethod;
+        this.url = url;
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new Histogram();
+        }
+    }
+
+    /**
+     * Enregistre la durée d'une étape, en nanosecondes.
+     */
+    public void record(Phase phase, long nanos) {
+        if (Metrics.isEnabled()) histograms[phase.ordinal()].record(nanos);
+    }
+
+    public void countRequest() {
+        if (Metrics.isEnabled()) requests.increment();
+    }
+
+    public void countError() {
+        if (Metrics.isEnabled()) errors.increment();
+    }
+
+    public void countForbidden() {
+        if (Metrics.isEnabled()) forbidden.increment();
+    }
+
+    public void countRejected() {
+        if (Metrics.isEnabled()) rejected.increment();
+    }
+
+    public String getHttpMethod() {
+        return httpMethod;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public Histogram getHistogram(Phase phase) {
+        return histograms[phase.ordinal()];
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getForbidden() {
+        return forbidden.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
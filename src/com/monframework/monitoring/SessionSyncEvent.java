@@ -0,0 +1,15 @@
+package com.monframework.monitoring;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Écriture des paramètres @Session dans la session HTTP.
+ */
+@Name("com.monframework.SessionSync")
+@Label("Synchronisation de la session")
+public class SessionSyncEvent extends RequestEvent {
+
+    @Label("Paramètres @Session")
+    public int sessions;
+}
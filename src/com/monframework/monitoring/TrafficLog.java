@@ -0,0 +1,426 @@
+package com.monframework.monitoring;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Format binaire du journal de trafic écrit par {@link TrafficRecorder}.
+ *
+ * En-tête : "MFTR", version, date de début. Puis une entrée par requête :
+ * entiers en varint, chaînes en UTF-8 préfixées par leur longueur.
+ * Pour la session, seul le type de chaque attribut est noté, sauf pour les
+ * clés autorisées à l'enregistrement : leurs valeurs simples (texte, nombres,
+ * booléens, listes de textes, enum) sont gardées pour rejouer les contrôles de rôles.
+ */
+public final class TrafficLog {
+
+    static final int MAGIC = 0x4D465452; // "MFTR"
+    static final int VERSION = 1;
+
+    // Nature d'une valeur de session
+    private static final int OTHER = 0;
+    private static final int STRING = 1;
+    private static final int INT = 2;
+    private static final int LONG = 3;
+    private static final int BOOLEAN = 4;
+    private static final int DOUBLE = 5;
+    private static final int STRING_ARRAY = 6;
+    private static final int STRING_LIST = 7;
+    private static final int ENUM = 8;
+
+    private TrafficLog() {}
+
+    /**
+     * Requête enregistrée.
+     */
+    public static final class Entry {
+        private final long timeMicros;
+        private final String method;
+        private final String path;
+        private final Map<String, String[]> params;
+        private final Map<String, String> headers;
+        private final List<PartShape> parts;
+        private final byte[] body;
+        private final Map<String, Object> session;
+        private final Map<String, String> sessionTypes;
+
+        Entry(long timeMicros, String method, String path, Map<String, String[]> params,
+              Map<String, String> headers, List<PartShape> parts, byte[] body,
+              Map<String, Object> session, Map<String, String> sessionTypes) {
+            this.timeMicros = timeMicros;
+            this.method = method;
+            this.path = path;
+            this.params = params;
+            this.headers = headers;
+            this.parts = parts;
+            this.body = body;
+            this.session = session;
+            this.sessionTypes = sessionTypes;
+        }
+
+        /** Instant de la requête, en µs depuis le début de l'enregistrement. */
+        public long getTimeMicros() { return timeMicros; }
+        public String getMethod() { return method; }
+        /** Chemin relatif au contexte de l'application. */
+        public String getPath() { return path; }
+        /** Paramètres ; une valeur non gardée à l'enregistrement vaut null. */
+        public Map<String, String[]> getParams() { return params; }
+        public Map<String, String> getHeaders() { return headers; }
+        public List<PartShape> getParts() { return parts; }
+        /** Corps de la requête (JSON, texte...), ou null s'il n'a pas été gardé. */
+        public byte[] getBody() { return body; }
+        /** Attributs de session rejouables. */
+        public Map<String, Object> getSession() { return session; }
+        /** Type de chaque attribut de session, rejouable ou non. */
+        public Map<String, String> getSessionTypes() { return sessionTypes; }
+    }
+
+    /**
+     * Forme d'une partie multipart : nom, fichier, type et taille, sans le contenu.
+     */
+    public static final class PartShape {
+        private final String name;
+        private final String fileName;
+        private final String contentType;
+        private final long size;
+
+        public PartShape(String name, String fileName, String contentType, long size) {
+            this.name = name;
+            this.fileName = fileName;
+            this.contentType = contentType;
+            this.size = size;
+        }
+
+        public String getName() { return name; }
+        public String getFileName() { return fileName; }
+        public String getContentType() { return contentType; }
+        public long getSize() { return size; }
+    }
+
+    // === Écriture ===
+
+    static void writeHeader(OutputStream out, long startMillis) throws IOException {
+        Buffer b = new Buffer();
+        b.writeInt(MAGIC);
+        b.write(VERSION);
+        b.writeVar(startMillis);
+        b.writeTo(out);
+    }
+
+    /**
+     * Encode une entrée.
+     * @param paramKeys paramètres dont les valeurs sont gardées ; pour les autres, le nombre de valeurs seul
+     * @param valueKeys attributs de session dont la valeur est gardée ; pour les autres, le type seul
+     */
+    static byte[] encode(long timeMicros, String method, String path, Map<String, String[]> params,
+                         Set<String> paramKeys,
+                         Map<String, String> headers, List<PartShape> parts, byte[] body,
+                         Map<String, Object> session, Set<String> valueKeys) {
+        Buffer b = new Buffer();
+        b.writeVar(timeMicros);
+        b.writeString(method);
+        b.writeString(path);
+
+        b.writeVar(params.size());
+        for (Map.Entry<String, String[]> param : params.entrySet()) {
+            b.writeString(param.getKey());
+            String[] values = param.getValue();
+            b.writeVar(values.length);
+            boolean keep = paramKeys.contains(param.getKey());
+            for (String v : values) b.writeString(keep ? v : null);
+        }
+
+        b.writeVar(headers.size());
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            b.writeString(header.getKey());
+            b.writeString(header.getValue());
+        }
+
+        b.writeVar(parts.size());
+        for (PartShape part : parts) {
+            b.writeString(part.getName());
+            b.writeString(part.getFileName());
+            b.writeString(part.getContentType());
+            b.writeVar(part.getSize());
+        }
+
+        if (body == null) {
+            b.writeVar(0);
+        } else {
+            b.writeVar(body.length + 1);
+            b.write(body, 0, body.length);
+        }
+
+        b.writeVar(session.size());
+        for (Map.Entry<String, Object> attr : session.entrySet()) {
+            b.writeString(attr.getKey());
+            if (valueKeys.contains(attr.getKey())) {
+                writeValue(b, attr.getValue());
+            } else {
+                writeType(b, attr.getValue());
+            }
+        }
+        return b.toByteArray();
+    }
+
+    private static void writeValue(Buffer b, Object value) {
+        if (value instanceof String) {
+            b.write(STRING);
+            b.writeString((String) value);
+        } else if (value instanceof Integer) {
+            b.write(INT);
+            b.writeVar(zigzag((Integer) value));
+        } else if (value instanceof Long) {
+            b.write(LONG);
+            b.writeVar(zigzag((Long) value));
+        } else if (value instanceof Boolean) {
+            b.write(BOOLEAN);
+            b.write((Boolean) value ? 1 : 0);
+        } else if (value instanceof Double) {
+            b.write(DOUBLE);
+            b.writeVar(Double.doubleToRawLongBits((Double) value));
+        } else if (value instanceof String[]) {
+            b.write(STRING_ARRAY);
+            String[] values = (String[]) value;
+            b.writeVar(values.length);
+            for (String v : values) b.writeString(v);
+        } else if (value instanceof Collection && onlyStrings((Collection<?>) value)) {
+            b.write(STRING_LIST);
+            Collection<?> values = (Collection<?>) value;
+            b.writeVar(values.size());
+            for (Object v : values) b.writeString((String) v);
+        } else if (value instanceof Enum) {
+            b.write(ENUM);
+            b.writeString(((Enum<?>) value).getDeclaringClass().getName());
+            b.writeString(((Enum<?>) value).name());
+        } else {
+            writeType(b, value);
+        }
+    }
+
+    private static void writeType(Buffer b, Object value) {
+        b.write(OTHER);
+        b.writeString(value == null ? "null" : value.getClass().getName());
+    }
+
+    private static boolean onlyStrings(Collection<?> values) {
+        for (Object v : values) {
+            if (!(v instanceof String)) return false;
+        }
+        return true;
+    }
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    // === Lecture ===
+
+    /**
+     * Lecteur séquentiel d'un journal.
+     */
+    public static final class Reader implements Closeable {
+        private final InputStream in;
+        private final long startMillis;
+
+        public Reader(InputStream in) throws IOException {
+            this.in = new BufferedInputStream(in, 64 * 1024);
+            int magic = (this.in.read() << 24) | (this.in.read() << 16) | (this.in.read() << 8) | this.in.read();
+            if (magic != MAGIC) throw new IOException("Journal de trafic invalide");
+            int version = this.in.read();
+            if (version != VERSION) throw new IOException("Version de journal non supportée : " + version);
+            this.startMillis = readVar();
+        }
+
+        /** Date de début de l'enregistrement (ms depuis l'époque). */
+        public long getStartMillis() {
+            return startMillis;
+        }
+
+        /**
+         * Entrée suivante, ou null à la fin du journal.
+         */
+        public Entry next() throws IOException {
+            int first = in.read();
+            if (first < 0) return null;
+            try {
+                long time = readVar(first);
+                String method = readString();
+                String path = readString();
+
+                int n = (int) readVar();
+                Map<String, String[]> params = new LinkedHashMap<>();
+                for (int i = 0; i < n; i++) {
+                    String name = readString();
+                    String[] values = new String[(int) readVar()];
+                    for (int j = 0; j < values.length; j++) values[j] = readString();
+                    params.put(name, values);
+                }
+
+                n = (int) readVar();
+                Map<String, String> headers = new LinkedHashMap<>();
+                for (int i = 0; i < n; i++) headers.put(readString(), readString());
+
+                n = (int) readVar();
+                List<PartShape> parts = n == 0 ? Collections.emptyList() : new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    parts.add(new PartShape(readString(), readString(), readString(), readVar()));
+                }
+
+                int bodyLength = (int) readVar();
+                byte[] body = bodyLength == 0 ? null : readBytes(bodyLength - 1);
+
+                n = (int) readVar();
+                Map<String, Object> session = new LinkedHashMap<>();
+                Map<String, String> types = new LinkedHashMap<>();
+                for (int i = 0; i < n; i++) {
+                    String name = readString();
+                    readValue(name, session, types);
+                }
+                return new Entry(time, method, path, params, headers, parts, body, session, types);
+            } catch (EOFException e) {
+                return null; // dernière entrée tronquée (arrêt brutal)
+            }
+        }
+
+        private void readValue(String name, Map<String, Object> session, Map<String, String> types)
+                throws IOException {
+            int kind = in.read();
+            Object value;
+            switch (kind) {
+                case STRING: value = readString(); break;
+                case INT: value = (int) unzigzag(readVar()); break;
+                case LONG: value = unzigzag(readVar()); break;
+                case BOOLEAN: value = in.read() == 1; break;
+                case DOUBLE: value = Double.longBitsToDouble(readVar()); break;
+                case STRING_ARRAY: {
+                    String[] values = new String[(int) readVar()];
+                    for (int j = 0; j < values.length; j++) values[j] = readString();
+                    value = values;
+                    break;
+                }
+                case STRING_LIST: {
+                    int size = (int) readVar();
+                    List<String> values = new ArrayList<>(size);
+                    for (int j = 0; j < size; j++) values.add(readString());
+                    value = values;
+                    break;
+                }
+                case ENUM: {
+                    String type = readString();
+                    String constant = readString();
+                    types.put(name, type);
+                    value = enumConstant(type, constant);
+                    if (value != null) session.put(name, value);
+                    return;
+                }
+                case OTHER:
+                    types.put(name, readString());
+                    return;
+                default:
+                    throw new IOException("Valeur de session inconnue : " + kind);
+            }
+            types.put(name, value.getClass().getName());
+            session.put(name, value);
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private static Object enumConstant(String type, String constant) {
+            try {
+                ClassLoader loader = Thread.currentThread().getContextClassLoader();
+                Class<?> cls = Class.forName(type, false, loader != null ? loader : TrafficLog.class.getClassLoader());
+                return Enum.valueOf((Class<? extends Enum>) cls.asSubclass(Enum.class), constant);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return null; // enum absente du classpath de rejeu
+            }
+        }
+
+        private long readVar() throws IOException {
+            int b = in.read();
+            if (b < 0) throw new EOFException();
+            return readVar(b);
+        }
+
+        private long readVar(int first) throws IOException {
+            long value = first & 0x7F;
+            int shift = 7;
+            int b = first;
+            while ((b & 0x80) != 0) {
+                b = in.read();
+                if (b < 0) throw new EOFException();
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            }
+            return value;
+        }
+
+        private String readString() throws IOException {
+            int length = (int) readVar();
+            if (length == 0) return null;
+            return new String(readBytes(length - 1), StandardCharsets.UTF_8);
+        }
+
+        private byte[] readBytes(int length) throws IOException {
+            byte[] bytes = in.readNBytes(length);
+            if (bytes.length < length) throw new EOFException();
+            return bytes;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Tampon d'encodage : varints et chaînes (longueur + 1, 0 pour null).
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        Buffer() {
+            super(256);
+        }
+
+        void writeVar(long v) {
+            while ((v & ~0x7FL) != 0) {
+                write((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            write((int) v);
+        }
+
+        void writeInt(int v) {
+            write(v >>> 24);
+            write(v >>> 16);
+            write(v >>> 8);
+            write(v);
+        }
+
+        void writeString(String s) {
+            if (s == null) {
+                writeVar(0);
+                return;
+            }
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeVar(bytes.length + 1);
+            write(bytes, 0, bytes.length);
+        }
+    }
+}
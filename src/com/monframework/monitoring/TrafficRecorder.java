@@ -0,0 +1,254 @@
+package com.monframework.monitoring;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.Part;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Enregistrement du trafic réel dans un journal binaire ({@link TrafficLog}),
+ * pour le rejouer ensuite hors production (paramètre "traffic.record" : chemin
+ * du fichier).
+ *
+ * Sont notés : méthode, chemin, paramètres (noms et nombre de valeurs),
+ * quelques en-têtes utiles au traitement (Accept, Content-Type, conditions...),
+ * la taille des parties multipart et la forme de la session (noms et types des
+ * attributs). Jamais les cookies ni l'en-tête Authorization.
+ *
+ * Les valeurs des paramètres (query string et formulaires, mots de passe
+ * compris) ne sont gardées que pour les noms listés dans "traffic.paramValues".
+ * Les valeurs de session ne sont gardées que pour les clés listées dans
+ * "traffic.sessionValues" (en général les clés de rôles, pour rejouer les
+ * contrôles d'accès). Les corps JSON / texte ne sont gardés que si
+ * "traffic.maxBody" est donné : ils peuvent contenir mots de passe et jetons.
+ */
+public final class TrafficRecorder {
+
+    /**
+     * Taille maximale par défaut du journal : 256 MB, l'enregistrement s'arrête ensuite.
+     */
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+    /**
+     * Taille maximale par défaut d'un corps gardé dans le journal : 0, aucun corps n'est gardé.
+     */
+    public static final int DEFAULT_MAX_BODY = 0;
+
+    private static final String[] HEADERS = {
+        "Accept", "Accept-Encoding", "Accept-Language", "Content-Type",
+        "If-None-Match", "If-Modified-Since", "X-Requested-With"
+    };
+
+    private static final long FLUSH_INTERVAL = 1_000_000_000L; // 1 s
+
+    private static final Object LOCK = new Object();
+    private static final AtomicLong COUNTER = new AtomicLong();
+
+    private static volatile boolean recording;
+    private static OutputStream out;
+    private static long startNanos;
+    private static long written;
+    private static long lastFlush;
+    private static long maxBytes = DEFAULT_MAX_BYTES;
+    private static volatile int maxBody = DEFAULT_MAX_BODY;
+    private static volatile int sample = 1;
+    private static volatile Set<String> paramValues = Collections.emptySet();
+    private static volatile Set<String> sessionValues = Collections.emptySet();
+
+    private TrafficRecorder() {}
+
+    /**
+     * Ouvre le journal et commence l'enregistrement.
+     * @param maxBodySize taille maximale d'un corps gardé, 0 pour n'en garder aucun (paramètre "traffic.maxBody")
+     * @param sampleEvery une requête enregistrée sur sampleEvery (paramètre "traffic.sample")
+     * @param paramNames paramètres dont la valeur est gardée (paramètre "traffic.paramValues")
+     * @param sessionKeys attributs de session dont la valeur est gardée (paramètre "traffic.sessionValues")
+     */
+    public static void start(String path, long maxSize, int maxBodySize, int sampleEvery,
+                             Collection<String> paramNames, Collection<String> sessionKeys) throws IOException {
+        synchronized (LOCK) {
+            stop();
+            out = new BufferedOutputStream(new FileOutputStream(path), 64 * 1024);
+            TrafficLog.writeHeader(out, System.currentTimeMillis());
+            startNanos = System.nanoTime();
+            lastFlush = startNanos;
+            written = 0;
+            maxBytes = maxSize > 0 ? maxSize : DEFAULT_MAX_BYTES;
+            maxBody = Math.max(0, maxBodySize);
+            sample = Math.max(1, sampleEvery);
+            paramValues = paramNames != null ? new HashSet<>(paramNames) : Collections.emptySet();
+            sessionValues = sessionKeys != null ? new HashSet<>(sessionKeys) : Collections.emptySet();
+            recording = true;
+        }
+        System.out.println("Enregistrement du trafic dans " + path);
+    }
+
+    /**
+     * Termine l'enregistrement et ferme le journal.
+     */
+    public static void stop() {
+        synchronized (LOCK) {
+            recording = false;
+            if (out == null) return;
+            try {
+                out.close();
+            } catch (IOException e) {
+                System.out.println("[ATTENTION] Fermeture du journal de trafic : " + e.getMessage());
+            }
+            out = null;
+        }
+    }
+
+    public static boolean isRecording() {
+        return recording;
+    }
+
+    /**
+     * Enregistre la requête.
+     * @return la requête à traiter : enveloppée si son corps a été lu pour le journal
+     */
+    public static HttpServletRequest record(HttpServletRequest req) {
+        if (!recording || COUNTER.getAndIncrement() % sample != 0) return req;
+        try {
+            HttpServletRequest request = req;
+            byte[] body = null;
+            List<TrafficLog.PartShape> parts = Collections.emptyList();
+
+            String contentType = req.getContentType();
+            String type = contentType != null ? contentType.toLowerCase(Locale.ROOT) : "";
+            if (type.startsWith("multipart/")) {
+                parts = parts(req);
+            } else if (maxBody > 0 && !type.startsWith("application/x-www-form-urlencoded")) {
+                long length = req.getContentLengthLong();
+                if (length > 0 && length <= maxBody) {
+                    body = req.getInputStream().readNBytes((int) length);
+                    request = new BodyRequest(req, body);
+                }
+            }
+
+            Map<String, String> headers = new LinkedHashMap<>();
+            for (String name : HEADERS) {
+                String value = req.getHeader(name);
+                if (value != null) headers.put(name, value);
+            }
+
+            Map<String, Object> session = new LinkedHashMap<>();
+            HttpSession httpSession = req.getSession(false);
+            if (httpSession != null) {
+                Enumeration<String> names = httpSession.getAttributeNames();
+                while (names.hasMoreElements()) {
+                    String name = names.nextElement();
+                    session.put(name, httpSession.getAttribute(name));
+                }
+            }
+
+            String path = req.getRequestURI().substring(req.getContextPath().length());
+            long time = (System.nanoTime() - startNanos) / 1000;
+            write(TrafficLog.encode(time, req.getMethod(), path, req.getParameterMap(), paramValues,
+                    headers, parts, body, session, sessionValues));
+            return request;
+        } catch (Exception e) {
+            System.out.println("[ATTENTION] Requête non enregistrée : " + e);
+            return req;
+        }
+    }
+
+    private static List<TrafficLog.PartShape> parts(HttpServletRequest req) throws Exception {
+        List<TrafficLog.PartShape> shapes = new ArrayList<>();
+        for (Part part : req.getParts()) {
+            shapes.add(new TrafficLog.PartShape(part.getName(), part.getSubmittedFileName(),
+                    part.getContentType(), part.getSize()));
+        }
+        return shapes;
+    }
+
+    private static void write(byte[] entry) throws IOException {
+        synchronized (LOCK) {
+            if (!recording) return;
+            out.write(entry);
+            written += entry.length;
+            long now = System.nanoTime();
+            if (now - lastFlush > FLUSH_INTERVAL) {
+                out.flush();
+                lastFlush = now;
+            }
+            if (written >= maxBytes) {
+                System.out.println("Journal de trafic plein (" + written + " octets) : enregistrement arrêté");
+                stop();
+            }
+        }
+    }
+
+    /**
+     * Requête dont le corps, déjà lu pour le journal, est relu depuis la mémoire.
+     */
+    private static final class BodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        BodyRequest(HttpServletRequest req, byte[] body) {
+            super(req);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new IllegalStateException("Lecture non bloquante non supportée");
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
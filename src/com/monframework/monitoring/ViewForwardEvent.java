@@ -0,0 +1,18 @@
+package com.monframework.monitoring;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Rendu de la vue d'un ModelView (gabarit .tpl ou forward vers la JSP).
+ */
+@Name("com.monframework.ViewForward")
+@Label("Forward vers la vue")
+public class ViewForwardEvent extends RequestEvent {
+
+    @Label("Vue")
+    public String view;
+
+    @Label("Statut")
+    public int status;
+}
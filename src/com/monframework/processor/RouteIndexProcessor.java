@@ -0,0 +1,131 @@
+package com.monframework.processor;
+
+import com.monframework.annotations.Controller;
+import com.monframework.annotations.GetMapping;
+import com.monframework.annotations.PostMapping;
+import com.monframework.annotations.UrlMapping;
+import com.monframework.util.RouteIndex;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Processeur d'annotations qui enregistre, à la compilation, les classes
+ * {@code @Controller} et leurs routes dans {@value RouteIndex#RESOURCE}.
+ *
+ * Au démarrage, le FrontServlet charge uniquement les contrôleurs listés au
+ * lieu de parcourir toutes les classes de l'application. Le processeur est
+ * déclaré dans META-INF/services du framework.jar : javac le découvre tout seul
+ * quand le jar est dans le classpath de compilation.
+ */
+@SupportedAnnotationTypes("com.monframework.annotations.Controller")
+public class RouteIndexProcessor extends AbstractProcessor {
+
+    // nom binaire du contrôleur → lignes de l'index
+    private final Map<String, StringBuilder> entries = new TreeMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndex();
+            return false;
+        }
+
+        for (Element e : roundEnv.getElementsAnnotatedWith(Controller.class)) {
+            if (e.getKind() != ElementKind.CLASS) continue;
+            TypeElement type = (TypeElement) e;
+            String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+
+            StringBuilder lines = new StringBuilder();
+            lines.append("C ").append(className).append('\n');
+            for (Element m : type.getEnclosedElements()) {
+                if (m.getKind() != ElementKind.METHOD) continue;
+                GetMapping get = m.getAnnotation(GetMapping.class);
+                PostMapping post = m.getAnnotation(PostMapping.class);
+                UrlMapping any = m.getAnnotation(UrlMapping.class);
+                if (get != null) appendRoute(lines, "GET", get.value(), className, m);
+                if (post != null) appendRoute(lines, "POST", post.value(), className, m);
+                if (any != null) appendRoute(lines, "ANY", any.value(), className, m);
+            }
+            entries.put(className, lines);
+        }
+        return false;
+    }
+
+    private static void appendRoute(StringBuilder lines, String httpMethod, String url,
+                                    String className, Element method) {
+        lines.append("R ").append(httpMethod).append(' ').append(url).append(' ')
+             .append(className).append('#').append(method.getSimpleName()).append('\n');
+    }
+
+    /**
+     * Écrit l'index en conservant les contrôleurs d'une compilation précédente
+     * (compilation incrémentale) qui existent toujours.
+     */
+    private void writeIndex() {
+        if (entries.isEmpty()) return;
+        Filer filer = processingEnv.getFiler();
+
+        try {
+            FileObject existing = filer.getResource(StandardLocation.CLASS_OUTPUT, "", RouteIndex.RESOURCE);
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(existing.openInputStream(), StandardCharsets.UTF_8))) {
+                String current = null;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("C ")) {
+                        current = line.substring(2).trim();
+                        boolean stillExists = processingEnv.getElementUtils()
+                                .getTypeElement(current.replace('$', '.')) != null;
+                        if (entries.containsKey(current) || !stillExists) {
+                            current = null;
+                        } else {
+                            entries.put(current, new StringBuilder(line).append('\n'));
+                        }
+                    } else if (line.startsWith("R ") && current != null) {
+                        entries.get(current).append(line).append('\n');
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // pas d'index précédent
+        }
+
+        try {
+            FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", RouteIndex.RESOURCE);
+            // UTF-8 explicite, comme à la lecture (openWriter suivrait l'encodage du compilateur)
+            try (Writer w = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                w.write("# Index des routes - RouteIndexProcessor - ne pas modifier\n");
+                for (StringBuilder lines : entries.values()) {
+                    w.write(lines.toString());
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Impossible d'écrire " + RouteIndex.RESOURCE + " : " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.monframework.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lecture minimale d'un fichier .class : pool de constantes et attribut
+ * RuntimeVisibleAnnotations de la classe, sans charger ni initialiser la classe.
+ */
+final class ClassFileReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int ACC_INTERFACE = 0x0200;
+
+    private ClassFileReader() {}
+
+    /**
+     * Nom de la classe si elle porte l'annotation donnée, sinon null.
+     * @param annotationDescriptor descripteur JVM, ex : "Lcom/monframework/annotations/Controller;"
+     */
+    static String annotatedClassName(byte[] bytes, String annotationDescriptor) {
+        try {
+            return read(ByteBuffer.wrap(bytes), annotationDescriptor.getBytes(StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            // fichier tronqué ou format inconnu : ignoré
+            return null;
+        }
+    }
+
+    private static String read(ByteBuffer in, byte[] wanted) {
+        if (in.getInt() != MAGIC) return null;
+        in.getShort(); // minor_version
+        in.getShort(); // major_version
+
+        int count = u2(in);
+        int[] offsets = new int[count];   // position des CONSTANT_Utf8 / CONSTANT_Class
+        int[] classNames = new int[count];
+        boolean referenced = false;
+
+        for (int i = 1; i < count; i++) {
+            int tag = in.get();
+            switch (tag) {
+                case 1: { // Utf8
+                    int length = u2(in);
+                    offsets[i] = in.position();
+                    if (!referenced && length == wanted.length && equalsAt(in, wanted)) {
+                        referenced = true;
+                    }
+                    in.position(in.position() + length);
+                    break;
+                }
+                case 7: // Class
+                    classNames[i] = u2(in);
+                    break;
+                case 8: case 16: case 19: case 20: // String, MethodType, Module, Package
+                    in.position(in.position() + 2);
+                    break;
+                case 15: // MethodHandle
+                    in.position(in.position() + 3);
+                    break;
+                case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18:
+                    in.position(in.position() + 4);
+                    break;
+                case 5: case 6: // Long, Double : deux entrées
+                    in.position(in.position() + 8);
+                    i++;
+                    break;
+                default:
+                    return null;
+            }
+        }
+        // L'annotation n'apparaît nulle part dans le pool : inutile d'aller plus loin
+        if (!referenced) return null;
+
+        int access = u2(in);
+        int thisClass = u2(in);
+        if ((access & ACC_INTERFACE) != 0) return null;
+        in.position(in.position() + 2); // super_class
+        int interfaces = u2(in);
+        in.position(in.position() + 2 * interfaces);
+
+        skipMembers(in); // champs
+        skipMembers(in); // méthodes
+
+        int attributes = u2(in);
+        for (int a = 0; a < attributes; a++) {
+            int name = u2(in);
+            int length = in.getInt();
+            int end = in.position() + length;
+            if (utf8(in, offsets, name).equals("RuntimeVisibleAnnotations")) {
+                int annotations = u2(in);
+                for (int k = 0; k < annotations; k++) {
+                    int type = u2(in);
+                    if (utf8Equals(in, offsets, type, wanted)) {
+                        return utf8(in, offsets, classNames[thisClass]).replace('/', '.');
+                    }
+                    skipPairs(in);
+                }
+            }
+            in.position(end);
+        }
+        return null;
+    }
+
+    private static void skipMembers(ByteBuffer in) {
+        int members = u2(in);
+        for (int m = 0; m < members; m++) {
+            in.position(in.position() + 6); // access_flags, name, descriptor
+            int attributes = u2(in);
+            for (int a = 0; a < attributes; a++) {
+                in.position(in.position() + 2);
+                int length = in.getInt();
+                in.position(in.position() + length);
+            }
+        }
+    }
+
+    private static void skipPairs(ByteBuffer in) {
+        int pairs = u2(in);
+        for (int p = 0; p < pairs; p++) {
+            in.position(in.position() + 2); // element_name_index
+            skipElementValue(in);
+        }
+    }
+
+    private static void skipElementValue(ByteBuffer in) {
+        int tag = in.get();
+        switch (tag) {
+            case 'e':
+                in.position(in.position() + 4);
+                break;
+            case '@':
+                in.position(in.position() + 2);
+                skipPairs(in);
+                break;
+            case '[': {
+                int values = u2(in);
+                for (int v = 0; v < values; v++) skipElementValue(in);
+                break;
+            }
+            default: // constantes et 'c'
+                in.position(in.position() + 2);
+        }
+    }
+
+    private static int u2(ByteBuffer in) {
+        return in.getShort() & 0xFFFF;
+    }
+
+    private static boolean equalsAt(ByteBuffer in, byte[] wanted) {
+        int pos = in.position();
+        for (int i = 0; i < wanted.length; i++) {
+            if (in.get(pos + i) != wanted[i]) return false;
+        }
+        return true;
+    }
+
+    private static boolean utf8Equals(ByteBuffer in, int[] offsets, int index, byte[] wanted) {
+        int pos = offsets[index];
+        if ((((in.get(pos - 2) & 0xFF) << 8) | (in.get(pos - 1) & 0xFF)) != wanted.length) return false;
+        for (int i = 0; i < wanted.length; i++) {
+            if (in.get(pos + i) != wanted[i]) return false;
+        }
+        return true;
+    }
+
+    private static String utf8(ByteBuffer in, int[] offsets, int index) {
+        int pos = offsets[index];
+        int length = ((in.get(pos - 2) & 0xFF) << 8) | (in.get(pos - 1) & 0xFF);
+        // Les noms de classes et d'attributs sont en UTF-8 modifié, identique à l'UTF-8 hors caractères nuls
+        return new String(in.array(), pos, length, StandardCharsets.UTF_8);
+    }
+}
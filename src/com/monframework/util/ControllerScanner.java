@@ -8,14 +8,26 @@ import com.monframework.mapping.MethodMapping;
 
 import jakarta.servlet.ServletContext;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Method;
+import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 
 /**
  * Scanner pour détecter les contrôleurs et leurs mappings.
  */
 public class ControllerScanner {
 
+    private static final String CONTROLLER_DESCRIPTOR =
+            "L" + Controller.class.getName().replace('.', '/') + ";";
+
     private final ServletContext servletContext;
 
     public ControllerScanner(ServletContext servletContext) {
@@ -26,8 +38,101 @@ public class ControllerScanner {
      * Scanne un package et retourne tous les mappings détectés.
      */
     public Map<String, MethodMapping> scanPackage(String basePackage) {
+        return scanPackages(Collections.singletonList(basePackage));
+    }
+
+    /**
+     * Scanne les packages donnés dans WEB-INF/classes et les jars de WEB-INF/lib.
+     *
+     * Les fichiers .class sont lus en parallèle sans charger les classes : seules
+     * celles qui portent @Controller sont ensuite chargées.
+     */
+    public Map<String, MethodMapping> scanPackages(List<String> basePackages) {
+        long start = System.nanoTime();
+        Set<String> names = ConcurrentHashMap.newKeySet();
+        AtomicInteger classesRead = new AtomicInteger();
+
+        List<RecursiveAction> tasks = new ArrayList<>();
+        List<String> prefixes = new ArrayList<>();
+        for (String basePackage : basePackages) {
+            String path = basePackage.replace('.', '/');
+            prefixes.add(path + "/");
+            String realPath = servletContext.getRealPath("/WEB-INF/classes/" + path);
+            File directory = realPath != null ? new File(realPath) : null;
+            if (directory != null && directory.isDirectory()) {
+                tasks.add(new DirectoryTask(directory, basePackage, names, classesRead));
+            } else {
+                System.out.println("Dossier introuvable : " + realPath);
+            }
+        }
+
+        String libPath = servletContext.getRealPath("/WEB-INF/lib");
+        File[] jars = libPath != null ? new File(libPath).listFiles((dir, n) -> n.endsWith(".jar")) : null;
+        if (jars != null) {
+            for (File jar : jars) {
+                tasks.add(new JarTask(jar, prefixes, names, classesRead));
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+
+        List<Class<?>> controllers = loadControllers(new TreeSet<>(names));
+        System.out.println("Scan de " + basePackages + " : " + classesRead.get() + " classes lues, "
+                + controllers.size() + " contrôleurs, en "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return scanClasses(controllers);
+    }
+
+    /**
+     * Charge les contrôleurs listés dans l'index généré à la compilation
+     * ({@link RouteIndex#RESOURCE}).
+     * @return les mappings, ou null si aucun index n'est présent
+     */
+    public Map<String, MethodMapping> scanIndex() throws IOException {
+        List<String> names = RouteIndex.loadControllerNames(classLoader());
+        if (names == null) return null;
+        return scanClasses(loadControllers(names));
+    }
+
+    /**
+     * Charge (sans les initialiser) les classes nommées qui portent @Controller.
+     */
+    private List<Class<?>> loadControllers(Collection<String> names) {
+        ClassLoader loader = classLoader();
+        List<Class<?>> controllers = new ArrayList<>();
+        for (String name : names) {
+            try {
+                Class<?> cls = Class.forName(name, false, loader);
+                if (cls.isAnnotationPresent(Controller.class)) {
+                    controllers.add(cls);
+                }
+            } catch (ClassNotFoundException | LinkageError e) {
+                System.out.println("Contrôleur introuvable : " + name + " (" + e + ")");
+            }
+        }
+        return controllers;
+    }
+
+    private static ClassLoader classLoader() {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        return loader != null ? loader : ControllerScanner.class.getClassLoader();
+    }
+
+    /**
+     * Construit les mappings des contrôleurs donnés.
+     */
+    public Map<String, MethodMapping> scanClasses(Collection<Class<?>> controllers) {
         Map<String, MethodMapping> mappings = new HashMap<>();
-        List<Class<?>> controllers = getControllers(basePackage);
 
         for (Class<?> cls : controllers) {
             for (Method m : cls.getDeclaredMethods()) {
@@ -55,46 +160,89 @@ public class ControllerScanner {
     }
 
     /**
-     * Recherche des classes annotées @Controller dans un package donné.
+     * Parcours d'un répertoire : les sous-répertoires sont traités en parallèle.
      */
-    private List<Class<?>> getControllers(String basePackage) {
-        List<Class<?>> controllers = new ArrayList<>();
-        String path = servletContext.getRealPath("/WEB-INF/classes/" + basePackage.replace('.', '/'));
+    private static final class DirectoryTask extends RecursiveAction {
+        private final File folder;
+        private final String packageName;
+        private final Set<String> names;
+        private final AtomicInteger classesRead;
 
-        File directory = new File(path);
-        if (!directory.exists()) {
-            System.out.println("Dossier introuvable : " + path);
-            return controllers;
+        DirectoryTask(File folder, String packageName, Set<String> names, AtomicInteger classesRead) {
+            this.folder = folder;
+            this.packageName = packageName;
+            this.names = names;
+            this.classesRead = classesRead;
         }
 
-        scanDirectory(directory, basePackage, controllers);
-        return controllers;
+        @Override
+        protected void compute() {
+            File[] files = folder.listFiles();
+            if (files == null) return;
+
+            List<DirectoryTask> subTasks = new ArrayList<>();
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    subTasks.add(new DirectoryTask(file, packageName + "." + file.getName(), names, classesRead));
+                } else if (file.getName().endsWith(".class")) {
+                    try {
+                        check(Files.readAllBytes(file.toPath()), names, classesRead);
+                    } catch (IOException e) {
+                        System.out.println("Lecture impossible : " + file + " (" + e.getMessage() + ")");
+                    }
+                }
+            }
+            invokeAll(subTasks);
+        }
     }
 
     /**
-     * Parcours récursif du répertoire pour trouver les classes @Controller.
+     * Parcours des entrées d'un jar situées sous les packages scannés.
      */
-    private void scanDirectory(File folder, String packageName, List<Class<?>> controllers) {
-        File[] files = folder.listFiles();
-        if (files == null) return;
-
-        for (File file : files) {
-            if (file.isDirectory()) {
-                scanDirectory(file, packageName + "." + file.getName(), controllers);
-            } else if (file.getName().endsWith(".class")) {
-                String className = packageName + "." + file.getName().replace(".class", "");
-                try {
-                    Class<?> cls = Class.forName(className);
-                    if (cls.isAnnotationPresent(Controller.class)) {
-                        controllers.add(cls);
+    private static final class JarTask extends RecursiveAction {
+        private final File jar;
+        private final List<String> prefixes;
+        private final Set<String> names;
+        private final AtomicInteger classesRead;
+
+        JarTask(File jar, List<String> prefixes, Set<String> names, AtomicInteger classesRead) {
+            this.jar = jar;
+            this.prefixes = prefixes;
+            this.names = names;
+            this.classesRead = classesRead;
+        }
+
+        @Override
+        protected void compute() {
+            try (JarFile file = new JarFile(jar)) {
+                Enumeration<JarEntry> entries = file.entries();
+                while (entries.hasMoreElements()) {
+                    JarEntry entry = entries.nextElement();
+                    String name = entry.getName();
+                    if (entry.isDirectory() || !name.endsWith(".class") || !underPrefix(name)) continue;
+                    try (InputStream in = file.getInputStream(entry)) {
+                        check(in.readAllBytes(), names, classesRead);
                     }
-                } catch (ClassNotFoundException e) {
-                    e.printStackTrace();
                 }
+            } catch (IOException e) {
+                System.out.println("Lecture impossible : " + jar + " (" + e.getMessage() + ")");
+            }
+        }
+
+        private boolean underPrefix(String name) {
+            for (String prefix : prefixes) {
+                if (name.startsWith(prefix)) return true;
             }
+            return false;
         }
     }
 
+    private static void check(byte[] bytes, Set<String> names, AtomicInteger classesRead) {
+        classesRead.incrementAndGet();
+        String name = ClassFileReader.annotatedClassName(bytes, CONTROLLER_DESCRIPTOR);
+        if (name != null) names.add(name);
+    }
+
     /**
      * Affiche les mappings détectés (debug).
      */
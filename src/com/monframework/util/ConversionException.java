@@ -0,0 +1,23 @@
+package com.monframework.util;
+
+/**
+ * Valeur texte impossible à convertir vers le type demandé.
+ */
+public class ConversionException extends IllegalArgumentException {
+
+    private final Class<?> type;
+
+    public ConversionException(Class<?> type, CharSequence value) {
+        super("Valeur invalide pour " + type.getSimpleName() + " : " + value);
+        this.type = type;
+    }
+
+    public ConversionException(Class<?> type, CharSequence value, Throwable cause) {
+        this(type, value);
+        initCause(cause);
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+}
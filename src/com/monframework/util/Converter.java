@@ -0,0 +1,28 @@
+package com.monframework.util;
+
+/**
+ * Conversion d'un texte (paramètre, variable d'URL) vers un type.
+ *
+ * La conversion travaille sur une portion d'un CharSequence, ce qui évite de
+ * découper le chemin de la requête pour les variables d'URL.
+ * Un convertisseur se déclare avec {@link TypeConverter#register}, ou par le
+ * paramètre "converters" du FrontServlet (noms de classes, séparés par des virgules).
+ *
+ * @param <T> type produit
+ */
+@FunctionalInterface
+public interface Converter<T> {
+
+    /**
+     * Convertit les caractères [start, end) du texte.
+     * @throws ConversionException si le texte n'est pas une valeur valide
+     */
+    T convert(CharSequence text, int start, int end);
+
+    /**
+     * Convertit un texte complet.
+     */
+    default T convert(String text) {
+        return convert(text, 0, text.length());
+    }
+}
@@ -0,0 +1,84 @@
+package com.monframework.util;
+
+import jakarta.servlet.ServletConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecture de la configuration du framework.
+ *
+ * Une valeur est cherchée dans les init-param du FrontServlet, puis dans les
+ * context-param de l'application (web.xml), sinon la valeur par défaut est utilisée.
+ * <pre>
+ * &lt;init-param&gt;
+ *     &lt;param-name&gt;json.maxDepth&lt;/param-name&gt;
+ *     &lt;param-value&gt;32&lt;/param-value&gt;
+ * &lt;/init-param&gt;
+ * </pre>
+ */
+public class FrameworkConfig {
+
+    private final ServletConfig servletConfig;
+
+    public FrameworkConfig(ServletConfig servletConfig) {
+        this.servletConfig = servletConfig;
+    }
+
+    /**
+     * Valeur brute d'un paramètre, ou null s'il n'est pas défini.
+     */
+    public String get(String name) {
+        if (servletConfig == null) return null;
+        String value = servletConfig.getInitParameter(name);
+        if (value == null && servletConfig.getServletContext() != null) {
+            value = servletConfig.getServletContext().getInitParameter(name);
+        }
+        return value != null && !value.trim().isEmpty() ? value.trim() : null;
+    }
+
+    public String getString(String name, String defaultValue) {
+        String value = get(name);
+        return value != null ? value : defaultValue;
+    }
+
+    public int getInt(String name, int defaultValue) {
+        String value = get(name);
+        if (value == null) return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.out.println("[ATTENTION] Paramètre " + name + " invalide : " + value);
+            return defaultValue;
+        }
+    }
+
+    public long getLong(String name, long defaultValue) {
+        String value = get(name);
+        if (value == null) return defaultValue;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            System.out.println("[ATTENTION] Paramètre " + name + " invalide : " + value);
+            return defaultValue;
+        }
+    }
+
+    public boolean getBoolean(String name, boolean defaultValue) {
+        String value = get(name);
+        return value != null ? Boolean.parseBoolean(value) : defaultValue;
+    }
+
+    /**
+     * Liste de valeurs séparées par des virgules.
+     */
+    public List<String> getList(String name, String defaultValue) {
+        List<String> values = new ArrayList<>();
+        String raw = getString(name, defaultValue);
+        if (raw == null) return values;
+        for (String v : raw.split(",")) {
+            if (!v.trim().isEmpty()) values.add(v.trim());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,11 @@
+package com.monframework.util;
+
+/**
+ * Erreur de sérialisation ou de lecture JSON.
+ */
+public class JsonException extends RuntimeException {
+
+    public JsonException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,372 @@
+package com.monframework.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Lecteur JSON "pull" : le document est lu jeton par jeton depuis le flux,
+ * sans jamais être chargé entièrement en mémoire.
+ *
+ * Le tampon de caractères provient d'un petit pool et le StringBuilder
+ * des chaînes est réutilisé d'un jeton à l'autre.
+ * <pre>
+ * reader.beginObject();
+ * while (reader.hasNext()) {
+ *     String name = reader.nextName();
+ *     ...
+ * }
+ * reader.endObject();
+ * </pre>
+ */
+public final class JsonReader implements Closeable {
+
+    /**
+     * Types de jetons.
+     */
+    public enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY,
+        NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    private static final int BUFFER_SIZE = 4096;
+    private static final ArrayBlockingQueue<char[]> POOL = new ArrayBlockingQueue<>(64);
+
+    // Contextes d'imbrication
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int DANGLING_NAME = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+
+    private final Reader in;
+    private final int maxDepth;
+    private char[] buf;
+    private int pos;
+    private int limit;
+
+    private int[] stack = new int[32];
+    private int stackSize = 1;
+
+    private Token peeked;
+    private boolean literalValue; // valeur du dernier true/false lu
+    private final StringBuilder text = new StringBuilder();
+
+    public JsonReader(InputStream in, int maxDepth) {
+        this(new InputStreamReader(in, StandardCharsets.UTF_8), maxDepth);
+    }
+
+    public JsonReader(Reader in, int maxDepth) {
+        this.in = in;
+        this.maxDepth = maxDepth;
+        char[] pooled = POOL.poll();
+        this.buf = pooled != null ? pooled : new char[BUFFER_SIZE];
+        this.stack[0] = EMPTY_DOCUMENT;
+    }
+
+    // === Navigation ===
+
+    /**
+     * Type du prochain jeton, sans le consommer.
+     */
+    public Token peek() throws IOException {
+        if (peeked != null) return peeked;
+
+        int scope = stack[stackSize - 1];
+        switch (scope) {
+            case EMPTY_ARRAY:
+            case NONEMPTY_ARRAY: {
+                int c = nextNonWhitespace();
+                if (c == ']') return peeked = Token.END_ARRAY;
+                if (scope == NONEMPTY_ARRAY) {
+                    if (c != ',') throw syntaxError("',' ou ']' attendu");
+                } else {
+                    pos--;
+                }
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                return peeked = readValueToken();
+            }
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT: {
+                int c = nextNonWhitespace();
+                if (c == '}') return peeked = Token.END_OBJECT;
+                if (scope == NONEMPTY_OBJECT) {
+                    if (c != ',') throw syntaxError("',' ou '}' attendu");
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') throw syntaxError("nom de propriété attendu");
+                stack[stackSize - 1] = DANGLING_NAME;
+                return peeked = Token.NAME;
+            }
+            case DANGLING_NAME: {
+                if (nextNonWhitespace() != ':') throw syntaxError("':' attendu");
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+                return peeked = readValueToken();
+            }
+            case EMPTY_DOCUMENT: {
+                int c = nextNonWhitespace();
+                if (c == -1) return peeked = Token.END_DOCUMENT;
+                pos--;
+                stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+                return peeked = readValueToken();
+            }
+            default: {
+                if (nextNonWhitespace() != -1) throw syntaxError("données après la fin du document");
+                return peeked = Token.END_DOCUMENT;
+            }
+        }
+    }
+
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        stackSize--;
+    }
+
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        stackSize--;
+    }
+
+    /**
+     * Vrai s'il reste un élément dans le tableau ou l'objet courant.
+     */
+    public boolean hasNext() throws IOException {
+        Token t = peek();
+        return t != Token.END_OBJECT && t != Token.END_ARRAY && t != Token.END_DOCUMENT;
+    }
+
+    // === Valeurs ===
+
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        return readString();
+    }
+
+    /**
+     * Valeur texte d'une chaîne, d'un nombre ou d'un booléen.
+     */
+    public String nextString() throws IOException {
+        Token t = peek();
+        if (t == Token.STRING) {
+            peeked = null;
+            return readString();
+        }
+        if (t == Token.NUMBER) {
+            peeked = null;
+            return readNumber();
+        }
+        if (t == Token.BOOLEAN) {
+            peeked = null;
+            return String.valueOf(literalValue);
+        }
+        throw syntaxError("valeur simple attendue, trouvé " + t);
+    }
+
+    public boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        return literalValue;
+    }
+
+    public void nextNull() throws IOException {
+        expect(Token.NULL);
+    }
+
+    /**
+     * Lit un nombre : Long s'il est entier et tient sur 64 bits, sinon Double.
+     */
+    public Number nextNumber() throws IOException {
+        expect(Token.NUMBER);
+        String n = readNumber();
+        boolean integral = n.indexOf('.') < 0 && n.indexOf('e') < 0 && n.indexOf('E') < 0;
+        try {
+            if (integral && n.length() < 19) return Long.parseLong(n);
+            return Double.parseDouble(n);
+        } catch (NumberFormatException e) {
+            throw syntaxError("nombre invalide : " + n);
+        }
+    }
+
+    /**
+     * Ignore la valeur suivante (objets et tableaux compris).
+     */
+    public void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            Token t = peek();
+            switch (t) {
+                case BEGIN_OBJECT: beginObject(); depth++; break;
+                case BEGIN_ARRAY: beginArray(); depth++; break;
+                case END_OBJECT: endObject(); depth--; break;
+                case END_ARRAY: endArray(); depth--; break;
+                case NAME: nextName(); break;
+                case NULL: nextNull(); break;
+                case END_DOCUMENT: throw syntaxError("fin du document inattendue");
+                default: nextString();
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * Rend le tampon au pool (le flux n'est pas fermé).
+     */
+    @Override
+    public void close() {
+        if (buf != null) {
+            POOL.offer(buf);
+            buf = null;
+        }
+    }
+
+    // === Interne ===
+
+    private void expect(Token expected) throws IOException {
+        Token t = peek();
+        if (t != expected) throw syntaxError(expected + " attendu, trouvé " + t);
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (stackSize > maxDepth) {
+            throw new JsonException("Profondeur JSON maximale dépassée (" + maxDepth + ")");
+        }
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = scope;
+    }
+
+    private Token readValueToken() throws IOException {
+        int c = nextNonWhitespace();
+        switch (c) {
+            case '{': return Token.BEGIN_OBJECT;
+            case '[': return Token.BEGIN_ARRAY;
+            case '"': return Token.STRING;
+            case 't': expectLiteral("rue"); literalValue = true; return Token.BOOLEAN;
+            case 'f': expectLiteral("alse"); literalValue = false; return Token.BOOLEAN;
+            case 'n': expectLiteral("ull"); return Token.NULL;
+            case -1: throw syntaxError("fin du document inattendue");
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    pos--;
+                    return Token.NUMBER;
+                }
+                throw syntaxError("caractère inattendu '" + (char) c + "'");
+        }
+    }
+
+    private void expectLiteral(String rest) throws IOException {
+        for (int i = 0; i < rest.length(); i++) {
+            if (read() != rest.charAt(i)) throw syntaxError("littéral invalide");
+        }
+    }
+
+    /**
+     * Lit le contenu d'une chaîne (guillemet ouvrant déjà consommé).
+     */
+    private String readString() throws IOException {
+        text.setLength(0);
+        while (true) {
+            if (pos == limit && !fill()) throw syntaxError("chaîne non terminée");
+
+            // Suite sans guillemet ni échappement : recopie en bloc
+            int start = pos;
+            while (pos < limit) {
+                char c = buf[pos];
+                if (c == '"' || c == '\\') break;
+                if (c < 0x20) throw syntaxError("caractère de contrôle dans une chaîne");
+                pos++;
+            }
+            text.append(buf, start, pos - start);
+            if (pos == limit) continue;
+
+            char c = buf[pos++];
+            if (c == '"') return text.toString();
+            readEscape();
+        }
+    }
+
+    private void readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case '"': text.append('"'); break;
+            case '\\': text.append('\\'); break;
+            case '/': text.append('/'); break;
+            case 'b': text.append('\b'); break;
+            case 'f': text.append('\f'); break;
+            case 'n': text.append('\n'); break;
+            case 'r': text.append('\r'); break;
+            case 't': text.append('\t'); break;
+            case 'u': {
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int h = Character.digit(read(), 16);
+                    if (h < 0) throw syntaxError("échappement \\u invalide");
+                    value = (value << 4) | h;
+                }
+                text.append((char) value);
+                break;
+            }
+            default: throw syntaxError("échappement invalide");
+        }
+    }
+
+    private String readNumber() throws IOException {
+        text.setLength(0);
+        while (true) {
+            if (pos == limit && !fill()) break;
+            char c = buf[pos];
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+                text.append(c);
+                pos++;
+            } else {
+                break;
+            }
+        }
+        return text.toString();
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        while (true) {
+            if (pos == limit && !fill()) return -1;
+            char c = buf[pos++];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') return c;
+        }
+    }
+
+    private int read() throws IOException {
+        if (pos == limit && !fill()) return -1;
+        return buf[pos++];
+    }
+
+    private boolean fill() throws IOException {
+        int n = in.read(buf, 0, buf.length);
+        if (n <= 0) {
+            pos = limit = 0;
+            return false;
+        }
+        pos = 0;
+        limit = n;
+        return true;
+    }
+
+    private JsonException syntaxError(String message) {
+        return new JsonException("JSON invalide : " + message);
+    }
+}
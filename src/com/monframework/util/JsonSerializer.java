@@ -1,23 +1,62 @@
 package com.monframework.util;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
 
 /**
  * Utilitaire de sérialisation JSON.
+ *
+ * Un enum est écrit par son nom ("ROUGE") et un Character comme une chaîne
+ * d'un caractère. Avant, ils passaient par la sérialisation des POJO : objet
+ * de leurs champs (name, ordinal...) quand la JVM ouvrait java.lang, et sinon
+ * (Java 17 sans --add-opens) une erreur 500. Un client qui lisait cet objet
+ * doit maintenant lire une chaîne.
  */
 public class JsonSerializer {
 
+    /**
+     * Profondeur d'imbrication maximale par défaut.
+     */
+    public static final int DEFAULT_MAX_DEPTH = 64;
+
+    private static volatile int maxDepth = DEFAULT_MAX_DEPTH;
+
+    /**
+     * Change la profondeur d'imbrication maximale (paramètre "json.maxDepth").
+     */
+    public static void setMaxDepth(int depth) {
+        maxDepth = depth > 0 ? depth : DEFAULT_MAX_DEPTH;
+    }
+
+    public static int getMaxDepth() {
+        return maxDepth;
+    }
+
     /**
      * Échappe les caractères spéciaux pour JSON.
      */
     public static String escape(String s) {
         if (s == null) return null;
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < s.length(); i++) {
+
+        // Cas courant : rien à échapper
+        int len = s.length();
+        int i = 0;
+        while (i < len && !JsonWriter.needsEscape(s.charAt(i))) i++;
+        if (i == len) return s;
+
+        StringBuilder sb = new StringBuilder(len + 16);
+        int runStart = 0;
+        for (; i < len; i++) {
             char c = s.charAt(i);
+            if (!JsonWriter.needsEscape(c)) continue;
+            sb.append(s, runStart, i);
+            runStart = i + 1;
             switch (c) {
                 case '\\': sb.append("\\\\"); break;
                 case '"': sb.append("\\\""); break;
@@ -26,14 +65,10 @@ public class JsonSerializer {
                 case '\t': sb.append("\\t"); break;
                 case '\b': sb.append("\\b"); break;
                 case '\f': sb.append("\\f"); break;
-                default:
-                    if (c < 0x20) {
-                        sb.append(String.format("\\u%04x", (int)c));
-                    } else {
-                        sb.append(c);
-                    }
+                default: sb.append(String.format("\\u%04x", (int) c));
             }
         }
+        sb.append(s, runStart, len);
         return sb.toString();
     }
 
@@ -41,79 +76,109 @@ public class JsonSerializer {
      * Convertit un objet en JSON.
      */
     public static String toJson(Object obj) {
-        if (obj == null) return "null";
-        if (obj instanceof String) return '"' + escape((String)obj) + '"';
-        if (obj instanceof Number || obj instanceof Boolean) return String.valueOf(obj);
-
-        if (obj instanceof Map) {
-            StringBuilder sb = new StringBuilder();
-            sb.append('{');
-            boolean first = true;
-            for (Object eObj : ((Map<?,?>)obj).entrySet()) {
-                Map.Entry<?,?> e = (Map.Entry<?,?>) eObj;
-                if (!first) sb.append(',');
-                first = false;
-                sb.append('"').append(escape(String.valueOf(e.getKey()))).append('"').append(':')
-                  .append(toJson(e.getValue()));
-            }
-            sb.append('}');
-            return sb.toString();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try {
+            write(obj, baos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+        return new String(baos.toByteArray(), StandardCharsets.UTF_8);
+    }
 
-        if (obj instanceof Collection) {
-            StringBuilder sb = new StringBuilder();
-            sb.append('[');
-            boolean first = true;
-            for (Object item : (Collection<?>)obj) {
-                if (!first) sb.append(',');
-                first = false;
-                sb.append(toJson(item));
-            }
-            sb.append(']');
-            return sb.toString();
+    /**
+     * Écrit un objet en JSON (UTF-8) directement dans un flux.
+     * En cas d'erreur, le début déjà sérialisé mais encore dans le tampon n'est
+     * pas écrit : une réponse non engagée peut encore recevoir une erreur 500 propre.
+     */
+    public static void write(Object obj, OutputStream out) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        boolean done = false;
+        try {
+            write(obj, writer);
+            done = true;
+        } finally {
+            if (done) writer.close();
+            else writer.discard();
         }
+    }
+
+    /**
+     * Écrit un objet en JSON avec un JsonWriter.
+     * @throws JsonException en cas de référence circulaire ou de profondeur excessive
+     */
+    public static void write(Object obj, JsonWriter w) throws IOException {
+        write(obj, w, new Context(maxDepth));
+    }
 
-        if (obj.getClass().isArray()) {
-            StringBuilder sb = new StringBuilder();
-            sb.append('[');
-            int len = java.lang.reflect.Array.getLength(obj);
-            for (int i = 0; i < len; i++) {
-                if (i > 0) sb.append(',');
-                Object v = java.lang.reflect.Array.get(obj, i);
-                sb.append(toJson(v));
+    static void write(Object obj, JsonWriter w, Context ctx) throws IOException {
+        if (obj == null) { w.nullValue(); return; }
+        if (obj instanceof String) { w.value((String) obj); return; }
+        if (obj instanceof Number) { w.value((Number) obj); return; }
+        if (obj instanceof Boolean) { w.value(((Boolean) obj).booleanValue()); return; }
+        if (obj instanceof Character) { w.value(((Character) obj).charValue()); return; }
+        if (obj instanceof Enum) { w.value(((Enum<?>) obj).name()); return; }
+
+        ctx.enter(obj);
+        try {
+            if (obj instanceof Map) {
+                w.beginObject();
+                for (Map.Entry<?, ?> e : ((Map<?, ?>) obj).entrySet()) {
+                    w.name(String.valueOf(e.getKey()));
+                    write(e.getValue(), w, ctx);
+                }
+                w.endObject();
+            } else if (obj instanceof Collection) {
+                w.beginArray();
+                for (Object item : (Collection<?>) obj) {
+                    write(item, w, ctx);
+                }
+                w.endArray();
+            } else if (obj.getClass().isArray()) {
+                w.beginArray();
+                int len = java.lang.reflect.Array.getLength(obj);
+                for (int i = 0; i < len; i++) {
+                    write(java.lang.reflect.Array.get(obj, i), w, ctx);
+                }
+                w.endArray();
+            } else {
+                // Fallback POJO: plan de sérialisation mis en cache par classe
+                SerializationPlan.of(obj.getClass()).write(obj, w, ctx);
             }
-            sb.append(']');
-            return sb.toString();
+        } finally {
+            ctx.exit();
         }
-
-        // Fallback POJO: sérialiser ses champs déclarés
-        return serializePojo(obj);
     }
 
     /**
-     * Sérialise un POJO en JSON.
+     * Pile des conteneurs en cours d'écriture (détection des cycles et de la profondeur).
      */
-    private static String serializePojo(Object obj) {
-        StringBuilder sb = new StringBuilder();
-        sb.append('{');
-        boolean first = true;
-        Class<?> c = obj.getClass();
-        while (c != null && c != Object.class) {
-            for (Field f : c.getDeclaredFields()) {
-                int mod = f.getModifiers();
-                if (Modifier.isStatic(mod)) continue;
-                f.setAccessible(true);
-                try {
-                    Object v = f.get(obj);
-                    if (!first) sb.append(',');
-                    first = false;
-                    sb.append('"').append(escape(f.getName())).append('"').append(':')
-                      .append(toJson(v));
-                } catch (IllegalAccessException ignored) {}
+    static final class Context {
+        private final int maxDepth;
+        private Object[] stack = new Object[16];
+        private int depth;
+
+        Context(int maxDepth) {
+            this.maxDepth = maxDepth;
+        }
+
+        void enter(Object obj) {
+            for (int i = 0; i < depth; i++) {
+                if (stack[i] == obj) {
+                    throw new JsonException("Référence circulaire détectée sur "
+                            + obj.getClass().getName() + " (profondeur " + depth + ")");
+                }
+            }
+            if (depth == maxDepth) {
+                throw new JsonException("Profondeur JSON maximale dépassée (" + maxDepth + ")");
             }
-            c = c.getSuperclass();
+            if (depth == stack.length) {
+                stack = Arrays.copyOf(stack, depth * 2);
+            }
+            stack[depth++] = obj;
+        }
+
+        void exit() {
+            stack[--depth] = null;
         }
-        sb.append('}');
-        return sb.toString();
     }
 }
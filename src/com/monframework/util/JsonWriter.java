@@ -0,0 +1,393 @@
+package com.monframework.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Écriture JSON incrémentale, encodée directement en UTF-8 vers un OutputStream.
+ *
+ * Les octets passent par un tampon réutilisable pris dans un petit pool, si
+ * bien que la mémoire utilisée ne dépend pas de la taille du document.
+ * {@link #close()} vide le tampon et le rend au pool mais ne ferme pas le
+ * flux sous-jacent.
+ */
+public final class JsonWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final ArrayBlockingQueue<byte[]> POOL = new ArrayBlockingQueue<>(64);
+
+    private static final byte[] NULL = { 'n', 'u', 'l', 'l' };
+    private static final byte[] TRUE = { 't', 'r', 'u', 'e' };
+    private static final byte[] FALSE = { 'f', 'a', 'l', 's', 'e' };
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    /**
+     * Caractères ASCII à échapper : 0 = recopié tel quel, sinon la lettre d'échappement.
+     */
+    private static final byte[] ESCAPES = new byte[128];
+    static {
+        for (int c = 0; c < 0x20; c++) ESCAPES[c] = 'u';
+        ESCAPES['"'] = '"';
+        ESCAPES['\\'] = '\\';
+        ESCAPES['\n'] = 'n';
+        ESCAPES['\r'] = 'r';
+        ESCAPES['\t'] = 't';
+        ESCAPES['\b'] = 'b';
+        ESCAPES['\f'] = 'f';
+    }
+
+    private final OutputStream out;
+    private byte[] buf;
+    private int pos;
+
+    // Pile des conteneurs ouverts : true tant qu'aucun élément n'a été écrit
+    private boolean[] first = new boolean[32];
+    private int depth;
+    private boolean afterName;
+
+    public JsonWriter(OutputStream out) {
+        this.out = out;
+        byte[] pooled = POOL.poll();
+        this.buf = pooled != null ? pooled : new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Vrai si le caractère doit être échappé en JSON.
+     */
+    static boolean needsEscape(char c) {
+        return c < 128 && ESCAPES[c] != 0;
+    }
+
+    // === Structure ===
+
+    public JsonWriter beginObject() throws IOException {
+        beforeValue();
+        writeByte('{');
+        push();
+        return this;
+    }
+
+    public JsonWriter endObject() throws IOException {
+        depth--;
+        writeByte('}');
+        return this;
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        beforeValue();
+        writeByte('[');
+        push();
+        return this;
+    }
+
+    public JsonWriter endArray() throws IOException {
+        depth--;
+        writeByte(']');
+        return this;
+    }
+
+    /**
+     * Écrit le nom d'un membre d'objet.
+     */
+    public JsonWriter name(String name) throws IOException {
+        beforeValue();
+        writeQuoted(name);
+        writeByte(':');
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * Écrit un nom de membre déjà encodé (ex : "\"nom\":" en UTF-8).
+     */
+    public JsonWriter rawName(byte[] encodedName) throws IOException {
+        beforeValue();
+        writeBytes(encodedName, 0, encodedName.length);
+        afterName = true;
+        return this;
+    }
+
+    // === Valeurs ===
+
+    /**
+     * Écrit une valeur déjà encodée en JSON UTF-8 (recopiée sans vérification).
+     */
+    public JsonWriter rawValue(byte[] json, int off, int len) throws IOException {
+        beforeValue();
+        writeBytes(json, off, len);
+        return this;
+    }
+
+    /**
+     * Écrit des octets tels quels, hors de la structure JSON (séparateurs NDJSON, champs SSE).
+     */
+    public JsonWriter raw(byte[] bytes) throws IOException {
+        writeBytes(bytes, 0, bytes.length);
+        return this;
+    }
+
+    public JsonWriter value(String s) throws IOException {
+        if (s == null) return nullValue();
+        beforeValue();
+        writeQuoted(s);
+        return this;
+    }
+
+    public JsonWriter value(long v) throws IOException {
+        beforeValue();
+        writeLong(v);
+        return this;
+    }
+
+    public JsonWriter value(double v) throws IOException {
+        beforeValue();
+        writeAscii(String.valueOf(v));
+        return this;
+    }
+
+    public JsonWriter value(float v) throws IOException {
+        beforeValue();
+        writeAscii(Float.toString(v));
+        return this;
+    }
+
+    public JsonWriter value(boolean v) throws IOException {
+        beforeValue();
+        byte[] b = v ? TRUE : FALSE;
+        writeBytes(b, 0, b.length);
+        return this;
+    }
+
+    public JsonWriter value(char c) throws IOException {
+        beforeValue();
+        writeByte('"');
+        writeChars(String.valueOf(c));
+        writeByte('"');
+        return this;
+    }
+
+    /**
+     * Écrit un nombre : entier sans allocation, sinon sa représentation texte.
+     */
+    public JsonWriter value(Number n) throws IOException {
+        if (n == null) return nullValue();
+        if (n instanceof Integer || n instanceof Long || n instanceof Short || n instanceof Byte) {
+            return value(n.longValue());
+        }
+        beforeValue();
+        writeAscii(n.toString());
+        return this;
+    }
+
+    public JsonWriter nullValue() throws IOException {
+        beforeValue();
+        writeBytes(NULL, 0, NULL.length);
+        return this;
+    }
+
+    /**
+     * Profondeur d'imbrication courante.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    // === Flux ===
+
+    /**
+     * Envoie le contenu du tampon vers le flux sous-jacent.
+     */
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    /**
+     * Vide le tampon et le rend au pool (le flux sous-jacent reste ouvert).
+     */
+    @Override
+    public void close() throws IOException {
+        if (buf == null) return;
+        try {
+            flushBuffer();
+        } finally {
+            POOL.offer(buf);
+            buf = null;
+        }
+    }
+
+    /**
+     * Abandonne le contenu du tampon sans l'écrire et le rend au pool
+     * (réponse remplacée par une erreur).
+     */
+    public void discard() {
+        if (buf == null) return;
+        POOL.offer(buf);
+        buf = null;
+        pos = 0;
+    }
+
+    // === Interne ===
+
+    private void push() {
+        if (depth == first.length) {
+            first = Arrays.copyOf(first, depth * 2);
+        }
+        first[depth++] = true;
+    }
+
+    /**
+     * Écrit la virgule de séparation si nécessaire.
+     */
+    private void beforeValue() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            if (first[depth - 1]) {
+                first[depth - 1] = false;
+            } else {
+                writeByte(',');
+            }
+        }
+    }
+
+    private void writeQuoted(String s) throws IOException {
+        writeByte('"');
+        writeChars(s);
+        writeByte('"');
+    }
+
+    /**
+     * Encode une chaîne en UTF-8 échappé. Les suites de caractères ASCII
+     * sans échappement sont recopiées d'un bloc.
+     */
+    @SuppressWarnings("deprecation")
+    private void writeChars(String s) throws IOException {
+        int len = s.length();
+        int i = 0;
+        while (i < len) {
+            if (pos == buf.length) flushBuffer();
+
+            // Suite "propre" : recopie en bloc
+            int runStart = i;
+            int limit = Math.min(len, i + (buf.length - pos));
+            while (i < limit) {
+                char c = s.charAt(i);
+                if (c >= 128 || ESCAPES[c] != 0) break;
+                i++;
+            }
+            if (i > runStart) {
+                s.getBytes(runStart, i, buf, pos);
+                pos += i - runStart;
+                continue;
+            }
+
+            char c = s.charAt(i++);
+            if (c < 128) {
+                writeEscape(c);
+            } else if (c < 0x800) {
+                ensure(2);
+                buf[pos++] = (byte) (0xC0 | (c >> 6));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i < len && Character.isLowSurrogate(s.charAt(i))) {
+                int cp = Character.toCodePoint(c, s.charAt(i++));
+                ensure(4);
+                buf[pos++] = (byte) (0xF0 | (cp >> 18));
+                buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                writeEscape(c); // surrogate isolé : \\uXXXX
+            } else {
+                ensure(3);
+                buf[pos++] = (byte) (0xE0 | (c >> 12));
+                buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void writeEscape(char c) throws IOException {
+        ensure(6);
+        byte e = c < 128 ? ESCAPES[c] : (byte) 'u';
+        buf[pos++] = '\\';
+        if (e != 'u') {
+            buf[pos++] = e;
+            return;
+        }
+        buf[pos++] = 'u';
+        buf[pos++] = HEX[(c >> 12) & 0xF];
+        buf[pos++] = HEX[(c >> 8) & 0xF];
+        buf[pos++] = HEX[(c >> 4) & 0xF];
+        buf[pos++] = HEX[c & 0xF];
+    }
+
+    private void writeLong(long v) throws IOException {
+        if (v == Long.MIN_VALUE) {
+            writeAscii("-9223372036854775808");
+            return;
+        }
+        ensure(20);
+        if (v < 0) {
+            buf[pos++] = '-';
+            v = -v;
+        }
+        int start = pos;
+        do {
+            buf[pos++] = (byte) ('0' + (v % 10));
+            v /= 10;
+        } while (v != 0);
+        // chiffres écrits à l'envers
+        for (int l = start, r = pos - 1; l < r; l++, r--) {
+            byte t = buf[l];
+            buf[l] = buf[r];
+            buf[r] = t;
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private void writeAscii(String s) throws IOException {
+        int len = s.length();
+        if (len > buf.length) {
+            flushBuffer();
+            out.write(s.getBytes(java.nio.charset.StandardCharsets.US_ASCII));
+            return;
+        }
+        ensure(len);
+        s.getBytes(0, len, buf, pos);
+        pos += len;
+    }
+
+    private void writeByte(char b) throws IOException {
+        if (pos == buf.length) flushBuffer();
+        buf[pos++] = (byte) b;
+    }
+
+    private void writeBytes(byte[] b, int off, int len) throws IOException {
+        if (len > buf.length - pos) {
+            flushBuffer();
+            if (len > buf.length) {
+                out.write(b, off, len);
+                return;
+            }
+        }
+        System.arraycopy(b, off, buf, pos, len);
+        pos += len;
+    }
+
+    private void ensure(int n) throws IOException {
+        if (buf.length - pos < n) flushBuffer();
+    }
+
+    private void flushBuffer() throws IOException {
+        if (pos > 0) {
+            out.write(buf, 0, pos);
+            pos = 0;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.monframework.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lecture de l'index des contrôleurs généré à la compilation par
+ * {@link com.monframework.processor.RouteIndexProcessor}.
+ *
+ * Format (une entrée par ligne) :
+ * <pre>
+ * C com.test.HelloController
+ * R GET /hello com.test.HelloController#hello
+ * </pre>
+ */
+public class RouteIndex {
+
+    /**
+     * Emplacement de l'index dans le classpath (WEB-INF/classes ou jars de WEB-INF/lib).
+     */
+    public static final String RESOURCE = "META-INF/monframework/routes.idx";
+
+    /**
+     * Noms des contrôleurs de tous les index trouvés dans le classpath.
+     * @return la liste des noms, ou null si aucun index n'existe
+     */
+    public static List<String> loadControllerNames(ClassLoader loader) throws IOException {
+        Enumeration<URL> resources = loader.getResources(RESOURCE);
+        if (!resources.hasMoreElements()) return null;
+
+        Set<String> names = new LinkedHashSet<>();
+        while (resources.hasMoreElements()) {
+            URL url = resources.nextElement();
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("C ")) {
+                        names.add(line.substring(2).trim());
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(names);
+    }
+}
@@ -0,0 +1,185 @@
+package com.monframework.util;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plan de sérialisation JSON d'une classe, calculé une seule fois par type.
+ *
+ * Contient les accesseurs des champs (hiérarchie comprise, dans l'ordre de
+ * l'ancien parcours), leurs noms déjà encodés en UTF-8 et un writer
+ * spécialisé par type de champ : les primitifs sont écrits sans boxing.
+ */
+final class SerializationPlan {
+
+    private static final ClassValue<SerializationPlan> PLANS = new ClassValue<SerializationPlan>() {
+        @Override
+        protected SerializationPlan computeValue(Class<?> type) {
+            return new SerializationPlan(type);
+        }
+    };
+
+    private final FieldWriter[] fields;
+    private final boolean opaque; // classe non accessible (ex : JDK) → écrite via toString()
+
+    private SerializationPlan(Class<?> type) {
+        List<FieldWriter> writers = new ArrayList<>();
+        boolean inaccessible = false;
+
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            MethodHandles.Lookup lookup;
+            try {
+                lookup = MethodHandles.privateLookupIn(c, MethodHandles.lookup());
+            } catch (IllegalAccessException | RuntimeException e) {
+                inaccessible = true;
+                break;
+            }
+            for (Field f : c.getDeclaredFields()) {
+                if (Modifier.isStatic(f.getModifiers())) continue;
+                try {
+                    writers.add(FieldWriter.of(f, lookup.unreflectVarHandle(f)));
+                } catch (IllegalAccessException e) {
+                    inaccessible = true;
+                }
+            }
+        }
+
+        this.opaque = inaccessible && writers.isEmpty();
+        this.fields = writers.toArray(new FieldWriter[0]);
+    }
+
+    static SerializationPlan of(Class<?> type) {
+        return PLANS.get(type);
+    }
+
+    /**
+     * Écrit l'objet : ses champs, ou sa représentation texte s'il est opaque.
+     */
+    void write(Object obj, JsonWriter w, JsonSerializer.Context ctx) throws IOException {
+        if (opaque) {
+            w.value(obj.toString());
+            return;
+        }
+        w.beginObject();
+        for (FieldWriter f : fields) {
+            f.write(obj, w, ctx);
+        }
+        w.endObject();
+    }
+
+    /**
+     * Writer d'un champ : nom pré-encodé + lecture typée.
+     */
+    private abstract static class FieldWriter {
+        final byte[] name;
+        final VarHandle handle;
+
+        FieldWriter(Field field, VarHandle handle) {
+            this.name = ('"' + JsonSerializer.escape(field.getName()) + "\":").getBytes(StandardCharsets.UTF_8);
+            this.handle = handle;
+        }
+
+        abstract void write(Object obj, JsonWriter w, JsonSerializer.Context ctx) throws IOException;
+
+        static FieldWriter of(Field f, VarHandle h) {
+            Class<?> t = f.getType();
+            if (t == int.class) return new IntField(f, h);
+            if (t == long.class) return new LongField(f, h);
+            if (t == boolean.class) return new BooleanField(f, h);
+            if (t == double.class) return new DoubleField(f, h);
+            if (t == float.class) return new FloatField(f, h);
+            if (t == short.class) return new ShortField(f, h);
+            if (t == byte.class) return new ByteField(f, h);
+            if (t == char.class) return new CharField(f, h);
+            if (t == String.class) return new StringField(f, h);
+            return new ObjectField(f, h);
+        }
+    }
+
+    private static final class IntField extends FieldWriter {
+        IntField(Field f, VarHandle h) { super(f, h); }
+        @Override
+        void write(Object obj, JsonWriter w, JsonSerializer.Context ctx) throws IOException {
+            w.rawName(name).value((int) handle.get(obj));
+        }
+    }
+
+    private static final class LongField extends FieldWriter {
+        LongField(Field f, VarHandle h) { super(f, h); }
+        @Override
+        void write(Object obj, JsonWriter w, JsonSerializer.Context ctx) throws IOException {
+            w.rawName(name).value((long) handle.get(obj));
+        }
+    }
+
+    private static final class BooleanField extends FieldWriter {
+        BooleanField(Field f, VarHandle h) { super(f, h); }
+        @Override
+        void write(Object obj, JsonWriter w, JsonSerializer.Context ctx) throws IOException {
+            w.rawName(name).value((boolean) handle.get(obj));
+        }
+    }
+
+    private static final class DoubleField extends FieldWriter {
+        DoubleField(Field f, VarHandle h) { super(f, h); }
+        @Override
+        void write(Object obj, JsonWriter w, JsonSerializer.Context ctx) throws IOException {
+            w.rawName(name).value((double) handle.get(obj));
+        }
+    }
+
+    private static final class FloatField extends FieldWriter {
+        FloatField(Field f, VarHandle h) { super(f, h); }
+        @Override
+        void write(Object obj, JsonWriter w, JsonSerializer.Context ctx) throws IOException {
+            w.rawName(name).value((float) handle.get(obj));
+        }
+    }
+
+    private static final class ShortField extends FieldWriter {
+        ShortField(Field f, VarHandle h) { super(f, h); }
+        @Override
+        void write(Object obj, JsonWriter w, JsonSerializer.Context ctx) throws IOException {
+            w.rawName(name).value((short) handle.get(obj));
+        }
+    }
+
+    private static final class ByteField extends FieldWriter {
+        ByteField(Field f, VarHandle h) { super(f, h); }
+        @Override
+        void write(Object obj, JsonWriter w, JsonSerializer.Context ctx) throws IOException {
+            w.rawName(name).value((byte) handle.get(obj));
+        }
+    }
+
+    private static final class CharField extends FieldWriter {
+        CharField(Field f, VarHandle h) { super(f, h); }
+        @Override
+        void write(Object obj, JsonWriter w, JsonSerializer.Context ctx) throws IOException {
+            w.rawName(name).value((char) handle.get(obj));
+        }
+    }
+
+    private static final class StringField extends FieldWriter {
+        StringField(Field f, VarHandle h) { super(f, h); }
+        @Override
+        void write(Object obj, JsonWriter w, JsonSerializer.Context ctx) throws IOException {
+            w.rawName(name).value((String) handle.get(obj));
+        }
+    }
+
+    private static final class ObjectField extends FieldWriter {
+        ObjectField(Field f, VarHandle h) { super(f, h); }
+        @Override
+        void write(Object obj, JsonWriter w, JsonSerializer.Context ctx) throws IOException {
+            w.rawName(name);
+            JsonSerializer.write(handle.get(obj), w, ctx);
+        }
+    }
+}
@@ -1,37 +1,362 @@
 package com.monframework.util;
 
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
- * Utilitaire de conversion des types primitifs et wrappers.
+ * Registre des convertisseurs texte → type, indexé par type cible.
+ *
+ * Types fournis : String, primitifs et wrappers, BigDecimal, BigInteger, UUID,
+ * LocalDate, LocalDateTime, LocalTime, OffsetDateTime, Instant, Date et toutes
+ * les enum. Les entiers et décimaux sont lus directement dans la portion de
+ * texte, sans sous-chaîne. Les convertisseurs sont résolus au scan : ceux de
+ * l'application doivent être enregistrés avant l'initialisation du FrontServlet.
  */
 public class TypeConverter {
 
+    private static final Map<Class<?>, Converter<?>> CONVERTERS = new ConcurrentHashMap<>();
+
+    // Puissances de 10 exactes en double (jusqu'à 10^22) et en float (jusqu'à 10^10)
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final float[] FLOAT_POW10 = {
+        1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+
+    static {
+        register(String.class, (text, start, end) -> text.subSequence(start, end).toString());
+
+        Converter<Integer> ints = (text, start, end) -> parseInt(text, start, end);
+        register(int.class, ints);
+        register(Integer.class, ints);
+        Converter<Long> longs = (text, start, end) -> parseLong(text, start, end);
+        register(long.class, longs);
+        register(Long.class, longs);
+        Converter<Short> shorts = (text, start, end) -> (short) parseRange(text, start, end, Short.class,
+                Short.MIN_VALUE, Short.MAX_VALUE);
+        register(short.class, shorts);
+        register(Short.class, shorts);
+        Converter<Byte> bytes = (text, start, end) -> (byte) parseRange(text, start, end, Byte.class,
+                Byte.MIN_VALUE, Byte.MAX_VALUE);
+        register(byte.class, bytes);
+        register(Byte.class, bytes);
+        Converter<Double> doubles = (text, start, end) -> parseDouble(text, start, end);
+        register(double.class, doubles);
+        register(Double.class, doubles);
+        Converter<Float> floats = (text, start, end) -> parseFloat(text, start, end);
+        register(float.class, floats);
+        register(Float.class, floats);
+        Converter<Boolean> booleans = (text, start, end) -> parseBoolean(text, start, end);
+        register(boolean.class, booleans);
+        register(Boolean.class, booleans);
+        Converter<Character> chars = (text, start, end) -> {
+            if (end - start != 1) throw new ConversionException(Character.class, text.subSequence(start, end));
+            return text.charAt(start);
+        };
+        register(char.class, chars);
+        register(Character.class, chars);
+
+        register(BigDecimal.class, (text, start, end) -> {
+            String s = text.subSequence(start, end).toString();
+            try {
+                return new BigDecimal(s);
+            } catch (NumberFormatException e) {
+                throw new ConversionException(BigDecimal.class, s, e);
+            }
+        });
+        register(BigInteger.class, (text, start, end) -> {
+            String s = text.subSequence(start, end).toString();
+            try {
+                return new BigInteger(s);
+            } catch (NumberFormatException e) {
+                throw new ConversionException(BigInteger.class, s, e);
+            }
+        });
+        register(UUID.class, (text, start, end) -> {
+            String s = text.subSequence(start, end).toString();
+            if (s.length() != 36) throw new ConversionException(UUID.class, s);
+            try {
+                return UUID.fromString(s);
+            } catch (IllegalArgumentException e) {
+                throw new ConversionException(UUID.class, s, e);
+            }
+        });
+
+        register(LocalDate.class, (text, start, end) -> {
+            CharSequence s = text.subSequence(start, end);
+            try {
+                return LocalDate.parse(s);
+            } catch (DateTimeParseException e) {
+                throw new ConversionException(LocalDate.class, s, e);
+            }
+        });
+        register(LocalDateTime.class, (text, start, end) -> {
+            CharSequence s = text.subSequence(start, end);
+            try {
+                return LocalDateTime.parse(s);
+            } catch (DateTimeParseException e) {
+                throw new ConversionException(LocalDateTime.class, s, e);
+            }
+        });
+        register(LocalTime.class, (text, start, end) -> {
+            CharSequence s = text.subSequence(start, end);
+            try {
+                return LocalTime.parse(s);
+            } catch (DateTimeParseException e) {
+                throw new ConversionException(LocalTime.class, s, e);
+            }
+        });
+        register(OffsetDateTime.class, (text, start, end) -> {
+            CharSequence s = text.subSequence(start, end);
+            try {
+                return OffsetDateTime.parse(s);
+            } catch (DateTimeParseException e) {
+                throw new ConversionException(OffsetDateTime.class, s, e);
+            }
+        });
+        register(Instant.class, (text, start, end) -> {
+            CharSequence s = text.subSequence(start, end);
+            try {
+                return Instant.parse(s);
+            } catch (DateTimeParseException e) {
+                throw new ConversionException(Instant.class, s, e);
+            }
+        });
+        // Date : "2024-05-31", "2024-05-31T10:15:30" (heure locale) ou avec fuseau
+        register(Date.class, (text, start, end) -> {
+            String s = text.subSequence(start, end).toString();
+            try {
+                if (s.length() <= 10) {
+                    return Date.from(LocalDate.parse(s).atStartOfDay(ZoneId.systemDefault()).toInstant());
+                }
+                if (s.endsWith("Z") || s.lastIndexOf('+') > 10 || s.lastIndexOf('-') > 10) {
+                    return Date.from(OffsetDateTime.parse(s).toInstant());
+                }
+                return Date.from(LocalDateTime.parse(s).atZone(ZoneId.systemDefault()).toInstant());
+            } catch (DateTimeParseException e) {
+                throw new ConversionException(Date.class, s, e);
+            }
+        });
+    }
+
+    /**
+     * Enregistre (ou remplace) le convertisseur d'un type.
+     */
+    public static <T> void register(Class<T> type, Converter<? extends T> converter) {
+        CONVERTERS.put(type, converter);
+    }
+
+    /**
+     * Enregistre un convertisseur dont le type cible est déduit de sa déclaration
+     * ({@code class MoneyConverter implements Converter<Money>}).
+     */
+    public static void register(Converter<?> converter) {
+        Class<?> type = targetType(converter.getClass());
+        if (type == null) {
+            throw new IllegalArgumentException("Type cible introuvable pour " + converter.getClass().getName());
+        }
+        CONVERTERS.put(type, converter);
+    }
+
+    /**
+     * Convertisseur d'un type, ou null si le type ne se convertit pas depuis un texte.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static Converter<?> converterFor(Class<?> type) {
+        Converter<?> converter = CONVERTERS.get(type);
+        if (converter == null && type.isEnum()) {
+            converter = CONVERTERS.computeIfAbsent(type, t -> new EnumConverter(t));
+        }
+        return converter;
+    }
+
     /**
      * Convertit une String vers le type cible.
+     * @throws ConversionException si la valeur est invalide
      */
     public static Object convert(String value, Class<?> type) {
         if (value == null) return null;
-        if (type == String.class) return value;
-        if (type == int.class || type == Integer.class) return Integer.parseInt(value);
-        if (type == long.class || type == Long.class) return Long.parseLong(value);
-        if (type == boolean.class || type == Boolean.class) return Boolean.parseBoolean(value);
-        if (type == double.class || type == Double.class) return Double.parseDouble(value);
-        if (type == float.class || type == Float.class) return Float.parseFloat(value);
-        if (type == short.class || type == Short.class) return Short.parseShort(value);
-        if (type == byte.class || type == Byte.class) return Byte.parseByte(value);
-        return value; // fallback
+        Converter<?> converter = converterFor(type);
+        if (converter == null) {
+            throw new IllegalArgumentException("Aucun convertisseur pour " + type.getName());
+        }
+        return converter.convert(value);
     }
 
     /**
-     * Vérifie si un type est un type simple (primitif ou wrapper).
+     * Vérifie si un type se convertit depuis un texte (type simple, enum,
+     * date, convertisseur de l'application...).
      */
     public static boolean isSimpleType(Class<?> type) {
-        return type == String.class
-                || type == int.class || type == Integer.class
-                || type == long.class || type == Long.class
-                || type == boolean.class || type == Boolean.class
-                || type == double.class || type == Double.class
-                || type == float.class || type == Float.class
-                || type == short.class || type == Short.class
-                || type == byte.class || type == Byte.class;
+        return converterFor(type) != null;
+    }
+
+    // === Lecture des nombres sur une portion de texte ===
+
+    public static int parseInt(CharSequence text, int start, int end) {
+        try {
+            return Integer.parseInt(text, start, end, 10);
+        } catch (NumberFormatException e) {
+            throw new ConversionException(Integer.class, text.subSequence(start, end), e);
+        }
+    }
+
+    public static long parseLong(CharSequence text, int start, int end) {
+        try {
+            return Long.parseLong(text, start, end, 10);
+        } catch (NumberFormatException e) {
+            throw new ConversionException(Long.class, text.subSequence(start, end), e);
+        }
+    }
+
+    private static int parseRange(CharSequence text, int start, int end, Class<?> type, int min, int max) {
+        int value;
+        try {
+            value = Integer.parseInt(text, start, end, 10);
+        } catch (NumberFormatException e) {
+            throw new ConversionException(type, text.subSequence(start, end), e);
+        }
+        if (value < min || value > max) throw new ConversionException(type, text.subSequence(start, end));
+        return value;
+    }
+
+    /**
+     * Décimal : lecture directe des écritures simples ("-12.50"), exacte tant
+     * que la mantisse tient sur 15 chiffres ; sinon Double.parseDouble.
+     */
+    public static double parseDouble(CharSequence text, int start, int end) {
+        long mantissa = readMantissa(text, start, end, 15, POW10.length - 1);
+        if (mantissa >= 0) {
+            double value = (mantissa >>> 5) / POW10[(int) (mantissa & 31)];
+            return text.charAt(start) == '-' ? -value : value;
+        }
+        String s = text.subSequence(start, end).toString();
+        try {
+            return Double.parseDouble(s);
+        } catch (NumberFormatException e) {
+            throw new ConversionException(Double.class, s, e);
+        }
+    }
+
+    public static float parseFloat(CharSequence text, int start, int end) {
+        long mantissa = readMantissa(text, start, end, 7, FLOAT_POW10.length - 1);
+        if (mantissa >= 0) {
+            float value = (mantissa >>> 5) / FLOAT_POW10[(int) (mantissa & 31)];
+            return text.charAt(start) == '-' ? -value : value;
+        }
+        String s = text.subSequence(start, end).toString();
+        try {
+            return Float.parseFloat(s);
+        } catch (NumberFormatException e) {
+            throw new ConversionException(Float.class, s, e);
+        }
+    }
+
+    /**
+     * Lit "[signe]chiffres[.chiffres]" : renvoie (mantisse << 5) | nombre de décimales,
+     * ou -1 si l'écriture sort du cas simple (exposant, trop de chiffres, texte invalide).
+     */
+    private static long readMantissa(CharSequence text, int start, int end, int maxDigits, int maxScale) {
+        int i = start;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) i++;
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean dot = false;
+        boolean seen = false;
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                seen = true;
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0 && ++digits > maxDigits) return -1;
+                if (dot && ++scale > maxScale) return -1;
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                return -1;
+            }
+        }
+        return seen ? (mantissa << 5) | scale : -1;
+    }
+
+    /**
+     * "true" et "on" (case à cocher HTML), sans tenir compte de la casse, sont vrais.
+     */
+    private static boolean parseBoolean(CharSequence text, int start, int end) {
+        return regionEqualsIgnoreCase(text, start, end, "true") || regionEqualsIgnoreCase(text, start, end, "on");
+    }
+
+    static boolean regionEquals(CharSequence text, int start, int end, String value) {
+        if (end - start != value.length()) return false;
+        for (int i = 0; i < value.length(); i++) {
+            if (text.charAt(start + i) != value.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    static boolean regionEqualsIgnoreCase(CharSequence text, int start, int end, String value) {
+        if (end - start != value.length()) return false;
+        for (int i = 0; i < value.length(); i++) {
+            char a = text.charAt(start + i);
+            char b = value.charAt(i);
+            if (a != b && Character.toUpperCase(a) != Character.toUpperCase(b)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Type T d'une classe qui implémente Converter&lt;T&gt; (directement ou par héritage).
+     */
+    private static Class<?> targetType(Class<?> cls) {
+        for (Class<?> c = cls; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Type itf : c.getGenericInterfaces()) {
+                if (itf instanceof ParameterizedType && ((ParameterizedType) itf).getRawType() == Converter.class) {
+                    Type arg = ((ParameterizedType) itf).getActualTypeArguments()[0];
+                    if (arg instanceof Class) return (Class<?>) arg;
+                    if (arg instanceof ParameterizedType) return (Class<?>) ((ParameterizedType) arg).getRawType();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Constante d'enum par son nom (casse exacte, puis casse ignorée), sans sous-chaîne.
+     */
+    private static final class EnumConverter<E extends Enum<E>> implements Converter<E> {
+        private final Class<E> type;
+        private final E[] constants;
+
+        EnumConverter(Class<E> type) {
+            this.type = type;
+            this.constants = type.getEnumConstants();
+        }
+
+        @Override
+        public E convert(CharSequence text, int start, int end) {
+            for (E constant : constants) {
+                if (regionEquals(text, start, end, constant.name())) return constant;
+            }
+            for (E constant : constants) {
+                if (regionEqualsIgnoreCase(text, start, end, constant.name())) return constant;
+            }
+            throw new ConversionException(type, text.subSequence(start, end));
+        }
     }
 }
@@ -0,0 +1,202 @@
+package com.monframework.view;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Chemin de propriétés compilé ("commande.client.nom", "lignes.0").
+ *
+ * La racine est résolue à la lecture du gabarit : variable de boucle (case
+ * du Scope) ou donnée du ModelView. Chaque segment garde l'accesseur de la
+ * dernière classe rencontrée, si bien qu'un rendu ne fait ni réflexion ni
+ * recherche dans une table tant que le type des objets ne change pas.
+ */
+final class Expression {
+
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+
+    private final String text;
+    private final String root;
+    private final int slot; // -1 : donnée du modèle
+    private final Segment[] segments;
+    private final boolean negated;
+
+    Expression(String text, String root, int slot, String[] path, boolean negated) {
+        this.text = text;
+        this.root = root;
+        this.slot = slot;
+        this.segments = new Segment[path.length];
+        for (int i = 0; i < path.length; i++) {
+            segments[i] = new Segment(path[i]);
+        }
+        this.negated = negated;
+    }
+
+    Object evaluate(Scope scope) {
+        Object value = slot >= 0 ? scope.slots[slot] : scope.model.get(root);
+        for (Segment segment : segments) {
+            if (value == null) return null;
+            value = segment.get(value, this);
+        }
+        return value;
+    }
+
+    /**
+     * Condition d'un if : null, false, 0, "" et les collections vides sont faux.
+     */
+    boolean test(Scope scope) {
+        return truthy(evaluate(scope)) != negated;
+    }
+
+    private static boolean truthy(Object value) {
+        if (value == null) return false;
+        if (value instanceof Boolean) return (Boolean) value;
+        if (value instanceof Number) return ((Number) value).doubleValue() != 0;
+        if (value instanceof CharSequence) return ((CharSequence) value).length() > 0;
+        if (value instanceof Collection) return !((Collection<?>) value).isEmpty();
+        if (value instanceof Map) return !((Map<?, ?>) value).isEmpty();
+        if (value.getClass().isArray()) return Array.getLength(value) > 0;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    /**
+     * Un segment du chemin : clé de Map, indice de liste ou propriété d'objet.
+     */
+    private static final class Segment {
+        private final String name;
+        private final int index; // -1 si le segment n'est pas un nombre
+        private volatile Accessor cached;
+
+        Segment(String name) {
+            this.name = name;
+            this.index = Character.isDigit(name.charAt(0)) ? Integer.parseInt(name) : -1;
+        }
+
+        Object get(Object target, Expression owner) {
+            if (target instanceof Map) return ((Map<?, ?>) target).get(name);
+            if (index >= 0) {
+                if (target instanceof List) {
+                    List<?> list = (List<?>) target;
+                    return index < list.size() ? list.get(index) : null;
+                }
+                if (target.getClass().isArray()) {
+                    return index < Array.getLength(target) ? Array.get(target, index) : null;
+                }
+            }
+            Accessor accessor = cached;
+            if (accessor == null || accessor.type != target.getClass()) {
+                accessor = Accessor.of(target.getClass(), name);
+                cached = accessor;
+            }
+            try {
+                return accessor.handle != null ? (Object) accessor.handle.invokeExact(target) : null;
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new TemplateException("Lecture de '" + owner + "' impossible : " + e, e);
+            }
+        }
+    }
+
+    /**
+     * Lecture d'une propriété sur une classe : getX(), isX(), x() (record) ou champ x.
+     */
+    private static final class Accessor {
+
+        private static final ClassValue<Map<String, Accessor>> BY_CLASS = new ClassValue<Map<String, Accessor>>() {
+            @Override
+            protected Map<String, Accessor> computeValue(Class<?> type) {
+                return new ConcurrentHashMap<>();
+            }
+        };
+
+        final Class<?> type;
+        final MethodHandle handle; // null : propriété absente, lue comme null
+
+        private Accessor(Class<?> type, MethodHandle handle) {
+            this.type = type;
+            this.handle = handle;
+        }
+
+        static Accessor of(Class<?> type, String name) {
+            return BY_CLASS.get(type).computeIfAbsent(name, n -> new Accessor(type, resolve(type, n)));
+        }
+
+        private static MethodHandle resolve(Class<?> type, String name) {
+            String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            String[] candidates = { "get" + suffix, "is" + suffix, name };
+            for (int i = 0; i < candidates.length; i++) {
+                try {
+                    Method m = type.getMethod(candidates[i]);
+                    if (m.getReturnType() == void.class || Modifier.isStatic(m.getModifiers())) continue;
+                    if (i == 1 && m.getReturnType() != boolean.class) continue;
+                    MethodHandle h = unreflect(type, m);
+                    if (h != null) return h.asType(GETTER);
+                } catch (NoSuchMethodException e) {
+                    // candidat suivant
+                }
+            }
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                try {
+                    Field f = c.getDeclaredField(name);
+                    if (Modifier.isStatic(f.getModifiers())) break;
+                    return MethodHandles.privateLookupIn(c, MethodHandles.lookup()).unreflectGetter(f).asType(GETTER);
+                } catch (NoSuchFieldException e) {
+                    // classe parente
+                } catch (IllegalAccessException | RuntimeException e) {
+                    break;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Méthode publique, au besoin prise sur une interface ou une classe parente
+         * publique (ex : size() d'une liste du JDK dont la classe est cachée).
+         */
+        private static MethodHandle unreflect(Class<?> type, Method m) {
+            try {
+                if (Modifier.isPublic(m.getDeclaringClass().getModifiers())) {
+                    return MethodHandles.publicLookup().unreflect(m);
+                }
+                return MethodHandles.privateLookupIn(m.getDeclaringClass(), MethodHandles.lookup()).unreflect(m);
+            } catch (IllegalAccessException | RuntimeException e) {
+                // classe non ouverte : on cherche la même méthode sur un type public
+            }
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Class<?> i : c.getInterfaces()) {
+                    MethodHandle h = publicMethod(i, m);
+                    if (h != null) return h;
+                }
+                if (c != type) {
+                    MethodHandle h = publicMethod(c, m);
+                    if (h != null) return h;
+                }
+            }
+            return null;
+        }
+
+        private static MethodHandle publicMethod(Class<?> c, Method m) {
+            if (!Modifier.isPublic(c.getModifiers())) return null;
+            try {
+                return MethodHandles.publicLookup().unreflect(c.getMethod(m.getName()));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.monframework.view;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Élément de l'arbre d'un gabarit compilé.
+ */
+abstract class Node {
+
+    /**
+     * Profondeur maximale d'inclusion (protège contre un gabarit qui s'inclut lui-même).
+     */
+    static final int MAX_DEPTH = 32;
+
+    abstract void render(Scope scope, TemplateWriter out) throws IOException;
+
+    static void renderAll(Node[] nodes, Scope scope, TemplateWriter out) throws IOException {
+        for (Node node : nodes) {
+            node.render(scope, out);
+        }
+    }
+
+    /**
+     * Texte du gabarit, encodé en UTF-8 une fois pour toutes.
+     */
+    static final class Text extends Node {
+        private final byte[] bytes;
+
+        Text(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        void render(Scope scope, TemplateWriter out) throws IOException {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * {{ expr }} (échappé) ou {{{ expr }}} (brut).
+     */
+    static final class Output extends Node {
+        private final Expression expression;
+        private final boolean escape;
+
+        Output(Expression expression, boolean escape) {
+            this.expression = expression;
+            this.escape = escape;
+        }
+
+        @Override
+        void render(Scope scope, TemplateWriter out) throws IOException {
+            out.value(expression.evaluate(scope), escape);
+        }
+    }
+
+    /**
+     * {% if %} / {% elif %} / {% else %} / {% endif %}.
+     */
+    static final class If extends Node {
+        private final Expression[] conditions;
+        private final Node[][] branches;
+        private final Node[] otherwise;
+
+        If(Expression[] conditions, Node[][] branches, Node[] otherwise) {
+            this.conditions = conditions;
+            this.branches = branches;
+            this.otherwise = otherwise;
+        }
+
+        @Override
+        void render(Scope scope, TemplateWriter out) throws IOException {
+            for (int i = 0; i < conditions.length; i++) {
+                if (conditions[i].test(scope)) {
+                    renderAll(branches[i], scope, out);
+                    return;
+                }
+            }
+            renderAll(otherwise, scope, out);
+        }
+    }
+
+    /**
+     * {% for x in items %} / {% for x, i in items %}, avec {% else %} si la liste est vide.
+     * Parcourt les Iterable, tableaux et Map (entrées : x.key, x.value).
+     */
+    static final class For extends Node {
+        private final int slot;
+        private final int indexSlot; // -1 sans variable d'indice
+        private final Expression source;
+        private final Node[] body;
+        private final Node[] empty;
+
+        For(int slot, int indexSlot, Expression source, Node[] body, Node[] empty) {
+            this.slot = slot;
+            this.indexSlot = indexSlot;
+            this.source = source;
+            this.body = body;
+            this.empty = empty;
+        }
+
+        @Override
+        void render(Scope scope, TemplateWriter out) throws IOException {
+            Object items = source.evaluate(scope);
+            int count = 0;
+            if (items instanceof List && items instanceof RandomAccess) {
+                List<?> list = (List<?>) items;
+                for (int i = 0; i < list.size(); i++) {
+                    step(scope, out, list.get(i), count++);
+                }
+            } else if (items instanceof Iterable) {
+                for (Object item : (Iterable<?>) items) {
+                    step(scope, out, item, count++);
+                }
+            } else if (items instanceof Map) {
+                for (Object entry : ((Map<?, ?>) items).entrySet()) {
+                    step(scope, out, entry, count++);
+                }
+            } else if (items instanceof Object[]) {
+                for (Object item : (Object[]) items) {
+                    step(scope, out, item, count++);
+                }
+            } else if (items != null && items.getClass().isArray()) {
+                int length = Array.getLength(items);
+                for (int i = 0; i < length; i++) {
+                    step(scope, out, Array.get(items, i), count++);
+                }
+            } else if (items instanceof Iterator) {
+                Iterator<?> it = (Iterator<?>) items;
+                while (it.hasNext()) {
+                    step(scope, out, it.next(), count++);
+                }
+            } else if (items != null) {
+                throw new TemplateException("'" + source + "' n'est pas une liste : " + items.getClass().getName());
+            }
+            scope.slots[slot] = null;
+            if (indexSlot >= 0) scope.slots[indexSlot] = null;
+            if (count == 0) renderAll(empty, scope, out);
+        }
+
+        private void step(Scope scope, TemplateWriter out, Object item, int index) throws IOException {
+            scope.slots[slot] = item;
+            if (indexSlot >= 0) scope.slots[indexSlot] = index;
+            renderAll(body, scope, out);
+        }
+    }
+
+    /**
+     * {% include "nom.tpl" %} : le gabarit inclus voit le modèle et les variables
+     * de boucle visibles à cet endroit.
+     */
+    static final class Include extends Node {
+        private final String name;
+        private final String[] names;
+        private final int[] slots;
+
+        Include(String name, String[] names, int[] slots) {
+            this.name = name;
+            this.names = names;
+            this.slots = slots;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        @Override
+        void render(Scope scope, TemplateWriter out) throws IOException {
+            if (scope.depth >= MAX_DEPTH) {
+                throw new TemplateException("Inclusions trop profondes (" + MAX_DEPTH + ") : " + name);
+            }
+            Template template = TemplateEngine.get(name);
+            Map<String, ?> model = names.length == 0 ? scope.model : new Layered(scope, names, slots);
+            template.render(model, out, scope.depth + 1);
+        }
+    }
+
+    /**
+     * Modèle vu par un gabarit inclus dans une boucle : les variables de boucle
+     * masquent les données du même nom.
+     */
+    private static final class Layered extends AbstractMap<String, Object> {
+        private final Map<String, ?> parent;
+        private final String[] names;
+        private final Object[] values;
+
+        Layered(Scope scope, String[] names, int[] slots) {
+            this.parent = scope.model;
+            this.names = names;
+            this.values = new Object[slots.length];
+            for (int i = 0; i < slots.length; i++) {
+                values[i] = scope.slots[slots[i]];
+            }
+        }
+
+        @Override
+        public Object get(Object key) {
+            // La variable la plus intérieure l'emporte
+            for (int i = names.length - 1; i >= 0; i--) {
+                if (names[i].equals(key)) return values[i];
+            }
+            return parent.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            for (String n : names) {
+                if (n.equals(key)) return true;
+            }
+            return parent.containsKey(key);
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            Map<String, Object> copy = new HashMap<>(parent);
+            for (int i = 0; i < names.length; i++) {
+                copy.put(names[i], values[i]);
+            }
+            return copy.entrySet();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.monframework.view;
+
+import java.util.Map;
+
+/**
+ * État d'un rendu : données du modèle et cases des variables de boucle
+ * (numérotées à la lecture du gabarit).
+ */
+final class Scope {
+    final Map<String, ?> model;
+    final Object[] slots;
+    final int depth; // niveau d'inclusion
+
+    Scope(Map<String, ?> model, int slots, int depth) {
+        this.model = model;
+        this.slots = new Object[slots];
+        this.depth = depth;
+    }
+}
@@ -0,0 +1,67 @@
+package com.monframework.view;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gabarit compilé : arbre de morceaux de texte déjà encodés et d'expressions,
+ * rendu directement en UTF-8 dans un OutputStream.
+ *
+ * Syntaxe :
+ * <pre>
+ * {{ client.nom }}              valeur échappée pour le HTML
+ * {{{ article.html }}}          valeur brute
+ * {% if commande.payee %}...{% elif not stock %}...{% else %}...{% endif %}
+ * {% for ligne, i in commande.lignes %}...{% else %}aucune ligne{% endfor %}
+ * {% include "entete.tpl" %}
+ * {# commentaire #}
+ * </pre>
+ */
+public final class Template {
+
+    private final String name;
+    private final Node[] nodes;
+    private final int slots;
+    private final List<String> includes;
+
+    Template(String name, Node[] nodes, int slots, List<String> includes) {
+        this.name = name;
+        this.nodes = nodes;
+        this.slots = slots;
+        this.includes = includes;
+    }
+
+    /**
+     * Compile un gabarit.
+     * @throws TemplateException si la syntaxe est invalide (avec le numéro de ligne)
+     */
+    public static Template parse(String name, String source) {
+        return new TemplateParser(name, source).parse();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gabarits inclus directement par celui-ci.
+     */
+    public List<String> getIncludes() {
+        return includes;
+    }
+
+    /**
+     * Rendu du gabarit avec ces données (le flux n'est pas fermé).
+     */
+    public void render(Map<String, ?> model, OutputStream out) throws IOException {
+        try (TemplateWriter writer = new TemplateWriter(out)) {
+            render(model, writer, 0);
+        }
+    }
+
+    void render(Map<String, ?> model, TemplateWriter out, int depth) throws IOException {
+        Node.renderAll(nodes, new Scope(model, slots, depth), out);
+    }
+}
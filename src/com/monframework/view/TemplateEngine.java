@@ -0,0 +1,141 @@
+package com.monframework.view;
+
+import jakarta.servlet.ServletContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gabarits ".tpl" des ModelView, compilés au démarrage depuis le dossier
+ * "view.templates" (par défaut /WEB-INF/templates). Les autres vues (.jsp)
+ * restent transmises au conteneur.
+ *
+ * En mode développement ("view.devMode"), un gabarit modifié sur le disque
+ * est recompilé à sa prochaine utilisation.
+ */
+public final class TemplateEngine {
+
+    public static final String EXTENSION = ".tpl";
+    public static final String DEFAULT_DIRECTORY = "/WEB-INF/templates";
+
+    private static final Map<String, Compiled> TEMPLATES = new ConcurrentHashMap<>();
+
+    private static volatile ServletContext servletContext;
+    private static volatile String directory = DEFAULT_DIRECTORY;
+    private static volatile boolean devMode;
+
+    private TemplateEngine() {}
+
+    /**
+     * Compile tous les gabarits du dossier.
+     * @throws TemplateException au premier gabarit invalide
+     */
+    public static void configure(ServletContext context, String dir, boolean dev) throws IOException {
+        servletContext = context;
+        directory = dir.endsWith("/") ? dir.substring(0, dir.length() - 1) : dir;
+        devMode = dev;
+        TEMPLATES.clear();
+
+        loadTree(directory);
+        if (TEMPLATES.isEmpty()) return;
+
+        // Inclusions vers des gabarits absents : signalées dès le démarrage
+        for (Compiled compiled : TEMPLATES.values()) {
+            for (String include : compiled.template.getIncludes()) {
+                if (!TEMPLATES.containsKey(include)) {
+                    System.out.println("[ATTENTION] " + compiled.template.getName() + " inclut un gabarit absent : " + include);
+                }
+            }
+        }
+        System.out.println("Gabarits compilés : " + TEMPLATES.size() + " (" + directory + ")"
+                + (dev ? ", rechargés à chaque modification" : ""));
+    }
+
+    /**
+     * Vrai si la vue est rendue par ce moteur plutôt que par le conteneur.
+     */
+    public static boolean handles(String view) {
+        return view != null && view.endsWith(EXTENSION);
+    }
+
+    /**
+     * Gabarit compilé de ce nom (relatif au dossier des gabarits).
+     * @throws TemplateException s'il est introuvable ou invalide
+     */
+    public static Template get(String name) throws IOException {
+        Compiled compiled = TEMPLATES.get(name);
+        if (compiled != null && !(devMode && compiled.isStale())) {
+            return compiled.template;
+        }
+        // Gabarit ajouté depuis le démarrage, ou modifié en mode développement
+        compiled = load(name);
+        TEMPLATES.put(name, compiled);
+        return compiled.template;
+    }
+
+    /**
+     * Rendu de la vue dans le flux (qui n'est pas fermé).
+     */
+    public static void render(String view, Map<String, ?> model, OutputStream out) throws IOException {
+        get(view).render(model, out);
+    }
+
+    private static void loadTree(String dir) throws IOException {
+        Set<String> paths = servletContext.getResourcePaths(dir + "/");
+        if (paths == null) return;
+        for (String path : paths) {
+            if (path.endsWith("/")) {
+                loadTree(path.substring(0, path.length() - 1));
+            } else if (path.endsWith(EXTENSION)) {
+                String name = path.substring(directory.length() + 1);
+                TEMPLATES.put(name, load(name));
+            }
+        }
+    }
+
+    private static Compiled load(String name) throws IOException {
+        String path = directory + "/" + name;
+        long modified = lastModified(path);
+        try (InputStream in = servletContext.getResourceAsStream(path)) {
+            if (in == null) throw new TemplateException("Gabarit introuvable : " + path);
+            String source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            return new Compiled(Template.parse(name, source), path, modified);
+        }
+    }
+
+    private static long lastModified(String path) {
+        String real = servletContext.getRealPath(path);
+        if (real == null) return -1;
+        try {
+            return Files.getLastModifiedTime(Paths.get(real)).toMillis();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Gabarit compilé et date du fichier lu.
+     */
+    private static final class Compiled {
+        final Template template;
+        final String path;
+        final long modified;
+
+        Compiled(Template template, String path, long modified) {
+            this.template = template;
+            this.path = path;
+            this.modified = modified;
+        }
+
+        boolean isStale() {
+            return modified >= 0 && lastModified(path) != modified;
+        }
+    }
+}
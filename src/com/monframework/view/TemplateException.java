@@ -0,0 +1,15 @@
+package com.monframework.view;
+
+/**
+ * Erreur de lecture ou de rendu d'un gabarit.
+ */
+public class TemplateException extends RuntimeException {
+
+    public TemplateException(String message) {
+        super(message);
+    }
+
+    public TemplateException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
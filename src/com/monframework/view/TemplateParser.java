@@ -0,0 +1,217 @@
+package com.monframework.view;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Lecture d'un gabarit en arbre de {@link Node}.
+ *
+ * Les variables de boucle reçoivent une case du Scope selon leur profondeur :
+ * une expression qui les nomme est liée à cette case dès la lecture.
+ */
+final class TemplateParser {
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static final Pattern SEGMENT = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*|[0-9]+");
+    private static final Node[] NONE = new Node[0];
+
+    private final String name;
+    private final String src;
+    private int pos;
+
+    // Variables de boucle visibles, l'indice est la case du Scope
+    private final List<String> variables = new ArrayList<>();
+    private int maxSlots;
+    private final List<String> includes = new ArrayList<>();
+
+    // Dernière balise de fin de bloc lue ("else", "endif"...) et ses arguments
+    private String closingTag;
+    private String closingArgs;
+    private int closingAt;
+
+    TemplateParser(String name, String src) {
+        this.name = name;
+        this.src = src;
+    }
+
+    Template parse() {
+        Node[] nodes = parseBlock();
+        return new Template(name, nodes, maxSlots, Collections.unmodifiableList(includes));
+    }
+
+    /**
+     * Lit jusqu'à l'une des balises de fin (ou la fin du texte si aucune).
+     */
+    private Node[] parseBlock(String... terminators) {
+        List<Node> nodes = new ArrayList<>();
+        int blockStart = pos;
+        while (true) {
+            int open = src.indexOf('{', pos);
+            while (open >= 0 && open + 1 < src.length()
+                    && "{%#".indexOf(src.charAt(open + 1)) < 0) {
+                open = src.indexOf('{', open + 1);
+            }
+            if (open < 0 || open + 1 >= src.length()) {
+                text(nodes, src.length());
+                pos = src.length();
+                if (terminators.length > 0) {
+                    throw error(blockStart, "balise {% " + terminators[terminators.length - 1] + " %} manquante");
+                }
+                return nodes.toArray(NONE);
+            }
+            text(nodes, open);
+
+            char kind = src.charAt(open + 1);
+            if (kind == '#') {
+                pos = close(open, "#}");
+            } else if (kind == '{') {
+                boolean raw = src.startsWith("{{{", open);
+                String end = raw ? "}}}" : "}}";
+                int start = open + (raw ? 3 : 2);
+                pos = close(open, end);
+                String expr = src.substring(start, pos - end.length()).trim();
+                nodes.add(new Node.Output(expression(expr, open, false), !raw));
+            } else {
+                pos = close(open, "%}");
+                String tag = src.substring(open + 2, pos - 2).trim();
+                int space = indexOfSpace(tag);
+                String keyword = space < 0 ? tag : tag.substring(0, space);
+                String args = space < 0 ? "" : tag.substring(space + 1).trim();
+
+                if (Arrays.asList(terminators).contains(keyword)) {
+                    closingTag = keyword;
+                    closingArgs = args;
+                    closingAt = open;
+                    return nodes.toArray(NONE);
+                }
+                switch (keyword) {
+                    case "if":
+                        nodes.add(parseIf(args, open));
+                        break;
+                    case "for":
+                        nodes.add(parseFor(args, open));
+                        break;
+                    case "include":
+                        nodes.add(parseInclude(args, open));
+                        break;
+                    default:
+                        throw error(open, "balise inattendue {% " + tag + " %}");
+                }
+            }
+        }
+    }
+
+    private Node parseIf(String args, int at) {
+        List<Expression> conditions = new ArrayList<>();
+        List<Node[]> branches = new ArrayList<>();
+        conditions.add(expression(args, at, true));
+        Node[] otherwise = NONE;
+        while (true) {
+            branches.add(parseBlock("elif", "else", "endif"));
+            if (closingTag.equals("elif")) {
+                conditions.add(expression(closingArgs, closingAt, true));
+            } else if (closingTag.equals("else")) {
+                otherwise = parseBlock("endif");
+                break;
+            } else {
+                break;
+            }
+        }
+        return new Node.If(conditions.toArray(new Expression[0]), branches.toArray(new Node[0][]), otherwise);
+    }
+
+    private Node parseFor(String args, int at) {
+        // x in items / x, i in items
+        int in = args.indexOf(" in ");
+        if (in < 0) throw error(at, "syntaxe attendue : {% for x in liste %}");
+        String[] vars = args.substring(0, in).split(",");
+        if (vars.length > 2) throw error(at, "au plus deux variables : {% for x, i in liste %}");
+        Expression source = expression(args.substring(in + 4).trim(), at, false);
+
+        int mark = variables.size();
+        int slot = declare(vars[0].trim(), at);
+        int indexSlot = vars.length == 2 ? declare(vars[1].trim(), at) : -1;
+        Node[] body = parseBlock("else", "endfor");
+        while (variables.size() > mark) variables.remove(variables.size() - 1);
+
+        Node[] empty = NONE;
+        if (closingTag.equals("else")) {
+            empty = parseBlock("endfor");
+        }
+        return new Node.For(slot, indexSlot, source, body, empty);
+    }
+
+    private Node parseInclude(String args, int at) {
+        if (args.length() < 2 || (args.charAt(0) != '"' && args.charAt(0) != '\'')
+                || args.charAt(args.length() - 1) != args.charAt(0)) {
+            throw error(at, "syntaxe attendue : {% include \"nom.tpl\" %}");
+        }
+        String target = args.substring(1, args.length() - 1);
+        includes.add(target);
+        int[] slots = new int[variables.size()];
+        for (int i = 0; i < slots.length; i++) slots[i] = i;
+        return new Node.Include(target, variables.toArray(new String[0]), slots);
+    }
+
+    private int declare(String variable, int at) {
+        if (!IDENTIFIER.matcher(variable).matches()) throw error(at, "nom de variable invalide : " + variable);
+        variables.add(variable);
+        maxSlots = Math.max(maxSlots, variables.size());
+        return variables.size() - 1;
+    }
+
+    /**
+     * Chemin "a.b.0.c", précédé de "not" dans une condition.
+     */
+    private Expression expression(String text, int at, boolean condition) {
+        boolean negated = false;
+        String path = text;
+        if (condition && path.startsWith("not ")) {
+            negated = true;
+            path = path.substring(4).trim();
+        }
+        String[] parts = path.split("\\.", -1);
+        if (parts.length == 0 || !IDENTIFIER.matcher(parts[0]).matches()) {
+            throw error(at, "expression invalide : '" + text + "'");
+        }
+        for (int i = 1; i < parts.length; i++) {
+            if (!SEGMENT.matcher(parts[i]).matches()) throw error(at, "expression invalide : '" + text + "'");
+        }
+        int slot = variables.lastIndexOf(parts[0]);
+        return new Expression(text, parts[0], slot, Arrays.copyOfRange(parts, 1, parts.length), negated);
+    }
+
+    private void text(List<Node> nodes, int end) {
+        if (end > pos) {
+            nodes.add(new Node.Text(src.substring(pos, end).getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    /**
+     * Position qui suit la fermeture de la balise ouverte en "open".
+     */
+    private int close(int open, String end) {
+        int i = src.indexOf(end, open + 2);
+        if (i < 0) throw error(open, "balise non fermée (" + end + " attendu)");
+        return i + end.length();
+    }
+
+    private static int indexOfSpace(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (Character.isWhitespace(s.charAt(i))) return i;
+        }
+        return -1;
+    }
+
+    private TemplateException error(int at, String message) {
+        int line = 1;
+        for (int i = 0; i < at && i < src.length(); i++) {
+            if (src.charAt(i) == '\n') line++;
+        }
+        return new TemplateException(name + ":" + line + " : " + message);
+    }
+}
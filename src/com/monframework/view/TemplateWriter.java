@@ -0,0 +1,137 @@
+package com.monframework.view;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Écriture d'un rendu en UTF-8, avec échappement HTML optionnel, vers un OutputStream.
+ *
+ * Même principe que JsonWriter : tampon réutilisable pris dans un petit pool,
+ * {@link #close()} vide le tampon sans fermer le flux sous-jacent.
+ */
+final class TemplateWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final ArrayBlockingQueue<byte[]> POOL = new ArrayBlockingQueue<>(64);
+
+    /**
+     * Entités des caractères ASCII à échapper en HTML (null = recopié tel quel).
+     */
+    private static final byte[][] ENTITIES = new byte[128][];
+    static {
+        ENTITIES['&'] = "&amp;".getBytes();
+        ENTITIES['<'] = "&lt;".getBytes();
+        ENTITIES['>'] = "&gt;".getBytes();
+        ENTITIES['"'] = "&quot;".getBytes();
+        ENTITIES['\''] = "&#39;".getBytes();
+    }
+
+    private final OutputStream out;
+    private byte[] buf;
+    private int pos;
+
+    TemplateWriter(OutputStream out) {
+        this.out = out;
+        byte[] pooled = POOL.poll();
+        this.buf = pooled != null ? pooled : new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Octets déjà encodés (texte du gabarit).
+     */
+    void write(byte[] b) throws IOException {
+        if (b.length > buf.length - pos) {
+            flushBuffer();
+            if (b.length > buf.length) {
+                out.write(b);
+                return;
+            }
+        }
+        System.arraycopy(b, 0, buf, pos, b.length);
+        pos += b.length;
+    }
+
+    /**
+     * Valeur écrite telle quelle ({{{ }}}) ou échappée ({{ }}).
+     */
+    void value(Object value, boolean escape) throws IOException {
+        if (value == null) return;
+        writeChars(value.toString(), escape);
+    }
+
+    /**
+     * Encode une chaîne en UTF-8. Les suites ASCII sans échappement sont recopiées d'un bloc.
+     */
+    @SuppressWarnings("deprecation")
+    private void writeChars(String s, boolean escape) throws IOException {
+        int len = s.length();
+        int i = 0;
+        while (i < len) {
+            if (pos == buf.length) flushBuffer();
+
+            int runStart = i;
+            int limit = Math.min(len, i + (buf.length - pos));
+            while (i < limit) {
+                char c = s.charAt(i);
+                if (c >= 128 || (escape && ENTITIES[c] != null)) break;
+                i++;
+            }
+            if (i > runStart) {
+                s.getBytes(runStart, i, buf, pos);
+                pos += i - runStart;
+                continue;
+            }
+
+            char c = s.charAt(i++);
+            if (c < 128) {
+                write(ENTITIES[c]);
+            } else if (c < 0x800) {
+                ensure(2);
+                buf[pos++] = (byte) (0xC0 | (c >> 6));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i < len && Character.isLowSurrogate(s.charAt(i))) {
+                int cp = Character.toCodePoint(c, s.charAt(i++));
+                ensure(4);
+                buf[pos++] = (byte) (0xF0 | (cp >> 18));
+                buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                ensure(1);
+                buf[pos++] = '?'; // surrogate isolé
+            } else {
+                ensure(3);
+                buf[pos++] = (byte) (0xE0 | (c >> 12));
+                buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * Vide le tampon et le rend au pool (le flux sous-jacent reste ouvert).
+     */
+    @Override
+    public void close() throws IOException {
+        if (buf == null) return;
+        try {
+            flushBuffer();
+        } finally {
+            POOL.offer(buf);
+            buf = null;
+        }
+    }
+
+    private void ensure(int n) throws IOException {
+        if (buf.length - pos < n) flushBuffer();
+    }
+
+    private void flushBuffer() throws IOException {
+        if (pos > 0) {
+            out.write(buf, 0, pos);
+            pos = 0;
+        }
+    }
+}